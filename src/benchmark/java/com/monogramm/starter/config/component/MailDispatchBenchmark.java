@@ -0,0 +1,140 @@
+/*
+ * Creation by madmath03 the 2018-02-06.
+ */
+
+package com.monogramm.starter.config.component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+/**
+ * Compare the throughput of mails sent one connection per mail against mails sent in batches
+ * through a single connection, as done by {@link MailOutboxDispatcher}.
+ * 
+ * <p>
+ * The mails are sent to a {@link SmtpStandIn} with an optional delay per mail simulating the
+ * latency of a real mail server.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MailDispatchBenchmark {
+
+  @Param({"1", "10", "50"})
+  private int batchSize;
+
+  @Param({"0", "2"})
+  private long delayMillis;
+
+  private SmtpStandIn smtp;
+
+  private JavaMailSenderImpl mailSender;
+
+  private SimpleMailMessage[] messages;
+
+  /**
+   * Start the mail server and build the mails to send.
+   * 
+   * @throws IOException if the mail server cannot be started.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    this.smtp = new SmtpStandIn();
+    this.smtp.setDelayMillis(delayMillis);
+
+    this.mailSender = new JavaMailSenderImpl();
+    this.mailSender.setHost("localhost");
+    this.mailSender.setPort(smtp.getPort());
+    this.mailSender.setProtocol("smtp");
+
+    this.messages = new SimpleMailMessage[batchSize];
+    for (int i = 0; i < batchSize; i++) {
+      final SimpleMailMessage message = new SimpleMailMessage();
+      message.setFrom("no_reply@dummy.com");
+      message.setTo("user" + i + "@dummy.com");
+      message.setSubject("Registration Confirmation");
+      message.setText("Please confirm your registration with the following code: " + i);
+      messages[i] = message;
+    }
+  }
+
+  /**
+   * Forget the mails received so far.
+   */
+  @Setup(Level.Iteration)
+  public void reset() {
+    this.smtp.reset();
+  }
+
+  /**
+   * Stop the mail server.
+   * 
+   * @throws IOException if the mail server cannot be stopped.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    this.smtp.close();
+  }
+
+  /**
+   * Send each mail through its own connection.
+   * 
+   * @return the number of mails sent.
+   */
+  @Benchmark
+  public int sendOneByOne() {
+    for (final SimpleMailMessage message : messages) {
+      mailSender.send(message);
+    }
+    return messages.length;
+  }
+
+  /**
+   * Send all the mails through a single connection.
+   * 
+   * @return the number of mails sent.
+   */
+  @Benchmark
+  public int sendBatch() {
+    mailSender.send(messages);
+    return messages.length;
+  }
+
+  /**
+   * Run the benchmark.
+   * 
+   * @param args the command line arguments. Not used.
+   * 
+   * @throws RunnerException if the benchmark fails.
+   */
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(MailDispatchBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Creation by madmath03 the 2018-02-20.
+ */
+
+package com.monogramm.starter.config.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measure the conversion of a JSON OAuth token request body to request parameters by
+ * {@link JsonToUrlEncodedAuthenticationFilter}, streamed through a shared reader, against the
+ * former copy of the body parsed by a new object mapper.
+ * 
+ * <p>
+ * Run with the GC profiler: the {@code gc.alloc.rate.norm} metric gives the bytes allocated per
+ * request.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonToUrlEncodedAuthenticationFilterBenchmark {
+
+  private static final byte[] BODY = ("{\"grant_type\":\"password\",\"client_id\":\"clientWebApp\","
+      + "\"username\":\"admin@example.com\",\"password\":\"correct horse battery staple\","
+      + "\"scope\":\"read write\"}").getBytes(StandardCharsets.UTF_8);
+
+  private final JsonToUrlEncodedAuthenticationFilter filter =
+      new JsonToUrlEncodedAuthenticationFilter();
+
+  /**
+   * The former conversion: copy the body, parse it with a new object mapper and convert the map.
+   * 
+   * @param is the JSON input stream.
+   * 
+   * @return the parameters.
+   * 
+   * @throws IOException if the input is not valid JSON.
+   */
+  private static Map<String, String[]> copyAndConvert(final InputStream is) throws IOException {
+    final byte[] json;
+    try (ByteArrayOutputStream buffer = new ByteArrayOutputStream()) {
+      int read;
+      final byte[] data = new byte[16384];
+
+      while ((read = is.read(data, 0, data.length)) != -1) {
+        buffer.write(data, 0, read);
+      }
+      json = buffer.toByteArray();
+    }
+
+    final Map<?, ?> map = new ObjectMapper().readValue(json, HashMap.class);
+
+    final Map<String, String[]> parameters = new HashMap<>();
+    for (final Map.Entry<?, ?> entry : map.entrySet()) {
+      final String value;
+      if (entry.getValue() == null) {
+        value = null;
+      } else {
+        value = entry.getValue().toString();
+      }
+      parameters.put(entry.getKey().toString(), new String[] {value});
+    }
+
+    return parameters;
+  }
+
+  /**
+   * Convert the body the former way.
+   * 
+   * @return the parameters.
+   * 
+   * @throws IOException if the input is not valid JSON.
+   */
+  @Benchmark
+  public Map<String, String[]> copyAndConvert() throws IOException {
+    return copyAndConvert(new ByteArrayInputStream(BODY));
+  }
+
+  /**
+   * Stream the body through the shared reader.
+   * 
+   * @return the parameters.
+   * 
+   * @throws IOException if the input is not valid JSON.
+   */
+  @Benchmark
+  public Map<String, String[]> stream() throws IOException {
+    return filter.readParameters(new ByteArrayInputStream(BODY));
+  }
+
+  /**
+   * Run the benchmark.
+   * 
+   * @param args the command line arguments. Not used.
+   * 
+   * @throws RunnerException if the benchmark fails.
+   */
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(JsonToUrlEncodedAuthenticationFilterBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class).build()).run();
+  }
+
+}
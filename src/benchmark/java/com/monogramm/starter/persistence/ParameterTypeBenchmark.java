@@ -0,0 +1,181 @@
+/*
+ * Creation by madmath03 the 2018-02-18.
+ */
+
+package com.monogramm.starter.persistence;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measure the write and read of parameter values for each kind of {@link ParameterType}, as well
+ * as the type lookup through a {@link ClassValue} against the former scan of all the types.
+ * 
+ * @author madmath03
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParameterTypeBenchmark {
+
+  @Param({"STRING", "INTEGER", "DATE_TIME", "DURATION", "ANY"})
+  private String kind;
+
+  private Object object;
+
+  private ParameterType type;
+
+  private String value;
+
+  private byte[] bytes;
+
+  /**
+   * Build the value written and read.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    switch (kind) {
+      case "INTEGER":
+        this.object = 42;
+        break;
+      case "DATE_TIME":
+        this.object = LocalDateTime.of(2018, 2, 18, 12, 30, 15);
+        break;
+      case "DURATION":
+        this.object = Duration.ofMinutes(90L);
+        break;
+      case "ANY":
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", true);
+        map.put("ratio", 0.25D);
+        map.put("groups", Arrays.asList("beta", "staff"));
+        this.object = map;
+        break;
+      default:
+        this.object = "The quick brown fox";
+        break;
+    }
+
+    this.type = ParameterType.typeOf(object);
+    this.value = type.write(object);
+    this.bytes = type.encode(object);
+  }
+
+  /**
+   * The former type lookup, scanning all the types.
+   * 
+   * @param object object for which to find the most appropriate type.
+   * 
+   * @return the most appropriate type.
+   */
+  private static ParameterType scanTypes(final Object object) {
+    ParameterType found = ParameterType.ANY;
+
+    if (object != null) {
+      for (ParameterType t : ParameterType.values()) {
+        if (t.getTypeClass().isInstance(object)) {
+          found = t;
+          break;
+        }
+      }
+    }
+
+    return found;
+  }
+
+  /**
+   * Look up the type by scanning all the types.
+   * 
+   * @return the type of the value.
+   */
+  @Benchmark
+  public ParameterType typeOfScan() {
+    return scanTypes(object);
+  }
+
+  /**
+   * Look up the type through the class value.
+   * 
+   * @return the type of the value.
+   */
+  @Benchmark
+  public ParameterType typeOf() {
+    return ParameterType.typeOf(object);
+  }
+
+  /**
+   * Write the value as a string.
+   * 
+   * @return the value as a string.
+   */
+  @Benchmark
+  public String write() {
+    return ParameterType.typeOf(object).write(object);
+  }
+
+  /**
+   * Read the value from a string.
+   * 
+   * @return the value read.
+   */
+  @Benchmark
+  public Object read() {
+    return type.read(value);
+  }
+
+  /**
+   * Encode the value in binary.
+   * 
+   * @return the value as bytes.
+   */
+  @Benchmark
+  public byte[] encode() {
+    return type.encode(object);
+  }
+
+  /**
+   * Decode the value from binary.
+   * 
+   * @return the value decoded.
+   */
+  @Benchmark
+  public Object decode() {
+    return type.decode(bytes);
+  }
+
+  /**
+   * Run the benchmark.
+   * 
+   * @param args the command line arguments. Not used.
+   * 
+   * @throws RunnerException if the benchmark fails.
+   */
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ParameterTypeBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+
+}
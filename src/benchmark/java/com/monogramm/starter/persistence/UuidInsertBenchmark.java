@@ -0,0 +1,174 @@
+/*
+ * Creation by madmath03 the 2018-02-21.
+ */
+
+package com.monogramm.starter.persistence;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the insert throughput into a table with a {@code BINARY(16)} primary key of random
+ * (version 4) UUIDs against the time-ordered UUIDs of {@link TimeOrderedUuidGenerator}.
+ * 
+ * <p>
+ * The table is filled with {@code initialRows} rows before measuring batches of inserts, each
+ * committed in its own transaction. An in-memory H2 database is used by default; the benchmark is
+ * run against MySQL with
+ * {@code -p url=jdbc:mysql://localhost/starter_benchmark -p user=... -p password=...}.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UuidInsertBenchmark {
+
+  private static final int BATCH_SIZE = 1_000;
+
+  private static final String TABLE = "uuid_insert_benchmark";
+
+  @Param({"random", "timeOrdered"})
+  private String generator;
+
+  @Param({"100000", "1000000"})
+  private int initialRows;
+
+  @Param({"jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1"})
+  private String url;
+
+  @Param({"sa"})
+  private String user;
+
+  @Param({""})
+  private String password;
+
+  private Connection connection;
+
+  private PreparedStatement insert;
+
+  /**
+   * Create the table and fill it with its initial rows.
+   * 
+   * @throws SQLException if the table cannot be created or filled.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    this.connection = DriverManager.getConnection(url, user, password);
+    this.connection.setAutoCommit(false);
+
+    try (final Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS " + TABLE);
+      statement.execute("CREATE TABLE " + TABLE + " (id BINARY(16) NOT NULL PRIMARY KEY, "
+          + "created_at TIMESTAMP NOT NULL, name VARCHAR(255) NOT NULL)");
+    }
+    connection.commit();
+
+    this.insert = connection
+        .prepareStatement("INSERT INTO " + TABLE + " (id, created_at, name) VALUES (?, ?, ?)");
+
+    for (int i = 0; i < initialRows; i += BATCH_SIZE) {
+      this.insertBatch();
+    }
+  }
+
+  /**
+   * Drop the table.
+   * 
+   * @throws SQLException if the table cannot be dropped.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    insert.close();
+    try (final Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE " + TABLE);
+    }
+    connection.commit();
+    connection.close();
+  }
+
+  private UUID nextId() {
+    final UUID id;
+    if ("timeOrdered".equals(generator)) {
+      id = TimeOrderedUuidGenerator.generate();
+    } else {
+      id = UUID.randomUUID();
+    }
+    return id;
+  }
+
+  private static byte[] toBytes(final UUID id) {
+    return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits())
+        .putLong(id.getLeastSignificantBits()).array();
+  }
+
+  private int insertBatch() throws SQLException {
+    final Timestamp now = new Timestamp(System.currentTimeMillis());
+
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      insert.setBytes(1, toBytes(this.nextId()));
+      insert.setTimestamp(2, now);
+      insert.setString(3, "Row " + i);
+      insert.addBatch();
+    }
+    insert.executeBatch();
+    connection.commit();
+
+    return BATCH_SIZE;
+  }
+
+  /**
+   * Insert a batch of rows in a single transaction.
+   * 
+   * @return the number of rows inserted.
+   * 
+   * @throws SQLException if the rows cannot be inserted.
+   */
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public int insert() throws SQLException {
+    return this.insertBatch();
+  }
+
+  /**
+   * Run the benchmark.
+   * 
+   * @param args the command line arguments. Not used.
+   * 
+   * @throws RunnerException if the benchmark fails.
+   */
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(UuidInsertBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+
+}
@@ -4,6 +4,7 @@
 
 package com.monogramm.starter.api;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -26,8 +27,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -256,9 +257,9 @@ public abstract class AbstractControllerIT {
 
     assertTrue(userService.add(user));
     if (password != null) {
-      assertNotNull(userService.setPassword(user.getId(), password.clone()));
-      assertNotNull(userService.enable(user.getId()));
-      assertNotNull(userService.verify(user.getId()));
+      assertEquals(1, userService.setPassword(user.getId(), password.clone()));
+      assertEquals(1, userService.enable(user.getId()));
+      assertEquals(1, userService.verify(user.getId()));
     }
 
     return user;
@@ -287,7 +288,7 @@ public abstract class AbstractControllerIT {
         userService.deleteById(user.getId());
       }
     } catch (UserNotFoundException e) {
-      LOG.trace("User already deleted: " + user, e);
+      LOG.trace("User already deleted: {}", user, e);
     }
   }
 
@@ -302,7 +303,7 @@ public abstract class AbstractControllerIT {
         roleService.deleteById(role.getId());
       }
     } catch (RoleNotFoundException e) {
-      LOG.trace("Role already deleted: " + role, e);
+      LOG.trace("Role already deleted: {}", role, e);
     }
   }
 
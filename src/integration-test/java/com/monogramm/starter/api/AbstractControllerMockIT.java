@@ -8,6 +8,7 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
 
 import com.monogramm.starter.config.component.CustomTokenEnhancer;
@@ -16,10 +17,14 @@ import com.monogramm.starter.dto.oauth.OAuthResponse;
 
 import java.io.UnsupportedEncodingException;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.json.JacksonJsonParser;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.RequestPostProcessor;
 import org.springframework.util.LinkedMultiValueMap;
@@ -45,6 +50,9 @@ public class AbstractControllerMockIT extends AbstractControllerIT {
   @Autowired
   private WebApplicationContext webApplicationContext;
 
+  @PersistenceContext
+  private EntityManager entityManager;
+
 
 
   /**
@@ -135,6 +143,32 @@ public class AbstractControllerMockIT extends AbstractControllerIT {
     return jsonParser.parseMap(resultString).get("access_token").toString();
   }
 
+  /**
+   * Count the SQL queries run by a successful request.
+   * 
+   * <p>
+   * The persistence context is flushed and cleared first, so that every entity read by the request
+   * is queried.
+   * </p>
+   * 
+   * @see QueryCounter
+   * 
+   * @param requestBuilder the request to perform.
+   * 
+   * @return the number of SQL queries run by the request.
+   * 
+   * @throws Exception if the mock fails.
+   */
+  protected long countQueries(final RequestBuilder requestBuilder) throws Exception {
+    entityManager.flush();
+    entityManager.clear();
+
+    QueryCounter.reset();
+    mockMvc.perform(requestBuilder).andExpect(status().isOk());
+
+    return QueryCounter.count();
+  }
+
 
 
   /**
@@ -0,0 +1,50 @@
+/*
+ * Creation by madmath03 the 2018-02-14.
+ */
+
+package com.monogramm.starter.api;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate statement inspector counting the SQL statements prepared by the current thread.
+ * 
+ * <p>
+ * Registered through the {@code hibernate.session_factory.statement_inspector} property. Counting
+ * per thread keeps the statements of the scheduled jobs out of the count of a request.
+ * </p>
+ * 
+ * @author madmath03
+ */
+public class QueryCounter implements StatementInspector {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = -1553870432829381275L;
+
+  private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+  /**
+   * Reset the count of statements prepared by the current thread.
+   */
+  public static void reset() {
+    COUNT.get()[0] = 0;
+  }
+
+  /**
+   * Get the count of statements prepared by the current thread since the last {@link #reset()}.
+   * 
+   * @return the count of statements prepared by the current thread.
+   */
+  public static long count() {
+    return COUNT.get()[0];
+  }
+
+  @Override
+  public String inspect(final String sql) {
+    COUNT.get()[0]++;
+    return sql;
+  }
+
+}
@@ -22,8 +22,8 @@ import com.monogramm.starter.persistence.user.entity.User;
 import java.net.URISyntaxException;
 import java.util.Arrays;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -120,7 +120,7 @@ public class ParameterControllerFullIT extends AbstractControllerFullIT {
         parameterService.deleteById(testEntity.getId());
       }
     } catch (ParameterNotFoundException e) {
-      LOG.trace("Parameter already deleted: " + testEntity, e);
+      LOG.trace("Parameter already deleted: {}", testEntity, e);
     }
     testEntity = null;
     testDto = null;
@@ -16,11 +16,13 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.monogramm.Application;
 import com.monogramm.starter.api.AbstractControllerIT;
 import com.monogramm.starter.api.AbstractControllerMockIT;
+import com.monogramm.starter.api.parameter.listener.ParameterChangeBroadcaster;
 import com.monogramm.starter.config.data.GenericOperation;
 import com.monogramm.starter.config.data.InitialDataLoader;
 import com.monogramm.starter.dto.parameter.ParameterDto;
@@ -33,8 +35,8 @@ import java.util.UUID;
 
 import javax.transaction.Transactional;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -42,6 +44,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
@@ -93,6 +96,9 @@ public class ParameterControllerMockIT extends AbstractControllerMockIT {
   @Autowired
   private IParameterService parameterService;
 
+  @Autowired
+  private ParameterChangeBroadcaster broadcaster;
+
   private UUID randomId;
 
   private User testCreatedBy;
@@ -125,7 +131,7 @@ public class ParameterControllerMockIT extends AbstractControllerMockIT {
         parameterService.deleteById(testEntity.getId());
       }
     } catch (ParameterNotFoundException e) {
-      LOG.trace("Parameter already deleted: " + testEntity, e);
+      LOG.trace("Parameter already deleted: {}", testEntity, e);
     }
     testEntity = null;
 
@@ -184,6 +190,25 @@ public class ParameterControllerMockIT extends AbstractControllerMockIT {
         .andExpect(jsonPath("$", hasSize(expectedSize)));
   }
 
+  /**
+   * Test method for {@link ParameterController#getAllData()}.
+   * 
+   * @throws Exception if the test crashes.
+   */
+  @Test
+  public void testGetAllParametersQueryCount() throws Exception {
+    final HttpHeaders headers = getHeaders(getMockToken());
+    final long queries = countQueries(get(CONTROLLER_PATH).headers(headers));
+
+    // More parameters must not mean more queries
+    for (int i = 0; i < 3; i++) {
+      assertTrue(parameterService
+          .add(Parameter.builder(DUMMY_NAME + i, DUMMY_VALUE).owner(testOwner).build()));
+    }
+
+    assertEquals(queries, countQueries(get(CONTROLLER_PATH).headers(headers)));
+  }
+
   /**
    * Test method for
    * {@link ParameterController#addData(ParameterDto, org.springframework.web.util.UriComponentsBuilder)}.
@@ -277,4 +302,21 @@ public class ParameterControllerMockIT extends AbstractControllerMockIT {
         .andExpect(status().isNoContent());
   }
 
+  /**
+   * Test method for {@link ParameterController#streamEvents(String)}.
+   * 
+   * @throws Exception if the test crashes.
+   */
+  @Test
+  public void testStreamEvents() throws Exception {
+    final int subscriptions = broadcaster.getSubscriptionCount();
+
+    getMockMvc()
+        .perform(get(ParameterController.EVENTS_PATH).headers(getHeaders(getMockToken()))
+            .header("Last-Event-ID", "0").accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(status().isOk()).andExpect(request().asyncStarted());
+
+    assertEquals(subscriptions + 1, broadcaster.getSubscriptionCount());
+  }
+
 }
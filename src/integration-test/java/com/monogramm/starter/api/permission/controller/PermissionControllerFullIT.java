@@ -17,8 +17,8 @@ import com.monogramm.starter.persistence.user.entity.User;
 import java.net.URISyntaxException;
 import java.util.Arrays;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -110,7 +110,7 @@ public class PermissionControllerFullIT extends AbstractControllerFullIT {
         getPermissionService().deleteById(testEntity.getId());
       }
     } catch (PermissionNotFoundException e) {
-      LOG.trace("Permission already deleted: " + testEntity, e);
+      LOG.trace("Permission already deleted: {}", testEntity, e);
     }
     testEntity = null;
     testDto = null;
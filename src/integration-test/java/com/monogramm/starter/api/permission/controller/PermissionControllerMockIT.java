@@ -28,8 +28,8 @@ import java.util.UUID;
 
 import javax.transaction.Transactional;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -37,6 +37,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
@@ -116,7 +117,7 @@ public class PermissionControllerMockIT extends AbstractControllerMockIT {
         getPermissionService().deleteById(testEntity.getId());
       }
     } catch (PermissionNotFoundException e) {
-      LOG.trace("Permission already deleted: " + testEntity, e);
+      LOG.trace("Permission already deleted: {}", testEntity, e);
     }
     testEntity = null;
 
@@ -174,6 +175,29 @@ public class PermissionControllerMockIT extends AbstractControllerMockIT {
         .andExpect(jsonPath("$", hasSize(expectedSize)));
   }
 
+  /**
+   * Test method for {@link PermissionController#getAllData()}.
+   * 
+   * @throws Exception if the test crashes.
+   */
+  @Test
+  public void testGetAllPermissionsQueryCount() throws Exception {
+    final HttpHeaders headers = getHeaders(getMockToken());
+    final long queries = countQueries(get(CONTROLLER_PATH).headers(headers));
+
+    // More permissions, each granted to roles, must not mean more queries
+    final String[] names = new String[3];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = DISPLAYNAME + i;
+      assertTrue(getPermissionService().add(Permission.builder(names[i]).build()));
+    }
+    for (int i = 0; i < 3; i++) {
+      createRole(DISPLAYNAME + i, names);
+    }
+
+    assertEquals(queries, countQueries(get(CONTROLLER_PATH).headers(headers)));
+  }
+
   /**
    * Test method for
    * {@link PermissionController#addData(PermissionDto, org.springframework.web.util.UriComponentsBuilder)}.
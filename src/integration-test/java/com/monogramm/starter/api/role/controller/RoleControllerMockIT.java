@@ -20,10 +20,15 @@ import com.monogramm.starter.api.AbstractControllerMockIT;
 import com.monogramm.starter.config.data.GenericOperation;
 import com.monogramm.starter.config.data.InitialDataLoader;
 import com.monogramm.starter.dto.role.RoleDto;
+import com.monogramm.starter.dto.role.RolePermissionsDto;
+import com.monogramm.starter.persistence.permission.entity.Permission;
 import com.monogramm.starter.persistence.role.entity.Role;
 import com.monogramm.starter.persistence.role.exception.RoleNotFoundException;
 import com.monogramm.starter.persistence.user.entity.User;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 import javax.transaction.Transactional;
@@ -35,6 +40,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
@@ -164,6 +170,24 @@ public class RoleControllerMockIT extends AbstractControllerMockIT {
 
   }
 
+  /**
+   * Test method for {@link RoleController#getAllData()}.
+   * 
+   * @throws Exception if the test crashes.
+   */
+  @Test
+  public void testGetAllRolesQueryCount() throws Exception {
+    final HttpHeaders headers = getHeaders(getMockToken());
+    final long queries = countQueries(get(CONTROLLER_PATH).headers(headers));
+
+    // More roles, each granted permissions, must not mean more queries
+    for (int i = 0; i < 3; i++) {
+      createRole(DISPLAYNAME + i, GenericOperation.allPermissionNames(TYPE));
+    }
+
+    assertEquals(queries, countQueries(get(CONTROLLER_PATH).headers(headers)));
+  }
+
   /**
    * Test method for
    * {@link RoleController#addData(com.monogramm.starter.persistence.role.entity.Role, org.springframework.web.util.UriComponentsBuilder)}.
@@ -256,4 +280,133 @@ public class RoleControllerMockIT extends AbstractControllerMockIT {
         .andExpect(status().isNoContent());
   }
 
+  /**
+   * Test method for {@link RoleController#addPermissions(String, java.util.List)} and
+   * {@link RoleController#removePermissions(String, java.util.List)}.
+   * 
+   * @throws Exception if the test crashes.
+   */
+  @Test
+  public void testAddRemovePermissions() throws Exception {
+    final String[] names = GenericOperation.allPermissionNames(TYPE);
+    final String permissionsJson = this.toJson(this.getPermissionIds(names[0], names[1]));
+    final String path = CONTROLLER_PATH + '/' + this.testEntity.getId() + "/permissions";
+
+    // Grant on random UUID should not find any role
+    this.getMockMvc().perform(post(CONTROLLER_PATH + '/' + randomId + "/permissions")
+        .headers(getHeaders(getMockToken())).content(permissionsJson))
+        .andExpect(status().isNotFound());
+
+    // Grant should work, only once
+    this.getMockMvc()
+        .perform(post(path).headers(getHeaders(getMockToken())).content(permissionsJson))
+        .andExpect(status().isOk()).andExpect(content().string("2"));
+    this.getMockMvc()
+        .perform(post(path).headers(getHeaders(getMockToken())).content(permissionsJson))
+        .andExpect(status().isOk()).andExpect(content().string("0"));
+
+    // Revoke should work, only once
+    this.getMockMvc()
+        .perform(delete(path).headers(getHeaders(getMockToken())).content(permissionsJson))
+        .andExpect(status().isOk()).andExpect(content().string("2"));
+    this.getMockMvc()
+        .perform(delete(path).headers(getHeaders(getMockToken())).content(permissionsJson))
+        .andExpect(status().isOk()).andExpect(content().string("0"));
+  }
+
+  /**
+   * Test method for {@link RoleController#addPermissionsMatrix(RolePermissionsDto)} and
+   * {@link RoleController#removePermissionsMatrix(RolePermissionsDto)}.
+   * 
+   * @throws Exception if the test crashes.
+   */
+  @Test
+  public void testAddRemovePermissionsMatrix() throws Exception {
+    final Role other = createRole(DISPLAYNAME + "_Other");
+    final List<UUID> permissions = this.getPermissionIds(GenericOperation.allPermissionNames(TYPE));
+    final RolePermissionsDto dto = new RolePermissionsDto(
+        new UUID[] {this.testEntity.getId(), other.getId(), randomId},
+        permissions.toArray(new UUID[permissions.size()]));
+    final String matrixPath = CONTROLLER_PATH + "/permissions";
+    final String expected = String.valueOf(2 * permissions.size());
+
+    // Unknown roles are ignored
+    this.getMockMvc()
+        .perform(post(matrixPath).headers(getHeaders(getMockToken())).content(this.toJson(dto)))
+        .andExpect(status().isOk()).andExpect(content().string(expected));
+
+    this.getMockMvc()
+        .perform(delete(matrixPath).headers(getHeaders(getMockToken())).content(this.toJson(dto)))
+        .andExpect(status().isOk()).andExpect(content().string(expected));
+  }
+
+  /**
+   * Test method for {@link RoleController#addUsers(String, List)},
+   * {@link RoleController#getUsers(String, String, Integer)},
+   * {@link RoleController#countUsers(String)} and
+   * {@link RoleController#removeUsers(String, List)}.
+   * 
+   * @throws Exception if the test crashes.
+   */
+  @Test
+  public void testRoleUsers() throws Exception {
+    final String path = CONTROLLER_PATH + '/' + this.testEntity.getId() + "/users";
+    final UUID first;
+    final UUID second;
+    if (testCreatedBy.getId().toString().compareTo(testOwner.getId().toString()) < 0) {
+      first = testCreatedBy.getId();
+      second = testOwner.getId();
+    } else {
+      first = testOwner.getId();
+      second = testCreatedBy.getId();
+    }
+    final String usersJson = this.toJson(Arrays.asList(first, second, randomId));
+
+    // Membership on random UUID should not find any role
+    this.getMockMvc().perform(post(CONTROLLER_PATH + '/' + randomId + "/users")
+        .headers(getHeaders(getMockToken())).content(usersJson))
+        .andExpect(status().isNotFound());
+    this.getMockMvc().perform(
+        get(CONTROLLER_PATH + '/' + randomId + "/users").headers(getHeaders(getMockToken())))
+        .andExpect(status().isNotFound());
+
+    // Unknown users are ignored
+    this.getMockMvc()
+        .perform(post(path).headers(getHeaders(getMockToken())).content(usersJson))
+        .andExpect(status().isOk()).andExpect(content().string("2"));
+
+    this.getMockMvc().perform(get(path + "/count").headers(getHeaders(getMockToken())))
+        .andExpect(status().isOk()).andExpect(content().string("2"));
+
+    // Page through the users, one at a time
+    this.getMockMvc()
+        .perform(get(path).param("size", "1").headers(getHeaders(getMockToken())))
+        .andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].id", equalToIgnoringCase(first.toString())));
+    this.getMockMvc()
+        .perform(get(path).param("size", "1").param("after", first.toString())
+            .headers(getHeaders(getMockToken())))
+        .andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].id", equalToIgnoringCase(second.toString())));
+    this.getMockMvc()
+        .perform(get(path).param("size", "1").param("after", second.toString())
+            .headers(getHeaders(getMockToken())))
+        .andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(0)));
+
+    this.getMockMvc()
+        .perform(delete(path).headers(getHeaders(getMockToken())).content(usersJson))
+        .andExpect(status().isOk()).andExpect(content().string("2"));
+
+    this.getMockMvc().perform(get(path + "/count").headers(getHeaders(getMockToken())))
+        .andExpect(status().isOk()).andExpect(content().string("0"));
+  }
+
+  private List<UUID> getPermissionIds(final String... names) {
+    final List<UUID> ids = new ArrayList<>();
+    for (final Permission permission : this.getPermissions(names)) {
+      ids.add(permission.getId());
+    }
+    return ids;
+  }
+
 }
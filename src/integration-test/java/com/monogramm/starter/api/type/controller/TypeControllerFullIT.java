@@ -18,8 +18,8 @@ import com.monogramm.starter.persistence.user.entity.User;
 import java.net.URISyntaxException;
 import java.util.Arrays;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -115,7 +115,7 @@ public class TypeControllerFullIT extends AbstractControllerFullIT {
         typeService.deleteById(testEntity.getId());
       }
     } catch (TypeNotFoundException e) {
-      LOG.trace("Type already deleted: " + testEntity, e);
+      LOG.trace("Type already deleted: {}", testEntity, e);
     }
     testEntity = null;
     testDto = null;
@@ -29,8 +29,8 @@ import java.util.UUID;
 
 import javax.transaction.Transactional;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -38,6 +38,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
@@ -120,7 +121,7 @@ public class TypeControllerMockIT extends AbstractControllerMockIT {
         typeService.deleteById(testEntity.getId());
       }
     } catch (TypeNotFoundException e) {
-      LOG.trace("Type already deleted: " + testEntity, e);
+      LOG.trace("Type already deleted: {}", testEntity, e);
     }
     testEntity = null;
 
@@ -178,6 +179,24 @@ public class TypeControllerMockIT extends AbstractControllerMockIT {
         .andExpect(jsonPath("$", hasSize(expectedSize)));
   }
 
+  /**
+   * Test method for {@link TypeController#getAllData()}.
+   * 
+   * @throws Exception if the test crashes.
+   */
+  @Test
+  public void testGetAllTypesQueryCount() throws Exception {
+    final HttpHeaders headers = getHeaders(getMockToken());
+    final long queries = countQueries(get(CONTROLLER_PATH).headers(headers));
+
+    // More types must not mean more queries
+    for (int i = 0; i < 3; i++) {
+      assertTrue(typeService.add(Type.builder(DISPLAYNAME + i).owner(testOwner).build()));
+    }
+
+    assertEquals(queries, countQueries(get(CONTROLLER_PATH).headers(headers)));
+  }
+
   /**
    * Test method for
    * {@link TypeController#addData(TypeDto, org.springframework.web.util.UriComponentsBuilder)}.
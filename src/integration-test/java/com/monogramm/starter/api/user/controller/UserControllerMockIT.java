@@ -46,6 +46,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
@@ -201,6 +202,25 @@ public class UserControllerMockIT extends AbstractControllerMockIT {
         .andExpect(jsonPath("$", hasSize(expectedSize)));
   }
 
+  /**
+   * Test method for {@link UserController#getAllData()}.
+   * 
+   * @throws Exception if the test crashes.
+   */
+  @Test
+  public void testGetAllUsersQueryCount() throws Exception {
+    final HttpHeaders headers = getHeaders(getMockToken());
+    final long queries = countQueries(get(CONTROLLER_PATH).headers(headers));
+
+    // More users, each with a role, must not mean more queries
+    for (int i = 0; i < 3; i++) {
+      assertTrue(getUserService().add(User.builder(DUMMY_USERNAME + i, i + DUMMY_EMAIL)
+          .role(getTestRole()).owner(testOwner).build()));
+    }
+
+    assertEquals(queries, countQueries(get(CONTROLLER_PATH).headers(headers)));
+  }
+
   /**
    * Test method for
    * {@link UserController#addData(com.monogramm.starter.persistence.user.entity.User, org.springframework.web.util.UriComponentsBuilder)}.
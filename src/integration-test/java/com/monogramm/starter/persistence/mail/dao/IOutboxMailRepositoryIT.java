@@ -0,0 +1,152 @@
+/*
+ * Creation by madmath03 the 2018-02-06.
+ */
+
+package com.monogramm.starter.persistence.mail.dao;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+import com.monogramm.starter.persistence.AbstractGenericRepositoryIT;
+import com.monogramm.starter.persistence.mail.entity.OutboxMail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * {@link IOutboxMailRepository} Integration Test.
+ * 
+ * @author madmath03
+ */
+public class IOutboxMailRepositoryIT
+    extends AbstractGenericRepositoryIT<OutboxMail, IOutboxMailRepository> {
+
+  private static final String SENDER = "no_reply@dummy.com";
+  private static final String RECIPIENT = "foo@dummy.com";
+  private static final String SUBJECT = "Subject";
+  private static final String BODY = "Body";
+
+  @Override
+  protected OutboxMail buildTestEntity() {
+    return new OutboxMail(SENDER, RECIPIENT, SUBJECT, BODY);
+  }
+
+  /**
+   * Test method for {@link IOutboxMailRepository#findAll()}.
+   */
+  @Override
+  @Test
+  public void testFindAll() {
+    final List<OutboxMail> models = new ArrayList<>();
+
+    final List<OutboxMail> actual = getRepository().findAll();
+
+    assertThat(actual, is(models));
+  }
+
+  /**
+   * Test method for {@link IOutboxMailRepository#claimDue(Date, int, Date)}.
+   */
+  @Test
+  public void testClaimDue() {
+    final Date now = new Date();
+    final Date leaseEnd = new Date(now.getTime() + 60_000L);
+    final OutboxMail due1 = this.buildTestEntity();
+    due1.setNextAttemptAt(new Date(now.getTime() - 2_000L));
+    getRepository().add(due1);
+    final OutboxMail due2 = this.buildTestEntity();
+    due2.setNextAttemptAt(new Date(now.getTime() - 1_000L));
+    getRepository().add(due2);
+    final OutboxMail later = this.buildTestEntity();
+    later.setNextAttemptAt(leaseEnd);
+    getRepository().add(later);
+    final OutboxMail givenUp = this.buildTestEntity();
+    givenUp.setNextAttemptAt(null);
+    getRepository().add(givenUp);
+
+    final List<OutboxMail> claimed = getRepository().claimDue(now, 1, leaseEnd);
+    assertThat(claimed.size(), is(1));
+    assertThat(claimed.get(0), is(due1));
+    assertNotNull(claimed.get(0).getClaim());
+
+    // Claimed mails are leased and cannot be claimed again
+    final List<OutboxMail> next = getRepository().claimDue(now, 10, leaseEnd);
+    assertThat(next.size(), is(1));
+    assertThat(next.get(0), is(due2));
+
+    assertThat(getRepository().claimDue(now, 10, leaseEnd).isEmpty(), is(true));
+    assertThat(getRepository().countByNextAttemptAtNotNull(), is(3L));
+  }
+
+  /**
+   * Test method for {@link IOutboxMailRepository#reschedule(java.util.UUID, Date, String)}.
+   */
+  @Test
+  public void testReschedule() {
+    final Date now = new Date();
+    final OutboxMail model = this.buildTestEntity();
+    getRepository().add(model);
+    final OutboxMail claimed =
+        getRepository().claimDue(now, 1, new Date(now.getTime() + 60_000L)).get(0);
+
+    assertThat(getRepository().reschedule(claimed.getId(), now, "Error"), is(1));
+
+    final OutboxMail actual = getRepository().findById(model.getId());
+    assertThat(actual.getAttempts(), is(1));
+    assertNull(actual.getClaim());
+    assertThat(actual.getLastError(), is("Error"));
+    assertThat(actual.getNextAttemptAt().after(now), is(false));
+
+    assertThat(getRepository().reschedule(claimed.getId(), null, "Error"), is(1));
+    assertThat(getRepository().claimDue(now, 1, now).isEmpty(), is(true));
+    assertThat(getRepository().countByNextAttemptAtNotNull(), is(0L));
+  }
+
+  /**
+   * Test method for {@link IOutboxMailRepository#deleteByIds(java.util.Collection)}.
+   */
+  @Test
+  public void testDeleteByIds() {
+    final OutboxMail model1 = this.buildTestEntity();
+    getRepository().add(model1);
+    final OutboxMail model2 = this.buildTestEntity();
+    getRepository().add(model2);
+    final OutboxMail model3 = this.buildTestEntity();
+    getRepository().add(model3);
+
+    assertThat(getRepository().deleteByIds(Arrays.asList(model1.getId(), model2.getId())), is(2));
+
+    final List<OutboxMail> remaining = getRepository().findAll();
+    assertThat(remaining.size(), is(1));
+    assertThat(remaining.get(0), is(model3));
+  }
+
+  /**
+   * Test method for {@link IOutboxMailRepository#deleteGivenUp(Date, int)}.
+   */
+  @Test
+  public void testDeleteGivenUp() {
+    final Date now = new Date();
+    final OutboxMail pending = this.buildTestEntity();
+    getRepository().add(pending);
+    final OutboxMail givenUp = this.buildTestEntity();
+    getRepository().add(givenUp);
+    assertThat(getRepository().reschedule(givenUp.getId(), null, "Error"), is(1));
+
+    // Mails given up after the date are kept
+    assertThat(getRepository().deleteGivenUp(new Date(now.getTime() - 60_000L), 10), is(0));
+
+    assertThat(getRepository().deleteGivenUp(new Date(now.getTime() + 60_000L), 10), is(1));
+
+    final List<OutboxMail> remaining = getRepository().findAll();
+    assertThat(remaining.size(), is(1));
+    assertThat(remaining.get(0), is(pending));
+  }
+
+}
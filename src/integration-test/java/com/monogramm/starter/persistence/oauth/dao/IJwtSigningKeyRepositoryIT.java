@@ -0,0 +1,97 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.persistence.oauth.dao;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.monogramm.starter.persistence.AbstractGenericRepositoryIT;
+import com.monogramm.starter.persistence.oauth.entity.JwtSigningKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * {@link IJwtSigningKeyRepository} Integration Test.
+ * 
+ * @author madmath03
+ */
+public class IJwtSigningKeyRepositoryIT
+    extends AbstractGenericRepositoryIT<JwtSigningKey, IJwtSigningKeyRepository> {
+
+  private long activatesAt = System.currentTimeMillis();
+
+  @Override
+  protected JwtSigningKey buildTestEntity() {
+    activatesAt += 60_000L;
+    return new JwtSigningKey(UUID.randomUUID().toString(), "ES256", new byte[] {1, 2, 3},
+        new byte[] {4, 5, 6}, new Date(activatesAt));
+  }
+
+  /**
+   * Test method for {@link IJwtSigningKeyRepository#findAll()}.
+   */
+  @Override
+  @Test
+  public void testFindAll() {
+    final List<JwtSigningKey> models = new ArrayList<>();
+
+    final List<JwtSigningKey> actual = getRepository().findAll();
+
+    assertThat(actual, is(models));
+  }
+
+  /**
+   * Test method for {@link IJwtSigningKeyRepository#findAllByActivation()}.
+   */
+  @Test
+  public void testFindAllByActivation() {
+    final JwtSigningKey first = this.buildTestEntity();
+    final JwtSigningKey second = this.buildTestEntity();
+    getRepository().add(second);
+    getRepository().add(first);
+
+    final List<JwtSigningKey> actual = getRepository().findAllByActivation();
+
+    assertThat(actual, is(Arrays.asList(first, second)));
+    assertThat(actual.get(0).getPublicKey(), is(first.getPublicKey()));
+  }
+
+  /**
+   * Test method for {@link IJwtSigningKeyRepository#add(JwtSigningKey)}.
+   */
+  @Test(expected = DataIntegrityViolationException.class)
+  public void testAddSameActivation() {
+    final JwtSigningKey model = this.buildTestEntity();
+    getRepository().add(model);
+
+    // Another node adding a key activating at the same date
+    final JwtSigningKey other = this.buildTestEntity();
+    other.setActivatesAt(model.getActivatesAt());
+    getRepository().add(other);
+  }
+
+  /**
+   * Test method for {@link IJwtSigningKeyRepository#deleteByKids(java.util.Collection)}.
+   */
+  @Test
+  public void testDeleteByKids() {
+    final JwtSigningKey retired = this.buildTestEntity();
+    getRepository().add(retired);
+    final JwtSigningKey active = this.buildTestEntity();
+    getRepository().add(active);
+
+    assertThat(getRepository().deleteByKids(Arrays.asList(retired.getKid(), "unknown")), is(1));
+
+    assertThat(getRepository().findAll(), is(Arrays.asList(active)));
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Creation by madmath03 the 2018-02-11.
+ */
+
+package com.monogramm.starter.persistence.oauth.dao;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.monogramm.starter.persistence.AbstractGenericRepositoryIT;
+import com.monogramm.starter.persistence.oauth.entity.RevokedToken;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * {@link IRevokedTokenRepository} Integration Test.
+ * 
+ * @author madmath03
+ */
+public class IRevokedTokenRepositoryIT
+    extends AbstractGenericRepositoryIT<RevokedToken, IRevokedTokenRepository> {
+
+  @Override
+  protected RevokedToken buildTestEntity() {
+    return new RevokedToken(UUID.randomUUID().toString(),
+        new Date(System.currentTimeMillis() + 60_000L));
+  }
+
+  /**
+   * Test method for {@link IRevokedTokenRepository#findAll()}.
+   */
+  @Override
+  @Test
+  public void testFindAll() {
+    final List<RevokedToken> models = new ArrayList<>();
+
+    final List<RevokedToken> actual = getRepository().findAll();
+
+    assertThat(actual, is(models));
+  }
+
+  /**
+   * Test method for {@link IRevokedTokenRepository#findRevokedSince(Date, Date)}.
+   */
+  @Test
+  public void testFindRevokedSince() {
+    final Date now = new Date();
+    final RevokedToken valid = this.buildTestEntity();
+    getRepository().add(valid);
+    final RevokedToken expired = this.buildTestEntity();
+    expired.setExpiresAt(new Date(now.getTime() - 1_000L));
+    getRepository().add(expired);
+
+    final List<Object[]> actual =
+        getRepository().findRevokedSince(new Date(now.getTime() - 60_000L), now);
+
+    assertThat(actual.size(), is(1));
+    assertThat(actual.get(0)[0], is(valid.getJti()));
+    assertThat(((Date) actual.get(0)[1]).getTime(), is(valid.getExpiresAt().getTime()));
+
+    final Date later = new Date(now.getTime() + 60_000L);
+    assertThat(getRepository().findRevokedSince(later, now).isEmpty(), is(true));
+  }
+
+  /**
+   * Test method for {@link IRevokedTokenRepository#existsByJti(String)}.
+   */
+  @Test
+  public void testExistsByJti() {
+    final RevokedToken model = this.buildTestEntity();
+    getRepository().add(model);
+
+    assertThat(getRepository().existsByJti(model.getJti()), is(true));
+    assertThat(getRepository().existsByJti("unknown"), is(false));
+  }
+
+  /**
+   * Test method for {@link IRevokedTokenRepository#deleteExpired(Date, int)}.
+   */
+  @Test
+  public void testDeleteExpired() {
+    final Date now = new Date();
+    final RevokedToken valid = this.buildTestEntity();
+    getRepository().add(valid);
+    for (int i = 0; i < 3; i++) {
+      final RevokedToken expired = this.buildTestEntity();
+      expired.setExpiresAt(new Date(now.getTime() - 1_000L * (i + 1)));
+      getRepository().add(expired);
+    }
+
+    assertThat(getRepository().deleteExpired(now, 2), is(2));
+    assertThat(getRepository().deleteExpired(now, 2), is(1));
+    assertThat(getRepository().deleteExpired(now, 2), is(0));
+
+    final List<RevokedToken> remaining = getRepository().findAll();
+    assertThat(remaining.size(), is(1));
+    assertThat(remaining.get(0), is(valid));
+  }
+
+}
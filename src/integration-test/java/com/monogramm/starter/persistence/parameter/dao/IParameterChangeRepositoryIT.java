@@ -0,0 +1,136 @@
+/*
+ * Creation by madmath03 the 2018-02-12.
+ */
+
+package com.monogramm.starter.persistence.parameter.dao;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.monogramm.starter.config.data.GenericOperation;
+import com.monogramm.starter.persistence.AbstractGenericRepositoryIT;
+import com.monogramm.starter.persistence.parameter.entity.ParameterChange;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * {@link IParameterChangeRepository} Integration Test.
+ * 
+ * @author madmath03
+ */
+public class IParameterChangeRepositoryIT
+    extends AbstractGenericRepositoryIT<ParameterChange, IParameterChangeRepository> {
+
+  private final AtomicLong versions = new AtomicLong();
+
+  @Override
+  protected ParameterChange buildTestEntity() {
+    return new ParameterChange(versions.incrementAndGet(), GenericOperation.UPDATE,
+        UUID.randomUUID(), "Foo");
+  }
+
+  /**
+   * Test method for {@link IParameterChangeRepository#findAll()}.
+   */
+  @Override
+  @Test
+  public void testFindAll() {
+    final List<ParameterChange> models = new ArrayList<>();
+
+    final List<ParameterChange> actual = getRepository().findAll();
+
+    assertThat(actual, is(models));
+  }
+
+  /**
+   * Test method for {@link IParameterChangeRepository#findVersion()}.
+   */
+  @Test
+  public void testFindVersion() {
+    assertThat(getRepository().findVersion(), is(0L));
+
+    getRepository().add(this.buildTestEntity());
+    getRepository().add(this.buildTestEntity());
+
+    assertThat(getRepository().findVersion(), is(versions.get()));
+  }
+
+  /**
+   * Test method for {@link IParameterChangeRepository#incrementVersion()}.
+   */
+  @Test
+  public void testIncrementVersion() {
+    try {
+      assertThat(getRepository().createVersionCounter(), is(1));
+    } catch (DataIntegrityViolationException e) {
+      // Counter created, and committed, by a previous test
+    }
+    final long version = getRepository().findCounterVersion();
+
+    assertThat(getRepository().incrementVersion(), is(1));
+    assertThat(getRepository().findCounterVersion(), is(version + 1));
+    assertThat(getRepository().incrementVersion(), is(1));
+    assertThat(getRepository().findCounterVersion(), is(version + 2));
+  }
+
+  /**
+   * Test method for {@link IParameterChangeRepository#createVersionCounter()}.
+   */
+  @Test(expected = DataIntegrityViolationException.class)
+  public void testCreateVersionCounterTwice() {
+    try {
+      getRepository().createVersionCounter();
+    } catch (DataIntegrityViolationException e) {
+      // Counter created, and committed, by a previous test
+    }
+
+    getRepository().createVersionCounter();
+  }
+
+  /**
+   * Test method for {@link IParameterChangeRepository#findChangesSince(long)}.
+   */
+  @Test
+  public void testFindChangesSince() {
+    final ParameterChange first = this.buildTestEntity();
+    getRepository().add(first);
+    final ParameterChange deleted = this.buildTestEntity();
+    deleted.setOperation(GenericOperation.DELETE);
+    deleted.setName(null);
+    getRepository().add(deleted);
+
+    final List<Object[]> actual = getRepository().findChangesSince(first.getVersion());
+
+    assertThat(actual.size(), is(1));
+    assertThat(actual.get(0)[0], is(deleted.getVersion()));
+    assertThat(actual.get(0)[1], is(deleted.getParameterId()));
+    assertThat(actual.get(0)[2] == null, is(true));
+    assertThat(actual.get(0)[3], is(GenericOperation.DELETE));
+
+    assertThat(getRepository().findChangesSince(deleted.getVersion()).isEmpty(), is(true));
+  }
+
+  /**
+   * Test method for {@link IParameterChangeRepository#deleteCreatedBefore(Date)}.
+   */
+  @Test
+  public void testDeleteCreatedBefore() {
+    for (int i = 0; i < 3; i++) {
+      getRepository().add(this.buildTestEntity());
+    }
+
+    // The last change is kept to hold the current version
+    final Date later = new Date(System.currentTimeMillis() + 60_000L);
+    assertThat(getRepository().deleteCreatedBefore(later), is(2));
+    assertThat(getRepository().findVersion(), is(versions.get()));
+    assertThat(getRepository().findAll().size(), is(1));
+  }
+
+}
@@ -9,6 +9,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import com.monogramm.starter.config.data.InitialDataLoader;
 import com.monogramm.starter.persistence.AbstractGenericRepositoryIT;
@@ -18,6 +19,7 @@ import com.monogramm.starter.persistence.role.exception.RoleNotFoundException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.Hibernate;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -56,6 +58,19 @@ public class IRoleRepositoryIT extends AbstractGenericRepositoryIT<Role, IRoleRe
     assertEquals(expectedSize, actual.size());
   }
 
+  /**
+   * Test method for {@link IRoleRepository#findAll()}.
+   */
+  @Test
+  public void testFindAllWithPermissions() {
+    final List<Role> actual = getRepository().findAll();
+
+    assertNotNull(actual);
+    for (final Role role : actual) {
+      assertTrue(Hibernate.isInitialized(role.getPermissions()));
+    }
+  }
+
   /**
    * Test method for
    * {@link IRoleRepository#findAllContainingNameIgnoreCase(java.lang.String)}.
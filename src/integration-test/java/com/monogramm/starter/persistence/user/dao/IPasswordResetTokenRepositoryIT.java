@@ -147,4 +147,101 @@ public class IPasswordResetTokenRepositoryIT
     assertThat(actual, is(expected));
   }
 
+  /**
+   * Test method for {@link IPasswordResetTokenRepository#exists(java.util.UUID, java.lang.String)}.
+   */
+  @Test
+  public void testExistsUUIDStringCodeOnly() {
+    final boolean expected = true;
+    final PasswordResetToken model = this.buildTestEntity();
+    getRepository().add(model);
+
+    final boolean actual = getRepository().exists(null, model.getCode());
+
+    assertThat(actual, is(expected));
+  }
+
+  /**
+   * Test method for {@link IPasswordResetTokenRepository#existsByCode(java.lang.String)}.
+   */
+  @Test
+  public void testExistsByCodeNotFound() {
+    final boolean expected = false;
+
+    final boolean actual = getRepository().existsByCode(TOKEN);
+
+    assertThat(actual, is(expected));
+  }
+
+  /**
+   * Test method for {@link IPasswordResetTokenRepository#deleteExpired(Date, int)}.
+   */
+  @Test
+  public void testDeleteExpired() {
+    final Date now = new Date();
+    final Date past = new Date(now.getTime() - 60_000L);
+    final Date future = new Date(now.getTime() + 60_000L);
+    getRepository().add(PasswordResetToken.builder(TOKEN + "1", past).user(testUser).build());
+    getRepository().add(PasswordResetToken.builder(TOKEN + "2", past).user(testUser).build());
+    getRepository().add(PasswordResetToken.builder(TOKEN + "3", past).user(testUser).build());
+    final PasswordResetToken valid = PasswordResetToken.builder(TOKEN + "4", future).user(testUser).build();
+    getRepository().add(valid);
+
+    assertThat(getRepository().deleteExpired(now, 2), is(2));
+    assertThat(getRepository().deleteExpired(now, 2), is(1));
+    assertThat(getRepository().deleteExpired(now, 2), is(0));
+
+    final List<PasswordResetToken> remaining = getRepository().findAll();
+    assertThat(remaining.size(), is(1));
+    assertThat(remaining.get(0), is(valid));
+  }
+
+  /**
+   * Test method for {@link IPasswordResetTokenRepository#isValid(String, String, Date)}.
+   */
+  @Test
+  public void testIsValid() {
+    final Date now = new Date();
+    getRepository().add(
+        PasswordResetToken.builder(TOKEN, new Date(now.getTime() + 60_000L)).user(testUser).build());
+
+    assertThat(getRepository().isValid(EMAIL.toUpperCase(), TOKEN, now), is(true));
+    assertThat(getRepository().isValid(EMAIL, TOKEN + "1", now), is(false));
+    assertThat(getRepository().isValid("other@email.com", TOKEN, now), is(false));
+    assertThat(getRepository().isValid(EMAIL, TOKEN, new Date(now.getTime() + 120_000L)),
+        is(false));
+
+    // Checking a token does not consume it
+    assertThat(getRepository().consume(EMAIL, TOKEN, now), is(1));
+  }
+
+  /**
+   * Test method for {@link IPasswordResetTokenRepository#consume(String, String, Date)}.
+   */
+  @Test
+  public void testConsume() {
+    final Date now = new Date();
+    final PasswordResetToken model =
+        PasswordResetToken.builder(TOKEN, new Date(now.getTime() + 60_000L)).user(testUser).build();
+    getRepository().add(model);
+
+    assertThat(getRepository().consume(EMAIL.toUpperCase(), TOKEN, now), is(1));
+    assertThat(getRepository().consume(EMAIL.toUpperCase(), TOKEN, now), is(0));
+
+    assertThat(getRepository().findById(model.getId()).getExpiryDate().after(now), is(false));
+  }
+
+  /**
+   * Test method for {@link IPasswordResetTokenRepository#consume(String, String, Date)}.
+   */
+  @Test
+  public void testConsumeExpired() {
+    final Date now = new Date();
+    getRepository().add(
+        PasswordResetToken.builder(TOKEN, new Date(now.getTime() - 60_000L)).user(testUser).build());
+
+    assertThat(getRepository().consume(EMAIL.toUpperCase(), TOKEN, now), is(0));
+    assertThat(getRepository().consume(EMAIL.toUpperCase(), TOKEN + "1", now), is(0));
+  }
+
 }
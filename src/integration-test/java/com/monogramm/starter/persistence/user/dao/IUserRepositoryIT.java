@@ -6,16 +6,22 @@ package com.monogramm.starter.persistence.user.dao;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 
 import com.monogramm.starter.config.data.InitialDataLoader;
 import com.monogramm.starter.persistence.AbstractGenericRepositoryIT;
+import com.monogramm.starter.persistence.permission.dao.IPermissionRepository;
+import com.monogramm.starter.persistence.permission.entity.Permission;
+import com.monogramm.starter.persistence.role.dao.IRoleRepository;
+import com.monogramm.starter.persistence.role.entity.Role;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.exception.UserNotFoundException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
@@ -37,6 +43,12 @@ public class IUserRepositoryIT extends AbstractGenericRepositoryIT<User, IUserRe
   @Autowired
   private InitialDataLoader initialDataLoader;
 
+  @Autowired
+  private IRoleRepository roleRepository;
+
+  @Autowired
+  private IPermissionRepository permissionRepository;
+
   private char[] testPassword;
 
   @Before
@@ -259,66 +271,84 @@ public class IUserRepositoryIT extends AbstractGenericRepositoryIT<User, IUserRe
   }
 
   /**
-   * Test method for {@link IUserRepository#setPassword(java.util.UUID, char[])}.
+   * Test method for {@link IUserRepository#setPassword(java.util.UUID, char[], User)}.
    */
   @Test
   public void testSetPassword() {
     final User model = User.builder(USERNAME, EMAIL).build();
     getRepository().add(model);
 
-    final User actual = getRepository().setPassword(model.getId(), testPassword);
+    final int actual = getRepository().setPassword(model.getId(), testPassword, model);
 
-    assertThat(actual, is(model));
+    assertEquals(1, actual);
   }
 
   /**
-   * Test method for {@link IUserRepository#setPassword(java.util.UUID, char[])}.
+   * Test method for {@link IUserRepository#setPassword(java.util.UUID, char[], User)}.
    */
   @Test
   public void testSetPasswordNotFound() {
-    assertNull(getRepository().setPassword(RANDOM_ID, testPassword));
+    assertEquals(0, getRepository().setPassword(RANDOM_ID, testPassword, null));
   }
 
   /**
-   * Test method for {@link IUserRepository#setEnabled(java.util.UUID, boolean)}.
+   * Test method for {@link IUserRepository#setEnabled(java.util.UUID, boolean, User)}.
    */
   @Test
   public void testSetEnabled() {
     final User model = User.builder(USERNAME, EMAIL).build();
     getRepository().add(model);
 
-    final User actual = getRepository().setEnabled(model.getId(), false);
+    final int actual = getRepository().setEnabled(model.getId(), false, model);
 
-    assertThat(actual, is(model));
+    assertEquals(1, actual);
+    final User updated = getRepository().findById(model.getId());
+    assertFalse(updated.isEnabled());
+    assertEquals(model.getId(), updated.getModifiedBy().getId());
   }
 
   /**
-   * Test method for {@link IUserRepository#setEnabled(java.util.UUID, boolean)}.
+   * Test method for {@link IUserRepository#setEnabled(java.util.UUID, boolean, User)}.
    */
   @Test
   public void testSetEnabledNotFound() {
-    assertNull(getRepository().setEnabled(RANDOM_ID, false));
+    assertEquals(0, getRepository().setEnabled(RANDOM_ID, false, null));
   }
 
   /**
-   * Test method for {@link IUserRepository#setVerified(java.util.UUID, boolean)}.
+   * Test method for {@link IUserRepository#setVerified(java.util.UUID, boolean, User)}.
    */
   @Test
   public void testSetVerified() {
     final User model = User.builder(USERNAME, EMAIL).build();
     getRepository().add(model);
 
-    final User actual = getRepository().setVerified(model.getId(), false);
+    final int actual = getRepository().setVerified(model.getId(), false, model);
 
-    assertThat(actual, is(model));
+    assertEquals(1, actual);
   }
 
   /**
-   * Test method for {@link IUserRepository#setVerified(java.util.UUID, boolean)}.
+   * Test method for {@link IUserRepository#setVerified(java.util.UUID, boolean, User)}.
    */
   @Test
   public void testSetVerifiedNotFound() {
-    assertNull(getRepository().setVerified(RANDOM_ID, false));
+    assertEquals(0, getRepository().setVerified(RANDOM_ID, false, null));
+  }
+
+  /**
+   * Test method for {@link IUserRepository#setEnabled(java.util.Collection, boolean, User)}.
+   */
+  @Test
+  public void testSetEnabledCollection() {
+    final User model = User.builder(USERNAME, EMAIL).build();
+    getRepository().add(model);
+
+    final int actual =
+        getRepository().setEnabled(Arrays.asList(model.getId(), RANDOM_ID), false, model);
+
+    assertEquals(1, actual);
+    assertFalse(getRepository().findById(model.getId()).isEnabled());
   }
 
   /**
@@ -350,4 +380,33 @@ public class IUserRepositoryIT extends AbstractGenericRepositoryIT<User, IUserRe
     assertThat(actual, is(expected));
   }
 
+  /**
+   * Test method for {@link IUserRepository#findWithAuthoritiesByEmailIgnoreCase(String)}.
+   */
+  @Test
+  public void testFindWithAuthoritiesByEmailIgnoreCase() {
+    final Permission permission = Permission.builder("Foo Permission").build();
+    permissionRepository.add(permission);
+    final Role role =
+        Role.builder("Foo Role").permissions(Arrays.asList(permission)).build();
+    roleRepository.add(role);
+    final User model = User.builder(USERNAME, EMAIL).role(role).build();
+    getRepository().add(model);
+
+    final User actual = getRepository().findWithAuthoritiesByEmailIgnoreCase(EMAIL.toUpperCase());
+
+    assertThat(actual, is(model));
+    assertNotNull(actual.getRole());
+    assertThat(actual.getRole().getName(), is(role.getName()));
+    assertThat(actual.getRole().getPermissions().size(), is(1));
+  }
+
+  /**
+   * Test method for {@link IUserRepository#findWithAuthoritiesByEmailIgnoreCase(String)}.
+   */
+  @Test
+  public void testFindWithAuthoritiesByEmailIgnoreCaseNotFound() {
+    assertNull(getRepository().findWithAuthoritiesByEmailIgnoreCase(EMAIL));
+  }
+
 }
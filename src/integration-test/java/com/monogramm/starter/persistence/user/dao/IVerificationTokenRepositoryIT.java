@@ -144,4 +144,82 @@ public class IVerificationTokenRepositoryIT
     assertThat(actual, is(expected));
   }
 
+  /**
+   * Test method for {@link IVerificationTokenRepository#exists(java.util.UUID, java.lang.String)}.
+   */
+  @Test
+  public void testExistsUUIDStringCodeOnly() {
+    final boolean expected = true;
+    final VerificationToken model = this.buildTestEntity();
+    getRepository().add(model);
+
+    final boolean actual = getRepository().exists(null, model.getCode());
+
+    assertThat(actual, is(expected));
+  }
+
+  /**
+   * Test method for {@link IVerificationTokenRepository#existsByCode(java.lang.String)}.
+   */
+  @Test
+  public void testExistsByCodeNotFound() {
+    final boolean expected = false;
+
+    final boolean actual = getRepository().existsByCode(TOKEN);
+
+    assertThat(actual, is(expected));
+  }
+
+  /**
+   * Test method for {@link IVerificationTokenRepository#deleteExpired(Date, int)}.
+   */
+  @Test
+  public void testDeleteExpired() {
+    final Date now = new Date();
+    final Date past = new Date(now.getTime() - 60_000L);
+    final Date future = new Date(now.getTime() + 60_000L);
+    getRepository().add(VerificationToken.builder(TOKEN + "1", past).user(testUser).build());
+    getRepository().add(VerificationToken.builder(TOKEN + "2", past).user(testUser).build());
+    getRepository().add(VerificationToken.builder(TOKEN + "3", past).user(testUser).build());
+    final VerificationToken valid = VerificationToken.builder(TOKEN + "4", future).user(testUser).build();
+    getRepository().add(valid);
+
+    assertThat(getRepository().deleteExpired(now, 2), is(2));
+    assertThat(getRepository().deleteExpired(now, 2), is(1));
+    assertThat(getRepository().deleteExpired(now, 2), is(0));
+
+    final List<VerificationToken> remaining = getRepository().findAll();
+    assertThat(remaining.size(), is(1));
+    assertThat(remaining.get(0), is(valid));
+  }
+
+  /**
+   * Test method for {@link IVerificationTokenRepository#consume(UUID, String, Date)}.
+   */
+  @Test
+  public void testConsume() {
+    final Date now = new Date();
+    final VerificationToken model =
+        VerificationToken.builder(TOKEN, new Date(now.getTime() + 60_000L)).user(testUser).build();
+    getRepository().add(model);
+
+    assertThat(getRepository().consume(testUser.getId(), TOKEN, now), is(1));
+    assertThat(getRepository().consume(testUser.getId(), TOKEN, now), is(0));
+
+    assertThat(getRepository().findById(model.getId()).getExpiryDate().after(now), is(false));
+  }
+
+  /**
+   * Test method for {@link IVerificationTokenRepository#consume(UUID, String, Date)}.
+   */
+  @Test
+  public void testConsumeExpired() {
+    final Date now = new Date();
+    getRepository().add(
+        VerificationToken.builder(TOKEN, new Date(now.getTime() - 60_000L)).user(testUser).build());
+
+    assertThat(getRepository().consume(testUser.getId(), TOKEN, now), is(0));
+    assertThat(getRepository().consume(testUser.getId(), TOKEN + "1", now), is(0));
+  }
+
 }
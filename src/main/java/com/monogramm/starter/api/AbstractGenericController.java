@@ -14,8 +14,8 @@ import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -128,21 +128,18 @@ public abstract class AbstractGenericController<T extends AbstractGenericEntity,
    *         </ul>
    */
   public ResponseEntity<D> getDataById(@PathVariable @ValidUuid String id) {
-    D dto = null;
-    HttpStatus status;
-
-    T entity;
+    D dto;
     try {
-      entity = this.service.findById(UUID.fromString(id));
+      dto = this.service.findDtoById(UUID.fromString(id));
     } catch (IllegalArgumentException e) {
-      LOG.debug("getDataById(id=" + id + ")", e);
-      entity = null;
+      LOG.debug("getDataById(id={})", id, e);
+      dto = null;
     }
 
-    if (entity == null) {
+    final HttpStatus status;
+    if (dto == null) {
       status = HttpStatus.NOT_FOUND;
     } else {
-      dto = this.service.toDto(entity);
       status = HttpStatus.OK;
     }
 
@@ -180,7 +177,7 @@ public abstract class AbstractGenericController<T extends AbstractGenericEntity,
    *         </ul>
    */
   public ResponseEntity<List<D>> getAllData() {
-    final List<D> result = service.toDto(service.findAll());
+    final List<D> result = service.findAllDtos();
 
     return new ResponseEntity<>(result, HttpStatus.OK);
   }
@@ -331,17 +328,16 @@ public abstract class AbstractGenericController<T extends AbstractGenericEntity,
       if (dto == null || dto.getId() == null || !Objects.equals(id, dto.getId().toString())) {
         status = HttpStatus.BAD_REQUEST;
       } else {
-        final T entity = service.update(this.service.toEntity(dto));
+        updatedDto = service.updateToDto(this.service.toEntity(dto));
 
-        if (entity == null) {
+        if (updatedDto == null) {
           status = HttpStatus.NOT_FOUND;
         } else {
-          updatedDto = this.service.toDto(entity);
           status = HttpStatus.OK;
         }
       }
     } catch (EntityNotFoundException e) {
-      LOG.debug("updateData(id=" + id + ")", e);
+      LOG.debug("updateData(id={})", id, e);
       status = HttpStatus.NOT_FOUND;
     }
 
@@ -401,7 +397,7 @@ public abstract class AbstractGenericController<T extends AbstractGenericEntity,
       service.deleteById(UUID.fromString(id));
       status = HttpStatus.NO_CONTENT;
     } catch (EntityNotFoundException | IllegalArgumentException e) {
-      LOG.debug("deleteData(id=" + id + ")", e);
+      LOG.debug("deleteData(id={})", id, e);
       status = HttpStatus.NOT_FOUND;
     }
 
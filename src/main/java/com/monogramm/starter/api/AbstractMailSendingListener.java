@@ -5,6 +5,7 @@
 package com.monogramm.starter.api;
 
 import com.monogramm.starter.persistence.AbstractToken;
+import com.monogramm.starter.persistence.mail.service.IMailOutboxService;
 import com.monogramm.starter.persistence.user.entity.User;
 
 import java.util.Locale;
@@ -13,11 +14,16 @@ import org.springframework.context.ApplicationListener;
 import org.springframework.context.MessageSource;
 import org.springframework.core.env.Environment;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * AbstractMailSendingListener.
  * 
+ * <p>
+ * The token and the mail are written in the same transaction. The mail is written to the outbox
+ * and sent asynchronously, so that the request does not wait for the mail server.
+ * </p>
+ * 
  * @author madmath03
  */
 public abstract class AbstractMailSendingListener<T extends AbstractToken,
@@ -25,7 +31,7 @@ public abstract class AbstractMailSendingListener<T extends AbstractToken,
 
   private final MessageSource messages;
 
-  private final JavaMailSender mailSender;
+  private final IMailOutboxService outboxService;
 
   private final Environment env;
 
@@ -33,13 +39,13 @@ public abstract class AbstractMailSendingListener<T extends AbstractToken,
    * Create a {@link AbstractMailSendingListener}.
    * 
    * @param messages application messages.
-   * @param mailSender mail sender.
+   * @param outboxService mail outbox service.
    * @param env application environment properties.
    * 
    * @throws IllegalArgumentException if any of the parameters is {@code null}.
    */
-  protected AbstractMailSendingListener(MessageSource messages, JavaMailSender mailSender,
-      Environment env) {
+  protected AbstractMailSendingListener(MessageSource messages,
+      IMailOutboxService outboxService, Environment env) {
     super();
 
     if (messages == null) {
@@ -47,10 +53,10 @@ public abstract class AbstractMailSendingListener<T extends AbstractToken,
     }
     this.messages = messages;
 
-    if (mailSender == null) {
-      throw new IllegalArgumentException("Application mail sender cannot be null.");
+    if (outboxService == null) {
+      throw new IllegalArgumentException("Application mail outbox service cannot be null.");
     }
-    this.mailSender = mailSender;
+    this.outboxService = outboxService;
 
     if (env == null) {
       throw new IllegalArgumentException("Application environment cannot be null.");
@@ -64,6 +70,7 @@ public abstract class AbstractMailSendingListener<T extends AbstractToken,
 
   protected abstract String getMessageKey();
 
+  @Transactional
   @Override
   public void onApplicationEvent(E event) {
     this.sendEmail(event);
@@ -89,6 +96,6 @@ public abstract class AbstractMailSendingListener<T extends AbstractToken,
     email.setText(message);
     email.setFrom(env.getProperty("no_reply.email"));
 
-    mailSender.send(email);
+    outboxService.enqueue(email);
   }
 }
@@ -4,13 +4,15 @@
 
 package com.monogramm.starter.api;
 
+import com.monogramm.starter.config.component.PasswordHashingUnavailableException;
+import com.monogramm.starter.config.component.RateLimitExceededException;
 import com.monogramm.starter.persistence.EntityNotFoundException;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.Date;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.core.convert.ConversionFailedException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.OptimisticLockingFailureException;
@@ -180,6 +182,41 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
     return errorResponse(conflictEx, HttpStatus.CONFLICT);
   }
 
+  /**
+   * Send a 503 Service Unavailable when the password hashing threads are saturated.
+   * 
+   * @param failure an exception describing the saturation.
+   * 
+   * @return a response describing the failure.
+   */
+  @ExceptionHandler({PasswordHashingUnavailableException.class})
+  @ResponseBody
+  public ResponseEntity<ExceptionMessage> handleUnavailable(final Exception failure) {
+    return errorResponse(failure, HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  /**
+   * Send a 429 Too Many Requests, with the delay before the next accepted request, when a client
+   * exceeded a rate limit.
+   * 
+   * @param failure an exception describing the exceeded limit.
+   * 
+   * @return a response describing the failure.
+   */
+  @ExceptionHandler({RateLimitExceededException.class})
+  @ResponseBody
+  public ResponseEntity<ExceptionMessage> handleTooManyRequests(
+      final RateLimitExceededException failure) {
+    // Not logged as an error: rejecting requests is the expected behavior under load
+    LOG.debug("Rate limit exceeded: {}", failure.getMessage());
+
+    final HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RETRY_AFTER, Long.toString(failure.getRetryAfterSeconds()));
+
+    return new ResponseEntity<>(new ExceptionMessage(failure), headers,
+        HttpStatus.TOO_MANY_REQUESTS);
+  }
+
   /**
    * Create an error response.
    * 
@@ -192,10 +229,10 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
       final HttpStatus status) {
     final ExceptionMessage message;
     if (null == throwable) {
-      LOG.error("Unknown error caught in RESTController " + status);
+      LOG.error("Unknown error caught in RESTController {}", status);
       message = null;
     } else {
-      LOG.error("Error caught: " + throwable.getMessage(), throwable);
+      LOG.error("Error caught: {}", throwable.getMessage(), throwable);
       message = new ExceptionMessage(throwable);
     }
 
@@ -212,7 +249,7 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
    * @return a response.
    */
   protected <T> ResponseEntity<T> response(final T body, final HttpStatus status) {
-    LOG.debug("Responding with a status of " + status);
+    LOG.debug("Responding with a status of {}", status);
     return new ResponseEntity<>(body, new HttpHeaders(), status);
   }
 }
@@ -0,0 +1,141 @@
+/*
+ * Creation by madmath03 the 2018-02-12.
+ */
+
+package com.monogramm.starter.api.oauth.controller;
+
+import com.monogramm.starter.config.OAuth2WebSecurityConfig;
+import com.monogramm.starter.config.component.CachingClientDetailsService;
+import com.monogramm.starter.config.data.GenericOperation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.endpoint.FrameworkEndpoint;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * Management of the OAuth2 clients kept in memory by the authorization server.
+ * 
+ * <p>
+ * The client secrets are never exposed.
+ * </p>
+ * 
+ * @see CachingClientDetailsService
+ * 
+ * @author madmath03
+ */
+@FrameworkEndpoint
+public class ClientDetailsEndpoint {
+
+  /**
+   * The main data type handled by this end point.
+   */
+  public static final String TYPE = "Clients";
+
+  /**
+   * The Authority data type of this end point.
+   */
+  public static final String AUTH_TYPE = "CLIENTS";
+
+  /**
+   * The Authority for the reading operations of this end point.
+   * 
+   * @see GenericOperation#READ
+   */
+  public static final String AUTH_READ = OAuth2WebSecurityConfig.AUTH_PREFIX + AUTH_TYPE
+      + GenericOperation.PERM_SEP + GenericOperation.PERM_READ;
+  /**
+   * The Authority for the update operations of this end point.
+   * 
+   * @see GenericOperation#UPDATE
+   */
+  public static final String AUTH_UPDATE = OAuth2WebSecurityConfig.AUTH_PREFIX + AUTH_TYPE
+      + GenericOperation.PERM_SEP + GenericOperation.PERM_UPDATE;
+
+  private final CachingClientDetailsService clientDetailsService;
+
+  /**
+   * Create a {@link ClientDetailsEndpoint}.
+   * 
+   * @param clientDetailsService the client details service keeping the clients in memory.
+   * 
+   * @throws IllegalArgumentException if {@code clientDetailsService} is {@code null}.
+   */
+  @Autowired
+  public ClientDetailsEndpoint(final CachingClientDetailsService clientDetailsService) {
+    super();
+    if (clientDetailsService == null) {
+      throw new IllegalArgumentException("Client details service cannot be null.");
+    }
+    this.clientDetailsService = clientDetailsService;
+  }
+
+  /**
+   * Get the clients kept in memory, and the statistics of the cache.
+   * 
+   * @return the clients kept in memory.
+   */
+  @RequestMapping(method = RequestMethod.GET, value = OAuthController.CLIENTS_PATH)
+  @ResponseBody
+  @PreAuthorize(value = "hasAuthority('" + AUTH_READ + "')")
+  public ResponseEntity<Map<String, Object>> getClients() {
+    return ResponseEntity.ok(this.describe());
+  }
+
+  /**
+   * Reload the clients from database.
+   * 
+   * @return the clients kept in memory, and the statistics of the cache.
+   */
+  @RequestMapping(method = RequestMethod.POST, value = OAuthController.CLIENTS_REFRESH_PATH)
+  @ResponseBody
+  @PreAuthorize(value = "hasAuthority('" + AUTH_UPDATE + "')")
+  public ResponseEntity<Map<String, Object>> refresh() {
+    final boolean refreshed = clientDetailsService.refresh();
+
+    final Map<String, Object> description = this.describe();
+    description.put("refreshed", refreshed);
+
+    return ResponseEntity.ok(description);
+  }
+
+  private Map<String, Object> describe() {
+    final List<Map<String, Object>> clients = new ArrayList<>();
+    for (final ClientDetails client : clientDetailsService.getClients()) {
+      clients.add(describe(client));
+    }
+
+    final Map<String, Object> description = new LinkedHashMap<>();
+    description.put("lastRefresh", clientDetailsService.getLastRefreshDate());
+    description.put("hits", clientDetailsService.getHitCount());
+    description.put("misses", clientDetailsService.getMissCount());
+    description.put("refreshes", clientDetailsService.getRefreshCount());
+    description.put("refreshFailures", clientDetailsService.getRefreshFailureCount());
+    description.put("clients", clients);
+    return description;
+  }
+
+  private static Map<String, Object> describe(final ClientDetails client) {
+    final Map<String, Object> description = new LinkedHashMap<>();
+    description.put("clientId", client.getClientId());
+    description.put("resourceIds", client.getResourceIds());
+    description.put("scope", client.getScope());
+    description.put("authorizedGrantTypes", client.getAuthorizedGrantTypes());
+    description.put("registeredRedirectUri", client.getRegisteredRedirectUri());
+    description.put("authorities", AuthorityUtils.authorityListToSet(client.getAuthorities()));
+    description.put("accessTokenValiditySeconds", client.getAccessTokenValiditySeconds());
+    description.put("refreshTokenValiditySeconds", client.getRefreshTokenValiditySeconds());
+    return description;
+  }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.api.oauth.controller;
+
+import com.monogramm.starter.config.component.JwtKeyManager;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.provider.endpoint.FrameworkEndpoint;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Publish the public keys verifying the JSON Web Tokens.
+ * 
+ * <p>
+ * Other services may cache the key set and verify the tokens locally, without calling back the
+ * authorization server. A token signed by an unknown key should trigger a refresh of the key set.
+ * </p>
+ * 
+ * @see <a href="https://tools.ietf.org/html/rfc7517#section-5">RFC 7517 - JWK Set Format</a>
+ * 
+ * @author madmath03
+ */
+@FrameworkEndpoint
+public class JwkSetEndpoint {
+
+  /**
+   * Property for the time, in seconds, the key set may be cached by its clients.
+   */
+  public static final String PROP_MAX_AGE = "jwt.jwks.max-age";
+
+  private static final long DEFAULT_MAX_AGE = 3_600L;
+
+  private final JwtKeyManager keyManager;
+
+  private final long maxAge;
+
+  /**
+   * Create a {@link JwkSetEndpoint} configured through the application properties.
+   * 
+   * @param keyManager the manager of the signing keys.
+   * @param env the application environment.
+   */
+  @Autowired
+  public JwkSetEndpoint(final JwtKeyManager keyManager, final Environment env) {
+    this(keyManager, env.getProperty(PROP_MAX_AGE, Long.class, DEFAULT_MAX_AGE));
+  }
+
+  /**
+   * Create a {@link JwkSetEndpoint}.
+   * 
+   * @param keyManager the manager of the signing keys.
+   * @param maxAge the time, in seconds, the key set may be cached by its clients.
+   * 
+   * @throws IllegalArgumentException if {@code keyManager} is {@code null}.
+   */
+  public JwkSetEndpoint(final JwtKeyManager keyManager, final long maxAge) {
+    super();
+    if (keyManager == null) {
+      throw new IllegalArgumentException("Key manager cannot be null.");
+    }
+    this.keyManager = keyManager;
+    this.maxAge = maxAge;
+  }
+
+  /**
+   * Get the JSON Web Key set.
+   * 
+   * @param request the web request, to answer conditional requests.
+   * 
+   * @return the JSON Web Key set, or {@code null} if the client already has the current one.
+   */
+  @RequestMapping(method = RequestMethod.GET, value = OAuthController.JWKS_PATH)
+  @ResponseBody
+  public ResponseEntity<Map<String, Object>> getJwkSet(final WebRequest request) {
+    final String tag = '"' + keyManager.getJwkSetTag() + '"';
+
+    if (request.checkNotModified(tag)) {
+      return null;
+    }
+
+    return ResponseEntity.ok().cacheControl(CacheControl.maxAge(maxAge, TimeUnit.SECONDS)
+        .cachePublic()).eTag(tag).body(keyManager.getJwkSet());
+  }
+
+}
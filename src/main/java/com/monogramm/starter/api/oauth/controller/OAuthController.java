@@ -23,6 +23,21 @@ public final class OAuthController {
    */
   public static final String TOKEN_PATH = CONTROLLER_PATH + "/token";
 
+  /**
+   * The request path for the JSON Web Key set.
+   */
+  public static final String JWKS_PATH = CONTROLLER_PATH + "/jwks";
+
+  /**
+   * The request path for the OAuth2 clients management.
+   */
+  public static final String CLIENTS_PATH = CONTROLLER_PATH + "/clients";
+
+  /**
+   * The request path to reload the OAuth2 clients.
+   */
+  public static final String CLIENTS_REFRESH_PATH = CLIENTS_PATH + "/refresh";
+
   /**
    * Create a {@link OAuthController}.
    * 
@@ -5,6 +5,7 @@
 package com.monogramm.starter.api.parameter.controller;
 
 import com.monogramm.starter.api.AbstractGenericController;
+import com.monogramm.starter.api.parameter.listener.ParameterChangeBroadcaster;
 import com.monogramm.starter.config.OAuth2WebSecurityConfig;
 import com.monogramm.starter.config.data.GenericOperation;
 import com.monogramm.starter.dto.parameter.ParameterDto;
@@ -14,14 +15,19 @@ import com.monogramm.starter.utils.validation.ValidUuid;
 
 import java.util.List;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.util.UriComponentsBuilder;
 
 /**
@@ -31,6 +37,11 @@ import org.springframework.web.util.UriComponentsBuilder;
  */
 @RestController
 public class ParameterController extends AbstractGenericController<Parameter, ParameterDto> {
+  /**
+   * Logger for {@link ParameterController}.
+   */
+  private static final Logger LOG = LogManager.getLogger(ParameterController.class);
+
   /**
    * The main data type handled by this controller.
    */
@@ -39,6 +50,10 @@ public class ParameterController extends AbstractGenericController<Parameter, Pa
    * The request base path of this controller.
    */
   public static final String CONTROLLER_PATH = '/' + TYPE;
+  /**
+   * The request path of the parameter changes stream.
+   */
+  public static final String EVENTS_PATH = CONTROLLER_PATH + "/events";
 
   /**
    * The Authority data type of this controller.
@@ -82,14 +97,24 @@ public class ParameterController extends AbstractGenericController<Parameter, Pa
       + GenericOperation.PERM_SEP + GenericOperation.PERM_DELETE;
 
 
+  private final ParameterChangeBroadcaster broadcaster;
+
   /**
    * Create a {@link ParameterController}.
    * 
    * @param parameterService the parameter service.
+   * @param broadcaster the parameter changes broadcaster.
+   * 
+   * @throws IllegalArgumentException if {@code broadcaster} is {@code null}.
    */
   @Autowired
-  public ParameterController(IParameterService parameterService) {
+  public ParameterController(IParameterService parameterService,
+      ParameterChangeBroadcaster broadcaster) {
     super(parameterService);
+    if (broadcaster == null) {
+      throw new IllegalArgumentException("Parameter changes broadcaster cannot be null.");
+    }
+    this.broadcaster = broadcaster;
   }
 
   @Override
@@ -140,4 +165,35 @@ public class ParameterController extends AbstractGenericController<Parameter, Pa
   public ResponseEntity<Void> deleteData(@PathVariable @ValidUuid String id) {
     return super.deleteData(id);
   }
+
+  /**
+   * Stream the parameter changes as Server-Sent Events.
+   * 
+   * <p>
+   * Events are named {@code create}, {@code update} or {@code delete}, and hold the parameter
+   * changed. Their id is the global version of the parameters: a client reconnecting with a
+   * {@code Last-Event-ID} header receives the events it missed, or a single {@code reset} event
+   * if it is too far behind and should reload all the parameters.
+   * </p>
+   * 
+   * @param lastEventId the id of the last event received, if resuming a stream.
+   * 
+   * @return the stream of parameter changes.
+   */
+  @RequestMapping(value = EVENTS_PATH, method = RequestMethod.GET,
+      produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @PreAuthorize(value = "hasAuthority('" + AUTH_LIST + "')")
+  public SseEmitter streamEvents(
+      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+    Long version = null;
+    if (lastEventId != null && !lastEventId.isEmpty()) {
+      try {
+        version = Long.valueOf(lastEventId.trim());
+      } catch (NumberFormatException e) {
+        LOG.debug("Ignoring invalid Last-Event-ID: {}", lastEventId, e);
+      }
+    }
+
+    return broadcaster.subscribe(version);
+  }
 }
@@ -0,0 +1,456 @@
+/*
+ * Creation by madmath03 the 2018-02-17.
+ */
+
+package com.monogramm.starter.api.parameter.listener;
+
+import com.monogramm.starter.config.data.GenericOperation;
+import com.monogramm.starter.persistence.EntityNotFoundException;
+import com.monogramm.starter.persistence.parameter.service.IParameterService;
+import com.monogramm.starter.persistence.parameter.service.ParameterChangedEvent;
+import com.monogramm.starter.utils.JsonUtils;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Fan-out of the parameter changes to Server-Sent Events streams.
+ * 
+ * <p>
+ * Each {@link ParameterChangedEvent} is loaded and serialized once, then queued to every open
+ * stream, so that the number of streams costs no database read. The event id is the global
+ * version of the parameters, and the last events are kept so that a client reconnecting with a
+ * {@code Last-Event-ID} header only receives the events it missed. A client too far behind
+ * receives a {@value #EVENT_RESET} event and should reload all the parameters.
+ * </p>
+ * 
+ * <p>
+ * Each stream has a bounded queue, drained by a small shared pool of threads. A stream whose
+ * queue is full is closed rather than slowing down the others: its client reconnects and resumes
+ * from its last event id.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@Component
+public class ParameterChangeBroadcaster {
+
+  /**
+   * Logger for {@link ParameterChangeBroadcaster}.
+   */
+  private static final Logger LOG = LogManager.getLogger(ParameterChangeBroadcaster.class);
+
+  /**
+   * Name of the events of a parameter creation.
+   */
+  public static final String EVENT_CREATE = "create";
+  /**
+   * Name of the events of a parameter update.
+   */
+  public static final String EVENT_UPDATE = "update";
+  /**
+   * Name of the events of a parameter deletion.
+   */
+  public static final String EVENT_DELETE = "delete";
+  /**
+   * Name of the events telling that any parameter may have changed.
+   */
+  public static final String EVENT_RESET = "reset";
+
+  /**
+   * Property for the number of events queued per stream before the stream is closed.
+   */
+  public static final String PROP_BUFFER_SIZE = "parameter.events.buffer-size";
+  /**
+   * Property for the number of last events kept to resume streams.
+   */
+  public static final String PROP_HISTORY_SIZE = "parameter.events.history-size";
+  /**
+   * Property for the time, in milliseconds, after which a stream is closed.
+   */
+  public static final String PROP_TIMEOUT = "parameter.events.timeout";
+  /**
+   * Property for the number of threads writing the events to the streams.
+   */
+  public static final String PROP_THREADS = "parameter.events.threads";
+
+  private static final int DEFAULT_BUFFER_SIZE = 64;
+  private static final int DEFAULT_HISTORY_SIZE = 1024;
+  private static final long DEFAULT_TIMEOUT = 1_800_000L;
+  private static final int DEFAULT_THREADS = 2;
+
+  private static final String HEARTBEAT = "heartbeat";
+
+  private final IParameterService parameterService;
+
+  private final int bufferSize;
+
+  private final int historySize;
+
+  private final long timeout;
+
+  private final Executor executor;
+
+  /**
+   * The last events, ordered by version. Also guards the subscriptions, so that a stream resumes
+   * without missing nor repeating an event.
+   */
+  private final Deque<StreamEvent> history = new ArrayDeque<>();
+
+  private final Set<Subscription> subscriptions =
+      Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+  /**
+   * Create a {@link ParameterChangeBroadcaster} configured through the application properties.
+   * 
+   * @param parameterService the parameter service.
+   * @param env the application environment.
+   */
+  @Autowired
+  public ParameterChangeBroadcaster(final IParameterService parameterService,
+      final Environment env) {
+    this(parameterService, env.getProperty(PROP_BUFFER_SIZE, Integer.class, DEFAULT_BUFFER_SIZE),
+        env.getProperty(PROP_HISTORY_SIZE, Integer.class, DEFAULT_HISTORY_SIZE),
+        env.getProperty(PROP_TIMEOUT, Long.class, DEFAULT_TIMEOUT),
+        Executors.newFixedThreadPool(env.getProperty(PROP_THREADS, Integer.class, DEFAULT_THREADS),
+            new BroadcastThreadFactory()));
+  }
+
+  /**
+   * Create a {@link ParameterChangeBroadcaster}.
+   * 
+   * @param parameterService the parameter service.
+   * @param bufferSize the number of events queued per stream before the stream is closed.
+   * @param historySize the number of last events kept to resume streams.
+   * @param timeout the time, in milliseconds, after which a stream is closed.
+   * @param executor the executor writing the events to the streams.
+   * 
+   * @throws IllegalArgumentException if {@code parameterService} or {@code executor} is
+   *         {@code null}, or if a size is not strictly positive.
+   */
+  public ParameterChangeBroadcaster(final IParameterService parameterService,
+      final int bufferSize, final int historySize, final long timeout, final Executor executor) {
+    super();
+    if (parameterService == null) {
+      throw new IllegalArgumentException("Parameter service cannot be null.");
+    }
+    if (executor == null) {
+      throw new IllegalArgumentException("Executor cannot be null.");
+    }
+    if (bufferSize <= 0 || historySize <= 0) {
+      throw new IllegalArgumentException("Buffer and history sizes must be strictly positive.");
+    }
+    this.parameterService = parameterService;
+    this.bufferSize = bufferSize;
+    this.historySize = historySize;
+    this.timeout = timeout;
+    this.executor = executor;
+  }
+
+  /**
+   * Close every stream and stop writing events.
+   */
+  @PreDestroy
+  public void shutdown() {
+    for (final Subscription subscription : subscriptions) {
+      subscription.close();
+    }
+    if (executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdownNow();
+    }
+  }
+
+  /**
+   * Open a new stream of parameter changes.
+   * 
+   * @param lastEventId the id of the last event received by the client, {@code null} for a new
+   *        client.
+   * 
+   * @return the stream of parameter changes.
+   */
+  public SseEmitter subscribe(final Long lastEventId) {
+    final SseEmitter emitter = this.createEmitter(timeout);
+    final Subscription subscription = new Subscription(emitter);
+
+    emitter.onCompletion(() -> subscriptions.remove(subscription));
+    emitter.onTimeout(() -> subscriptions.remove(subscription));
+
+    synchronized (history) {
+      if (lastEventId != null && !history.isEmpty()) {
+        this.replay(subscription, lastEventId);
+      }
+      subscriptions.add(subscription);
+    }
+
+    return emitter;
+  }
+
+  private void replay(final Subscription subscription, final long lastEventId) {
+    if (lastEventId < history.getFirst().version - 1) {
+      subscription.offer(resetEvent(history.getLast().version));
+    } else {
+      for (final StreamEvent event : history) {
+        if (event.version > lastEventId) {
+          subscription.offer(event);
+        }
+      }
+    }
+  }
+
+  /**
+   * Create the emitter of a new stream.
+   * 
+   * @param streamTimeout the time, in milliseconds, after which the stream is closed.
+   * 
+   * @return a new emitter.
+   */
+  protected SseEmitter createEmitter(final long streamTimeout) {
+    return new SseEmitter(streamTimeout);
+  }
+
+  /**
+   * Queue a parameter change to every open stream.
+   * 
+   * @param event the parameter change.
+   */
+  @EventListener
+  public void onParameterChanged(final ParameterChangedEvent event) {
+    final StreamEvent streamEvent;
+    if (event.isReset()) {
+      streamEvent = resetEvent(event.getVersion());
+    } else {
+      streamEvent = new StreamEvent(event.getVersion(), eventName(event.getOperation()),
+          JsonUtils.json(this.payload(event)));
+    }
+
+    synchronized (history) {
+      if (event.isReset()) {
+        history.clear();
+      }
+      history.addLast(streamEvent);
+      while (history.size() > historySize) {
+        history.removeFirst();
+      }
+
+      for (final Subscription subscription : subscriptions) {
+        subscription.offer(streamEvent);
+      }
+    }
+  }
+
+  private Object payload(final ParameterChangedEvent event) {
+    Object payload = null;
+
+    if (event.getOperation() != GenericOperation.DELETE) {
+      try {
+        payload = parameterService.findDtoById(event.getParameterId());
+      } catch (EntityNotFoundException e) {
+        LOG.debug("Parameter changed then deleted: {}", event.getParameterId(), e);
+      }
+    }
+
+    if (payload == null) {
+      final Map<String, Object> identity = new LinkedHashMap<>();
+      identity.put("id", event.getParameterId());
+      identity.put("name", event.getName());
+      payload = identity;
+    }
+
+    return payload;
+  }
+
+  private static String eventName(final GenericOperation operation) {
+    final String name;
+    if (operation == GenericOperation.CREATE) {
+      name = EVENT_CREATE;
+    } else if (operation == GenericOperation.DELETE) {
+      name = EVENT_DELETE;
+    } else {
+      name = EVENT_UPDATE;
+    }
+    return name;
+  }
+
+  private static StreamEvent resetEvent(final long version) {
+    return new StreamEvent(version, EVENT_RESET, "{\"version\":" + version + '}');
+  }
+
+  /**
+   * Send a comment to every open stream, so that proxies keep idle streams open and that closed
+   * connections are detected.
+   */
+  @Scheduled(fixedDelayString = "${parameter.events.heartbeat-interval:15000}")
+  public void heartbeat() {
+    final StreamEvent event = new StreamEvent(-1L, null, null);
+    for (final Subscription subscription : subscriptions) {
+      subscription.offer(event);
+    }
+  }
+
+  /**
+   * Get the number of open streams.
+   * 
+   * @return the number of open streams.
+   */
+  public int getSubscriptionCount() {
+    return subscriptions.size();
+  }
+
+  /**
+   * An event serialized once for every stream.
+   * 
+   * @author madmath03
+   */
+  private static final class StreamEvent {
+    /**
+     * The version of the parameters, or {@code -1} for a heartbeat.
+     */
+    private final long version;
+
+    /**
+     * The event name, or {@code null} for a heartbeat.
+     */
+    private final String name;
+
+    /**
+     * The event data, as JSON.
+     */
+    private final String data;
+
+    private StreamEvent(final long version, final String name, final String data) {
+      this.version = version;
+      this.name = name;
+      this.data = data;
+    }
+
+    private SseEmitter.SseEventBuilder toSse() {
+      final SseEmitter.SseEventBuilder builder;
+      if (name == null) {
+        builder = SseEmitter.event().comment(HEARTBEAT);
+      } else {
+        builder = SseEmitter.event().id(String.valueOf(version)).name(name).data(data);
+      }
+      return builder;
+    }
+  }
+
+  /**
+   * An open stream and its bounded queue of events.
+   * 
+   * @author madmath03
+   */
+  private final class Subscription implements Runnable {
+    private final SseEmitter emitter;
+
+    private final Queue<StreamEvent> queue;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private volatile boolean closed;
+
+    private Subscription(final SseEmitter emitter) {
+      this.emitter = emitter;
+      this.queue = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    private void offer(final StreamEvent event) {
+      if (closed) {
+        return;
+      }
+      if (!queue.offer(event)) {
+        LOG.debug("Closing a parameter changes stream too slow to keep up");
+        this.close();
+      } else if (draining.compareAndSet(false, true)) {
+        try {
+          executor.execute(this);
+        } catch (RejectedExecutionException e) {
+          LOG.warn("Closing a parameter changes stream after a rejected write", e);
+          this.close();
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      boolean more = true;
+      while (more) {
+        final StreamEvent event = queue.poll();
+
+        if (event != null) {
+          this.send(event);
+        } else {
+          draining.set(false);
+          // Keep draining if an event was queued while releasing the flag
+          more = !queue.isEmpty() && draining.compareAndSet(false, true);
+        }
+      }
+    }
+
+    private void send(final StreamEvent event) {
+      if (closed) {
+        return;
+      }
+      try {
+        emitter.send(event.toSse());
+      } catch (IOException | IllegalStateException e) {
+        LOG.debug("Parameter changes stream closed by its client", e);
+        this.close();
+      }
+    }
+
+    private void close() {
+      closed = true;
+      subscriptions.remove(this);
+      queue.clear();
+      try {
+        emitter.complete();
+      } catch (IllegalStateException e) {
+        LOG.debug("Parameter changes stream already closed", e);
+      }
+    }
+  }
+
+  /**
+   * Thread factory naming the stream writing threads.
+   * 
+   * @author madmath03
+   */
+  private static final class BroadcastThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      final Thread thread =
+          new Thread(runnable, "parameter-events-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+}
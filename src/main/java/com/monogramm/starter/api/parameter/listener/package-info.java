@@ -0,0 +1,10 @@
+/*
+ * Creation by madmath03 the 2018-02-17.
+ */
+
+/**
+ * The <em>Parameters</em> API event listeners.
+ * 
+ * @author madmath03
+ */
+package com.monogramm.starter.api.parameter.listener;
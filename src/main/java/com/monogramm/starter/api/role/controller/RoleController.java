@@ -4,19 +4,30 @@ import com.monogramm.starter.api.AbstractGenericController;
 import com.monogramm.starter.config.OAuth2WebSecurityConfig;
 import com.monogramm.starter.config.data.GenericOperation;
 import com.monogramm.starter.dto.role.RoleDto;
+import com.monogramm.starter.dto.role.RolePermissionsDto;
+import com.monogramm.starter.dto.user.UserDto;
 import com.monogramm.starter.persistence.role.entity.Role;
+import com.monogramm.starter.persistence.role.exception.RoleNotFoundException;
 import com.monogramm.starter.persistence.role.service.IRoleService;
+import com.monogramm.starter.persistence.user.service.IUserService;
 import com.monogramm.starter.utils.validation.ValidUuid;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -27,6 +38,11 @@ import org.springframework.web.util.UriComponentsBuilder;
  */
 @RestController
 public class RoleController extends AbstractGenericController<Role, RoleDto> {
+  /**
+   * Logger for {@link RoleController}.
+   */
+  private static final Logger LOG = LogManager.getLogger(RoleController.class);
+
   /**
    * The main data type handled by this controller.
    */
@@ -35,6 +51,19 @@ public class RoleController extends AbstractGenericController<Role, RoleDto> {
    * The request base path of this controller.
    */
   public static final String CONTROLLER_PATH = '/' + TYPE;
+  /**
+   * The request path of the role permissions matrix.
+   */
+  public static final String PERMISSIONS_PATH = CONTROLLER_PATH + "/permissions";
+
+  /**
+   * The default number of users of a role returned at once.
+   */
+  public static final int DEFAULT_PAGE_SIZE = 100;
+  /**
+   * The maximum number of users of a role returned at once.
+   */
+  public static final int MAX_PAGE_SIZE = 1000;
 
   /**
    * The Authority data type of this controller.
@@ -78,14 +107,23 @@ public class RoleController extends AbstractGenericController<Role, RoleDto> {
       + GenericOperation.PERM_SEP + GenericOperation.PERM_DELETE;
 
 
+  private final IUserService userService;
+
   /**
    * Create a {@link RoleController}.
    * 
    * @param roleService the role service.
+   * @param userService the user service.
+   * 
+   * @throws IllegalArgumentException if {@code userService} is {@code null}.
    */
   @Autowired
-  public RoleController(IRoleService roleService) {
+  public RoleController(IRoleService roleService, IUserService userService) {
     super(roleService);
+    if (userService == null) {
+      throw new IllegalArgumentException("User service cannot be null.");
+    }
+    this.userService = userService;
   }
 
   @Override
@@ -135,4 +173,779 @@ public class RoleController extends AbstractGenericController<Role, RoleDto> {
   public ResponseEntity<Void> deleteData(@PathVariable @ValidUuid String id) {
     return super.deleteData(id);
   }
+
+  /**
+   * Grant permissions to a role
+   * 
+   * <p>
+   * Grant several permissions to a role at once, without loading the permissions already granted.
+   * Permissions not found or already granted are ignored.
+   * </p>
+   * 
+   * @param id <em>Required URL Parameter:</em> the role universal unique identifier (i.e.
+   *        {@code UUID}).
+   * @param permissions <em>Required Body Content:</em> a JSON array of permissions universal unique
+   *        identifiers (i.e. {@code UUID}).
+   * 
+   * @return
+   *         <ul>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Success Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.OK</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> the number of permissions granted
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Error Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.NOT_FOUND</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> <code>null</code>
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         <p>
+   *         OR
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.BAD_REQUEST</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> <code>null</code>
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         </ul>
+   */
+  @RequestMapping(value = CONTROLLER_PATH + "/{id}/permissions", method = RequestMethod.POST,
+      consumes = "application/json")
+  @PreAuthorize(value = "hasAuthority('" + AUTH_UPDATE + "')")
+  public ResponseEntity<Integer> addPermissions(@PathVariable @ValidUuid String id,
+      @RequestBody List<String> permissions) {
+    Integer updated = null;
+    HttpStatus status;
+
+    if (permissions == null) {
+      status = HttpStatus.BAD_REQUEST;
+    } else {
+      try {
+        updated = this.getService().addPermissions(UUID.fromString(id), toUuids(permissions));
+        status = HttpStatus.OK;
+      } catch (RoleNotFoundException e) {
+        LOG.debug("addPermissions(id={}, permissions={})", id, permissions, e);
+        status = HttpStatus.NOT_FOUND;
+      } catch (IllegalArgumentException e) {
+        LOG.debug("addPermissions(id={}, permissions={})", id, permissions, e);
+        status = HttpStatus.BAD_REQUEST;
+      }
+    }
+
+    return new ResponseEntity<>(updated, status);
+  }
+
+  /**
+   * Revoke permissions from a role
+   * 
+   * <p>
+   * Revoke several permissions from a role at once, without loading the permissions granted.
+   * Permissions not found or not granted are ignored.
+   * </p>
+   * 
+   * @param id <em>Required URL Parameter:</em> the role universal unique identifier (i.e.
+   *        {@code UUID}).
+   * @param permissions <em>Required Body Content:</em> a JSON array of permissions universal unique
+   *        identifiers (i.e. {@code UUID}).
+   * 
+   * @return
+   *         <ul>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Success Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.OK</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> the number of permissions revoked
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Error Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.NOT_FOUND</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> <code>null</code>
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         <p>
+   *         OR
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.BAD_REQUEST</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> <code>null</code>
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         </ul>
+   */
+  @RequestMapping(value = CONTROLLER_PATH + "/{id}/permissions", method = RequestMethod.DELETE,
+      consumes = "application/json")
+  @PreAuthorize(value = "hasAuthority('" + AUTH_UPDATE + "')")
+  public ResponseEntity<Integer> removePermissions(@PathVariable @ValidUuid String id,
+      @RequestBody List<String> permissions) {
+    Integer updated = null;
+    HttpStatus status;
+
+    if (permissions == null) {
+      status = HttpStatus.BAD_REQUEST;
+    } else {
+      try {
+        updated =
+            this.getService().removePermissions(UUID.fromString(id), toUuids(permissions));
+        status = HttpStatus.OK;
+      } catch (RoleNotFoundException e) {
+        LOG.debug("removePermissions(id={}, permissions={})", id, permissions, e);
+        status = HttpStatus.NOT_FOUND;
+      } catch (IllegalArgumentException e) {
+        LOG.debug("removePermissions(id={}, permissions={})", id, permissions, e);
+        status = HttpStatus.BAD_REQUEST;
+      }
+    }
+
+    return new ResponseEntity<>(updated, status);
+  }
+
+  /**
+   * Grant permissions to several roles
+   * 
+   * <p>
+   * Grant each of the permissions to each of the roles at once, in a single statement. Roles or
+   * permissions not found and permissions already granted are ignored.
+   * </p>
+   * 
+   * @param dto <em>Required Body Content:</em> the roles and the permissions universal unique
+   *        identifiers (i.e. {@code UUID}).
+   * 
+   * @return
+   *         <ul>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Success Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.OK</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> the number of permissions granted
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Error Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.BAD_REQUEST</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> <code>null</code>
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         </ul>
+   */
+  @RequestMapping(value = PERMISSIONS_PATH, method = RequestMethod.POST,
+      consumes = "application/json")
+  @PreAuthorize(value = "hasAuthority('" + AUTH_UPDATE + "')")
+  public ResponseEntity<Integer> addPermissionsMatrix(@RequestBody RolePermissionsDto dto) {
+    Integer updated = null;
+    HttpStatus status;
+
+    if (dto == null || dto.getRoles() == null || dto.getPermissions() == null) {
+      status = HttpStatus.BAD_REQUEST;
+    } else {
+      updated = this.getService().addPermissions(Arrays.asList(dto.getRoles()),
+          Arrays.asList(dto.getPermissions()));
+      status = HttpStatus.OK;
+    }
+
+    return new ResponseEntity<>(updated, status);
+  }
+
+  /**
+   * Revoke permissions from several roles
+   * 
+   * <p>
+   * Revoke each of the permissions from each of the roles at once, in a single statement. Roles or
+   * permissions not found and permissions not granted are ignored.
+   * </p>
+   * 
+   * @param dto <em>Required Body Content:</em> the roles and the permissions universal unique
+   *        identifiers (i.e. {@code UUID}).
+   * 
+   * @return
+   *         <ul>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Success Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.OK</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> the number of permissions revoked
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Error Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.BAD_REQUEST</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> <code>null</code>
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         </ul>
+   */
+  @RequestMapping(value = PERMISSIONS_PATH, method = RequestMethod.DELETE,
+      consumes = "application/json")
+  @PreAuthorize(value = "hasAuthority('" + AUTH_UPDATE + "')")
+  public ResponseEntity<Integer> removePermissionsMatrix(@RequestBody RolePermissionsDto dto) {
+    Integer updated = null;
+    HttpStatus status;
+
+    if (dto == null || dto.getRoles() == null || dto.getPermissions() == null) {
+      status = HttpStatus.BAD_REQUEST;
+    } else {
+      updated = this.getService().removePermissions(Arrays.asList(dto.getRoles()),
+          Arrays.asList(dto.getPermissions()));
+      status = HttpStatus.OK;
+    }
+
+    return new ResponseEntity<>(updated, status);
+  }
+
+  /**
+   * Get the users of a role
+   * 
+   * <p>
+   * Get a page of the users having a role, ordered by identifier. The next page is the one
+   * following the last user of the current page: pages are never counted nor skipped, so that
+   * roles with a lot of users can be browsed as fast as small ones.
+   * </p>
+   * 
+   * @param id <em>Required URL Parameter:</em> the role universal unique identifier (i.e.
+   *        {@code UUID}).
+   * @param after <em>Optional URL Parameter:</em> the identifier of the last user of the
+   *        previous page. The first page is returned if absent.
+   * @param size <em>Optional URL Parameter:</em> the maximum number of users to return, between
+   *        {@code 1} and {@link #MAX_PAGE_SIZE}. Defaults to {@link #DEFAULT_PAGE_SIZE}.
+   * 
+   * @return
+   *         <ul>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Success Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.OK</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> a JSON array of users
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Error Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.NOT_FOUND</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> <code>null</code>
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         <p>
+   *         OR
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.BAD_REQUEST</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> <code>null</code>
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         </ul>
+   */
+  @RequestMapping(value = CONTROLLER_PATH + "/{id}/users", method = RequestMethod.GET)
+  @PreAuthorize(value = "hasAuthority('" + AUTH_READ + "')")
+  public ResponseEntity<List<UserDto>> getUsers(@PathVariable @ValidUuid String id,
+      @RequestParam(value = "after", required = false) String after,
+      @RequestParam(value = "size", required = false) Integer size) {
+    List<UserDto> users = null;
+    HttpStatus status;
+
+    if (size != null && (size < 1 || size > MAX_PAGE_SIZE)) {
+      status = HttpStatus.BAD_REQUEST;
+    } else {
+      try {
+        final UUID afterId;
+        if (after == null) {
+          afterId = null;
+        } else {
+          afterId = UUID.fromString(after);
+        }
+        final int pageSize;
+        if (size == null) {
+          pageSize = DEFAULT_PAGE_SIZE;
+        } else {
+          pageSize = size;
+        }
+
+        users = userService.findAllDtosByRole(UUID.fromString(id), afterId, pageSize);
+        status = HttpStatus.OK;
+      } catch (RoleNotFoundException e) {
+        LOG.debug("getUsers(id={}, after={}, size={})", id, after, size, e);
+        status = HttpStatus.NOT_FOUND;
+      } catch (IllegalArgumentException e) {
+        LOG.debug("getUsers(id={}, after={}, size={})", id, after, size, e);
+        status = HttpStatus.BAD_REQUEST;
+      }
+    }
+
+    return new ResponseEntity<>(users, status);
+  }
+
+  /**
+   * Count the users of a role
+   * 
+   * <p>
+   * Count the users having a role, without loading them.
+   * </p>
+   * 
+   * @param id <em>Required URL Parameter:</em> the role universal unique identifier (i.e.
+   *        {@code UUID}).
+   * 
+   * @return
+   *         <ul>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Success Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.OK</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> the number of users having the role
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Error Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.NOT_FOUND</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> <code>null</code>
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         </ul>
+   */
+  @RequestMapping(value = CONTROLLER_PATH + "/{id}/users/count", method = RequestMethod.GET)
+  @PreAuthorize(value = "hasAuthority('" + AUTH_READ + "')")
+  public ResponseEntity<Long> countUsers(@PathVariable @ValidUuid String id) {
+    Long count = null;
+    HttpStatus status;
+
+    try {
+      count = userService.countByRole(UUID.fromString(id));
+      status = HttpStatus.OK;
+    } catch (RoleNotFoundException | IllegalArgumentException e) {
+      LOG.debug("countUsers(id={})", id, e);
+      status = HttpStatus.NOT_FOUND;
+    }
+
+    return new ResponseEntity<>(count, status);
+  }
+
+  /**
+   * Add users to a role
+   * 
+   * <p>
+   * Give a role to several users at once, replacing their current role, without loading the users
+   * of the role. Users not found are ignored.
+   * </p>
+   * 
+   * @param id <em>Required URL Parameter:</em> the role universal unique identifier (i.e.
+   *        {@code UUID}).
+   * @param users <em>Required Body Content:</em> a JSON array of users universal unique identifiers
+   *        (i.e. {@code UUID}).
+   * 
+   * @return
+   *         <ul>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Success Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.OK</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> the number of users updated
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Error Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.NOT_FOUND</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> <code>null</code>
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         <p>
+   *         OR
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.BAD_REQUEST</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> <code>null</code>
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         </ul>
+   */
+  @RequestMapping(value = CONTROLLER_PATH + "/{id}/users", method = RequestMethod.POST,
+      consumes = "application/json")
+  @PreAuthorize(value = "hasAuthority('" + AUTH_UPDATE + "')")
+  public ResponseEntity<Integer> addUsers(@PathVariable @ValidUuid String id,
+      @RequestBody List<String> users) {
+    Integer updated = null;
+    HttpStatus status;
+
+    if (users == null) {
+      status = HttpStatus.BAD_REQUEST;
+    } else {
+      try {
+        updated = userService.addToRole(UUID.fromString(id), toUuids(users));
+        status = HttpStatus.OK;
+      } catch (RoleNotFoundException e) {
+        LOG.debug("addUsers(id={}, users={})", id, users, e);
+        status = HttpStatus.NOT_FOUND;
+      } catch (IllegalArgumentException e) {
+        LOG.debug("addUsers(id={}, users={})", id, users, e);
+        status = HttpStatus.BAD_REQUEST;
+      }
+    }
+
+    return new ResponseEntity<>(updated, status);
+  }
+
+  /**
+   * Remove users from a role
+   * 
+   * <p>
+   * Remove a role from several users at once, without loading the users of the role. Users not
+   * found or not having the role are ignored.
+   * </p>
+   * 
+   * @param id <em>Required URL Parameter:</em> the role universal unique identifier (i.e.
+   *        {@code UUID}).
+   * @param users <em>Required Body Content:</em> a JSON array of users universal unique identifiers
+   *        (i.e. {@code UUID}).
+   * 
+   * @return
+   *         <ul>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Success Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.OK</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> the number of users updated
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Error Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.NOT_FOUND</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> <code>null</code>
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         <p>
+   *         OR
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.BAD_REQUEST</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> <code>null</code>
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         </ul>
+   */
+  @RequestMapping(value = CONTROLLER_PATH + "/{id}/users", method = RequestMethod.DELETE,
+      consumes = "application/json")
+  @PreAuthorize(value = "hasAuthority('" + AUTH_UPDATE + "')")
+  public ResponseEntity<Integer> removeUsers(@PathVariable @ValidUuid String id,
+      @RequestBody List<String> users) {
+    Integer updated = null;
+    HttpStatus status;
+
+    if (users == null) {
+      status = HttpStatus.BAD_REQUEST;
+    } else {
+      try {
+        updated = userService.removeFromRole(UUID.fromString(id), toUuids(users));
+        status = HttpStatus.OK;
+      } catch (RoleNotFoundException e) {
+        LOG.debug("removeUsers(id={}, users={})", id, users, e);
+        status = HttpStatus.NOT_FOUND;
+      } catch (IllegalArgumentException e) {
+        LOG.debug("removeUsers(id={}, users={})", id, users, e);
+        status = HttpStatus.BAD_REQUEST;
+      }
+    }
+
+    return new ResponseEntity<>(updated, status);
+  }
+
+  /**
+   * Parse universal unique identifiers.
+   * 
+   * @param ids the string representations of the identifiers.
+   * 
+   * @return the identifiers.
+   * 
+   * @throws IllegalArgumentException if one of the identifiers is not a valid {@code UUID}.
+   */
+  private static List<UUID> toUuids(final List<String> ids) {
+    final List<UUID> uuids = new ArrayList<>(ids.size());
+    for (final String id : ids) {
+      uuids.add(UUID.fromString(id));
+    }
+    return uuids;
+  }
 }
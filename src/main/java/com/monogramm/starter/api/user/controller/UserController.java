@@ -4,31 +4,33 @@ import com.monogramm.starter.api.AbstractGenericController;
 import com.monogramm.starter.api.user.event.OnPasswordResetEvent;
 import com.monogramm.starter.api.user.event.OnRegistrationCompleteEvent;
 import com.monogramm.starter.config.OAuth2WebSecurityConfig;
+import com.monogramm.starter.config.component.RateLimitExceededException;
+import com.monogramm.starter.config.component.RateLimiter;
 import com.monogramm.starter.config.data.GenericOperation;
 import com.monogramm.starter.dto.user.PasswordResetDto;
 import com.monogramm.starter.dto.user.RegistrationDto;
 import com.monogramm.starter.dto.user.UserDto;
 import com.monogramm.starter.persistence.EntityNotFoundException;
-import com.monogramm.starter.persistence.user.entity.PasswordResetToken;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.entity.VerificationToken;
-import com.monogramm.starter.persistence.user.exception.PasswordResetTokenNotFoundException;
 import com.monogramm.starter.persistence.user.exception.UserNotFoundException;
-import com.monogramm.starter.persistence.user.exception.VerificationTokenNotFoundException;
 import com.monogramm.starter.persistence.user.service.IPasswordResetTokenService;
 import com.monogramm.starter.persistence.user.service.IUserService;
 import com.monogramm.starter.persistence.user.service.IVerificationTokenService;
+import com.monogramm.starter.utils.JsonUtils;
 import com.monogramm.starter.utils.validation.PasswordConfirmationDto;
 import com.monogramm.starter.utils.validation.ValidUuid;
 
-import java.util.Date;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.validation.Valid;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
@@ -84,6 +86,10 @@ public class UserController extends AbstractGenericController<User, UserDto> {
    * The request path for changing password.
    */
   public static final String CHANGE_PWD_PATH = CONTROLLER_PATH + "/change_password";
+  /**
+   * The request path for activating several users at once.
+   */
+  public static final String ACTIVATE_PATH = CONTROLLER_PATH + "/activate";
 
   /**
    * The Authority data type of this controller.
@@ -132,6 +138,22 @@ public class UserController extends AbstractGenericController<User, UserDto> {
 
   private IPasswordResetTokenService passwordResetTokenService;
 
+  private RateLimiter rateLimiter;
+
+  /**
+   * Create a {@link UserController} without rate limiting.
+   * 
+   * @param userService the users service.
+   * @param eventPublisher the event publisher.
+   * @param verificationTokenService the verification token service.
+   * @param passwordResetTokenService the password reset token service.
+   */
+  public UserController(IUserService userService, ApplicationEventPublisher eventPublisher,
+      IVerificationTokenService verificationTokenService,
+      IPasswordResetTokenService passwordResetTokenService) {
+    this(userService, eventPublisher, verificationTokenService, passwordResetTokenService, null);
+  }
+
   /**
    * Create a {@link UserController}.
    * 
@@ -139,16 +161,19 @@ public class UserController extends AbstractGenericController<User, UserDto> {
    * @param eventPublisher the event publisher.
    * @param verificationTokenService the verification token service.
    * @param passwordResetTokenService the password reset token service.
+   * @param rateLimiter the rate limiter of the registration, password reset and verification
+   *        endpoints. May be {@code null}.
    */
   @Autowired
   public UserController(IUserService userService, ApplicationEventPublisher eventPublisher,
       IVerificationTokenService verificationTokenService,
-      IPasswordResetTokenService passwordResetTokenService) {
+      IPasswordResetTokenService passwordResetTokenService, RateLimiter rateLimiter) {
     super(userService);
 
     this.eventPublisher = eventPublisher;
     this.verificationTokenService = verificationTokenService;
     this.passwordResetTokenService = passwordResetTokenService;
+    this.rateLimiter = rateLimiter;
   }
 
   @Override
@@ -258,14 +283,12 @@ public class UserController extends AbstractGenericController<User, UserDto> {
   public ResponseEntity<UserDto> getUserByUsernameOrEmail(
       @RequestParam(required = false) String username,
       @RequestParam(required = false) String email) {
-    UserDto dto = null;
-    HttpStatus status;
+    final HttpStatus status;
 
-    final User entity = this.getService().findByUsernameOrEmail(username, email);
-    if (entity == null) {
+    final UserDto dto = this.getService().findDtoByUsernameOrEmail(username, email);
+    if (dto == null) {
       status = HttpStatus.NOT_FOUND;
     } else {
-      dto = this.getService().toDto(entity);
       status = HttpStatus.OK;
     }
 
@@ -312,14 +335,19 @@ public class UserController extends AbstractGenericController<User, UserDto> {
    * 
    *         </ul>
    * 
+   * @throws RateLimitExceededException if too many requests were sent by the client or for the
+   *         email address.
    */
   @RequestMapping(value = "/" + RESET_PWD_PATH, method = RequestMethod.POST)
   public ResponseEntity<Void> resetPassword(@RequestBody String email, WebRequest request) {
+    final String address = readEmail(email);
+    this.limit(RateLimiter.RESET_PASSWORD, address);
+
     User user;
     try {
-      user = this.getService().findByEmail(email);
+      user = this.getService().findByEmail(address);
     } catch (UserNotFoundException e) {
-      LOG.debug("resetPassword(email=" + email + ")", e);
+      LOG.debug("resetPassword(email={})", address, e);
       user = null;
     }
 
@@ -390,38 +418,35 @@ public class UserController extends AbstractGenericController<User, UserDto> {
    *         </li>
    * 
    *         </ul>
+   * 
+   * @throws RateLimitExceededException if too many requests were sent by the client or for the
+   *         email address.
    */
   @RequestMapping(value = "/" + RESET_PWD_PATH, method = RequestMethod.PUT)
   public ResponseEntity<Void> resetPassword(@RequestBody @Valid PasswordResetDto passwordReset) {
     HttpStatus status;
 
-    final Date now = new Date();
     final String email = passwordReset.getEmail();
     final String token = passwordReset.getToken();
+    this.limit(RateLimiter.RESET_PASSWORD, email);
     try {
-      final User user = getService().findByEmail(email);
-
-      if (user == null) {
+      // Check the token before hashing so that an unknown token costs a single indexed query
+      if (!passwordResetTokenService.isValid(email, token)) {
         status = HttpStatus.NOT_FOUND;
       } else {
-        // Retrieve reset request
-        final PasswordResetToken passwordResetToken =
-            passwordResetTokenService.findByUserAndCode(user, token);
+        // Hash before consuming the token so that no transaction waits for the hash
+        final String passwordHash = getService().hashPassword(passwordReset.getPassword());
 
-        // If a valid token exists and reset is successful
-        if (passwordResetToken != null && now.before(passwordResetToken.getExpiryDate())
-            && this.getService().setPassword(user.getId(), passwordReset.getPassword()) != null) {
+        // Invalidate a valid token and reset the password at once
+        if (passwordResetTokenService.consume(email, token, passwordHash)) {
           status = HttpStatus.NO_CONTENT;
-          // Invalidate the token
-          passwordResetToken.setExpiryDate(now);
-          passwordResetTokenService.update(passwordResetToken);
         } else {
           status = HttpStatus.NOT_FOUND;
         }
       }
 
-    } catch (PasswordResetTokenNotFoundException | UserNotFoundException e) {
-      LOG.debug("resetPassword(email=" + email + ",token=" + token + ")", e);
+    } catch (UserNotFoundException e) {
+      LOG.debug("resetPassword(email={},token={})", email, token, e);
       status = HttpStatus.NOT_FOUND;
     }
 
@@ -518,17 +543,17 @@ public class UserController extends AbstractGenericController<User, UserDto> {
       if (password == null) {
         status = HttpStatus.BAD_REQUEST;
       } else {
-        final User user =
+        final int updated =
             this.getService().setPassword(UUID.fromString(id), password.getPassword());
 
-        if (user == null) {
+        if (updated == 0) {
           status = HttpStatus.NOT_FOUND;
         } else {
           status = HttpStatus.NO_CONTENT;
         }
       }
     } catch (UserNotFoundException | IllegalArgumentException e) {
-      LOG.debug("changePassword(id=" + id + ")", e);
+      LOG.debug("changePassword(id={})", id, e);
       status = HttpStatus.NOT_FOUND;
     }
 
@@ -619,15 +644,15 @@ public class UserController extends AbstractGenericController<User, UserDto> {
       status = HttpStatus.BAD_REQUEST;
     } else {
       try {
-        final User user = this.getService().setEnabled(UUID.fromString(id), enabled);
+        final int updated = this.getService().setEnabled(UUID.fromString(id), enabled);
 
-        if (user == null) {
+        if (updated == 0) {
           status = HttpStatus.NOT_FOUND;
         } else {
           status = HttpStatus.NO_CONTENT;
         }
       } catch (UserNotFoundException | IllegalArgumentException e) {
-        LOG.debug("activate(id=" + id + ", enabled=" + enabled + ")", e);
+        LOG.debug("activate(id={}, enabled={})", id, enabled, e);
         status = HttpStatus.NOT_FOUND;
       }
     }
@@ -635,6 +660,93 @@ public class UserController extends AbstractGenericController<User, UserDto> {
     return new ResponseEntity<>(status);
   }
 
+  /**
+   * Activate several user accounts
+   * 
+   * <p>
+   * Change the active status of several user accounts at once. User accounts not found are
+   * ignored.
+   * </p>
+   * 
+   * @param ids <em>Required Body Content:</em> a JSON array of universal unique identifiers (i.e.
+   *        {@code UUID}).
+   * @param enabled <em>Required URL Parameter:</em> the new users active status.
+   * 
+   * @return
+   *         <ul>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Success Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.OK</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> the number of user accounts updated
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Error Response:</strong>
+   *         </p>
+   * 
+   *         <ul>
+   *         <li>
+   * 
+   *         <p>
+   *         <strong>Code:</strong> <code>HttpStatus.BAD_REQUEST</code>
+   *         </p>
+   *         <p>
+   *         <strong>Content:</strong> <code>null</code>
+   *         </p>
+   * 
+   *         </li>
+   *         </ul>
+   * 
+   *         </li>
+   * 
+   *         </ul>
+   */
+  @RequestMapping(value = ACTIVATE_PATH, method = RequestMethod.PUT,
+      consumes = "application/json")
+  @PreAuthorize(value = "hasAuthority('" + AUTH_UPDATE + "')")
+  public ResponseEntity<Integer> activateAll(@RequestBody List<String> ids,
+      @RequestParam(value = "enabled") Boolean enabled) {
+    Integer updated = null;
+    HttpStatus status;
+
+    if (ids == null || enabled == null) {
+      status = HttpStatus.BAD_REQUEST;
+    } else {
+      try {
+        final List<UUID> userIds = new ArrayList<>(ids.size());
+        for (final String id : ids) {
+          userIds.add(UUID.fromString(id));
+        }
+
+        updated = this.getService().setEnabled(userIds, enabled);
+        status = HttpStatus.OK;
+      } catch (IllegalArgumentException e) {
+        LOG.debug("activateAll(ids={}, enabled={})", ids, enabled, e);
+        status = HttpStatus.BAD_REQUEST;
+      }
+    }
+
+    return new ResponseEntity<>(updated, status);
+  }
+
   /**
    * Register a new user.
    * 
@@ -695,10 +807,14 @@ public class UserController extends AbstractGenericController<User, UserDto> {
    * 
    * @throws EntityNotFoundException if a default entity associated to a new user account is not
    *         found.
+   * @throws RateLimitExceededException if too many requests were sent by the client or for the
+   *         email address.
    */
   @RequestMapping(value = REGISTER_PATH, method = RequestMethod.POST, consumes = "application/json")
   public ResponseEntity<Void> register(@RequestBody @Valid RegistrationDto registration,
       WebRequest request) {
+    this.limit(RateLimiter.REGISTER, registration.getEmail());
+
     boolean registered;
     try {
       registered = this.getService().register(registration);
@@ -797,16 +913,21 @@ public class UserController extends AbstractGenericController<User, UserDto> {
    * 
    *         </ul>
    * 
+   * @throws RateLimitExceededException if too many requests were sent by the client or for the
+   *         email address.
    */
   @RequestMapping(value = SEND_VERIFICATION_PATH, method = RequestMethod.POST,
       consumes = "application/json")
   @PreAuthorize(value = "hasAuthority('" + AUTH_READ + "')")
   public ResponseEntity<Void> sendVerification(@RequestBody String email, WebRequest request) {
+    final String address = readEmail(email);
+    this.limit(RateLimiter.SEND_VERIFICATION, address);
+
     User user;
     try {
-      user = this.getService().findByEmail(email);
+      user = this.getService().findByEmail(address);
     } catch (UserNotFoundException e) {
-      LOG.debug("sendVerification(email=" + email + ")", e);
+      LOG.debug("sendVerification(email={})", address, e);
       user = null;
     }
 
@@ -827,6 +948,47 @@ public class UserController extends AbstractGenericController<User, UserDto> {
     return new ResponseEntity<>(status);
   }
 
+  private void limit(final String endpoint, final String email) {
+    if (rateLimiter != null) {
+      rateLimiter.acquire(endpoint, email);
+    }
+  }
+
+  /**
+   * Read the email address of a request body.
+   * 
+   * <p>
+   * The body may hold the raw address, a JSON string or a JSON object with an {@code email}
+   * property. The address is trimmed and lower-cased, so that every spelling of an address takes
+   * from the same rate limit bucket.
+   * </p>
+   * 
+   * @param body the request body.
+   * 
+   * @return the normalized email address, {@code null} if {@code body} is {@code null}.
+   */
+  static String readEmail(final String body) {
+    if (body == null) {
+      return null;
+    }
+
+    String email = body.trim();
+    try {
+      if (email.startsWith("\"")) {
+        email = JsonUtils.fromJson(email, String.class);
+      } else if (email.startsWith("{")) {
+        final Object value = JsonUtils.fromJson(email, Map.class).get("email");
+        if (value instanceof String) {
+          email = (String) value;
+        }
+      }
+    } catch (IOException e) {
+      LOG.debug("readEmail(body={})", body, e);
+    }
+
+    return User.normalize(email.trim());
+  }
+
   private void sendEmailVerificationEvent(final User user, final WebRequest request) {
     eventPublisher.publishEvent(
         new OnRegistrationCompleteEvent(user, request.getLocale(), request.getContextPath()));
@@ -896,29 +1058,19 @@ public class UserController extends AbstractGenericController<User, UserDto> {
   public ResponseEntity<Void> verify(@PathVariable String id, @RequestBody String token) {
     HttpStatus status;
 
-    final Date now = new Date();
     try {
       final UUID userId = UUID.fromString(id);
 
-      // Retrieve verification request
-      final VerificationToken verificationToken =
-          verificationTokenService.findByUserAndCode(userId, token);
-
-      // If a valid token exists and verification is successful
+      // Invalidate a valid token and verify the user account at once
       // TODO use more complex request body to verify email attached to token
-      if (verificationToken != null && now.before(verificationToken.getExpiryDate())
-          && this.getService().verify(userId) != null) {
+      if (verificationTokenService.consume(userId, token)) {
         status = HttpStatus.NO_CONTENT;
-        // Invalidate the token
-        verificationToken.setExpiryDate(now);
-        verificationTokenService.update(verificationToken);
       } else {
         status = HttpStatus.NOT_FOUND;
       }
 
-    } catch (VerificationTokenNotFoundException | UserNotFoundException
-        | IllegalArgumentException e) {
-      LOG.debug("verify(id=" + id + ",token=" + token + ")", e);
+    } catch (UserNotFoundException | IllegalArgumentException e) {
+      LOG.debug("verify(id={},token={})", id, token, e);
       status = HttpStatus.NOT_FOUND;
     }
 
@@ -6,6 +6,7 @@ package com.monogramm.starter.api.user.listener;
 
 import com.monogramm.starter.api.AbstractMailSendingListener;
 import com.monogramm.starter.api.user.event.OnPasswordResetEvent;
+import com.monogramm.starter.persistence.mail.service.IMailOutboxService;
 import com.monogramm.starter.persistence.user.entity.PasswordResetToken;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.exception.PasswordResetTokenNotFoundException;
@@ -14,7 +15,6 @@ import com.monogramm.starter.persistence.user.service.IPasswordResetTokenService
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.core.env.Environment;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Component;
 
 /**
@@ -38,15 +38,15 @@ public class PasswordResetListener
    * 
    * @param passwordResetTokenService password reset token service.
    * @param messages application messages.
-   * @param mailSender mail sender.
+   * @param outboxService mail outbox service.
    * @param env application environment.
    * 
    * @throws IllegalArgumentException if any of the parameters is {@code null}.
    */
   @Autowired
   public PasswordResetListener(IPasswordResetTokenService passwordResetTokenService,
-      MessageSource messages, JavaMailSender mailSender, Environment env) {
-    super(messages, mailSender, env);
+      MessageSource messages, IMailOutboxService outboxService, Environment env) {
+    super(messages, outboxService, env);
 
     if (passwordResetTokenService == null) {
       throw new IllegalArgumentException("Password reset token service cannot be null.");
@@ -6,6 +6,7 @@ package com.monogramm.starter.api.user.listener;
 
 import com.monogramm.starter.api.AbstractMailSendingListener;
 import com.monogramm.starter.api.user.event.OnRegistrationCompleteEvent;
+import com.monogramm.starter.persistence.mail.service.IMailOutboxService;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.entity.VerificationToken;
 import com.monogramm.starter.persistence.user.exception.VerificationTokenNotFoundException;
@@ -14,7 +15,6 @@ import com.monogramm.starter.persistence.user.service.IVerificationTokenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.core.env.Environment;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Component;
 
 /**
@@ -38,15 +38,15 @@ public class RegistrationListener
    * 
    * @param verificationService verification token service.
    * @param messages application messages.
-   * @param mailSender mail sender.
+   * @param outboxService mail outbox service.
    * @param env application environment.
    * 
    * @throws IllegalArgumentException if any of the parameters is {@code null}.
    */
   @Autowired
   public RegistrationListener(IVerificationTokenService verificationService, MessageSource messages,
-      JavaMailSender mailSender, Environment env) {
-    super(messages, mailSender, env);
+      IMailOutboxService outboxService, Environment env) {
+    super(messages, outboxService, env);
 
     if (verificationService == null) {
       throw new IllegalArgumentException("Verification token service cannot be null.");
@@ -0,0 +1,147 @@
+/*
+ * Creation by madmath03 the 2018-02-13.
+ */
+
+package com.monogramm.starter.config;
+
+import com.monogramm.starter.config.component.ReplicaRoutingDataSource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+/**
+ * Data source configuration.
+ * 
+ * <p>
+ * The primary database and its optional read replicas are each accessed through a connection
+ * pool. The read-only transactions are sent to the replicas.
+ * </p>
+ * 
+ * @see ReplicaRoutingDataSource
+ * 
+ * @author madmath03
+ */
+@Configuration
+public class DataSourceConfig {
+
+  /**
+   * Property for the comma separated JDBC URLs of the read replicas.
+   */
+  public static final String PROP_REPLICA_URLS = "datasource.replicas.urls";
+  /**
+   * Property for the user name of the read replicas. Defaults to the primary one.
+   */
+  public static final String PROP_REPLICA_USERNAME = "datasource.replicas.username";
+  /**
+   * Property for the password of the read replicas. Defaults to the primary one.
+   */
+  public static final String PROP_REPLICA_PASSWORD = "datasource.replicas.password";
+  /**
+   * Property for the query returning the replication lag of a replica, in seconds.
+   */
+  public static final String PROP_LAG_QUERY = "datasource.replicas.lag-query";
+  /**
+   * Property for the maximum replication lag, in seconds, of a replica still receiving reads.
+   */
+  public static final String PROP_MAX_LAG = "datasource.replicas.max-lag";
+  /**
+   * Property for the time, in seconds, the replication lag query may run.
+   */
+  public static final String PROP_CHECK_TIMEOUT = "datasource.replicas.check-timeout";
+
+  private static final String DEFAULT_LAG_QUERY = "SHOW SLAVE STATUS";
+  private static final long DEFAULT_MAX_LAG = 5L;
+
+  @Autowired
+  private Environment env;
+
+  private final List<org.apache.tomcat.jdbc.pool.DataSource> pools = new ArrayList<>();
+
+  /**
+   * Data source sending the read-only transactions to the read replicas.
+   * 
+   * @return routing data source.
+   */
+  @Bean
+  public ReplicaRoutingDataSource routingDataSource() {
+    final String username = env.getProperty("spring.datasource.username");
+    final String password = env.getProperty("spring.datasource.password");
+    final DataSource primary =
+        this.pool(env.getProperty("spring.datasource.url"), username, password);
+
+    final String replicaUsername = env.getProperty(PROP_REPLICA_USERNAME, username);
+    final String replicaPassword = env.getProperty(PROP_REPLICA_PASSWORD, password);
+    final Map<String, DataSource> replicas = new LinkedHashMap<>();
+    for (final String url : StringUtils
+        .commaDelimitedListToStringArray(env.getProperty(PROP_REPLICA_URLS, ""))) {
+      final String replicaUrl = url.trim();
+      if (!replicaUrl.isEmpty()) {
+        replicas.put(replicaUrl, this.pool(replicaUrl, replicaUsername, replicaPassword));
+      }
+    }
+
+    return new ReplicaRoutingDataSource(primary, replicas,
+        env.getProperty(PROP_LAG_QUERY, DEFAULT_LAG_QUERY),
+        env.getProperty(PROP_MAX_LAG, Long.class, DEFAULT_MAX_LAG),
+        env.getProperty(PROP_CHECK_TIMEOUT, Integer.class,
+            ReplicaRoutingDataSource.DEFAULT_CHECK_TIMEOUT));
+  }
+
+  /**
+   * Data source of the application, only getting a connection from the primary or a replica
+   * once a statement is executed, by then knowing whether the transaction is read-only.
+   * 
+   * @return data source.
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource() {
+    return new LazyConnectionDataSourceProxy(routingDataSource());
+  }
+
+  private DataSource pool(final String url, final String username, final String password) {
+    final org.apache.tomcat.jdbc.pool.DataSource pool =
+        new org.apache.tomcat.jdbc.pool.DataSource();
+
+    pool.setDriverClassName(env.getProperty("spring.datasource.driver-class-name"));
+    pool.setUrl(url);
+    pool.setUsername(username);
+    pool.setPassword(password);
+    pool.setMaxWait(env.getProperty("spring.datasource.tomcat.max-wait", Integer.class,
+        pool.getMaxWait()));
+    pool.setMaxActive(env.getProperty("spring.datasource.tomcat.max-active", Integer.class,
+        pool.getMaxActive()));
+    pool.setMaxIdle(env.getProperty("spring.datasource.tomcat.max-idle", Integer.class,
+        pool.getMaxIdle()));
+    pool.setMinIdle(env.getProperty("spring.datasource.tomcat.min-idle", Integer.class,
+        pool.getMinIdle()));
+
+    pools.add(pool);
+
+    return pool;
+  }
+
+  /**
+   * Close the connection pools.
+   */
+  @PreDestroy
+  public void close() {
+    for (final org.apache.tomcat.jdbc.pool.DataSource pool : pools) {
+      pool.close();
+    }
+  }
+
+}
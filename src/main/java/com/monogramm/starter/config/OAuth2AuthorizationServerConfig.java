@@ -4,8 +4,11 @@
 
 package com.monogramm.starter.config;
 
+import com.monogramm.starter.config.component.CachingClientDetailsService;
 import com.monogramm.starter.config.component.CustomPasswordEncoder;
 import com.monogramm.starter.config.component.CustomTokenEnhancer;
+import com.monogramm.starter.config.component.CustomWebResponseExceptionTranslator;
+import com.monogramm.starter.config.component.KeyRotatingJwtAccessTokenConverter;
 import com.monogramm.starter.persistence.user.service.IUserService;
 
 import java.util.Arrays;
@@ -18,21 +21,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Primary;
-import org.springframework.core.env.Environment;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.oauth2.config.annotation.configurers.ClientDetailsServiceConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.AuthorizationServerConfigurerAdapter;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableAuthorizationServer;
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerEndpointsConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerSecurityConfigurer;
-import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.client.JdbcClientDetailsService;
 import org.springframework.security.oauth2.provider.token.TokenEnhancer;
 import org.springframework.security.oauth2.provider.token.TokenEnhancerChain;
 import org.springframework.security.oauth2.provider.token.TokenStore;
-import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
-import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
 
 /**
  * OAuth2AuthorizationServerConfig.
@@ -44,7 +42,7 @@ import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
 public class OAuth2AuthorizationServerConfig extends AuthorizationServerConfigurerAdapter {
 
   @Autowired
-  private Environment env;
+  private DataSource dataSource;
 
   @Autowired
   @Qualifier("authenticationManagerBean")
@@ -53,6 +51,22 @@ public class OAuth2AuthorizationServerConfig extends AuthorizationServerConfigur
   @Autowired
   private IUserService userService;
 
+  /**
+   * Token store shared with the resource server.
+   * 
+   * @see OAuth2TokenConfig#tokenStore()
+   */
+  @Autowired
+  private TokenStore tokenStore;
+
+  /**
+   * Access token converter shared with the resource server.
+   * 
+   * @see OAuth2TokenConfig#accessTokenConverter()
+   */
+  @Autowired
+  private KeyRotatingJwtAccessTokenConverter accessTokenConverter;
+
   @Override
   public void configure(final AuthorizationServerSecurityConfigurer oauthServer) throws Exception {
     oauthServer.tokenKeyAccess("permitAll()").checkTokenAccess("isAuthenticated()")
@@ -61,53 +75,37 @@ public class OAuth2AuthorizationServerConfig extends AuthorizationServerConfigur
 
   @Override
   public void configure(final ClientDetailsServiceConfigurer clients) throws Exception {
-    clients.jdbc(dataSource()).passwordEncoder(new CustomPasswordEncoder());
-  }
-
-  @Override
-  public void configure(final AuthorizationServerEndpointsConfigurer endpoints) throws Exception {
-    final TokenEnhancerChain tokenEnhancerChain = new TokenEnhancerChain();
-
-    tokenEnhancerChain.setTokenEnhancers(Arrays.asList(tokenEnhancer(), accessTokenConverter()));
-
-    endpoints.tokenStore(tokenStore()).accessTokenConverter(accessTokenConverter())
-        .tokenEnhancer(tokenEnhancerChain).authenticationManager(authenticationManager);
+    /*
+     * Only hand the lookup over: the caching service must stay a single bean so that it is
+     * initialized and scheduled only once.
+     */
+    final CachingClientDetailsService clientDetailsService = cachingClientDetailsService();
+    clients.withClientDetails(clientDetailsService::loadClientByClientId);
   }
 
   /**
-   * Default token services with support of refresh tokens.
+   * Client details service keeping the OAuth2 clients of the database in memory.
    * 
-   * @return default token services.
+   * @return client details service.
    */
   @Bean
-  @Primary
-  public DefaultTokenServices tokenServices() {
-    final DefaultTokenServices defaultTokenServices = new DefaultTokenServices();
+  public CachingClientDetailsService cachingClientDetailsService() {
+    final JdbcClientDetailsService jdbcClientDetailsService =
+        new JdbcClientDetailsService(dataSource);
+    jdbcClientDetailsService.setPasswordEncoder(new CustomPasswordEncoder());
 
-    defaultTokenServices.setTokenStore(tokenStore());
-    defaultTokenServices.setSupportRefreshToken(true);
-
-    return defaultTokenServices;
+    return new CachingClientDetailsService(jdbcClientDetailsService);
   }
 
-  @Bean
-  public TokenStore tokenStore() {
-    return new JwtTokenStore(accessTokenConverter());
-  }
-
-  /**
-   * Access token converter.
-   * 
-   * @return access token converter.
-   */
-  @Bean
-  public JwtAccessTokenConverter accessTokenConverter() {
-    final JwtAccessTokenConverter converter = new JwtAccessTokenConverter();
+  @Override
+  public void configure(final AuthorizationServerEndpointsConfigurer endpoints) throws Exception {
+    final TokenEnhancerChain tokenEnhancerChain = new TokenEnhancerChain();
 
-    // TODO Use an asymmetric key: http://www.baeldung.com/spring-security-oauth-jwt#asymmetric
-    converter.setSigningKey("123");
+    tokenEnhancerChain.setTokenEnhancers(Arrays.asList(tokenEnhancer(), accessTokenConverter));
 
-    return converter;
+    endpoints.tokenStore(tokenStore).accessTokenConverter(accessTokenConverter)
+        .tokenEnhancer(tokenEnhancerChain).authenticationManager(authenticationManager)
+        .exceptionTranslator(new CustomWebResponseExceptionTranslator());
   }
 
   @Bean
@@ -119,23 +117,4 @@ public class OAuth2AuthorizationServerConfig extends AuthorizationServerConfigur
   public SessionFactory sessionFactory(HibernateEntityManagerFactory hemf) {
     return hemf.getSessionFactory();
   }
-
-  // JDBC token store configuration
-
-  /**
-   * Data source configured with the application properties.
-   * 
-   * @return data source.
-   */
-  @Bean
-  public DataSource dataSource() {
-    DriverManagerDataSource dataSource = new DriverManagerDataSource();
-
-    dataSource.setDriverClassName(env.getProperty("spring.datasource.driver-class-name"));
-    dataSource.setUrl(env.getProperty("spring.datasource.url"));
-    dataSource.setUsername(env.getProperty("spring.datasource.username"));
-    dataSource.setPassword(env.getProperty("spring.datasource.password"));
-
-    return dataSource;
-  }
 }
@@ -0,0 +1,97 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.config;
+
+import com.monogramm.starter.config.component.CachingTokenServices;
+import com.monogramm.starter.config.component.JwtKeyManager;
+import com.monogramm.starter.config.component.KeyRotatingJwtAccessTokenConverter;
+import com.monogramm.starter.config.component.RemoteJwkSet;
+import com.monogramm.starter.config.component.RevocableJwtTokenStore;
+import com.monogramm.starter.config.component.TokenRevocationStore;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+/**
+ * OAuth2 tokens configuration, shared by the authorization server and the resource server.
+ * 
+ * <p>
+ * Each token bean is defined once, so that both servers sign, read and revoke the tokens through
+ * the same instances whatever the order the configurations are loaded in.
+ * </p>
+ * 
+ * @see OAuth2AuthorizationServerConfig
+ * @see OAuth2ResourceServerConfig
+ * 
+ * @author madmath03
+ */
+@Configuration
+public class OAuth2TokenConfig {
+
+  @Autowired
+  private Environment env;
+
+  @Autowired
+  private JwtKeyManager keyManager;
+
+  @Autowired
+  private TokenRevocationStore revocationStore;
+
+  /**
+   * JSON Web Token store revoking the tokens through the {@link TokenRevocationStore}.
+   * 
+   * @return token store.
+   */
+  @Bean
+  public TokenStore tokenStore() {
+    return new RevocableJwtTokenStore(accessTokenConverter(), revocationStore);
+  }
+
+  /**
+   * Access token converter signing with the asymmetric keys of the {@link JwtKeyManager}.
+   * 
+   * <p>
+   * Tokens signed by keys unknown to the key manager are verified with the JSON Web Key set of the
+   * authorization server, if configured.
+   * </p>
+   * 
+   * @return access token converter.
+   */
+  @Bean
+  public KeyRotatingJwtAccessTokenConverter accessTokenConverter() {
+    final KeyRotatingJwtAccessTokenConverter converter =
+        new KeyRotatingJwtAccessTokenConverter(keyManager);
+
+    final String jwksUri = env.getProperty(RemoteJwkSet.PROP_URI);
+    if (jwksUri != null && !jwksUri.isEmpty()) {
+      converter.setRemoteJwkSet(new RemoteJwkSet(jwksUri,
+          env.getProperty(JwtKeyManager.PROP_MIN_REFRESH_INTERVAL, Long.class, 10_000L)));
+    }
+
+    return converter;
+  }
+
+  /**
+   * Token services with support of refresh tokens, keeping the authentications of the access
+   * tokens already verified.
+   * 
+   * @return token services.
+   */
+  @Bean
+  @Primary
+  public CachingTokenServices tokenServices() {
+    final CachingTokenServices tokenServices = new CachingTokenServices(env);
+
+    tokenServices.setTokenStore(tokenStore());
+    tokenServices.setSupportRefreshToken(true);
+    tokenServices.setRevocationStore(revocationStore);
+
+    return tokenServices;
+  }
+}
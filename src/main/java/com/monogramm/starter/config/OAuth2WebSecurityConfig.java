@@ -5,17 +5,16 @@
 package com.monogramm.starter.config;
 
 import com.monogramm.starter.config.component.CustomPasswordEncoder;
+import com.monogramm.starter.config.component.CustomUserDetailsService;
+import com.monogramm.starter.config.component.PasswordHashingExecutor;
 import com.monogramm.starter.config.filter.JsonToUrlEncodedAuthenticationFilter;
 
-import javax.sql.DataSource;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.SecurityProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.core.env.Environment;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -50,34 +49,28 @@ public class OAuth2WebSecurityConfig extends WebSecurityConfigurerAdapter {
   @Autowired
   private JsonToUrlEncodedAuthenticationFilter jsonFilter;
 
+  @Autowired
+  private PasswordHashingExecutor passwordHashingExecutor;
+
+  @Autowired
+  private CustomUserDetailsService userDetailsService;
+
   /**
    * Configuration of the global user details.
    * 
+   * <p>
+   * The user account, its role and permissions are loaded at once by the
+   * {@link CustomUserDetailsService}.
+   * </p>
+   * 
    * @param auth authentication manager builder. Auto wired by Spring.
    * 
    * @throws Exception if the configuration fails.
    */
   @Autowired
   public void globalUserDetails(final AuthenticationManagerBuilder auth) throws Exception {
-    final StringBuilder usersByUsernameQuery = new StringBuilder("select email, password, enabled ")
-        .append("from user ").append("where email = ?");
-
-    final StringBuilder authoritiesByUsernameQuery = new StringBuilder();
-    authoritiesByUsernameQuery.append("select u.email, CONCAT('").append(ROLE_PREFIX)
-        .append("', UPPER(r.name)) ").append("from user u, role r ")
-        .append("where u.email = ? ").append("and u.role = r.id");
-
-    final StringBuilder groupAuthoritiesByUsername = new StringBuilder();
-    groupAuthoritiesByUsername.append("select r.id, r.name, p.name ")
-        .append("from role r, user u, permission p, role_permission rp ")
-        .append("where u.email = ? ")
-        .append("and p.id = rp.permission_id and r.id = rp.role_id and u.role = r.id");
-
-    auth.jdbcAuthentication().dataSource(dataSource())
-        .usersByUsernameQuery(usersByUsernameQuery.toString())
-        .authoritiesByUsernameQuery(authoritiesByUsernameQuery.toString())
-        .groupAuthoritiesByUsername(groupAuthoritiesByUsername.toString())
-        .passwordEncoder(new CustomPasswordEncoder());
+    auth.userDetailsService(userDetailsService)
+        .passwordEncoder(new CustomPasswordEncoder(passwordHashingExecutor));
   }
 
   @Override
@@ -104,23 +97,4 @@ public class OAuth2WebSecurityConfig extends WebSecurityConfigurerAdapter {
     }
   }
 
-  // JDBC configuration
-
-  /**
-   * Data source configured with the application properties.
-   * 
-   * @return data source.
-   */
-  @Bean
-  public DataSource dataSource() {
-    final DriverManagerDataSource dataSource = new DriverManagerDataSource();
-
-    dataSource.setDriverClassName(env.getProperty("spring.datasource.driver-class-name"));
-    dataSource.setUrl(env.getProperty("spring.datasource.url"));
-    dataSource.setUsername(env.getProperty("spring.datasource.username"));
-    dataSource.setPassword(env.getProperty("spring.datasource.password"));
-
-    return dataSource;
-  }
-
 }
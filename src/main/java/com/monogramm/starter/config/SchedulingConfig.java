@@ -0,0 +1,60 @@
+/*
+ * Creation by madmath03 the 2018-02-16.
+ */
+
+package com.monogramm.starter.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Scheduled jobs configuration.
+ * 
+ * <p>
+ * Spring runs all the scheduled jobs on a single thread by default, so that a slow purge or a
+ * hung replica check would delay the frequent polls, such as the parameter changes one. The jobs
+ * run instead on a pool with a thread for each of them: a job scheduled with a fixed delay never
+ * runs concurrently with itself, so none of them waits for another.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@Configuration
+public class SchedulingConfig implements SchedulingConfigurer {
+
+  /**
+   * Property for the number of threads running the scheduled jobs.
+   */
+  public static final String PROP_POOL_SIZE = "scheduling.pool-size";
+
+  private static final int DEFAULT_POOL_SIZE = 24;
+
+  @Autowired
+  private Environment env;
+
+  /**
+   * Scheduler running the scheduled jobs.
+   * 
+   * @return task scheduler.
+   */
+  @Bean(destroyMethod = "shutdown")
+  public ThreadPoolTaskScheduler taskScheduler() {
+    final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    scheduler.setPoolSize(env.getProperty(PROP_POOL_SIZE, Integer.class, DEFAULT_POOL_SIZE));
+    scheduler.setThreadNamePrefix("scheduling-");
+
+    return scheduler;
+  }
+
+  @Override
+  public void configureTasks(final ScheduledTaskRegistrar taskRegistrar) {
+    taskRegistrar.setTaskScheduler(this.taskScheduler());
+  }
+
+}
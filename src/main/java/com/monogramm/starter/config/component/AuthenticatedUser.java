@@ -0,0 +1,150 @@
+/*
+ * Creation by madmath03 the 2018-02-08.
+ */
+
+package com.monogramm.starter.config.component;
+
+import com.monogramm.starter.config.OAuth2WebSecurityConfig;
+import com.monogramm.starter.persistence.permission.entity.Permission;
+import com.monogramm.starter.persistence.role.entity.Role;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * The principal of an authenticated user account.
+ * 
+ * <p>
+ * Besides the credentials and authorities, it carries the user account details written in the
+ * access tokens so that they are never loaded again once authenticated. The
+ * {@link #getUsername()} is the login of the user, that is its email address, while
+ * {@link #getName()} is its user name.
+ * </p>
+ * 
+ * @author madmath03
+ */
+public class AuthenticatedUser extends User {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = 2923587101578440127L;
+
+  private final UUID id;
+
+  private final String name;
+
+  private final boolean verified;
+
+  /**
+   * Create a {@link AuthenticatedUser} from a user account.
+   * 
+   * @param user a user account, with its role and the role permissions loaded.
+   * 
+   * @throws NullPointerException if {@code user} is {@code null}.
+   */
+  public AuthenticatedUser(final com.monogramm.starter.persistence.user.entity.User user) {
+    this(user.getId(), user.getUsername(), user.getEmail(), user.getPassword(), user.isEnabled(),
+        user.isVerified(), authorities(user.getRole()));
+  }
+
+  /**
+   * Create a copy of a {@link AuthenticatedUser}.
+   * 
+   * @param other the other principal to copy.
+   * 
+   * @throws NullPointerException if {@code other} is {@code null}.
+   */
+  public AuthenticatedUser(final AuthenticatedUser other) {
+    this(other.getId(), other.getName(), other.getUsername(), other.getPassword(),
+        other.isEnabled(), other.isVerified(), other.getAuthorities());
+  }
+
+  /**
+   * Create a {@link AuthenticatedUser}.
+   * 
+   * @param id the user account identifier.
+   * @param name the user name.
+   * @param email the email address, used as login.
+   * @param password the password hash. May be {@code null}.
+   * @param enabled whether the user account is enabled.
+   * @param verified whether the user account is verified.
+   * @param authorities the authorities granted to the user account.
+   */
+  public AuthenticatedUser(final UUID id, final String name, final String email,
+      final String password, final boolean enabled, final boolean verified,
+      final Collection<? extends GrantedAuthority> authorities) {
+    super(email, password == null ? "" : password, enabled, true, true, true, authorities);
+    this.id = id;
+    this.name = name;
+    this.verified = verified;
+  }
+
+  /**
+   * Build the authorities granted by a role: the role itself, prefixed by
+   * {@link OAuth2WebSecurityConfig#ROLE_PREFIX}, and its permissions.
+   * 
+   * @param role a role. May be {@code null}.
+   * 
+   * @return the authorities granted by the role.
+   */
+  static List<GrantedAuthority> authorities(final Role role) {
+    final List<GrantedAuthority> authorities = new ArrayList<>();
+
+    if (role != null) {
+      authorities.add(new SimpleGrantedAuthority(
+          OAuth2WebSecurityConfig.ROLE_PREFIX + role.getName().toUpperCase(Locale.ROOT)));
+
+      for (final Permission permission : role.getPermissions()) {
+        authorities.add(new SimpleGrantedAuthority(
+            OAuth2WebSecurityConfig.AUTH_PREFIX + permission.getName()));
+      }
+    }
+
+    return authorities;
+  }
+
+  /**
+   * Get the {@link #id}.
+   * 
+   * @return the {@link #id}.
+   */
+  public UUID getId() {
+    return id;
+  }
+
+  /**
+   * Get the {@link #name}.
+   * 
+   * @return the {@link #name}.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Get the email address of the user account.
+   * 
+   * @return the email address of the user account.
+   */
+  public String getEmail() {
+    return getUsername();
+  }
+
+  /**
+   * Get the {@link #verified}.
+   * 
+   * @return the {@link #verified}.
+   */
+  public boolean isVerified() {
+    return verified;
+  }
+
+}
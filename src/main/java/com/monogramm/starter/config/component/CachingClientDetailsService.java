@@ -0,0 +1,212 @@
+/*
+ * Creation by madmath03 the 2018-02-12.
+ */
+
+package com.monogramm.starter.config.component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.ClientRegistrationException;
+import org.springframework.security.oauth2.provider.NoSuchClientException;
+import org.springframework.security.oauth2.provider.client.JdbcClientDetailsService;
+
+/**
+ * Client details service keeping all the OAuth2 clients in memory.
+ * 
+ * <p>
+ * The clients are loaded at startup and reloaded at a regular interval, or on demand through
+ * {@link #refresh()}. Once loaded, the clients in memory are authoritative: a client added or
+ * updated in database is only known after the next refresh. Until the clients could be loaded
+ * once, each client is read from database.
+ * </p>
+ * 
+ * @author madmath03
+ */
+public class CachingClientDetailsService implements ClientDetailsService {
+
+  /**
+   * Logger for {@link CachingClientDetailsService}.
+   */
+  private static final Logger LOG = LogManager.getLogger(CachingClientDetailsService.class);
+
+  private final JdbcClientDetailsService delegate;
+
+  /**
+   * The clients by client id, replaced as a whole on each refresh.
+   */
+  private volatile Map<String, ClientDetails> clients;
+
+  private volatile long lastRefreshDate;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder refreshes = new LongAdder();
+  private final LongAdder refreshFailures = new LongAdder();
+
+  /**
+   * Create a {@link CachingClientDetailsService}.
+   * 
+   * @param delegate the client details service reading the clients from database.
+   * 
+   * @throws IllegalArgumentException if {@code delegate} is {@code null}.
+   */
+  public CachingClientDetailsService(final JdbcClientDetailsService delegate) {
+    super();
+    if (delegate == null) {
+      throw new IllegalArgumentException("Client details service cannot be null.");
+    }
+    this.delegate = delegate;
+  }
+
+  @Override
+  public ClientDetails loadClientByClientId(final String clientId)
+      throws ClientRegistrationException {
+    final Map<String, ClientDetails> loaded = this.clients;
+    if (loaded == null) {
+      return delegate.loadClientByClientId(clientId);
+    }
+
+    final ClientDetails client = loaded.get(clientId);
+    if (client == null) {
+      misses.increment();
+      throw new NoSuchClientException("No client with requested id: " + clientId);
+    }
+    hits.increment();
+
+    return client;
+  }
+
+  /**
+   * Reload all the clients from database.
+   * 
+   * <p>
+   * The clients in memory are kept if they cannot be reloaded.
+   * </p>
+   * 
+   * @return {@code true} if the clients were reloaded.
+   */
+  @PostConstruct
+  @Scheduled(initialDelayString = "${oauth.clients.refresh-interval:300000}",
+      fixedDelayString = "${oauth.clients.refresh-interval:300000}")
+  public synchronized boolean refresh() {
+    final List<ClientDetails> all;
+    try {
+      all = delegate.listClientDetails();
+    } catch (DataAccessException e) {
+      refreshFailures.increment();
+      LOG.error("OAuth2 clients refresh failed", e);
+      return false;
+    }
+
+    final Map<String, ClientDetails> loaded = new LinkedHashMap<>(all.size());
+    for (final ClientDetails client : all) {
+      loaded.put(client.getClientId(), client);
+    }
+
+    this.clients = Collections.unmodifiableMap(loaded);
+    this.lastRefreshDate = this.currentTimeMillis();
+    refreshes.increment();
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Loaded {} OAuth2 clients", loaded.size());
+    }
+
+    return true;
+  }
+
+  /**
+   * Get the current time, in milliseconds.
+   * 
+   * @return the current time, in milliseconds.
+   */
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  /**
+   * Get the clients in memory.
+   * 
+   * @return the clients in memory, empty if they were never loaded.
+   */
+  public Collection<ClientDetails> getClients() {
+    final Map<String, ClientDetails> loaded = this.clients;
+
+    final Collection<ClientDetails> result;
+    if (loaded == null) {
+      result = Collections.emptyList();
+    } else {
+      result = loaded.values();
+    }
+    return result;
+  }
+
+  /**
+   * Get the date of the last successful refresh, or {@code null} if the clients were never
+   * loaded.
+   * 
+   * @return the date of the last successful refresh.
+   */
+  public Date getLastRefreshDate() {
+    final long date = lastRefreshDate;
+
+    final Date lastRefresh;
+    if (date == 0L) {
+      lastRefresh = null;
+    } else {
+      lastRefresh = new Date(date);
+    }
+
+    return lastRefresh;
+  }
+
+  /**
+   * Get the number of clients found in memory.
+   * 
+   * @return the number of clients found in memory.
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Get the number of unknown clients requested.
+   * 
+   * @return the number of unknown clients requested.
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Get the number of successful refreshes.
+   * 
+   * @return the number of successful refreshes.
+   */
+  public long getRefreshCount() {
+    return refreshes.sum();
+  }
+
+  /**
+   * Get the number of failed refreshes.
+   * 
+   * @return the number of failed refreshes.
+   */
+  public long getRefreshFailureCount() {
+    return refreshFailures.sum();
+  }
+
+}
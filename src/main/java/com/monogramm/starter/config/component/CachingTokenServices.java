@@ -0,0 +1,354 @@
+/*
+ * Creation by madmath03 the 2018-02-09.
+ */
+
+package com.monogramm.starter.config.component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.ClientRegistrationException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+/**
+ * Token services keeping the authentications of the access tokens already verified.
+ * 
+ * <p>
+ * Verifying an access token means checking its signature, parsing its claims and building its
+ * authentication. The authentications built are kept, by digest of their access token, until the
+ * token expires or is revoked through these services. The cache is bounded: the expired
+ * authentications, then arbitrary ones, are evicted when it is full.
+ * </p>
+ * 
+ * <p>
+ * Tokens revoked on another node are detected through the {@link TokenRevocationStore}, if any,
+ * which is checked even for the authentications found in cache.
+ * </p>
+ * 
+ * <p>
+ * An access token missing from the cache is read only once from the token store: the same access
+ * token gives its authentication, its expiration and its identifier.
+ * </p>
+ * 
+ * @author madmath03
+ */
+public class CachingTokenServices extends DefaultTokenServices {
+
+  /**
+   * Property for the maximum time, in milliseconds, an authentication is kept in cache. {@code 0}
+   * disables the cache.
+   */
+  public static final String PROP_CACHE_TTL = "token.cache.ttl";
+  /**
+   * Property for the maximum number of authentications kept in cache.
+   */
+  public static final String PROP_CACHE_MAX_SIZE = "token.cache.max-size";
+
+  private static final long DEFAULT_CACHE_TTL = 300_000L;
+  private static final int DEFAULT_CACHE_MAX_SIZE = 10_000;
+
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+
+  private final long cacheTtl;
+
+  private final int cacheMaxSize;
+
+  private final Map<String, CachedAuthentication> cache = new ConcurrentHashMap<>();
+
+  private TokenRevocationStore revocationStore;
+
+  private TokenStore tokenStore;
+
+  private ClientDetailsService clientDetailsService;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Create a {@link CachingTokenServices} configured through the application properties.
+   * 
+   * @param env the application environment.
+   */
+  public CachingTokenServices(final Environment env) {
+    this(env.getProperty(PROP_CACHE_TTL, Long.class, DEFAULT_CACHE_TTL),
+        env.getProperty(PROP_CACHE_MAX_SIZE, Integer.class, DEFAULT_CACHE_MAX_SIZE));
+  }
+
+  /**
+   * Create a {@link CachingTokenServices}.
+   * 
+   * @param cacheTtl the maximum time, in milliseconds, an authentication is kept in cache.
+   *        {@code 0} disables the cache.
+   * @param cacheMaxSize the maximum number of authentications kept in cache.
+   */
+  public CachingTokenServices(final long cacheTtl, final int cacheMaxSize) {
+    super();
+    this.cacheTtl = Math.max(0L, cacheTtl);
+    this.cacheMaxSize = cacheMaxSize;
+  }
+
+  @Override
+  public OAuth2Authentication loadAuthentication(final String accessTokenValue)
+      throws AuthenticationException, InvalidTokenException {
+    if (cacheTtl == 0L || accessTokenValue == null) {
+      return super.loadAuthentication(accessTokenValue);
+    }
+
+    final String key = digest(accessTokenValue);
+    final long now = this.currentTimeMillis();
+
+    final CachedAuthentication cached = cache.get(key);
+    final OAuth2Authentication authentication;
+    if (cached != null && now < cached.expiresAt) {
+      if (revocationStore != null && revocationStore.isRevoked(cached.jti)) {
+        cache.remove(key, cached);
+        throw new InvalidTokenException("Invalid access token: " + accessTokenValue);
+      }
+      hits.increment();
+      authentication = cached.authentication;
+    } else {
+      misses.increment();
+      if (cached != null) {
+        cache.remove(key, cached);
+      }
+
+      final OAuth2AccessToken accessToken = tokenStore.readAccessToken(accessTokenValue);
+      authentication = this.verify(accessTokenValue, accessToken);
+      this.cache(key, authentication, accessToken, now);
+    }
+
+    /*
+     * The authentication manager sets the request details on the authentication it gets: never
+     * share the cached one between requests.
+     */
+    return new OAuth2Authentication(authentication.getOAuth2Request(),
+        authentication.getUserAuthentication());
+  }
+
+  /**
+   * Verify an access token read from the token store, as does
+   * {@link DefaultTokenServices#loadAuthentication(String)}, without reading it a second time.
+   * 
+   * @param accessTokenValue the access token value.
+   * @param accessToken the access token read from the token store.
+   * 
+   * @return the authentication of the access token.
+   * 
+   * @throws InvalidTokenException if the access token is unknown, expired or its client is not
+   *         valid anymore.
+   */
+  private OAuth2Authentication verify(final String accessTokenValue,
+      final OAuth2AccessToken accessToken) {
+    if (accessToken == null) {
+      throw new InvalidTokenException("Invalid access token: " + accessTokenValue);
+    } else if (accessToken.isExpired()) {
+      tokenStore.removeAccessToken(accessToken);
+      throw new InvalidTokenException("Access token expired: " + accessTokenValue);
+    }
+
+    final OAuth2Authentication authentication = tokenStore.readAuthentication(accessToken);
+    if (authentication == null) {
+      throw new InvalidTokenException("Invalid access token: " + accessTokenValue);
+    }
+
+    if (clientDetailsService != null) {
+      final String clientId = authentication.getOAuth2Request().getClientId();
+      try {
+        clientDetailsService.loadClientByClientId(clientId);
+      } catch (ClientRegistrationException e) {
+        throw new InvalidTokenException("Client not valid: " + clientId, e);
+      }
+    }
+
+    return authentication;
+  }
+
+  private void cache(final String key, final OAuth2Authentication authentication,
+      final OAuth2AccessToken accessToken, final long now) {
+    final Date expiration = accessToken.getExpiration();
+    final Object jti = accessToken.getAdditionalInformation().get(AccessTokenConverter.JTI);
+
+    final long expiresAt;
+    if (expiration == null) {
+      expiresAt = now + cacheTtl;
+    } else {
+      expiresAt = Math.min(expiration.getTime(), now + cacheTtl);
+    }
+    if (expiresAt <= now || cacheMaxSize <= 0) {
+      return;
+    }
+
+    if (cache.size() >= cacheMaxSize) {
+      cache.values().removeIf(cached -> now >= cached.expiresAt);
+
+      final Iterator<CachedAuthentication> iterator = cache.values().iterator();
+      while (cache.size() >= cacheMaxSize && iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+        evictions.increment();
+      }
+    }
+
+    final String jtiValue;
+    if (jti == null) {
+      jtiValue = null;
+    } else {
+      jtiValue = jti.toString();
+    }
+    cache.put(key, new CachedAuthentication(authentication, jtiValue, expiresAt));
+  }
+
+  @Override
+  public boolean revokeToken(final String tokenValue) {
+    this.evict(tokenValue);
+    return super.revokeToken(tokenValue);
+  }
+
+  @Override
+  public void setTokenStore(final TokenStore tokenStore) {
+    super.setTokenStore(tokenStore);
+    this.tokenStore = tokenStore;
+  }
+
+  @Override
+  public void setClientDetailsService(final ClientDetailsService clientDetailsService) {
+    super.setClientDetailsService(clientDetailsService);
+    this.clientDetailsService = clientDetailsService;
+  }
+
+  /**
+   * Set the {@link #revocationStore}.
+   * 
+   * @param revocationStore the denylist of the revoked tokens, checked for the cached
+   *        authentications.
+   */
+  public void setRevocationStore(final TokenRevocationStore revocationStore) {
+    this.revocationStore = revocationStore;
+  }
+
+  /**
+   * Forget the authentication of an access token.
+   * 
+   * @param accessTokenValue the access token value.
+   */
+  public void evict(final String accessTokenValue) {
+    if (accessTokenValue != null) {
+      cache.remove(digest(accessTokenValue));
+    }
+  }
+
+  /**
+   * Forget all the authentications kept in cache.
+   */
+  public void clear() {
+    cache.clear();
+  }
+
+  /**
+   * Get the current time, in milliseconds.
+   * 
+   * @return the current time, in milliseconds.
+   */
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  private static String digest(final String accessTokenValue) {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+    }
+
+    final byte[] hash = digest.digest(accessTokenValue.getBytes(StandardCharsets.UTF_8));
+    return Base64.getEncoder().encodeToString(hash);
+  }
+
+  /**
+   * Get the number of authentications found in cache.
+   * 
+   * @return the number of authentications found in cache.
+   */
+  public long getCacheHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Get the number of access tokens verified.
+   * 
+   * @return the number of access tokens verified.
+   */
+  public long getCacheMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Get the ratio of authentications found in cache.
+   * 
+   * @return the ratio of authentications found in cache, between {@code 0} and {@code 1}.
+   */
+  public double getCacheHitRate() {
+    final long hitCount = hits.sum();
+    final long total = hitCount + misses.sum();
+
+    final double rate;
+    if (total == 0L) {
+      rate = 0D;
+    } else {
+      rate = (double) hitCount / total;
+    }
+    return rate;
+  }
+
+  /**
+   * Get the number of authentications evicted from a full cache.
+   * 
+   * @return the number of authentications evicted from a full cache.
+   */
+  public long getCacheEvictionCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * Get the number of authentications currently cached.
+   * 
+   * @return the number of authentications currently cached.
+   */
+  public int getCacheSize() {
+    return cache.size();
+  }
+
+  /**
+   * An authentication kept in cache.
+   */
+  private static final class CachedAuthentication {
+    private final OAuth2Authentication authentication;
+    private final String jti;
+    private final long expiresAt;
+
+    private CachedAuthentication(final OAuth2Authentication authentication, final String jti,
+        final long expiresAt) {
+      this.authentication = authentication;
+      this.jti = jti;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+}
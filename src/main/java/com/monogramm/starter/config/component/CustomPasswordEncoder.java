@@ -11,18 +11,64 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 /**
  * CustomPasswordEncoder.
  * 
+ * <p>
+ * When a {@link PasswordHashingExecutor} is provided, hashing and verification run on its threads
+ * instead of the calling thread.
+ * </p>
+ * 
  * @author madmath03
  */
 public class CustomPasswordEncoder implements PasswordEncoder {
 
+  private final PasswordHashingExecutor hashingExecutor;
+
+  /**
+   * Create a {@link CustomPasswordEncoder} hashing on the calling thread.
+   */
+  public CustomPasswordEncoder() {
+    this(null);
+  }
+
+  /**
+   * Create a {@link CustomPasswordEncoder}.
+   * 
+   * @param hashingExecutor the executor dedicated to password hashing. May be {@code null}.
+   */
+  public CustomPasswordEncoder(final PasswordHashingExecutor hashingExecutor) {
+    super();
+    this.hashingExecutor = hashingExecutor;
+  }
+
+  /**
+   * Verify a password against a hash.
+   * 
+   * @throws PasswordHashingUnavailableException if the password hashing threads are saturated.
+   */
   @Override
   public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
-    return Passwords.isExpectedPassword(rawPassword, encodedPassword);
+    final boolean matches;
+    if (hashingExecutor == null) {
+      matches = Passwords.isExpectedPassword(rawPassword, encodedPassword);
+    } else {
+      matches = hashingExecutor.matches(rawPassword, encodedPassword);
+    }
+    return matches;
   }
 
+  /**
+   * Hash a password.
+   * 
+   * @throws PasswordHashingUnavailableException if the password hashing threads are saturated.
+   */
   @Override
   public String encode(final CharSequence rawPassword) {
-    return Passwords.getHash(this.convert(rawPassword));
+    final String hash;
+    if (hashingExecutor == null) {
+      hash = Passwords.getHash(this.convert(rawPassword));
+    } else {
+      hash = hashingExecutor.hash(this.convert(rawPassword));
+    }
+    return hash;
   }
 
   /**
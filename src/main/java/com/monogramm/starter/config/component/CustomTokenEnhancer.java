@@ -15,8 +15,8 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
@@ -58,23 +58,33 @@ public class CustomTokenEnhancer implements TokenEnhancer {
 
     additionalInfo.put("timestamp", new Date());
 
-    // TODO Use a Custom UserDetails retrieving all this on login
-    final String authName = authentication.getName();
-    User user;
-    try {
-      user = this.userService.findByEmail(authName);
-    } catch (Exception e) {
-      LOG.debug("enhance(authName=" + authName + ")", e);
-      user = null;
-    }
-
-    if (user != null) {
-      additionalInfo.put("principal_id", user.getId());
-      additionalInfo.put("principal_name", user.getUsername());
-      additionalInfo.put("principal_email", user.getEmail());
-      additionalInfo.put("verified", user.isVerified());
+    final Object principal = authentication.getPrincipal();
+    if (principal instanceof AuthenticatedUser) {
+      // Loaded on login: no need to load the user again
+      final AuthenticatedUser authenticatedUser = (AuthenticatedUser) principal;
+      additionalInfo.put("principal_id", authenticatedUser.getId());
+      additionalInfo.put("principal_name", authenticatedUser.getName());
+      additionalInfo.put("principal_email", authenticatedUser.getEmail());
+      additionalInfo.put("verified", authenticatedUser.isVerified());
     } else {
-      additionalInfo.put("principal_email", authName);
+      // Refreshed tokens only know the principal name
+      final String authName = authentication.getName();
+      User user;
+      try {
+        user = this.userService.findByEmail(authName);
+      } catch (Exception e) {
+        LOG.debug("enhance(authName={})", authName, e);
+        user = null;
+      }
+
+      if (user != null) {
+        additionalInfo.put("principal_id", user.getId());
+        additionalInfo.put("principal_name", user.getUsername());
+        additionalInfo.put("principal_email", user.getEmail());
+        additionalInfo.put("verified", user.isVerified());
+      } else {
+        additionalInfo.put("principal_email", authName);
+      }
     }
 
     // Set the roles and authorities
@@ -0,0 +1,232 @@
+/*
+ * Creation by madmath03 the 2018-02-08.
+ */
+
+package com.monogramm.starter.config.component;
+
+import com.monogramm.starter.persistence.EntityChangedEvent;
+import com.monogramm.starter.persistence.permission.entity.Permission;
+import com.monogramm.starter.persistence.role.entity.Role;
+import com.monogramm.starter.persistence.user.entity.User;
+import com.monogramm.starter.persistence.user.service.IUserService;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Load the user accounts on authentication.
+ * 
+ * <p>
+ * The user account, its role and the role permissions are loaded by a single query and returned as
+ * an {@link AuthenticatedUser}. The principals may be kept for a short time to absorb bursts of
+ * logins on the same account. They are forgotten as soon as a user account, role or permission
+ * change is committed.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@Component
+public class CustomUserDetailsService implements UserDetailsService {
+
+  /**
+   * Logger for {@link CustomUserDetailsService}.
+   */
+  private static final Logger LOG = LogManager.getLogger(CustomUserDetailsService.class);
+
+  /**
+   * Property for the time, in milliseconds, a principal is kept in cache. {@code 0} disables the
+   * cache.
+   */
+  public static final String PROP_CACHE_TTL = "user.details.cache.ttl";
+  /**
+   * Property for the maximum number of principals kept in cache.
+   */
+  public static final String PROP_CACHE_MAX_SIZE = "user.details.cache.max-size";
+
+  private static final long DEFAULT_CACHE_TTL = 0L;
+  private static final int DEFAULT_CACHE_MAX_SIZE = 10_000;
+
+  private final IUserService userService;
+
+  private final long cacheTtlNanos;
+
+  private final int cacheMaxSize;
+
+  private final Map<String, CachedUser> cache = new ConcurrentHashMap<>();
+
+  /**
+   * Incremented on each change so that a principal loaded before a change is not cached after it.
+   */
+  private final AtomicLong generation = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Create a {@link CustomUserDetailsService} configured through the application properties.
+   * 
+   * @param userService the user service.
+   * @param env the application environment.
+   */
+  @Autowired
+  public CustomUserDetailsService(final IUserService userService, final Environment env) {
+    this(userService, env.getProperty(PROP_CACHE_TTL, Long.class, DEFAULT_CACHE_TTL),
+        env.getProperty(PROP_CACHE_MAX_SIZE, Integer.class, DEFAULT_CACHE_MAX_SIZE));
+  }
+
+  /**
+   * Create a {@link CustomUserDetailsService}.
+   * 
+   * @param userService the user service.
+   * @param cacheTtl the time, in milliseconds, a principal is kept in cache. {@code 0} disables
+   *        the cache.
+   * @param cacheMaxSize the maximum number of principals kept in cache.
+   * 
+   * @throws IllegalArgumentException if {@code userService} is {@code null}.
+   */
+  public CustomUserDetailsService(final IUserService userService, final long cacheTtl,
+      final int cacheMaxSize) {
+    super();
+    if (userService == null) {
+      throw new IllegalArgumentException("User service cannot be null.");
+    }
+    this.userService = userService;
+    this.cacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, cacheTtl));
+    this.cacheMaxSize = cacheMaxSize;
+  }
+
+  @Override
+  public AuthenticatedUser loadUserByUsername(final String username) {
+    final String key = User.normalize(username);
+
+    if (key == null) {
+      throw new UsernameNotFoundException("No user for an empty email");
+    }
+
+    final long now = System.nanoTime();
+    final CachedUser cached;
+    if (cacheTtlNanos > 0L) {
+      cached = cache.get(key);
+    } else {
+      cached = null;
+    }
+
+    final AuthenticatedUser principal;
+    if (cached != null && now - cached.loadedAt < cacheTtlNanos) {
+      hits.increment();
+      principal = cached.principal;
+    } else {
+      misses.increment();
+      final long loadGeneration = generation.get();
+      principal = this.load(key);
+
+      if (cacheTtlNanos > 0L) {
+        this.cache(key, principal, now, loadGeneration);
+      }
+    }
+
+    // Authentication erases the credentials of the principal: never share the cached one
+    return new AuthenticatedUser(principal);
+  }
+
+  private AuthenticatedUser load(final String email) {
+    final User user = userService.findWithAuthoritiesByEmail(email);
+
+    if (user == null) {
+      LOG.debug("loadUserByUsername(username={}): not found", email);
+      throw new UsernameNotFoundException("No user for email=" + email);
+    }
+
+    return new AuthenticatedUser(user);
+  }
+
+  private void cache(final String key, final AuthenticatedUser principal, final long now,
+      final long loadGeneration) {
+    if (cache.size() >= cacheMaxSize) {
+      cache.values().removeIf(cached -> now - cached.loadedAt >= cacheTtlNanos);
+    }
+
+    if (cache.size() < cacheMaxSize) {
+      cache.put(key, new CachedUser(principal, now));
+
+      // A change was committed while loading: the principal may be stale
+      if (generation.get() != loadGeneration) {
+        cache.remove(key);
+      }
+    }
+  }
+
+  /**
+   * Forget the cached principals affected by a change of user account, role or permission.
+   * 
+   * @param event the change committed.
+   */
+  @EventListener
+  public void onEntityChanged(final EntityChangedEvent event) {
+    if (cacheTtlNanos == 0L) {
+      return;
+    }
+
+    if (event.isAbout(User.class) && event.getEntityId() != null) {
+      generation.incrementAndGet();
+      cache.values().removeIf(cached -> event.getEntityId().equals(cached.principal.getId()));
+    } else if (event.isAbout(User.class) || event.isAbout(Role.class)
+        || event.isAbout(Permission.class)) {
+      generation.incrementAndGet();
+      cache.clear();
+    }
+  }
+
+  /**
+   * Get the number of principals found in cache.
+   * 
+   * @return the number of principals found in cache.
+   */
+  public long getCacheHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Get the number of principals loaded from the database.
+   * 
+   * @return the number of principals loaded from the database.
+   */
+  public long getCacheMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Get the number of principals currently cached.
+   * 
+   * @return the number of principals currently cached.
+   */
+  public int getCacheSize() {
+    return cache.size();
+  }
+
+  /**
+   * A principal kept in cache.
+   */
+  private static final class CachedUser {
+    private final AuthenticatedUser principal;
+    private final long loadedAt;
+
+    private CachedUser(final AuthenticatedUser principal, final long loadedAt) {
+      this.principal = principal;
+      this.loadedAt = loadedAt;
+    }
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Creation by madmath03 the 2018-02-04.
+ */
+
+package com.monogramm.starter.config.component;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.security.oauth2.provider.error.DefaultWebResponseExceptionTranslator;
+
+/**
+ * OAuth2 endpoints exception translator.
+ * 
+ * <p>
+ * Answers with a <em>503 Service Unavailable</em> when the password hashing threads are saturated
+ * instead of a generic server error.
+ * </p>
+ * 
+ * @author madmath03
+ */
+public class CustomWebResponseExceptionTranslator extends DefaultWebResponseExceptionTranslator {
+
+  /**
+   * OAuth2 error code for a temporarily unavailable server.
+   */
+  public static final String TEMPORARILY_UNAVAILABLE = "temporarily_unavailable";
+
+  @Override
+  public ResponseEntity<OAuth2Exception> translate(Exception exception) throws Exception {
+    Throwable cause = exception;
+    while (cause != null && !(cause instanceof PasswordHashingUnavailableException)) {
+      cause = cause.getCause();
+    }
+
+    final ResponseEntity<OAuth2Exception> response;
+    if (cause == null) {
+      response = super.translate(exception);
+    } else {
+      final HttpHeaders headers = new HttpHeaders();
+      headers.set(HttpHeaders.RETRY_AFTER, "1");
+      response = new ResponseEntity<>(new TemporarilyUnavailableException(cause.getMessage()),
+          headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    return response;
+  }
+
+  /**
+   * OAuth2 exception for a temporarily unavailable server.
+   */
+  private static class TemporarilyUnavailableException extends OAuth2Exception {
+
+    private static final long serialVersionUID = 8165618395472893227L;
+
+    TemporarilyUnavailableException(final String msg) {
+      super(msg);
+    }
+
+    @Override
+    public String getOAuth2ErrorCode() {
+      return TEMPORARILY_UNAVAILABLE;
+    }
+
+    @Override
+    public int getHttpErrorCode() {
+      return HttpStatus.SERVICE_UNAVAILABLE.value();
+    }
+  }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.config.component;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.security.interfaces.ECPrivateKey;
+import java.util.Arrays;
+
+import org.springframework.security.jwt.crypto.sign.Signer;
+
+/**
+ * Sign JSON Web Tokens with ECDSA using the P-256 curve and SHA-256 ({@code ES256}).
+ * 
+ * <p>
+ * The JCA produces DER encoded signatures while JSON Web Signatures expect the concatenation of
+ * the fixed length {@code R} and {@code S} values: signatures are transcoded accordingly.
+ * </p>
+ * 
+ * @see EcdsaVerifier
+ * 
+ * @author madmath03
+ */
+public class EcdsaSigner implements Signer {
+
+  /**
+   * The JCA algorithm of the signatures.
+   */
+  public static final String ALGORITHM = "SHA256withECDSA";
+
+  /**
+   * Length, in bytes, of the {@code R} and {@code S} values on the P-256 curve.
+   */
+  static final int VALUE_LENGTH = 32;
+
+  private final ECPrivateKey key;
+
+  /**
+   * Create a {@link EcdsaSigner}.
+   * 
+   * @param key the private key signing the tokens.
+   * 
+   * @throws IllegalArgumentException if {@code key} is {@code null}.
+   */
+  public EcdsaSigner(final ECPrivateKey key) {
+    super();
+    if (key == null) {
+      throw new IllegalArgumentException("Private key cannot be null.");
+    }
+    this.key = key;
+  }
+
+  @Override
+  public String algorithm() {
+    return ALGORITHM;
+  }
+
+  @Override
+  public byte[] sign(final byte[] bytes) {
+    try {
+      final Signature signature = Signature.getInstance(ALGORITHM);
+      signature.initSign(key);
+      signature.update(bytes);
+      return toConcatenated(signature.sign());
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot sign with " + ALGORITHM, e);
+    }
+  }
+
+  /**
+   * Transcode a DER encoded signature to the concatenation of its {@code R} and {@code S} values.
+   * 
+   * @param der the DER encoded signature.
+   * 
+   * @return the concatenated {@code R} and {@code S} values.
+   * 
+   * @throws IllegalArgumentException if {@code der} is not a DER encoded ECDSA signature.
+   */
+  static byte[] toConcatenated(final byte[] der) {
+    // SEQUENCE, of a length on one or two bytes
+    if (der.length < 8 || der[0] != 0x30) {
+      throw new IllegalArgumentException("Invalid DER encoded ECDSA signature");
+    }
+    int offset;
+    if (der[1] == (byte) 0x81) {
+      offset = 3;
+    } else {
+      offset = 2;
+    }
+
+    final byte[] concatenated = new byte[2 * VALUE_LENGTH];
+    for (int i = 0; i < 2; i++) {
+      // INTEGER
+      if (offset + 2 > der.length || der[offset] != 0x02) {
+        throw new IllegalArgumentException("Invalid DER encoded ECDSA signature");
+      }
+      final int length = der[offset + 1];
+      offset += 2;
+      if (length <= 0 || offset + length > der.length) {
+        throw new IllegalArgumentException("Invalid DER encoded ECDSA signature");
+      }
+
+      final byte[] value =
+          new BigInteger(1, Arrays.copyOfRange(der, offset, offset + length)).toByteArray();
+      offset += length;
+
+      // Drop the sign byte of the integer, then left pad to the value length
+      int start = 0;
+      while (start < value.length - 1 && value[start] == 0) {
+        start++;
+      }
+      final int valueLength = value.length - start;
+      if (valueLength > VALUE_LENGTH) {
+        throw new IllegalArgumentException("Invalid DER encoded ECDSA signature");
+      }
+      System.arraycopy(value, start, concatenated, (i + 1) * VALUE_LENGTH - valueLength,
+          valueLength);
+    }
+
+    return concatenated;
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.config.component;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.util.Arrays;
+
+import org.springframework.security.jwt.crypto.sign.InvalidSignatureException;
+import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+
+/**
+ * Verify JSON Web Tokens signed with ECDSA using the P-256 curve and SHA-256 ({@code ES256}).
+ * 
+ * @see EcdsaSigner
+ * 
+ * @author madmath03
+ */
+public class EcdsaVerifier implements SignatureVerifier {
+
+  private final ECPublicKey key;
+
+  /**
+   * Create a {@link EcdsaVerifier}.
+   * 
+   * @param key the public key verifying the tokens.
+   * 
+   * @throws IllegalArgumentException if {@code key} is {@code null}.
+   */
+  public EcdsaVerifier(final ECPublicKey key) {
+    super();
+    if (key == null) {
+      throw new IllegalArgumentException("Public key cannot be null.");
+    }
+    this.key = key;
+  }
+
+  @Override
+  public String algorithm() {
+    return EcdsaSigner.ALGORITHM;
+  }
+
+  @Override
+  public void verify(final byte[] content, final byte[] sig) {
+    if (sig == null || sig.length != 2 * EcdsaSigner.VALUE_LENGTH) {
+      throw new InvalidSignatureException("Invalid ECDSA signature length");
+    }
+
+    final boolean valid;
+    try {
+      final Signature signature = Signature.getInstance(EcdsaSigner.ALGORITHM);
+      signature.initVerify(key);
+      signature.update(content);
+      valid = signature.verify(toDer(sig));
+    } catch (GeneralSecurityException e) {
+      throw new InvalidSignatureException("Cannot verify ECDSA signature: " + e.getMessage());
+    }
+
+    if (!valid) {
+      throw new InvalidSignatureException("ECDSA signature did not match content");
+    }
+  }
+
+  /**
+   * Transcode the concatenation of the {@code R} and {@code S} values of a signature to DER.
+   * 
+   * @param concatenated the concatenated {@code R} and {@code S} values.
+   * 
+   * @return the DER encoded signature.
+   */
+  static byte[] toDer(final byte[] concatenated) {
+    final int half = concatenated.length / 2;
+    final byte[] r = new BigInteger(1, Arrays.copyOfRange(concatenated, 0, half)).toByteArray();
+    final byte[] s =
+        new BigInteger(1, Arrays.copyOfRange(concatenated, half, concatenated.length))
+            .toByteArray();
+
+    final int length = 2 + r.length + 2 + s.length;
+    final ByteArrayOutputStream der = new ByteArrayOutputStream(length + 3);
+    der.write(0x30);
+    if (length >= 0x80) {
+      der.write(0x81);
+    }
+    der.write(length);
+    der.write(0x02);
+    der.write(r.length);
+    der.write(r, 0, r.length);
+    der.write(0x02);
+    der.write(s.length);
+    der.write(s, 0, s.length);
+
+    return der.toByteArray();
+  }
+
+}
@@ -0,0 +1,328 @@
+/*
+ * Creation by madmath03 the 2018-02-05.
+ */
+
+package com.monogramm.starter.config.component;
+
+import com.monogramm.starter.persistence.mail.service.IMailOutboxService;
+import com.monogramm.starter.persistence.oauth.service.IRevokedTokenService;
+import com.monogramm.starter.persistence.user.service.IPasswordResetTokenService;
+import com.monogramm.starter.persistence.user.service.IVerificationTokenService;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntUnaryOperator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled job deleting the expired verification, password reset and revoked tokens, along with
+ * the outbox mails given up for longer than their retention period.
+ * 
+ * <p>
+ * Expired tokens and mails are deleted in small batches, each in its own transaction, so that the
+ * purge never holds locks on the token or outbox tables for long. A run stops as soon as a batch
+ * is not full or after a maximum number of batches, the remaining rows being left to the next
+ * run.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@Component
+public class ExpiredTokenPurgeJob {
+
+  /**
+   * Logger for {@link ExpiredTokenPurgeJob}.
+   */
+  private static final Logger LOG = LogManager.getLogger(ExpiredTokenPurgeJob.class);
+
+  /**
+   * Property for the maximum number of tokens deleted per batch.
+   */
+  public static final String PROP_BATCH_SIZE = "token.purge.batch-size";
+  /**
+   * Property for the maximum number of batches per token type and per run.
+   */
+  public static final String PROP_MAX_BATCHES = "token.purge.max-batches";
+
+  private static final int DEFAULT_BATCH_SIZE = 500;
+  private static final int DEFAULT_MAX_BATCHES = 100;
+
+  private final IVerificationTokenService verificationService;
+
+  private final IPasswordResetTokenService passwordResetService;
+
+  private final IRevokedTokenService revokedTokenService;
+
+  private final IMailOutboxService outboxService;
+
+  private final int batchSize;
+
+  private final int maxBatches;
+
+  private final LongAdder runs = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder purgedVerificationTokens = new LongAdder();
+  private final LongAdder purgedPasswordResetTokens = new LongAdder();
+  private final LongAdder purgedRevokedTokens = new LongAdder();
+  private final LongAdder purgedOutboxMails = new LongAdder();
+  private final AtomicLong lastRunMillis = new AtomicLong();
+  private final AtomicLong lastRunDate = new AtomicLong();
+
+  /**
+   * Create a {@link ExpiredTokenPurgeJob} configured through the application properties.
+   * 
+   * @param verificationService the verification token service.
+   * @param passwordResetService the password reset token service.
+   * @param revokedTokenService the revoked token service.
+   * @param outboxService the mail outbox service.
+   * @param env the application environment.
+   */
+  @Autowired
+  public ExpiredTokenPurgeJob(final IVerificationTokenService verificationService,
+      final IPasswordResetTokenService passwordResetService,
+      final IRevokedTokenService revokedTokenService, final IMailOutboxService outboxService,
+      final Environment env) {
+    this(verificationService, passwordResetService, revokedTokenService, outboxService,
+        env.getProperty(PROP_BATCH_SIZE, Integer.class, DEFAULT_BATCH_SIZE),
+        env.getProperty(PROP_MAX_BATCHES, Integer.class, DEFAULT_MAX_BATCHES));
+  }
+
+  /**
+   * Create a {@link ExpiredTokenPurgeJob} not purging the revoked tokens.
+   * 
+   * @param verificationService the verification token service.
+   * @param passwordResetService the password reset token service.
+   * @param batchSize the maximum number of tokens deleted per batch.
+   * @param maxBatches the maximum number of batches per token type and per run.
+   * 
+   * @throws IllegalArgumentException if {@code batchSize} or {@code maxBatches} is not strictly
+   *         positive.
+   */
+  public ExpiredTokenPurgeJob(final IVerificationTokenService verificationService,
+      final IPasswordResetTokenService passwordResetService, final int batchSize,
+      final int maxBatches) {
+    this(verificationService, passwordResetService, null, batchSize, maxBatches);
+  }
+
+  /**
+   * Create a {@link ExpiredTokenPurgeJob} not purging the outbox mails.
+   * 
+   * @param verificationService the verification token service.
+   * @param passwordResetService the password reset token service.
+   * @param revokedTokenService the revoked token service, or {@code null} not to purge the
+   *        revoked tokens.
+   * @param batchSize the maximum number of tokens deleted per batch.
+   * @param maxBatches the maximum number of batches per token type and per run.
+   * 
+   * @throws IllegalArgumentException if {@code batchSize} or {@code maxBatches} is not strictly
+   *         positive.
+   */
+  public ExpiredTokenPurgeJob(final IVerificationTokenService verificationService,
+      final IPasswordResetTokenService passwordResetService,
+      final IRevokedTokenService revokedTokenService, final int batchSize,
+      final int maxBatches) {
+    this(verificationService, passwordResetService, revokedTokenService, null, batchSize,
+        maxBatches);
+  }
+
+  /**
+   * Create a {@link ExpiredTokenPurgeJob}.
+   * 
+   * @param verificationService the verification token service.
+   * @param passwordResetService the password reset token service.
+   * @param revokedTokenService the revoked token service, or {@code null} not to purge the
+   *        revoked tokens.
+   * @param outboxService the mail outbox service, or {@code null} not to purge the given up
+   *        mails.
+   * @param batchSize the maximum number of tokens deleted per batch.
+   * @param maxBatches the maximum number of batches per token type and per run.
+   * 
+   * @throws IllegalArgumentException if {@code batchSize} or {@code maxBatches} is not strictly
+   *         positive.
+   */
+  public ExpiredTokenPurgeJob(final IVerificationTokenService verificationService,
+      final IPasswordResetTokenService passwordResetService,
+      final IRevokedTokenService revokedTokenService, final IMailOutboxService outboxService,
+      final int batchSize, final int maxBatches) {
+    super();
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be strictly positive.");
+    }
+    if (maxBatches <= 0) {
+      throw new IllegalArgumentException("Maximum number of batches must be strictly positive.");
+    }
+    this.verificationService = verificationService;
+    this.passwordResetService = passwordResetService;
+    this.revokedTokenService = revokedTokenService;
+    this.outboxService = outboxService;
+    this.batchSize = batchSize;
+    this.maxBatches = maxBatches;
+  }
+
+  /**
+   * Delete the tokens expired and the mails given up at the time of the call.
+   * 
+   * @return the total number of deleted tokens and mails.
+   */
+  @Scheduled(initialDelayString = "${token.purge.initial-delay:60000}",
+      fixedDelayString = "${token.purge.delay:3600000}")
+  public int purge() {
+    final long start = System.nanoTime();
+    final Date now = new Date();
+
+    int purgedVerifications = 0;
+    int purgedPasswordResets = 0;
+    int purgedRevocations = 0;
+    int purgedMails = 0;
+    try {
+      purgedVerifications =
+          this.purge(batch -> verificationService.deleteExpired(now, batch));
+      purgedVerificationTokens.add(purgedVerifications);
+
+      purgedPasswordResets =
+          this.purge(batch -> passwordResetService.deleteExpired(now, batch));
+      purgedPasswordResetTokens.add(purgedPasswordResets);
+
+      if (revokedTokenService != null) {
+        purgedRevocations = this.purge(batch -> revokedTokenService.deleteExpired(now, batch));
+        purgedRevokedTokens.add(purgedRevocations);
+      }
+
+      if (outboxService != null) {
+        purgedMails = this.purge(batch -> outboxService.deleteGivenUp(now, batch));
+        purgedOutboxMails.add(purgedMails);
+      }
+    } catch (DataAccessException e) {
+      failures.increment();
+      LOG.error("Expired tokens purge failed", e);
+    } finally {
+      final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      runs.increment();
+      lastRunMillis.set(elapsed);
+      lastRunDate.set(now.getTime());
+
+      if (LOG.isInfoEnabled()) {
+        LOG.info("Purged {} verification tokens, {} password reset tokens, {} revoked tokens"
+            + " and {} given up mails in {}ms", purgedVerifications, purgedPasswordResets,
+            purgedRevocations, purgedMails, elapsed);
+      }
+    }
+
+    return purgedVerifications + purgedPasswordResets + purgedRevocations + purgedMails;
+  }
+
+  private int purge(final IntUnaryOperator deleteBatch) {
+    int purged = 0;
+    int batch = 0;
+    int deleted;
+    do {
+      deleted = deleteBatch.applyAsInt(batchSize);
+      purged += deleted;
+      batch++;
+      batches.increment();
+    } while (deleted >= batchSize && batch < maxBatches);
+
+    return purged;
+  }
+
+  /**
+   * Get the number of purge runs.
+   * 
+   * @return the number of purge runs.
+   */
+  public long getRunCount() {
+    return runs.sum();
+  }
+
+  /**
+   * Get the number of purge runs which failed.
+   * 
+   * @return the number of purge runs which failed.
+   */
+  public long getFailureCount() {
+    return failures.sum();
+  }
+
+  /**
+   * Get the number of batches executed.
+   * 
+   * @return the number of batches executed.
+   */
+  public long getBatchCount() {
+    return batches.sum();
+  }
+
+  /**
+   * Get the number of verification tokens deleted.
+   * 
+   * @return the number of verification tokens deleted.
+   */
+  public long getPurgedVerificationTokens() {
+    return purgedVerificationTokens.sum();
+  }
+
+  /**
+   * Get the number of password reset tokens deleted.
+   * 
+   * @return the number of password reset tokens deleted.
+   */
+  public long getPurgedPasswordResetTokens() {
+    return purgedPasswordResetTokens.sum();
+  }
+
+  /**
+   * Get the number of revoked tokens deleted.
+   * 
+   * @return the number of revoked tokens deleted.
+   */
+  public long getPurgedRevokedTokens() {
+    return purgedRevokedTokens.sum();
+  }
+
+  /**
+   * Get the number of given up outbox mails deleted.
+   * 
+   * @return the number of given up outbox mails deleted.
+   */
+  public long getPurgedOutboxMails() {
+    return purgedOutboxMails.sum();
+  }
+
+  /**
+   * Get the duration of the last run, in milliseconds.
+   * 
+   * @return the duration of the last run, in milliseconds.
+   */
+  public long getLastRunMillis() {
+    return lastRunMillis.get();
+  }
+
+  /**
+   * Get the date of the last run, or {@code null} if the job never ran.
+   * 
+   * @return the date of the last run.
+   */
+  public Date getLastRunDate() {
+    final long date = lastRunDate.get();
+
+    final Date lastRun;
+    if (date == 0L) {
+      lastRun = null;
+    } else {
+      lastRun = new Date(date);
+    }
+
+    return lastRun;
+  }
+
+}
@@ -0,0 +1,648 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.config.component;
+
+import com.monogramm.starter.persistence.oauth.entity.JwtSigningKey;
+import com.monogramm.starter.persistence.oauth.service.IJwtSigningKeyService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Manage the asymmetric keys signing and verifying the JSON Web Tokens.
+ *
+ * <p>
+ * When a key store is configured, its keys are loaded at startup: the first alias signs the tokens
+ * and the others only verify them. Keys are then rotated by updating the key store, which every
+ * node of the authorization server must share.
+ * </p>
+ *
+ * <p>
+ * Otherwise, keys are generated and stored in the database, their private key encrypted with the
+ * {@link #PROP_SECRET secret} shared by all the nodes, so that a token signed by any node is
+ * verified by all the others, and outlives a restart. Each node reloads the keys periodically and
+ * adds the missing ones: keys activate on a fixed schedule, and a single key activates at a given
+ * date, so that the nodes agree on the keys. The next signing key is published in the JSON Web Key
+ * set one rotation period before it signs any token, so that services caching the key set know it
+ * in time. Retired keys keep verifying tokens for a retention period which must cover the validity
+ * of the refresh tokens.
+ * </p>
+ *
+ * @author madmath03
+ */
+@Component
+public class JwtKeyManager {
+
+  /**
+   * Logger for {@link JwtKeyManager}.
+   */
+  private static final Logger LOG = LogManager.getLogger(JwtKeyManager.class);
+
+  /**
+   * Property for the signature algorithm of the generated keys: {@code RS256} or {@code ES256}.
+   */
+  public static final String PROP_ALGORITHM = "jwt.signing.algorithm";
+  /**
+   * Property for the time, in milliseconds, a generated key signs tokens. {@code 0} disables the
+   * rotation.
+   */
+  public static final String PROP_ROTATION_PERIOD = "jwt.keys.rotation-period";
+  /**
+   * Property for the time, in milliseconds, a retired key still verifies tokens.
+   */
+  public static final String PROP_RETENTION = "jwt.keys.retention";
+  /**
+   * Property for the secret encrypting the private keys of the generated keys. Required without
+   * key store.
+   */
+  public static final String PROP_SECRET = "jwt.keys.secret";
+  /**
+   * Placeholder secret once shipped in the default configuration, rejected since it is public.
+   */
+  private static final String PLACEHOLDER_SECRET = "CHANGE_ME";
+  /**
+   * Property for the minimum time, in milliseconds, between two reloads of the keys triggered by
+   * tokens signed with an unknown key.
+   */
+  public static final String PROP_MIN_REFRESH_INTERVAL = "jwt.keys.min-refresh-interval";
+  /**
+   * Property for the location of the key store.
+   */
+  public static final String PROP_KEYSTORE_LOCATION = "jwt.keystore.location";
+  /**
+   * Property for the type of the key store.
+   */
+  public static final String PROP_KEYSTORE_TYPE = "jwt.keystore.type";
+  /**
+   * Property for the password of the key store and its keys.
+   */
+  public static final String PROP_KEYSTORE_PASSWORD = "jwt.keystore.password";
+  /**
+   * Property for the comma separated aliases of the keys, the signing key first.
+   */
+  public static final String PROP_KEYSTORE_ALIASES = "jwt.keystore.aliases";
+
+  private static final String DEFAULT_ALGORITHM = SigningKey.RS256;
+  private static final long DEFAULT_ROTATION_PERIOD = 604_800_000L;
+  private static final long DEFAULT_RETENTION = 2_678_400_000L;
+  private static final long DEFAULT_MIN_REFRESH_INTERVAL = 10_000L;
+  private static final String DEFAULT_KEYSTORE_TYPE = "JKS";
+
+  private static final String CIPHER = "AES/GCM/NoPadding";
+  private static final int IV_LENGTH = 12;
+  private static final int TAG_LENGTH = 128;
+
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  private final String algorithm;
+
+  private final long rotationPeriod;
+
+  private final long retention;
+
+  private final long minRefreshInterval;
+
+  /**
+   * The store of the generated keys, or {@code null} if the keys are loaded from a key store.
+   */
+  private final IJwtSigningKeyService keyService;
+
+  private final SecretKey secretKey;
+
+  private volatile Map<String, SigningKey> keys;
+
+  private volatile SigningKey active;
+
+  private volatile SigningKey next;
+
+  private volatile Map<String, Object> jwkSet;
+
+  private volatile String jwkSetTag;
+
+  /**
+   * Date, in milliseconds since the epoch, of the last reload of the generated keys.
+   */
+  private volatile long refreshedAt;
+
+  /**
+   * Create a {@link JwtKeyManager} configured through the application properties.
+   *
+   * @param env the application environment.
+   * @param resourceLoader the loader of the key store.
+   * @param keyService the store of the generated keys.
+   *
+   * @throws IllegalStateException if the key store cannot be loaded.
+   * @throws IllegalArgumentException if neither a key store nor the secret of the generated keys
+   *         is configured.
+   */
+  @Autowired
+  public JwtKeyManager(final Environment env, final ResourceLoader resourceLoader,
+      final IJwtSigningKeyService keyService) {
+    this(env.getProperty(PROP_ALGORITHM, DEFAULT_ALGORITHM),
+        env.getProperty(PROP_ROTATION_PERIOD, Long.class, DEFAULT_ROTATION_PERIOD),
+        env.getProperty(PROP_RETENTION, Long.class, DEFAULT_RETENTION),
+        env.getProperty(PROP_MIN_REFRESH_INTERVAL, Long.class, DEFAULT_MIN_REFRESH_INTERVAL),
+        keyService, env.getProperty(PROP_SECRET), loadKeyStore(env, resourceLoader));
+  }
+
+  /**
+   * Create a {@link JwtKeyManager} generating keys shared by all the nodes.
+   *
+   * @param algorithm the signature algorithm of the generated keys.
+   * @param rotationPeriod the time, in milliseconds, a generated key signs tokens. {@code 0}
+   *        disables the rotation.
+   * @param retention the time, in milliseconds, a retired key still verifies tokens.
+   * @param minRefreshInterval the minimum time, in milliseconds, between two reloads of the keys
+   *        triggered by tokens signed with an unknown key.
+   * @param keyService the store of the generated keys.
+   * @param secret the secret encrypting the private keys of the generated keys.
+   *
+   * @throws IllegalArgumentException if the algorithm is not supported, if {@code keyService} or
+   *         {@code secret} is {@code null} or empty, or if {@code secret} is a placeholder.
+   */
+  public JwtKeyManager(final String algorithm, final long rotationPeriod, final long retention,
+      final long minRefreshInterval, final IJwtSigningKeyService keyService,
+      final String secret) {
+    this(algorithm, rotationPeriod, retention, minRefreshInterval, keyService, secret, null);
+  }
+
+  /**
+   * Create a {@link JwtKeyManager} with the keys of a key store.
+   *
+   * @param keys the keys loaded from a key store, the signing key first.
+   *
+   * @throws IllegalArgumentException if {@code keys} is {@code null} or empty, or if the first key
+   *         cannot sign tokens.
+   */
+  public JwtKeyManager(final List<SigningKey> keys) {
+    this(null, 0L, 0L, 0L, null, null, requireKeys(keys));
+  }
+
+  private static List<SigningKey> requireKeys(final List<SigningKey> keys) {
+    if (keys == null || keys.isEmpty()) {
+      throw new IllegalArgumentException("Keys cannot be empty.");
+    }
+    return keys;
+  }
+
+  private JwtKeyManager(final String algorithm, final long rotationPeriod, final long retention,
+      final long minRefreshInterval, final IJwtSigningKeyService keyService, final String secret,
+      final List<SigningKey> keys) {
+    super();
+    this.algorithm = algorithm;
+    this.rotationPeriod = Math.max(0L, rotationPeriod);
+    this.retention = Math.max(0L, retention);
+    this.minRefreshInterval = Math.max(0L, minRefreshInterval);
+
+    if (keys == null || keys.isEmpty()) {
+      if (!SigningKey.RS256.equals(algorithm) && !SigningKey.ES256.equals(algorithm)) {
+        throw new IllegalArgumentException("Unsupported signature algorithm: " + algorithm);
+      }
+      if (keyService == null) {
+        throw new IllegalArgumentException("JWT signing key service cannot be null.");
+      }
+      if (secret == null || secret.trim().isEmpty()) {
+        throw new IllegalArgumentException(
+            "Either " + PROP_KEYSTORE_LOCATION + " or " + PROP_SECRET + " must be set.");
+      }
+      if (PLACEHOLDER_SECRET.equalsIgnoreCase(secret.trim())) {
+        throw new IllegalArgumentException(
+            PROP_SECRET + " must be set to a random value, not a placeholder.");
+      }
+      this.keyService = keyService;
+      this.secretKey = secretKey(secret);
+
+      this.refresh();
+    } else {
+      if (!keys.get(0).canSign()) {
+        throw new IllegalArgumentException(
+            "First key must be able to sign tokens: " + keys.get(0));
+      }
+      this.keyService = null;
+      this.secretKey = null;
+
+      final Map<String, SigningKey> loaded = new LinkedHashMap<>(keys.size());
+      for (final SigningKey key : keys) {
+        loaded.put(key.getKid(), key);
+      }
+      this.publish(loaded, keys.get(0), null);
+    }
+  }
+
+  private static List<SigningKey> loadKeyStore(final Environment env,
+      final ResourceLoader resourceLoader) {
+    final String location = env.getProperty(PROP_KEYSTORE_LOCATION);
+    if (location == null || location.isEmpty()) {
+      return null;
+    }
+
+    final char[] password = env.getProperty(PROP_KEYSTORE_PASSWORD, "").toCharArray();
+    final String[] aliases = env.getProperty(PROP_KEYSTORE_ALIASES, "").split(",");
+
+    final Resource resource = resourceLoader.getResource(location);
+    try (InputStream input = resource.getInputStream()) {
+      final KeyStore keyStore =
+          KeyStore.getInstance(env.getProperty(PROP_KEYSTORE_TYPE, DEFAULT_KEYSTORE_TYPE));
+      keyStore.load(input, password);
+
+      return load(keyStore, password, aliases);
+    } catch (IOException | GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot load JWT key store: " + location, e);
+    }
+  }
+
+  /**
+   * Load keys from a key store.
+   *
+   * <p>
+   * The alias of each key is used as its key id. Aliases without private key only verify tokens.
+   * </p>
+   *
+   * @param keyStore the key store.
+   * @param password the password of the keys.
+   * @param aliases the aliases of the keys.
+   *
+   * @return the keys, in the order of their aliases.
+   *
+   * @throws GeneralSecurityException if a key cannot be read.
+   * @throws IllegalArgumentException if an alias is not found in the key store.
+   */
+  public static List<SigningKey> load(final KeyStore keyStore, final char[] password,
+      final String... aliases) throws GeneralSecurityException {
+    final long now = System.currentTimeMillis();
+    final List<SigningKey> loaded = new ArrayList<>(aliases.length);
+
+    for (final String rawAlias : aliases) {
+      final String alias = rawAlias.trim();
+      if (alias.isEmpty()) {
+        continue;
+      }
+
+      final Certificate certificate = keyStore.getCertificate(alias);
+      if (certificate == null) {
+        throw new IllegalArgumentException("No certificate in JWT key store for alias=" + alias);
+      }
+      final Key key = keyStore.getKey(alias, password);
+
+      final PrivateKey privateKey;
+      if (key instanceof PrivateKey) {
+        privateKey = (PrivateKey) key;
+      } else {
+        privateKey = null;
+      }
+
+      loaded.add(new SigningKey(alias, new KeyPair(certificate.getPublicKey(), privateKey), now));
+    }
+
+    return loaded;
+  }
+
+  /**
+   * Reload the generated keys shared by all the nodes.
+   *
+   * <p>
+   * The signing key and the next signing key are added if missing, and the retired keys whose
+   * retention period is over are deleted. Keys loaded from a key store are never reloaded.
+   * </p>
+   *
+   * @throws IllegalStateException if a stored private key cannot be decrypted with the secret.
+   */
+  @Scheduled(initialDelayString = "${jwt.keys.check-interval:60000}",
+      fixedDelayString = "${jwt.keys.check-interval:60000}")
+  public synchronized void refresh() {
+    if (keyService == null) {
+      return;
+    }
+
+    final long now = this.currentTimeMillis();
+
+    List<JwtSigningKey> stored = keyService.findAll();
+    if (this.addMissingKeys(stored, now)) {
+      stored = keyService.findAll();
+    }
+
+    final List<String> expired = new ArrayList<>();
+    final Map<String, SigningKey> loaded = new LinkedHashMap<>(stored.size());
+    SigningKey newActive = null;
+    SigningKey newNext = null;
+    for (int i = 0; i < stored.size(); i++) {
+      final JwtSigningKey storedKey = stored.get(i);
+
+      // A key retires when the next one activates
+      if (i + 1 < stored.size()) {
+        final long retiredAt = stored.get(i + 1).getActivatesAt().getTime();
+        if (retiredAt <= now && now - retiredAt >= retention) {
+          expired.add(storedKey.getKid());
+          continue;
+        }
+      }
+
+      final SigningKey key = this.toSigningKey(storedKey);
+      loaded.put(key.getKid(), key);
+      if (storedKey.getActivatesAt().getTime() <= now) {
+        newActive = key;
+      } else if (newNext == null) {
+        newNext = key;
+      }
+    }
+
+    if (newActive == null) {
+      throw new IllegalStateException("No JWT signing key active at " + new Date(now));
+    }
+    if (!expired.isEmpty()) {
+      keyService.delete(expired);
+      LOG.info("JWT key retention over for kids={}", expired);
+    }
+    if (active != null && !newActive.getKid().equals(active.getKid())) {
+      LOG.info("JWT signing key rotated from kid={} to kid={}", active.getKid(),
+          newActive.getKid());
+    }
+
+    this.refreshedAt = now;
+    this.publish(loaded, newActive, newNext);
+  }
+
+  /**
+   * Add the signing key and the next signing key if they are missing.
+   *
+   * <p>
+   * Keys activate at multiples of the rotation period, so that nodes adding a missing key at the
+   * same time add a key with the same activation date: only the first one is stored.
+   * </p>
+   *
+   * @param stored the stored keys, in their activation order.
+   * @param now the current time, in milliseconds since the epoch.
+   *
+   * @return {@code true} if keys were missing.
+   */
+  private boolean addMissingKeys(final List<JwtSigningKey> stored, final long now) {
+    Long activeAt = null;
+    boolean hasNext = false;
+    for (final JwtSigningKey storedKey : stored) {
+      final long activatesAt = storedKey.getActivatesAt().getTime();
+      if (activatesAt <= now) {
+        activeAt = activatesAt;
+      } else {
+        hasNext = true;
+      }
+    }
+
+    final long slot;
+    if (rotationPeriod > 0L) {
+      slot = now - now % rotationPeriod;
+    } else {
+      slot = 0L;
+    }
+
+    boolean missing = false;
+    if (activeAt == null) {
+      this.addKey(slot);
+      activeAt = slot;
+      missing = true;
+    }
+    if (rotationPeriod > 0L && !hasNext) {
+      this.addKey(Math.max(activeAt + rotationPeriod, slot + rotationPeriod));
+      missing = true;
+    }
+
+    return missing;
+  }
+
+  private void addKey(final long activatesAt) {
+    final KeyPair keyPair = SigningKey.generateKeyPair(algorithm);
+    final String kid = UUID.randomUUID().toString();
+
+    final JwtSigningKey storedKey = new JwtSigningKey(kid, algorithm,
+        keyPair.getPublic().getEncoded(), this.encrypt(kid, keyPair.getPrivate().getEncoded()),
+        new Date(activatesAt));
+
+    if (keyService.add(storedKey)) {
+      LOG.info("JWT signing key kid={} added, activating at {}", kid, storedKey.getActivatesAt());
+    } else {
+      LOG.debug("JWT signing key activating at {} already added by another node",
+          storedKey.getActivatesAt());
+    }
+  }
+
+  private SigningKey toSigningKey(final JwtSigningKey storedKey) {
+    final String kid = storedKey.getKid();
+
+    final Map<String, SigningKey> current = keys;
+    if (current != null && current.containsKey(kid)) {
+      return current.get(kid);
+    }
+
+    final String keyAlgorithm;
+    if (SigningKey.ES256.equals(storedKey.getAlgorithm())) {
+      keyAlgorithm = "EC";
+    } else {
+      keyAlgorithm = "RSA";
+    }
+
+    try {
+      final KeyFactory factory = KeyFactory.getInstance(keyAlgorithm);
+      final KeyPair keyPair =
+          new KeyPair(factory.generatePublic(new X509EncodedKeySpec(storedKey.getPublicKey())),
+              factory.generatePrivate(
+                  new PKCS8EncodedKeySpec(this.decrypt(kid, storedKey.getPrivateKey()))));
+
+      return new SigningKey(kid, keyPair, storedKey.getActivatesAt().getTime());
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(
+          "Cannot read JWT signing key kid=" + kid + ", check " + PROP_SECRET, e);
+    }
+  }
+
+  private static SecretKey secretKey(final String secret) {
+    try {
+      final byte[] hash = MessageDigest.getInstance("SHA-256")
+          .digest(secret.getBytes(StandardCharsets.UTF_8));
+      return new SecretKeySpec(hash, "AES");
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * Encrypt a private key, bound to its key id.
+   *
+   * @param kid the key id.
+   * @param privateKey the encoded private key.
+   *
+   * @return the initialization vector followed by the encrypted private key.
+   */
+  private byte[] encrypt(final String kid, final byte[] privateKey) {
+    final byte[] iv = new byte[IV_LENGTH];
+    RANDOM.nextBytes(iv);
+
+    try {
+      final Cipher cipher = Cipher.getInstance(CIPHER);
+      cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH, iv));
+      cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+      final byte[] encrypted = cipher.doFinal(privateKey);
+
+      return ByteBuffer.allocate(IV_LENGTH + encrypted.length).put(iv).put(encrypted).array();
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot encrypt JWT signing key kid=" + kid, e);
+    }
+  }
+
+  private byte[] decrypt(final String kid, final byte[] encrypted)
+      throws GeneralSecurityException {
+    final Cipher cipher = Cipher.getInstance(CIPHER);
+    cipher.init(Cipher.DECRYPT_MODE, secretKey,
+        new GCMParameterSpec(TAG_LENGTH, encrypted, 0, IV_LENGTH));
+    cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+
+    return cipher.doFinal(encrypted, IV_LENGTH, encrypted.length - IV_LENGTH);
+  }
+
+  private synchronized void publish(final Map<String, SigningKey> newKeys,
+      final SigningKey newActive, final SigningKey newNext) {
+    final List<Map<String, Object>> jwks = new ArrayList<>(newKeys.size());
+    final StringBuilder tag = new StringBuilder();
+
+    for (final SigningKey key : newKeys.values()) {
+      jwks.add(key.toJwk());
+      tag.append(key.getKid()).append(',');
+    }
+
+    final Map<String, Object> set = new LinkedHashMap<>(1);
+    set.put("keys", Collections.unmodifiableList(jwks));
+
+    this.keys = Collections.unmodifiableMap(newKeys);
+    this.active = newActive;
+    this.next = newNext;
+    this.jwkSet = Collections.unmodifiableMap(set);
+    this.jwkSetTag = Integer.toHexString(tag.toString().hashCode());
+  }
+
+  /**
+   * Get the current time, in milliseconds.
+   *
+   * @return the current time, in milliseconds.
+   */
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  /**
+   * Get the key signing the tokens.
+   *
+   * @return the key signing the tokens.
+   */
+  public SigningKey getActiveKey() {
+    return active;
+  }
+
+  /**
+   * Get the key signing the tokens after the next rotation.
+   *
+   * @return the next signing key, or {@code null} if the keys are loaded from a key store or not
+   *         rotated.
+   */
+  public SigningKey getNextKey() {
+    return next;
+  }
+
+  /**
+   * Get a key verifying tokens.
+   *
+   * @param kid the key id.
+   *
+   * @return the key, or {@code null} if unknown or retired for longer than the retention period.
+   */
+  public SigningKey getKey(final String kid) {
+    final SigningKey key;
+    if (kid == null) {
+      key = null;
+    } else {
+      key = keys.get(kid);
+    }
+    return key;
+  }
+
+  /**
+   * Get a key verifying tokens, reloading the generated keys if the key is unknown.
+   *
+   * <p>
+   * A token may be signed by a key added by another node since the last reload. The keys are
+   * reloaded at most once per minimum refresh interval, so that tokens signed with made up key ids
+   * do not hit the database.
+   * </p>
+   *
+   * @param kid the key id.
+   *
+   * @return the key, or {@code null} if still unknown or retired for longer than the retention
+   *         period.
+   */
+  public SigningKey resolveKey(final String kid) {
+    SigningKey key = this.getKey(kid);
+
+    if (key == null && kid != null && keyService != null) {
+      synchronized (this) {
+        if (this.currentTimeMillis() - refreshedAt >= minRefreshInterval) {
+          this.refresh();
+        }
+      }
+      key = this.getKey(kid);
+    }
+
+    return key;
+  }
+
+  /**
+   * Get the public JSON Web Key set of the keys verifying tokens.
+   *
+   * @return the public JSON Web Key set.
+   */
+  public Map<String, Object> getJwkSet() {
+    return jwkSet;
+  }
+
+  /**
+   * Get a tag of the current JSON Web Key set, changing with its keys.
+   *
+   * @return a tag of the current JSON Web Key set.
+   */
+  public String getJwkSetTag() {
+    return jwkSetTag;
+  }
+
+}
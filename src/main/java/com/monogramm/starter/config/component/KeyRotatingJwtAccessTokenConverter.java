@@ -0,0 +1,150 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.config.component;
+
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.security.jwt.Jwt;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.common.util.JsonParser;
+import org.springframework.security.oauth2.common.util.JsonParserFactory;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+/**
+ * JSON Web Token converter signing with the active key of a {@link JwtKeyManager}.
+ * 
+ * <p>
+ * Tokens carry the id of their signing key in their {@code kid} header. They are verified with
+ * the key of that id, as long as the key manager knows it, so that the tokens signed before a key
+ * rotation stay valid.
+ * </p>
+ * 
+ * <p>
+ * A token signed by an unknown key may have been signed by a key added since the keys were last
+ * read: the keys of the key manager, then the {@link RemoteJwkSet JSON Web Key set} of the
+ * authorization server if any, are read again before rejecting the token.
+ * </p>
+ * 
+ * @author madmath03
+ */
+public class KeyRotatingJwtAccessTokenConverter extends JwtAccessTokenConverter {
+
+  /**
+   * The key id header.
+   */
+  public static final String KID = "kid";
+
+  private static final String ALG = "alg";
+
+  private final JwtKeyManager keyManager;
+
+  private RemoteJwkSet remoteJwkSet;
+
+  private final JsonParser jsonParser = JsonParserFactory.create();
+
+  /**
+   * Create a {@link KeyRotatingJwtAccessTokenConverter}.
+   * 
+   * @param keyManager the manager of the signing keys.
+   * 
+   * @throws IllegalArgumentException if {@code keyManager} is {@code null}.
+   */
+  public KeyRotatingJwtAccessTokenConverter(final JwtKeyManager keyManager) {
+    super();
+    if (keyManager == null) {
+      throw new IllegalArgumentException("Key manager cannot be null.");
+    }
+    this.keyManager = keyManager;
+  }
+
+  @Override
+  protected String encode(final OAuth2AccessToken accessToken,
+      final OAuth2Authentication authentication) {
+    final String content;
+    try {
+      content = jsonParser
+          .formatMap(getAccessTokenConverter().convertAccessToken(accessToken, authentication));
+    } catch (Exception e) {
+      throw new IllegalStateException("Cannot convert access token to JSON", e);
+    }
+
+    final SigningKey key = keyManager.getActiveKey();
+
+    return JwtHelper.encode(content, key.getSigner(), Collections.singletonMap(KID, key.getKid()))
+        .getEncoded();
+  }
+
+  @Override
+  protected Map<String, Object> decode(final String token) {
+    final Map<String, String> headers;
+    try {
+      headers = JwtHelper.headers(token);
+    } catch (RuntimeException e) {
+      throw new InvalidTokenException("Cannot decode access token headers", e);
+    }
+
+    SigningKey key = keyManager.resolveKey(headers.get(KID));
+    if (key == null && remoteJwkSet != null) {
+      key = remoteJwkSet.resolveKey(headers.get(KID));
+    }
+    if (key == null) {
+      throw new InvalidTokenException("Unknown signing key: " + headers.get(KID));
+    }
+    // Never let the token choose how it is verified
+    if (!key.getAlgorithm().equals(headers.get(ALG))) {
+      throw new InvalidTokenException("Unexpected signature algorithm: " + headers.get(ALG));
+    }
+
+    try {
+      final Jwt jwt = JwtHelper.decodeAndVerify(token, key.getVerifier());
+      final Map<String, Object> claims = jsonParser.parseMap(jwt.getClaims());
+
+      final Object expiration = claims.get(AccessTokenConverter.EXP);
+      if (expiration instanceof Integer) {
+        claims.put(AccessTokenConverter.EXP, Long.valueOf((Integer) expiration));
+      }
+
+      return claims;
+    } catch (Exception e) {
+      throw new InvalidTokenException("Cannot convert access token to JSON", e);
+    }
+  }
+
+  /**
+   * Set the {@link #remoteJwkSet}.
+   * 
+   * @param remoteJwkSet the JSON Web Key set of the authorization server, verifying the tokens
+   *        signed by keys unknown to the key manager.
+   */
+  public void setRemoteJwkSet(final RemoteJwkSet remoteJwkSet) {
+    this.remoteJwkSet = remoteJwkSet;
+  }
+
+  /**
+   * Get the public key verifying the tokens currently signed, as served by the token key endpoint.
+   * 
+   * @return the signature algorithm and the PEM encoded public key of the active key.
+   */
+  @Override
+  public Map<String, String> getKey() {
+    final SigningKey key = keyManager.getActiveKey();
+
+    final Map<String, String> result = new LinkedHashMap<>();
+    result.put(ALG, key.getSigner().algorithm());
+    result.put(KID, key.getKid());
+    result.put("value", "-----BEGIN PUBLIC KEY-----\n"
+        + Base64.getMimeEncoder().encodeToString(key.getPublicKey().getEncoded())
+        + "\n-----END PUBLIC KEY-----");
+    return result;
+  }
+
+}
@@ -0,0 +1,313 @@
+/*
+ * Creation by madmath03 the 2018-02-06.
+ */
+
+package com.monogramm.starter.config.component;
+
+import com.monogramm.starter.persistence.mail.entity.OutboxMail;
+import com.monogramm.starter.persistence.mail.service.IMailOutboxService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled job sending the mails of the outbox.
+ * 
+ * <p>
+ * Each dispatch claims the mails ready to be sent and splits them between a pool of workers. Each
+ * worker sends its batch through a single call to the {@link MailSender}, so that one SMTP
+ * connection is opened per batch rather than per mail. Mails which could not be sent are retried
+ * later with an exponential backoff.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@Component
+public class MailOutboxDispatcher {
+
+  /**
+   * Logger for {@link MailOutboxDispatcher}.
+   */
+  private static final Logger LOG = LogManager.getLogger(MailOutboxDispatcher.class);
+
+  /**
+   * Property to enable or disable the dispatch of the outbox.
+   */
+  public static final String PROP_ENABLED = "mail.outbox.enabled";
+  /**
+   * Property for the number of workers sending mails.
+   */
+  public static final String PROP_WORKERS = "mail.outbox.workers";
+  /**
+   * Property for the maximum number of mails sent per batch.
+   */
+  public static final String PROP_BATCH_SIZE = "mail.outbox.batch-size";
+
+  private static final int DEFAULT_WORKERS = 2;
+  private static final int DEFAULT_BATCH_SIZE = 50;
+
+  private final IMailOutboxService outboxService;
+
+  private final MailSender mailSender;
+
+  private final boolean enabled;
+
+  private final int workers;
+
+  private final int batchSize;
+
+  private final ExecutorService executor;
+
+  private final LongAdder dispatches = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final AtomicLong lastDispatchMillis = new AtomicLong();
+
+  /**
+   * Create a {@link MailOutboxDispatcher} configured through the application properties.
+   * 
+   * @param outboxService the mail outbox service.
+   * @param mailSender the mail sender.
+   * @param env the application environment.
+   */
+  @Autowired
+  public MailOutboxDispatcher(final IMailOutboxService outboxService, final MailSender mailSender,
+      final Environment env) {
+    this(outboxService, mailSender, env.getProperty(PROP_ENABLED, Boolean.class, Boolean.TRUE),
+        env.getProperty(PROP_WORKERS, Integer.class, DEFAULT_WORKERS),
+        env.getProperty(PROP_BATCH_SIZE, Integer.class, DEFAULT_BATCH_SIZE));
+  }
+
+  /**
+   * Create a {@link MailOutboxDispatcher}.
+   * 
+   * @param outboxService the mail outbox service.
+   * @param mailSender the mail sender.
+   * @param enabled whether the outbox is dispatched.
+   * @param workers the number of workers sending mails.
+   * @param batchSize the maximum number of mails sent per batch.
+   * 
+   * @throws IllegalArgumentException if any of the services is {@code null}, or if
+   *         {@code workers} or {@code batchSize} is not strictly positive.
+   */
+  public MailOutboxDispatcher(final IMailOutboxService outboxService, final MailSender mailSender,
+      final boolean enabled, final int workers, final int batchSize) {
+    super();
+    if (outboxService == null) {
+      throw new IllegalArgumentException("Mail outbox service cannot be null.");
+    }
+    if (mailSender == null) {
+      throw new IllegalArgumentException("Application mail sender cannot be null.");
+    }
+    if (workers <= 0 || batchSize <= 0) {
+      throw new IllegalArgumentException("Workers and batch size must be strictly positive.");
+    }
+    this.outboxService = outboxService;
+    this.mailSender = mailSender;
+    this.enabled = enabled;
+    this.workers = workers;
+    this.batchSize = batchSize;
+    this.executor = Executors.newFixedThreadPool(workers, new OutboxThreadFactory());
+  }
+
+  /**
+   * Shutdown the workers.
+   */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Send the mails of the outbox ready to be sent.
+   * 
+   * @return the number of mails sent.
+   */
+  @Scheduled(initialDelayString = "${mail.outbox.initial-delay:5000}",
+      fixedDelayString = "${mail.outbox.poll-interval:1000}")
+  public int dispatch() {
+    if (!enabled) {
+      return 0;
+    }
+
+    final long start = System.nanoTime();
+    int dispatched = 0;
+    try {
+      final List<OutboxMail> claimed = outboxService.claim(workers * batchSize);
+
+      final List<Future<Integer>> futures = new ArrayList<>(workers);
+      for (int from = 0; from < claimed.size(); from += batchSize) {
+        final List<OutboxMail> batch =
+            claimed.subList(from, Math.min(claimed.size(), from + batchSize));
+        futures.add(executor.submit(() -> this.send(batch)));
+      }
+
+      for (final Future<Integer> future : futures) {
+        dispatched += future.get();
+      }
+    } catch (DataAccessException | ExecutionException e) {
+      LOG.error("Mail outbox dispatch failed", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOG.warn("Mail outbox dispatch interrupted", e);
+    } finally {
+      dispatches.increment();
+      lastDispatchMillis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    if (dispatched > 0 && LOG.isDebugEnabled()) {
+      LOG.debug("Sent {} mails in {}ms", dispatched, lastDispatchMillis.get());
+    }
+
+    return dispatched;
+  }
+
+  /**
+   * Send a batch of mails through a single connection.
+   * 
+   * @param batch the mails to send.
+   * 
+   * @return the number of mails sent.
+   */
+  protected int send(final List<OutboxMail> batch) {
+    final SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+    for (int i = 0; i < messages.length; i++) {
+      messages[i] = toMessage(batch.get(i));
+    }
+
+    Map<Object, Exception> failures = null;
+    MailException error = null;
+    try {
+      mailSender.send(messages);
+    } catch (MailSendException e) {
+      failures = e.getFailedMessages();
+      error = e;
+    } catch (MailException e) {
+      error = e;
+    }
+    batches.increment();
+
+    final List<UUID> sentIds = new ArrayList<>(messages.length);
+    for (int i = 0; i < messages.length; i++) {
+      final OutboxMail mail = batch.get(i);
+      final Exception failure;
+      if (error == null) {
+        failure = null;
+      } else if (failures == null || failures.isEmpty()) {
+        // The whole batch failed, for instance on connection or authentication
+        failure = error;
+      } else {
+        failure = failures.get(messages[i]);
+      }
+
+      if (failure == null) {
+        sentIds.add(mail.getId());
+      } else {
+        failed.increment();
+        if (!outboxService.markFailed(mail, failure.getMessage())) {
+          LOG.error("Giving up mail {} to {}", mail.getId(), mail.getRecipient(), failure);
+        }
+      }
+    }
+
+    outboxService.markSent(sentIds);
+    sent.add(sentIds.size());
+
+    return sentIds.size();
+  }
+
+  private static SimpleMailMessage toMessage(final OutboxMail mail) {
+    final SimpleMailMessage message = new SimpleMailMessage();
+    message.setFrom(mail.getSender());
+    message.setTo(mail.getRecipient());
+    message.setSubject(mail.getSubject());
+    message.setText(mail.getBody());
+    return message;
+  }
+
+  /**
+   * Get the number of dispatches.
+   * 
+   * @return the number of dispatches.
+   */
+  public long getDispatchCount() {
+    return dispatches.sum();
+  }
+
+  /**
+   * Get the number of batches sent.
+   * 
+   * @return the number of batches sent.
+   */
+  public long getBatchCount() {
+    return batches.sum();
+  }
+
+  /**
+   * Get the number of mails sent.
+   * 
+   * @return the number of mails sent.
+   */
+  public long getSentCount() {
+    return sent.sum();
+  }
+
+  /**
+   * Get the number of failed sending attempts.
+   * 
+   * @return the number of failed sending attempts.
+   */
+  public long getFailedCount() {
+    return failed.sum();
+  }
+
+  /**
+   * Get the duration of the last dispatch, in milliseconds.
+   * 
+   * @return the duration of the last dispatch, in milliseconds.
+   */
+  public long getLastDispatchMillis() {
+    return lastDispatchMillis.get();
+  }
+
+  /**
+   * Creates named daemon outbox worker threads.
+   */
+  private static final class OutboxThreadFactory implements ThreadFactory {
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      final Thread thread = new Thread(runnable, "mail-outbox-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+}
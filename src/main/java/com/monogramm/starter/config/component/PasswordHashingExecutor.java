@@ -0,0 +1,462 @@
+/*
+ * Creation by madmath03 the 2018-02-04.
+ */
+
+package com.monogramm.starter.config.component;
+
+import com.github.madmath03.password.Passwords;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executor dedicated to the CPU intensive password hashing and verification.
+ * 
+ * <p>
+ * Hashing runs on a pool sized to the number of available processors, with a bounded queue, so
+ * that a burst of registrations or logins cannot pin every request thread. When the queue is full,
+ * a {@link PasswordHashingUnavailableException} is thrown and the request should be answered with
+ * a <em>503 Service Unavailable</em>.
+ * </p>
+ * 
+ * <p>
+ * New passwords are hashed with PBKDF2 and the number of iterations is stored with the hash. The
+ * number of iterations is calibrated at startup to hit a configured latency on the current
+ * hardware. Hashes produced by {@link Passwords} are still verified.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@Component
+public class PasswordHashingExecutor {
+
+  /**
+   * Logger for {@link PasswordHashingExecutor}.
+   */
+  private static final Logger LOG = LogManager.getLogger(PasswordHashingExecutor.class);
+
+  /**
+   * Prefix of the hashes produced by this executor.
+   */
+  public static final String HASH_PREFIX = "{pbkdf2}";
+
+  /**
+   * Separator between the number of iterations and the hash.
+   */
+  private static final char HASH_SEPARATOR = '$';
+
+  /**
+   * Hash width, in bits.
+   */
+  private static final int HASH_WIDTH = 256;
+
+  /**
+   * Minimum number of iterations, whatever the calibration result.
+   */
+  public static final int MIN_ITERATIONS = 10_000;
+
+  /**
+   * Maximum number of iterations, whatever the calibration result.
+   */
+  public static final int MAX_ITERATIONS = 10_000_000;
+
+  /**
+   * Number of calibration rounds, the first one being a warm up.
+   */
+  private static final int CALIBRATION_ROUNDS = 3;
+
+  /**
+   * Property for the number of hashing threads. Defaults to the number of available processors.
+   */
+  public static final String PROP_THREADS = "password.hashing.threads";
+  /**
+   * Property for the capacity of the hashing queue.
+   */
+  public static final String PROP_QUEUE_CAPACITY = "password.hashing.queue-capacity";
+  /**
+   * Property for the maximum time, in milliseconds, to wait for a hashing operation.
+   */
+  public static final String PROP_TIMEOUT = "password.hashing.timeout";
+  /**
+   * Property for the targeted duration, in milliseconds, of a hash.
+   */
+  public static final String PROP_TARGET_LATENCY = "password.hashing.target-latency";
+
+  private static final int DEFAULT_QUEUE_CAPACITY = 64;
+  private static final long DEFAULT_TIMEOUT = 10_000L;
+  private static final long DEFAULT_TARGET_LATENCY = 100L;
+
+  private final ThreadPoolExecutor executor;
+
+  private final long timeout;
+
+  private final long targetLatency;
+
+  private volatile int iterations = MIN_ITERATIONS;
+
+  private final OperationStatistics hashStatistics = new OperationStatistics();
+
+  private final OperationStatistics matchStatistics = new OperationStatistics();
+
+  private final LongAdder rejected = new LongAdder();
+
+  /**
+   * Create a {@link PasswordHashingExecutor} configured through the application properties.
+   * 
+   * @param env the application environment.
+   */
+  @Autowired
+  public PasswordHashingExecutor(final Environment env) {
+    this(env.getProperty(PROP_THREADS, Integer.class, 0),
+        env.getProperty(PROP_QUEUE_CAPACITY, Integer.class, DEFAULT_QUEUE_CAPACITY),
+        env.getProperty(PROP_TIMEOUT, Long.class, DEFAULT_TIMEOUT),
+        env.getProperty(PROP_TARGET_LATENCY, Long.class, DEFAULT_TARGET_LATENCY));
+  }
+
+  /**
+   * Create a {@link PasswordHashingExecutor}.
+   * 
+   * @param threads the number of hashing threads. The number of available processors is used if
+   *        not strictly positive.
+   * @param queueCapacity the maximum number of hashing operations waiting for a thread.
+   * @param timeout the maximum time, in milliseconds, to wait for a hashing operation.
+   * @param targetLatency the targeted duration, in milliseconds, of a hash.
+   * 
+   * @throws IllegalArgumentException if {@code queueCapacity} is not strictly positive.
+   */
+  public PasswordHashingExecutor(final int threads, final int queueCapacity, final long timeout,
+      final long targetLatency) {
+    super();
+    final int poolSize;
+    if (threads > 0) {
+      poolSize = threads;
+    } else {
+      poolSize = Runtime.getRuntime().availableProcessors();
+    }
+
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+        new ThreadPoolExecutor.AbortPolicy());
+    this.timeout = timeout;
+    this.targetLatency = targetLatency;
+  }
+
+  /**
+   * Calibrate the number of iterations to hit the {@link #targetLatency} on the current hardware.
+   * 
+   * <p>
+   * A hash is timed with {@link #MIN_ITERATIONS} and the number of iterations is scaled
+   * proportionally, within {@link #MIN_ITERATIONS} and {@link #MAX_ITERATIONS}.
+   * </p>
+   * 
+   * @return the calibrated number of iterations.
+   */
+  @PostConstruct
+  public int calibrate() {
+    final char[] sample = "calibration".toCharArray();
+    final Pbkdf2PasswordEncoder encoder = encoder(MIN_ITERATIONS);
+
+    long elapsed = Long.MAX_VALUE;
+    for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+      final long start = System.nanoTime();
+      encoder.encode(new String(sample));
+      elapsed = Math.min(elapsed, System.nanoTime() - start);
+    }
+
+    final double scale =
+        (double) TimeUnit.MILLISECONDS.toNanos(targetLatency) / Math.max(1L, elapsed);
+    final long calibrated = Math.round(MIN_ITERATIONS * scale);
+    this.iterations = (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, calibrated));
+
+    if (LOG.isInfoEnabled()) {
+      LOG.info("Password hashing calibrated to {} iterations for a target of {}ms on {} threads",
+          iterations, targetLatency, executor.getCorePoolSize());
+    }
+
+    return this.iterations;
+  }
+
+  /**
+   * Shutdown the hashing threads.
+   */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Hash a password on the hashing threads.
+   * 
+   * @param password the clear password to hash.
+   * 
+   * @return the hashed password.
+   * 
+   * @throws PasswordHashingUnavailableException if the hashing threads are saturated.
+   */
+  public String hash(final char[] password) {
+    final int cost = this.iterations;
+    return this.execute(hashStatistics,
+        () -> HASH_PREFIX + cost + HASH_SEPARATOR + encoder(cost).encode(new String(password)));
+  }
+
+  /**
+   * Verify a password against a hash on the hashing threads.
+   * 
+   * @param rawPassword the clear password to verify.
+   * @param encodedPassword the hashed password, produced either by this executor or by
+   *        {@link Passwords}.
+   * 
+   * @return {@code true} if the password matches the hash, {@code false} otherwise.
+   * 
+   * @throws PasswordHashingUnavailableException if the hashing threads are saturated.
+   */
+  public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+    if (rawPassword == null || encodedPassword == null) {
+      return false;
+    }
+    return this.execute(matchStatistics, () -> isExpectedPassword(rawPassword, encodedPassword));
+  }
+
+  /**
+   * Verify a password against a hash on the current thread.
+   * 
+   * @param rawPassword the clear password to verify.
+   * @param encodedPassword the hashed password, produced either by this executor or by
+   *        {@link Passwords}.
+   * 
+   * @return {@code true} if the password matches the hash, {@code false} otherwise, including when
+   *         the hash is malformed.
+   */
+  protected static boolean isExpectedPassword(final CharSequence rawPassword,
+      final String encodedPassword) {
+    final boolean expected;
+
+    if (encodedPassword.startsWith(HASH_PREFIX)) {
+      final int separator = encodedPassword.indexOf(HASH_SEPARATOR, HASH_PREFIX.length());
+      if (separator < 0) {
+        expected = false;
+      } else {
+        final String cost = encodedPassword.substring(HASH_PREFIX.length(), separator);
+        expected = matchesCost(rawPassword, cost, encodedPassword.substring(separator + 1));
+      }
+    } else {
+      expected = Passwords.isExpectedPassword(rawPassword, encodedPassword);
+    }
+
+    return expected;
+  }
+
+  private static boolean matchesCost(final CharSequence rawPassword, final String costSegment,
+      final String hash) {
+    boolean expected;
+
+    try {
+      final int cost = Integer.parseInt(costSegment);
+      if (cost < 1 || cost > MAX_ITERATIONS) {
+        LOG.debug("Password hash with an unexpected cost: {}", cost);
+        expected = false;
+      } else {
+        expected = encoder(cost).matches(rawPassword, hash);
+      }
+    } catch (IllegalArgumentException e) {
+      // Includes the NumberFormatException of a cost that is not a number and malformed hashes
+      LOG.debug("Malformed password hash", e);
+      expected = false;
+    }
+
+    return expected;
+  }
+
+  private static Pbkdf2PasswordEncoder encoder(final int cost) {
+    return new Pbkdf2PasswordEncoder("", cost, HASH_WIDTH);
+  }
+
+  private <V> V execute(final OperationStatistics statistics, final Callable<V> operation) {
+    final long submitted = System.nanoTime();
+
+    final Future<V> future;
+    try {
+      future = executor.submit(() -> {
+        final long start = System.nanoTime();
+        try {
+          return operation.call();
+        } finally {
+          final long elapsed = System.nanoTime() - start;
+          statistics.record(elapsed, start - submitted);
+          if (LOG.isDebugEnabled()) {
+            LOG.debug("Password hashing operation took {}ms after waiting {}ms",
+                TimeUnit.NANOSECONDS.toMillis(elapsed),
+                TimeUnit.NANOSECONDS.toMillis(start - submitted));
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new PasswordHashingUnavailableException("Password hashing is saturated", e);
+    }
+
+    try {
+      return future.get(timeout, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      throw new PasswordHashingUnavailableException("Password hashing timed out", e);
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new PasswordHashingUnavailableException("Password hashing interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Password hashing failed", e.getCause());
+    }
+  }
+
+  /**
+   * Get the calibrated number of iterations.
+   * 
+   * @return the calibrated number of iterations.
+   */
+  public int getIterations() {
+    return iterations;
+  }
+
+  /**
+   * Get the number of hashing threads.
+   * 
+   * @return the number of hashing threads.
+   */
+  public int getPoolSize() {
+    return executor.getCorePoolSize();
+  }
+
+  /**
+   * Get the number of operations waiting for a hashing thread.
+   * 
+   * @return the number of operations waiting for a hashing thread.
+   */
+  public int getQueueSize() {
+    return executor.getQueue().size();
+  }
+
+  /**
+   * Get the number of operations rejected because the hashing threads were saturated.
+   * 
+   * @return the number of operations rejected.
+   */
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  /**
+   * Get the {@link #hashStatistics}.
+   * 
+   * @return the {@link #hashStatistics}.
+   */
+  public OperationStatistics getHashStatistics() {
+    return hashStatistics;
+  }
+
+  /**
+   * Get the {@link #matchStatistics}.
+   * 
+   * @return the {@link #matchStatistics}.
+   */
+  public OperationStatistics getMatchStatistics() {
+    return matchStatistics;
+  }
+
+  /**
+   * Timing statistics of a hashing operation.
+   * 
+   * @author madmath03
+   */
+  public static final class OperationStatistics {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    private OperationStatistics() {
+      super();
+    }
+
+    private void record(final long elapsed, final long waited) {
+      count.increment();
+      totalNanos.add(elapsed);
+      maxNanos.accumulate(elapsed);
+      totalWaitNanos.add(waited);
+    }
+
+    /**
+     * Get the number of operations executed.
+     * 
+     * @return the number of operations executed.
+     */
+    public long getCount() {
+      return count.sum();
+    }
+
+    /**
+     * Get the total execution time of the operations, in nanoseconds.
+     * 
+     * @return the total execution time of the operations, in nanoseconds.
+     */
+    public long getTotalNanos() {
+      return totalNanos.sum();
+    }
+
+    /**
+     * Get the longest execution time of an operation, in nanoseconds.
+     * 
+     * @return the longest execution time of an operation, in nanoseconds.
+     */
+    public long getMaxNanos() {
+      return maxNanos.get();
+    }
+
+    /**
+     * Get the total time operations waited for a hashing thread, in nanoseconds.
+     * 
+     * @return the total time operations waited for a hashing thread, in nanoseconds.
+     */
+    public long getTotalWaitNanos() {
+      return totalWaitNanos.sum();
+    }
+  }
+
+  /**
+   * Creates named daemon hashing threads.
+   */
+  private static final class HashingThreadFactory implements ThreadFactory {
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      final Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Creation by madmath03 the 2018-02-04.
+ */
+
+package com.monogramm.starter.config.component;
+
+/**
+ * Thrown when a password cannot be hashed or verified because the hashing threads are saturated.
+ * 
+ * @author madmath03
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = -3580478409377150152L;
+
+  /**
+   * Create a {@link PasswordHashingUnavailableException}.
+   * 
+   * @param message the detail message.
+   */
+  public PasswordHashingUnavailableException(String message) {
+    super(message);
+  }
+
+  /**
+   * Create a {@link PasswordHashingUnavailableException}.
+   * 
+   * @param message the detail message.
+   * @param cause the cause. (A {@code null} value is permitted, and indicates that the cause is
+   *        nonexistent or unknown.)
+   */
+  public PasswordHashingUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Creation by madmath03 the 2018-02-07.
+ */
+
+package com.monogramm.starter.config.component;
+
+/**
+ * Thrown when a client sent too many requests to a rate limited endpoint.
+ * 
+ * @author madmath03
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = 4128934861267290148L;
+
+  private final long retryAfterSeconds;
+
+  /**
+   * Create a {@link RateLimitExceededException}.
+   * 
+   * @param message the detail message.
+   * @param retryAfterSeconds the number of seconds to wait before the next request is accepted.
+   */
+  public RateLimitExceededException(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  /**
+   * Get the number of seconds to wait before the next request is accepted.
+   * 
+   * @return the number of seconds to wait before the next request is accepted.
+   */
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+
+}
@@ -0,0 +1,492 @@
+/*
+ * Creation by madmath03 the 2018-02-07.
+ */
+
+package com.monogramm.starter.config.component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * In-process rate limiter protecting the endpoints sending mails or hashing passwords.
+ * 
+ * <p>
+ * Each request to a limited endpoint takes a token from the buckets of its client IP address, of
+ * the email address it targets and of its OAuth client, if any. A request is rejected with a
+ * {@link RateLimitExceededException} as soon as one of these buckets is empty, and the tokens it
+ * already took from the other buckets are given back: requests rejected because of an email
+ * address do not drain the budget of the client IP address. Buckets are refilled continuously,
+ * one token every refill period, up to their capacity.
+ * </p>
+ * 
+ * <p>
+ * Buckets are updated without locks. They are kept in a fixed number of stripes, each bounded and
+ * evicting its least recently used buckets, so that a flood of distinct keys cannot exhaust the
+ * memory. The client IP address is the remote address of the request: forwarded headers should be
+ * resolved by the servlet container when running behind a proxy.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@Component
+public class RateLimiter {
+
+  /**
+   * Logger for {@link RateLimiter}.
+   */
+  private static final Logger LOG = LogManager.getLogger(RateLimiter.class);
+
+  /**
+   * The registration endpoint.
+   */
+  public static final String REGISTER = "register";
+  /**
+   * The password reset endpoints.
+   */
+  public static final String RESET_PASSWORD = "reset_password";
+  /**
+   * The verification sending endpoint.
+   */
+  public static final String SEND_VERIFICATION = "send_verification";
+
+  /**
+   * Property to enable the rate limiting.
+   */
+  public static final String PROP_ENABLED = "rate-limit.enabled";
+  /**
+   * Property for the maximum number of buckets kept in memory.
+   */
+  public static final String PROP_MAX_KEYS = "rate-limit.max-keys";
+  /**
+   * Property for the number of requests accepted at once on an endpoint, once prefixed by
+   * {@code rate-limit.<endpoint>}.
+   */
+  public static final String PROP_CAPACITY = ".capacity";
+  /**
+   * Property for the time, in milliseconds, to regain one request on an endpoint, once prefixed by
+   * {@code rate-limit.<endpoint>}.
+   */
+  public static final String PROP_REFILL = ".refill-millis";
+
+  private static final String PROP_PREFIX = "rate-limit.";
+
+  private static final boolean DEFAULT_ENABLED = true;
+  private static final int DEFAULT_MAX_KEYS = 100_000;
+  private static final int DEFAULT_CAPACITY = 5;
+  private static final long DEFAULT_REFILL = 60_000L;
+
+  private static final int STRIPES = 16;
+
+  private final boolean enabled;
+
+  private final Map<String, Limit> limits;
+
+  private final Stripe[] stripes;
+
+  private final Map<String, LongAdder> allowed;
+  private final Map<String, LongAdder> rejected;
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Create a {@link RateLimiter} configured through the application properties.
+   * 
+   * @param env the application environment.
+   */
+  @Autowired
+  public RateLimiter(final Environment env) {
+    this(env.getProperty(PROP_ENABLED, Boolean.class, DEFAULT_ENABLED),
+        env.getProperty(PROP_MAX_KEYS, Integer.class, DEFAULT_MAX_KEYS),
+        limits(env, REGISTER, RESET_PASSWORD, SEND_VERIFICATION));
+  }
+
+  /**
+   * Create a {@link RateLimiter}.
+   * 
+   * @param enabled whether the requests are limited.
+   * @param maxKeys the maximum number of buckets kept in memory.
+   * @param limits the limits per endpoint. Endpoints without limit are not limited.
+   * 
+   * @throws IllegalArgumentException if {@code limits} is {@code null} or if {@code maxKeys} is
+   *         lower than the number of stripes.
+   */
+  public RateLimiter(final boolean enabled, final int maxKeys, final Map<String, Limit> limits) {
+    super();
+    if (limits == null) {
+      throw new IllegalArgumentException("Rate limits cannot be null.");
+    }
+    if (maxKeys < STRIPES) {
+      throw new IllegalArgumentException("Rate limiter must keep at least " + STRIPES + " keys.");
+    }
+    this.enabled = enabled;
+    this.limits = Collections.unmodifiableMap(new HashMap<>(limits));
+
+    this.stripes = new Stripe[STRIPES];
+    for (int i = 0; i < STRIPES; i++) {
+      this.stripes[i] = new Stripe(maxKeys / STRIPES, evictions);
+    }
+
+    final Map<String, LongAdder> allowedCounts = new HashMap<>();
+    final Map<String, LongAdder> rejectedCounts = new HashMap<>();
+    for (final String endpoint : limits.keySet()) {
+      allowedCounts.put(endpoint, new LongAdder());
+      rejectedCounts.put(endpoint, new LongAdder());
+    }
+    this.allowed = Collections.unmodifiableMap(allowedCounts);
+    this.rejected = Collections.unmodifiableMap(rejectedCounts);
+  }
+
+  private static Map<String, Limit> limits(final Environment env, final String... endpoints) {
+    final Map<String, Limit> limits = new HashMap<>(endpoints.length);
+
+    for (final String endpoint : endpoints) {
+      final int capacity =
+          env.getProperty(PROP_PREFIX + endpoint + PROP_CAPACITY, Integer.class, DEFAULT_CAPACITY);
+      final long refillMillis =
+          env.getProperty(PROP_PREFIX + endpoint + PROP_REFILL, Long.class, DEFAULT_REFILL);
+      limits.put(endpoint, new Limit(capacity, refillMillis));
+    }
+
+    return limits;
+  }
+
+  /**
+   * Take a token for a request to an endpoint.
+   * 
+   * <p>
+   * The client IP address and OAuth client are read from the current request and security
+   * context.
+   * </p>
+   * 
+   * @param endpoint the endpoint requested.
+   * @param email the email address targeted by the request. May be {@code null}.
+   * 
+   * @throws RateLimitExceededException if the client sent too many requests to the endpoint.
+   */
+  public void acquire(final String endpoint, final String email) {
+    this.acquire(endpoint, currentRemoteAddress(), email, currentClientId());
+  }
+
+  /**
+   * Take a token for a request to an endpoint.
+   * 
+   * @param endpoint the endpoint requested.
+   * @param remoteAddress the client IP address. May be {@code null}.
+   * @param email the email address targeted by the request. May be {@code null}.
+   * @param clientId the OAuth client identifier. May be {@code null}.
+   * 
+   * @throws RateLimitExceededException if the client sent too many requests to the endpoint.
+   */
+  public void acquire(final String endpoint, final String remoteAddress, final String email,
+      final String clientId) {
+    final Limit limit = limits.get(endpoint);
+    if (!enabled || limit == null) {
+      return;
+    }
+
+    final String normalizedEmail;
+    if (email == null) {
+      normalizedEmail = null;
+    } else {
+      normalizedEmail = email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    final long now = this.nanoTime();
+    final long waitNanos = this.tryAcquireAll(limit, now, key(endpoint, "|ip|", remoteAddress),
+        key(endpoint, "|email|", normalizedEmail), key(endpoint, "|client|", clientId));
+
+    if (waitNanos == 0L) {
+      allowed.get(endpoint).increment();
+    } else {
+      rejected.get(endpoint).increment();
+
+      final long retryAfter = (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1L)
+          / TimeUnit.SECONDS.toNanos(1);
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Too many requests on {} from {}", endpoint, remoteAddress);
+      }
+      throw new RateLimitExceededException("Too many requests, retry in " + retryAfter + "s",
+          retryAfter);
+    }
+  }
+
+  private static String key(final String endpoint, final String kind, final String value) {
+    final String key;
+    if (value == null) {
+      key = null;
+    } else {
+      key = endpoint + kind + value;
+    }
+    return key;
+  }
+
+  /**
+   * Take a token from the bucket of each key, or from none of them.
+   * 
+   * @param limit the limit of the endpoint.
+   * @param now the current value of the time source, in nanoseconds.
+   * @param keys the keys of the buckets. {@code null} keys are ignored.
+   * 
+   * @return {@code 0} if a token was taken from every bucket, otherwise the time to wait, in
+   *         nanoseconds, before the first empty bucket regains a token.
+   */
+  private long tryAcquireAll(final Limit limit, final long now, final String... keys) {
+    final TokenBucket[] taken = new TokenBucket[keys.length];
+
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != null) {
+        final Stripe stripe = stripes[(keys[i].hashCode() & Integer.MAX_VALUE) % STRIPES];
+        final TokenBucket bucket = stripe.bucket(keys[i], now);
+
+        final long waitNanos = bucket.tryAcquire(limit, now);
+        if (waitNanos > 0L) {
+          // Give back the tokens already taken for this rejected request
+          for (int j = 0; j < i; j++) {
+            if (taken[j] != null) {
+              taken[j].release(limit);
+            }
+          }
+          return waitNanos;
+        }
+        taken[i] = bucket;
+      }
+    }
+
+    return 0L;
+  }
+
+  private static String currentRemoteAddress() {
+    final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+    final String remoteAddress;
+    if (attributes instanceof ServletRequestAttributes) {
+      final HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+      remoteAddress = request.getRemoteAddr();
+    } else {
+      remoteAddress = null;
+    }
+
+    return remoteAddress;
+  }
+
+  private static String currentClientId() {
+    final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+    final String clientId;
+    if (authentication instanceof OAuth2Authentication) {
+      clientId = ((OAuth2Authentication) authentication).getOAuth2Request().getClientId();
+    } else {
+      clientId = null;
+    }
+
+    return clientId;
+  }
+
+  /**
+   * Get the current value of the time source, in nanoseconds.
+   * 
+   * @return the current value of the time source, in nanoseconds.
+   */
+  protected long nanoTime() {
+    return System.nanoTime();
+  }
+
+  /**
+   * Get the number of requests accepted on an endpoint.
+   * 
+   * @param endpoint the endpoint.
+   * 
+   * @return the number of requests accepted on the endpoint.
+   */
+  public long getAllowedCount(final String endpoint) {
+    final LongAdder count = allowed.get(endpoint);
+
+    final long sum;
+    if (count == null) {
+      sum = 0L;
+    } else {
+      sum = count.sum();
+    }
+
+    return sum;
+  }
+
+  /**
+   * Get the number of requests rejected on an endpoint.
+   * 
+   * @param endpoint the endpoint.
+   * 
+   * @return the number of requests rejected on the endpoint.
+   */
+  public long getRejectedCount(final String endpoint) {
+    final LongAdder count = rejected.get(endpoint);
+
+    final long sum;
+    if (count == null) {
+      sum = 0L;
+    } else {
+      sum = count.sum();
+    }
+
+    return sum;
+  }
+
+  /**
+   * Get the number of buckets evicted to keep the memory bounded.
+   * 
+   * @return the number of buckets evicted.
+   */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * Get the number of buckets currently kept in memory.
+   * 
+   * @return the number of buckets kept in memory.
+   */
+  public int getKeyCount() {
+    int count = 0;
+    for (final Stripe stripe : stripes) {
+      count += stripe.size();
+    }
+    return count;
+  }
+
+  /**
+   * The limit of an endpoint.
+   * 
+   * @author madmath03
+   */
+  public static final class Limit {
+    private final int capacity;
+    private final long refillNanos;
+
+    /**
+     * Create a {@link Limit}.
+     * 
+     * @param capacity the number of requests accepted at once.
+     * @param refillMillis the time, in milliseconds, to regain one request.
+     * 
+     * @throws IllegalArgumentException if {@code capacity} or {@code refillMillis} is not
+     *         positive.
+     */
+    public Limit(final int capacity, final long refillMillis) {
+      if (capacity <= 0 || refillMillis <= 0L) {
+        throw new IllegalArgumentException("Rate limit capacity and refill must be positive.");
+      }
+      this.capacity = capacity;
+      this.refillNanos = TimeUnit.MILLISECONDS.toNanos(refillMillis);
+    }
+
+    /**
+     * Get the number of requests accepted at once.
+     * 
+     * @return the number of requests accepted at once.
+     */
+    public int getCapacity() {
+      return capacity;
+    }
+
+    /**
+     * Get the time, in nanoseconds, to regain one request.
+     * 
+     * @return the time, in nanoseconds, to regain one request.
+     */
+    public long getRefillNanos() {
+      return refillNanos;
+    }
+  }
+
+  /**
+   * A token bucket.
+   * 
+   * <p>
+   * Rather than a number of tokens, the bucket keeps the time at which it will be full again.
+   * Taking a token pushes this time one refill period further, and is refused if the bucket would
+   * then be overdrawn. A single compare-and-set makes it safe without locks.
+   * </p>
+   */
+  private static final class TokenBucket {
+    private final AtomicLong fullAt;
+
+    private TokenBucket(final long now) {
+      this.fullAt = new AtomicLong(now);
+    }
+
+    private long tryAcquire(final Limit limit, final long now) {
+      final long tolerance = limit.refillNanos * limit.capacity;
+
+      while (true) {
+        final long current = fullAt.get();
+        final long next = Math.max(current, now) + limit.refillNanos;
+        final long overdraft = next - now - tolerance;
+        if (overdraft > 0L) {
+          return overdraft;
+        }
+        if (fullAt.compareAndSet(current, next)) {
+          return 0L;
+        }
+      }
+    }
+
+    private void release(final Limit limit) {
+      fullAt.addAndGet(-limit.refillNanos);
+    }
+  }
+
+  /**
+   * A stripe of buckets, evicting its least recently used buckets.
+   */
+  private static final class Stripe {
+    private final Map<String, TokenBucket> buckets;
+
+    private Stripe(final int maxSize, final LongAdder evictions) {
+      this.buckets = new LinkedHashMap<String, TokenBucket>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, TokenBucket> eldest) {
+          final boolean evict = size() > maxSize;
+          if (evict) {
+            evictions.increment();
+          }
+          return evict;
+        }
+      };
+    }
+
+    private synchronized TokenBucket bucket(final String key, final long now) {
+      TokenBucket bucket = buckets.get(key);
+      if (bucket == null) {
+        bucket = new TokenBucket(now);
+        buckets.put(key, bucket);
+      }
+      return bucket;
+    }
+
+    private synchronized int size() {
+      return buckets.size();
+    }
+  }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.config.component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestOperations;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Keys verifying the JSON Web Tokens, read from the JSON Web Key set published by an authorization
+ * server.
+ * 
+ * <p>
+ * The key set is read when a token is signed by an unknown key, at most once per minimum refresh
+ * interval, so that tokens signed with made up key ids do not flood the authorization server.
+ * The keys read stay known until the next read of the key set.
+ * </p>
+ * 
+ * @see com.monogramm.starter.api.oauth.controller.JwkSetEndpoint
+ * 
+ * @author madmath03
+ */
+public class RemoteJwkSet {
+
+  /**
+   * Logger for {@link RemoteJwkSet}.
+   */
+  private static final Logger LOG = LogManager.getLogger(RemoteJwkSet.class);
+
+  /**
+   * Property for the URI of the JSON Web Key set of the authorization server, such as
+   * {@code https://auth.example.com/oauth/jwks}.
+   */
+  public static final String PROP_URI = "jwt.jwks.uri";
+
+  private final String uri;
+
+  private final long minRefreshInterval;
+
+  private final RestOperations restOperations;
+
+  private volatile Map<String, SigningKey> keys = Collections.emptyMap();
+
+  /**
+   * Date, in milliseconds since the epoch, of the last read of the key set, or {@code null} if
+   * never read.
+   */
+  private Long refreshedAt;
+
+  /**
+   * Create a {@link RemoteJwkSet}.
+   * 
+   * @param uri the URI of the JSON Web Key set.
+   * @param minRefreshInterval the minimum time, in milliseconds, between two reads of the key set.
+   */
+  public RemoteJwkSet(final String uri, final long minRefreshInterval) {
+    this(uri, minRefreshInterval, new RestTemplate());
+  }
+
+  /**
+   * Create a {@link RemoteJwkSet}.
+   * 
+   * @param uri the URI of the JSON Web Key set.
+   * @param minRefreshInterval the minimum time, in milliseconds, between two reads of the key set.
+   * @param restOperations the client reading the key set.
+   * 
+   * @throws IllegalArgumentException if {@code uri} is empty or {@code restOperations} is
+   *         {@code null}.
+   */
+  public RemoteJwkSet(final String uri, final long minRefreshInterval,
+      final RestOperations restOperations) {
+    super();
+    if (uri == null || uri.isEmpty()) {
+      throw new IllegalArgumentException("JSON Web Key set URI cannot be empty.");
+    }
+    if (restOperations == null) {
+      throw new IllegalArgumentException("REST client cannot be null.");
+    }
+    this.uri = uri;
+    this.minRefreshInterval = Math.max(0L, minRefreshInterval);
+    this.restOperations = restOperations;
+  }
+
+  /**
+   * Get a key verifying tokens, reading the key set again if the key is unknown.
+   * 
+   * @param kid the key id.
+   * 
+   * @return the key, or {@code null} if still unknown.
+   */
+  public SigningKey resolveKey(final String kid) {
+    if (kid == null) {
+      return null;
+    }
+
+    SigningKey key = keys.get(kid);
+    if (key == null) {
+      synchronized (this) {
+        final long now = this.currentTimeMillis();
+        if (refreshedAt == null || now - refreshedAt >= minRefreshInterval) {
+          this.refreshedAt = now;
+          this.refresh(now);
+        }
+      }
+      key = keys.get(kid);
+    }
+
+    return key;
+  }
+
+  private void refresh(final long now) {
+    final Map<?, ?> jwkSet;
+    try {
+      jwkSet = restOperations.getForObject(uri, Map.class);
+    } catch (RestClientException e) {
+      LOG.warn("Cannot read JSON Web Key set: {}", uri, e);
+      return;
+    }
+
+    final Object jwks;
+    if (jwkSet == null) {
+      jwks = null;
+    } else {
+      jwks = jwkSet.get("keys");
+    }
+    if (!(jwks instanceof List)) {
+      LOG.warn("No keys in JSON Web Key set: {}", uri);
+      return;
+    }
+
+    final Map<String, SigningKey> read = new LinkedHashMap<>();
+    for (final Object jwk : (List<?>) jwks) {
+      if (!(jwk instanceof Map) || "enc".equals(((Map<?, ?>) jwk).get("use"))) {
+        continue;
+      }
+
+      @SuppressWarnings("unchecked")
+      final Map<String, ?> jwkMap = (Map<String, ?>) jwk;
+      try {
+        final SigningKey key = SigningKey.fromJwk(jwkMap, now);
+        read.put(key.getKid(), key);
+      } catch (IllegalArgumentException e) {
+        LOG.warn("Ignoring JSON Web Key from {}", uri, e);
+      }
+    }
+
+    this.keys = Collections.unmodifiableMap(read);
+    LOG.debug("JSON Web Key set read from {}: kids={}", uri, read.keySet());
+  }
+
+  /**
+   * Get the current time, in milliseconds.
+   * 
+   * @return the current time, in milliseconds.
+   */
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Creation by madmath03 the 2018-02-13.
+ */
+
+package com.monogramm.starter.config.component;
+
+/**
+ * Per thread unit of work, usually an HTTP request, within which the reads stick to the primary
+ * database once a write happened.
+ * 
+ * <p>
+ * A replica may not have received a write yet when it is read back in the same request: once a
+ * unit of work ran a read-write transaction, its read-only transactions are sent to the primary
+ * too.
+ * Outside of a unit of work, read-only transactions are always sent to the replicas.
+ * </p>
+ * 
+ * @see ReplicaRoutingDataSource
+ * 
+ * @author madmath03
+ */
+public final class ReplicaRoutingContext {
+
+  /**
+   * Whether the current unit of work wrote to the primary, or {@code null} outside of a unit of
+   * work.
+   */
+  private static final ThreadLocal<Boolean> WROTE = new ThreadLocal<>();
+
+  private ReplicaRoutingContext() {}
+
+  /**
+   * Begin a unit of work on the current thread.
+   */
+  public static void begin() {
+    WROTE.set(Boolean.FALSE);
+  }
+
+  /**
+   * End the unit of work of the current thread.
+   */
+  public static void end() {
+    WROTE.remove();
+  }
+
+  /**
+   * Record that the unit of work of the current thread wrote to the primary.
+   * 
+   * <p>
+   * Does nothing outside of a unit of work.
+   * </p>
+   */
+  public static void markWrite() {
+    if (WROTE.get() != null) {
+      WROTE.set(Boolean.TRUE);
+    }
+  }
+
+  /**
+   * Whether the reads of the current thread must be sent to the primary.
+   * 
+   * @return {@code true} if the unit of work of the current thread wrote to the primary.
+   */
+  public static boolean isPrimaryRequired() {
+    return Boolean.TRUE.equals(WROTE.get());
+  }
+
+}
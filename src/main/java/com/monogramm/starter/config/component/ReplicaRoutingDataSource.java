@@ -0,0 +1,336 @@
+/*
+ * Creation by madmath03 the 2018-02-13.
+ */
+
+package com.monogramm.starter.config.component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source sending the read-only transactions to read replicas, and everything else to the
+ * primary database.
+ * 
+ * <p>
+ * The connection is routed when it is requested, so this data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} for the transaction
+ * to be read-only by the time the connection is actually requested.
+ * </p>
+ * 
+ * <p>
+ * The replication lag of each replica is checked at a regular interval: a replica lagging behind
+ * more than the tolerated lag, or which cannot be reached, stops receiving reads until a later
+ * check finds it up to date. Reads go back to the primary if no replica is available, and stick
+ * to the primary after a read-write transaction within the same
+ * {@link ReplicaRoutingContext unit of work}.
+ * </p>
+ * 
+ * <p>
+ * Connections taken outside of any transaction go to the primary too, without making the reads
+ * of the unit of work stick to it: they are reads, such as the client details or token store
+ * lookups, more often than writes.
+ * </p>
+ * 
+ * @author madmath03
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+  /**
+   * Logger for {@link ReplicaRoutingDataSource}.
+   */
+  private static final Logger LOG = LogManager.getLogger(ReplicaRoutingDataSource.class);
+
+  /**
+   * The column holding the replication lag in the result of the MySQL
+   * {@code SHOW SLAVE STATUS} query. The first column is read when the lag query has none.
+   */
+  private static final String LAG_COLUMN = "Seconds_Behind_Master";
+
+  /**
+   * The default time, in seconds, the replication lag query may run.
+   */
+  public static final int DEFAULT_CHECK_TIMEOUT = 2;
+
+  private final DataSource primary;
+
+  private final List<Replica> replicas;
+
+  private final String lagQuery;
+
+  private final long maxLag;
+
+  private final int checkTimeout;
+
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  private final LongAdder primaryConnections = new LongAdder();
+  private final LongAdder replicaConnections = new LongAdder();
+  private final LongAdder stickyConnections = new LongAdder();
+  private final LongAdder fallbacks = new LongAdder();
+
+  /**
+   * Create a {@link ReplicaRoutingDataSource}.
+   * 
+   * @param primary the primary data source.
+   * @param replicas the replica data sources, by name.
+   * @param lagQuery the query returning the replication lag of a replica, in seconds.
+   * @param maxLag the maximum replication lag, in seconds, of a replica still receiving reads.
+   * 
+   * @throws IllegalArgumentException if {@code primary} is {@code null}.
+   */
+  public ReplicaRoutingDataSource(final DataSource primary, final Map<String, DataSource> replicas,
+      final String lagQuery, final long maxLag) {
+    this(primary, replicas, lagQuery, maxLag, DEFAULT_CHECK_TIMEOUT);
+  }
+
+  /**
+   * Create a {@link ReplicaRoutingDataSource}.
+   * 
+   * @param primary the primary data source.
+   * @param replicas the replica data sources, by name.
+   * @param lagQuery the query returning the replication lag of a replica, in seconds.
+   * @param maxLag the maximum replication lag, in seconds, of a replica still receiving reads.
+   * @param checkTimeout the time, in seconds, the replication lag query may run before the
+   *        replica is considered unavailable. {@code 0} for no limit.
+   * 
+   * @throws IllegalArgumentException if {@code primary} is {@code null}.
+   */
+  public ReplicaRoutingDataSource(final DataSource primary, final Map<String, DataSource> replicas,
+      final String lagQuery, final long maxLag, final int checkTimeout) {
+    super();
+    if (primary == null) {
+      throw new IllegalArgumentException("Primary data source cannot be null.");
+    }
+    this.primary = primary;
+    this.lagQuery = lagQuery;
+    this.maxLag = maxLag;
+    this.checkTimeout = Math.max(0, checkTimeout);
+
+    final List<Replica> replicaList = new ArrayList<>();
+    if (replicas != null) {
+      for (final Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+        replicaList.add(new Replica(replica.getKey(), replica.getValue()));
+      }
+    }
+    this.replicas = Collections.unmodifiableList(replicaList);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return this.route(DataSource::getConnection);
+  }
+
+  @Override
+  public Connection getConnection(final String username, final String password)
+      throws SQLException {
+    return this.route(dataSource -> dataSource.getConnection(username, password));
+  }
+
+  private Connection route(final ConnectionFactory factory) throws SQLException {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      if (TransactionSynchronizationManager.isActualTransactionActive()) {
+        // Only a read-write transaction may have written
+        ReplicaRoutingContext.markWrite();
+      }
+      primaryConnections.increment();
+      return factory.getConnection(primary);
+    }
+
+    if (ReplicaRoutingContext.isPrimaryRequired()) {
+      stickyConnections.increment();
+      return factory.getConnection(primary);
+    }
+
+    final int size = replicas.size();
+    if (size > 0) {
+      final int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+      for (int i = 0; i < size; i++) {
+        final Replica replica = replicas.get((start + i) % size);
+        if (replica.available) {
+          try {
+            final Connection connection = factory.getConnection(replica.dataSource);
+            replicaConnections.increment();
+            return connection;
+          } catch (SQLException e) {
+            replica.available = false;
+            LOG.warn("Replica {} unreachable, reads sent elsewhere", replica.name, e);
+          }
+        }
+      }
+      fallbacks.increment();
+    }
+
+    return factory.getConnection(primary);
+  }
+
+  /**
+   * Check the replication lag of each replica, and only keep sending reads to the replicas up to
+   * date.
+   */
+  @PostConstruct
+  @Scheduled(fixedDelayString = "${datasource.replicas.check-interval:5000}")
+  public void checkReplicas() {
+    for (final Replica replica : replicas) {
+      Long lag;
+      try {
+        lag = this.readLag(replica.dataSource);
+      } catch (SQLException e) {
+        LOG.debug("Replication lag check of replica {} failed", replica.name, e);
+        lag = null;
+      }
+
+      final boolean available = lag != null && lag <= maxLag;
+      if (available != replica.available) {
+        if (available) {
+          LOG.info("Replica {} receives reads, lag: {}s", replica.name, lag);
+        } else {
+          LOG.warn("Replica {} stops receiving reads, lag: {}s", replica.name, lag);
+        }
+      }
+      replica.lag = lag;
+      replica.available = available;
+    }
+  }
+
+  private Long readLag(final DataSource dataSource) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      // A hung replica must not hold the scheduler thread
+      statement.setQueryTimeout(checkTimeout);
+
+      try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+        if (!resultSet.next()) {
+          // Not a replica, or replication not configured
+          return null;
+        }
+
+        final long lag = resultSet.getLong(lagColumn(resultSet.getMetaData()));
+        final Long result;
+        if (resultSet.wasNull()) {
+          // Replication stopped
+          result = null;
+        } else {
+          result = lag;
+        }
+        return result;
+      }
+    }
+  }
+
+  private static int lagColumn(final ResultSetMetaData metaData) throws SQLException {
+    for (int column = 1; column <= metaData.getColumnCount(); column++) {
+      if (LAG_COLUMN.equalsIgnoreCase(metaData.getColumnLabel(column))) {
+        return column;
+      }
+    }
+    return 1;
+  }
+
+  /**
+   * Get the names of the replicas currently receiving reads.
+   * 
+   * @return the names of the replicas currently receiving reads.
+   */
+  public List<String> getAvailableReplicas() {
+    final List<String> available = new ArrayList<>();
+    for (final Replica replica : replicas) {
+      if (replica.available) {
+        available.add(replica.name);
+      }
+    }
+    return available;
+  }
+
+  /**
+   * Get the replication lag, in seconds, of each replica at its last check.
+   * 
+   * @return the replication lag of each replica by name, {@code null} if it is unknown.
+   */
+  public Map<String, Long> getReplicaLags() {
+    final Map<String, Long> lags = new LinkedHashMap<>();
+    for (final Replica replica : replicas) {
+      lags.put(replica.name, replica.lag);
+    }
+    return lags;
+  }
+
+  /**
+   * Get the number of connections to the primary for read-write or non-transactional work.
+   * 
+   * @return the number of connections to the primary for read-write or non-transactional work.
+   */
+  public long getPrimaryConnectionCount() {
+    return primaryConnections.sum();
+  }
+
+  /**
+   * Get the number of connections to a replica.
+   * 
+   * @return the number of connections to a replica.
+   */
+  public long getReplicaConnectionCount() {
+    return replicaConnections.sum();
+  }
+
+  /**
+   * Get the number of read-only connections to the primary after a write in the same unit of
+   * work.
+   * 
+   * @return the number of read-only connections sticking to the primary.
+   */
+  public long getStickyConnectionCount() {
+    return stickyConnections.sum();
+  }
+
+  /**
+   * Get the number of read-only connections to the primary because no replica was available.
+   * 
+   * @return the number of read-only connections falling back to the primary.
+   */
+  public long getFallbackCount() {
+    return fallbacks.sum();
+  }
+
+  /**
+   * Get a connection from a data source.
+   */
+  @FunctionalInterface
+  private interface ConnectionFactory {
+    Connection getConnection(DataSource dataSource) throws SQLException;
+  }
+
+  /**
+   * A replica and its replication state.
+   */
+  private static final class Replica {
+    private final String name;
+    private final DataSource dataSource;
+    private volatile boolean available;
+    private volatile Long lag;
+
+    private Replica(final String name, final DataSource dataSource) {
+      this.name = name;
+      this.dataSource = dataSource;
+    }
+  }
+
+}
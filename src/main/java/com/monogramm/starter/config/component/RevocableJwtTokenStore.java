@@ -0,0 +1,169 @@
+/*
+ * Creation by madmath03 the 2018-02-11.
+ */
+
+package com.monogramm.starter.config.component;
+
+import java.util.Date;
+import java.util.Map;
+
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.common.util.JsonParser;
+import org.springframework.security.oauth2.common.util.JsonParserFactory;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+/**
+ * JSON Web Token store which can revoke tokens.
+ * 
+ * <p>
+ * A {@link JwtTokenStore} does not store anything, so removing a token from it does nothing and
+ * the token stays valid until it expires. This store instead records the removed tokens in a
+ * {@link TokenRevocationStore}, and reads the revoked tokens as unknown tokens.
+ * </p>
+ * 
+ * <p>
+ * The access tokens read from this store keep the claims verified while reading them, so that
+ * reading their authentication does not verify their signature a second time.
+ * </p>
+ * 
+ * @author madmath03
+ */
+public class RevocableJwtTokenStore extends JwtTokenStore {
+
+  private final KeyRotatingJwtAccessTokenConverter jwtTokenEnhancer;
+
+  private final TokenRevocationStore revocationStore;
+
+  private final JsonParser jsonParser = JsonParserFactory.create();
+
+  /**
+   * Create a {@link RevocableJwtTokenStore}.
+   * 
+   * @param jwtTokenEnhancer the JSON Web Token converter.
+   * @param revocationStore the denylist of the revoked tokens.
+   * 
+   * @throws IllegalArgumentException if {@code revocationStore} is {@code null}.
+   */
+  public RevocableJwtTokenStore(final KeyRotatingJwtAccessTokenConverter jwtTokenEnhancer,
+      final TokenRevocationStore revocationStore) {
+    super(jwtTokenEnhancer);
+    if (revocationStore == null) {
+      throw new IllegalArgumentException("Revocation store cannot be null.");
+    }
+    this.jwtTokenEnhancer = jwtTokenEnhancer;
+    this.revocationStore = revocationStore;
+  }
+
+  @Override
+  public OAuth2AccessToken readAccessToken(final String tokenValue) {
+    final Map<String, Object> claims = jwtTokenEnhancer.decode(tokenValue);
+    final OAuth2AccessToken accessToken = new VerifiedAccessToken(
+        jwtTokenEnhancer.extractAccessToken(tokenValue, claims), claims);
+
+    if (jwtTokenEnhancer.isRefreshToken(accessToken)) {
+      throw new InvalidTokenException("Encoded token is a refresh token");
+    }
+    if (revocationStore.isRevoked(jti(accessToken))) {
+      return null;
+    }
+    return accessToken;
+  }
+
+  @Override
+  public OAuth2Authentication readAuthentication(final OAuth2AccessToken token) {
+    final OAuth2Authentication authentication;
+
+    if (token instanceof VerifiedAccessToken && ((VerifiedAccessToken) token).claims != null) {
+      authentication = jwtTokenEnhancer.extractAuthentication(((VerifiedAccessToken) token).claims);
+    } else {
+      authentication = super.readAuthentication(token);
+    }
+
+    return authentication;
+  }
+
+  @Override
+  public void removeAccessToken(final OAuth2AccessToken token) {
+    super.removeAccessToken(token);
+    revocationStore.revoke(jti(token), token.getExpiration());
+  }
+
+  @Override
+  public OAuth2RefreshToken readRefreshToken(final String tokenValue) {
+    final OAuth2RefreshToken refreshToken = super.readRefreshToken(tokenValue);
+
+    if (refreshToken != null && revocationStore.isRevoked(this.jti(tokenValue))) {
+      return null;
+    }
+    return refreshToken;
+  }
+
+  @Override
+  public void removeRefreshToken(final OAuth2RefreshToken token) {
+    super.removeRefreshToken(token);
+
+    final Date expiration;
+    if (token instanceof ExpiringOAuth2RefreshToken) {
+      expiration = ((ExpiringOAuth2RefreshToken) token).getExpiration();
+    } else {
+      expiration = null;
+    }
+    revocationStore.revoke(this.jti(token.getValue()), expiration);
+  }
+
+  private static String jti(final OAuth2AccessToken accessToken) {
+    final Object jti = accessToken.getAdditionalInformation().get(AccessTokenConverter.JTI);
+
+    final String value;
+    if (jti == null) {
+      value = null;
+    } else {
+      value = jti.toString();
+    }
+    return value;
+  }
+
+  /**
+   * Read the identifier of a token already verified.
+   * 
+   * @param tokenValue the token value.
+   * 
+   * @return the token identifier, or {@code null} if the token has none.
+   */
+  private String jti(final String tokenValue) {
+    final Map<String, Object> claims =
+        jsonParser.parseMap(JwtHelper.decode(tokenValue).getClaims());
+    final Object jti = claims.get(AccessTokenConverter.JTI);
+
+    final String value;
+    if (jti == null) {
+      value = null;
+    } else {
+      value = jti.toString();
+    }
+    return value;
+  }
+
+  /**
+   * An access token keeping the claims verified while reading it.
+   */
+  private static final class VerifiedAccessToken extends DefaultOAuth2AccessToken {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Map<String, Object> claims;
+
+    private VerifiedAccessToken(final OAuth2AccessToken accessToken,
+        final Map<String, Object> claims) {
+      super(accessToken);
+      this.claims = claims;
+    }
+  }
+
+}
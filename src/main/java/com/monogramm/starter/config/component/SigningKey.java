@@ -0,0 +1,362 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.config.component;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.security.jwt.crypto.sign.RsaSigner;
+import org.springframework.security.jwt.crypto.sign.RsaVerifier;
+import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+import org.springframework.security.jwt.crypto.sign.Signer;
+
+/**
+ * An asymmetric key signing or verifying JSON Web Tokens, identified by its key id
+ * ({@code kid}).
+ * 
+ * <p>
+ * Only {@code RS256} (RSA with SHA-256) and {@code ES256} (ECDSA on the P-256 curve with SHA-256)
+ * are supported. A key without private key can only verify tokens.
+ * </p>
+ * 
+ * @author madmath03
+ */
+public final class SigningKey {
+
+  /**
+   * RSA signature with SHA-256.
+   */
+  public static final String RS256 = "RS256";
+  /**
+   * ECDSA signature on the P-256 curve with SHA-256.
+   */
+  public static final String ES256 = "ES256";
+
+  private static final int RSA_KEY_SIZE = 2048;
+  private static final String EC_CURVE = "secp256r1";
+  private static final int EC_FIELD_SIZE = 256;
+
+  private final String kid;
+
+  private final String algorithm;
+
+  private final PublicKey publicKey;
+
+  private final long createdAt;
+
+  private final Signer signer;
+
+  private final SignatureVerifier verifier;
+
+  private final Map<String, Object> jwk;
+
+  /**
+   * Create a {@link SigningKey}.
+   * 
+   * @param kid the key id.
+   * @param keyPair the key pair. Its private key may be {@code null} for a key only verifying
+   *        tokens.
+   * @param createdAt the creation date of the key, in milliseconds since the epoch.
+   * 
+   * @throws IllegalArgumentException if {@code kid} is empty or if the key pair is neither an RSA
+   *         key pair nor an EC key pair on the P-256 curve.
+   */
+  public SigningKey(final String kid, final KeyPair keyPair, final long createdAt) {
+    super();
+    if (kid == null || kid.isEmpty()) {
+      throw new IllegalArgumentException("Key id cannot be empty.");
+    }
+    if (keyPair == null || keyPair.getPublic() == null) {
+      throw new IllegalArgumentException("Public key cannot be null.");
+    }
+    this.kid = kid;
+    this.publicKey = keyPair.getPublic();
+    this.createdAt = createdAt;
+
+    final PrivateKey privateKey = keyPair.getPrivate();
+    if (publicKey instanceof RSAPublicKey) {
+      this.algorithm = RS256;
+      this.verifier = new RsaVerifier((RSAPublicKey) publicKey);
+      if (privateKey instanceof RSAPrivateKey) {
+        this.signer = new RsaSigner((RSAPrivateKey) privateKey);
+      } else {
+        this.signer = null;
+      }
+    } else if (publicKey instanceof ECPublicKey
+        && ((ECPublicKey) publicKey).getParams().getCurve().getField()
+            .getFieldSize() == EC_FIELD_SIZE) {
+      this.algorithm = ES256;
+      this.verifier = new EcdsaVerifier((ECPublicKey) publicKey);
+      if (privateKey instanceof ECPrivateKey) {
+        this.signer = new EcdsaSigner((ECPrivateKey) privateKey);
+      } else {
+        this.signer = null;
+      }
+    } else {
+      throw new IllegalArgumentException(
+          "Unsupported signing key: " + publicKey.getAlgorithm() + " for kid=" + kid);
+    }
+
+    this.jwk = Collections.unmodifiableMap(this.buildJwk());
+  }
+
+  /**
+   * Generate a new {@link SigningKey} with a random key id.
+   * 
+   * @param algorithm the signature algorithm: {@link #RS256} or {@link #ES256}.
+   * @param createdAt the creation date of the key, in milliseconds since the epoch.
+   * 
+   * @return a new signing key.
+   * 
+   * @throws IllegalArgumentException if the algorithm is not supported.
+   */
+  public static SigningKey generate(final String algorithm, final long createdAt) {
+    return new SigningKey(UUID.randomUUID().toString(), generateKeyPair(algorithm), createdAt);
+  }
+
+  /**
+   * Generate a new key pair.
+   * 
+   * @param algorithm the signature algorithm: {@link #RS256} or {@link #ES256}.
+   * 
+   * @return a new key pair.
+   * 
+   * @throws IllegalArgumentException if the algorithm is not supported.
+   */
+  public static KeyPair generateKeyPair(final String algorithm) {
+    final KeyPair keyPair;
+    try {
+      if (RS256.equals(algorithm)) {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(RSA_KEY_SIZE);
+        keyPair = generator.generateKeyPair();
+      } else if (ES256.equals(algorithm)) {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec(EC_CURVE));
+        keyPair = generator.generateKeyPair();
+      } else {
+        throw new IllegalArgumentException("Unsupported signature algorithm: " + algorithm);
+      }
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot generate a " + algorithm + " key pair", e);
+    }
+
+    return keyPair;
+  }
+
+  /**
+   * Read a key only verifying tokens from its public JSON Web Key.
+   * 
+   * @param jwk the public JSON Web Key, as built by {@link #toJwk()}.
+   * @param createdAt the date the key is read at, in milliseconds since the epoch.
+   * 
+   * @return a key only verifying tokens.
+   * 
+   * @throws IllegalArgumentException if the JSON Web Key is neither an RSA key nor an EC key on
+   *         the P-256 curve, or is malformed.
+   */
+  public static SigningKey fromJwk(final Map<String, ?> jwk, final long createdAt) {
+    final Object kid = jwk.get("kid");
+    final Object kty = jwk.get("kty");
+    if (!(kid instanceof String)) {
+      throw new IllegalArgumentException("Missing JSON Web Key id");
+    }
+
+    final PublicKey publicKey;
+    try {
+      if ("RSA".equals(kty)) {
+        publicKey = KeyFactory.getInstance("RSA").generatePublic(
+            new RSAPublicKeySpec(unsigned(jwk.get("n")), unsigned(jwk.get("e"))));
+      } else if ("EC".equals(kty) && "P-256".equals(jwk.get("crv"))) {
+        final AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec(EC_CURVE));
+
+        publicKey = KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(
+            new ECPoint(unsigned(jwk.get("x")), unsigned(jwk.get("y"))),
+            parameters.getParameterSpec(ECParameterSpec.class)));
+      } else {
+        throw new IllegalArgumentException("Unsupported JSON Web Key: kty=" + kty + " for kid="
+            + kid);
+      }
+    } catch (GeneralSecurityException e) {
+      throw new IllegalArgumentException("Malformed JSON Web Key: kid=" + kid, e);
+    }
+
+    final SigningKey key = new SigningKey((String) kid, new KeyPair(publicKey, null), createdAt);
+    if (jwk.get("alg") != null && !key.algorithm.equals(jwk.get("alg"))) {
+      throw new IllegalArgumentException("Unexpected JSON Web Key algorithm: " + jwk.get("alg")
+          + " for kid=" + kid);
+    }
+
+    return key;
+  }
+
+  /**
+   * Decode an unsigned integer encoded in Base64url.
+   * 
+   * @param value the encoded integer.
+   * 
+   * @return the decoded integer.
+   * 
+   * @throws IllegalArgumentException if the value is not a Base64url string.
+   */
+  private static BigInteger unsigned(final Object value) {
+    if (!(value instanceof String)) {
+      throw new IllegalArgumentException("Missing JSON Web Key parameter");
+    }
+    return new BigInteger(1, Base64.getUrlDecoder().decode((String) value));
+  }
+
+  private Map<String, Object> buildJwk() {
+    final Map<String, Object> key = new LinkedHashMap<>();
+    key.put("kid", kid);
+    key.put("use", "sig");
+    key.put("alg", algorithm);
+
+    if (publicKey instanceof RSAPublicKey) {
+      final RSAPublicKey rsaKey = (RSAPublicKey) publicKey;
+      key.put("kty", "RSA");
+      key.put("n", base64Url(rsaKey.getModulus(), 0));
+      key.put("e", base64Url(rsaKey.getPublicExponent(), 0));
+    } else {
+      final ECPublicKey ecKey = (ECPublicKey) publicKey;
+      key.put("kty", "EC");
+      key.put("crv", "P-256");
+      key.put("x", base64Url(ecKey.getW().getAffineX(), EcdsaSigner.VALUE_LENGTH));
+      key.put("y", base64Url(ecKey.getW().getAffineY(), EcdsaSigner.VALUE_LENGTH));
+    }
+
+    return key;
+  }
+
+  /**
+   * Encode an unsigned integer in Base64url, without padding.
+   * 
+   * @param value the unsigned integer.
+   * @param length the minimum length, in bytes, of the encoded integer.
+   * 
+   * @return the encoded integer.
+   */
+  private static String base64Url(final BigInteger value, final int length) {
+    byte[] bytes = value.toByteArray();
+
+    // Drop the sign byte
+    if (bytes.length > 1 && bytes[0] == 0) {
+      bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+    }
+    if (bytes.length < length) {
+      final byte[] padded = new byte[length];
+      System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+      bytes = padded;
+    }
+
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  /**
+   * Get the {@link #kid}.
+   * 
+   * @return the {@link #kid}.
+   */
+  public String getKid() {
+    return kid;
+  }
+
+  /**
+   * Get the {@link #algorithm}.
+   * 
+   * @return the {@link #algorithm}: {@link #RS256} or {@link #ES256}.
+   */
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  /**
+   * Get the {@link #publicKey}.
+   * 
+   * @return the {@link #publicKey}.
+   */
+  public PublicKey getPublicKey() {
+    return publicKey;
+  }
+
+  /**
+   * Get the {@link #createdAt}.
+   * 
+   * @return the {@link #createdAt}, in milliseconds since the epoch.
+   */
+  public long getCreatedAt() {
+    return createdAt;
+  }
+
+  /**
+   * Whether this key can sign tokens.
+   * 
+   * @return {@code true} if the private key is known.
+   */
+  public boolean canSign() {
+    return signer != null;
+  }
+
+  /**
+   * Get the {@link #signer}.
+   * 
+   * @return the {@link #signer}.
+   * 
+   * @throws IllegalStateException if the private key is not known.
+   */
+  public Signer getSigner() {
+    if (signer == null) {
+      throw new IllegalStateException("Key kid=" + kid + " can only verify tokens.");
+    }
+    return signer;
+  }
+
+  /**
+   * Get the {@link #verifier}.
+   * 
+   * @return the {@link #verifier}.
+   */
+  public SignatureVerifier getVerifier() {
+    return verifier;
+  }
+
+  /**
+   * Get the public JSON Web Key of this key.
+   * 
+   * @return the public JSON Web Key of this key.
+   */
+  public Map<String, Object> toJwk() {
+    return jwk;
+  }
+
+  @Override
+  public String toString() {
+    return "SigningKey [kid=" + kid + ", algorithm=" + algorithm + ", createdAt=" + createdAt
+        + "]";
+  }
+
+}
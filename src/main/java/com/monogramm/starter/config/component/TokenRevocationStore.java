@@ -0,0 +1,362 @@
+/*
+ * Creation by madmath03 the 2018-02-11.
+ */
+
+package com.monogramm.starter.config.component;
+
+import com.monogramm.starter.persistence.oauth.service.IRevokedTokenService;
+import com.monogramm.starter.utils.BloomFilter;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Denylist of the revoked tokens, identified by their {@code jti} claim.
+ * 
+ * <p>
+ * Checking a token is done in memory, without lock: a Bloom filter rules out almost all the tokens
+ * never revoked, and the tokens it might contain are looked up in the exact set of revoked tokens.
+ * Revocations are persisted, so that they survive restarts, and each node regularly polls the
+ * tokens revoked by the other nodes since its last poll. A revoked token is forgotten once it
+ * expires anyway.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@Component
+public class TokenRevocationStore {
+
+  /**
+   * Logger for {@link TokenRevocationStore}.
+   */
+  private static final Logger LOG = LogManager.getLogger(TokenRevocationStore.class);
+
+  /**
+   * Property for the time, in milliseconds, by which each poll goes back before the previous one
+   * to cover the clock skew between nodes and the revocations committed late.
+   */
+  public static final String PROP_POLL_OVERLAP = "token.revocation.poll-overlap";
+  /**
+   * Property for the expected number of revoked tokens not yet expired.
+   */
+  public static final String PROP_EXPECTED_SIZE = "token.revocation.expected-size";
+  /**
+   * Property for the false positive rate of the Bloom filter.
+   */
+  public static final String PROP_FALSE_POSITIVE_RATE = "token.revocation.false-positive-rate";
+  /**
+   * Property for the time, in milliseconds, a revoked token without expiration is kept.
+   */
+  public static final String PROP_MAX_RETENTION = "token.revocation.max-retention";
+
+  private static final long DEFAULT_POLL_OVERLAP = 60_000L;
+  private static final int DEFAULT_EXPECTED_SIZE = 100_000;
+  private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01D;
+  private static final long DEFAULT_MAX_RETENTION = 2_592_000_000L;
+
+  private final IRevokedTokenService revokedTokenService;
+
+  private final long pollOverlap;
+
+  private final int expectedSize;
+
+  private final double falsePositiveRate;
+
+  private final long maxRetention;
+
+  /**
+   * The expiration date, in milliseconds, of each revoked token.
+   */
+  private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+  /**
+   * Guards the insertions in the Bloom filter against a concurrent rebuild.
+   */
+  private final Object filterLock = new Object();
+
+  private volatile BloomFilter filter;
+
+  /**
+   * The number of tokens added to the current filter, including the ones since expired.
+   */
+  private int filterInsertions;
+
+  /**
+   * The date, in milliseconds, of the last successful poll, or {@code 0} before the first one.
+   */
+  private long lastPoll;
+
+  private final LongAdder checks = new LongAdder();
+  private final LongAdder filterHits = new LongAdder();
+  private final LongAdder revokedHits = new LongAdder();
+  private final LongAdder polls = new LongAdder();
+  private final LongAdder pollFailures = new LongAdder();
+  private final LongAdder rebuilds = new LongAdder();
+
+  /**
+   * Create a {@link TokenRevocationStore} configured through the application properties.
+   * 
+   * @param revokedTokenService the revoked tokens service.
+   * @param env the application environment.
+   */
+  @Autowired
+  public TokenRevocationStore(final IRevokedTokenService revokedTokenService,
+      final Environment env) {
+    this(revokedTokenService, env.getProperty(PROP_POLL_OVERLAP, Long.class, DEFAULT_POLL_OVERLAP),
+        env.getProperty(PROP_EXPECTED_SIZE, Integer.class, DEFAULT_EXPECTED_SIZE),
+        env.getProperty(PROP_FALSE_POSITIVE_RATE, Double.class, DEFAULT_FALSE_POSITIVE_RATE),
+        env.getProperty(PROP_MAX_RETENTION, Long.class, DEFAULT_MAX_RETENTION));
+  }
+
+  /**
+   * Create a {@link TokenRevocationStore}.
+   * 
+   * @param revokedTokenService the revoked tokens service.
+   * @param pollOverlap the time, in milliseconds, by which each poll goes back before the
+   *        previous one.
+   * @param expectedSize the expected number of revoked tokens not yet expired.
+   * @param falsePositiveRate the false positive rate of the Bloom filter.
+   * @param maxRetention the time, in milliseconds, a revoked token without expiration is kept.
+   * 
+   * @throws IllegalArgumentException if {@code revokedTokenService} is {@code null}, if
+   *         {@code expectedSize} is not strictly positive or if {@code falsePositiveRate} is not
+   *         strictly between {@code 0} and {@code 1}.
+   */
+  public TokenRevocationStore(final IRevokedTokenService revokedTokenService,
+      final long pollOverlap, final int expectedSize, final double falsePositiveRate,
+      final long maxRetention) {
+    super();
+    if (revokedTokenService == null) {
+      throw new IllegalArgumentException("Revoked token service cannot be null.");
+    }
+    this.revokedTokenService = revokedTokenService;
+    this.pollOverlap = Math.max(0L, pollOverlap);
+    this.expectedSize = expectedSize;
+    this.falsePositiveRate = falsePositiveRate;
+    this.maxRetention = maxRetention;
+
+    this.filter = new BloomFilter(expectedSize, falsePositiveRate);
+  }
+
+  /**
+   * Check if a token is revoked.
+   * 
+   * @param jti the token identifier.
+   * 
+   * @return {@code true} if the token is revoked and not yet expired.
+   */
+  public boolean isRevoked(final String jti) {
+    if (jti == null) {
+      return false;
+    }
+    checks.increment();
+
+    if (!filter.mightContain(jti)) {
+      return false;
+    }
+    filterHits.increment();
+
+    final Long expiresAt = revoked.get(jti);
+    final boolean isRevoked = expiresAt != null && expiresAt > this.currentTimeMillis();
+    if (isRevoked) {
+      revokedHits.increment();
+    }
+    return isRevoked;
+  }
+
+  /**
+   * Revoke a token on this node and persist its revocation for the other nodes.
+   * 
+   * @param jti the token identifier.
+   * @param expiresAt the date at which the token expires, or {@code null} if it never expires.
+   * 
+   * @return {@code true} if the token was revoked, {@code false} if it was already revoked or
+   *         expired.
+   * 
+   * @throws DataAccessException if the revocation could not be persisted. The token is still
+   *         revoked on this node.
+   */
+  public boolean revoke(final String jti, final Date expiresAt) {
+    if (jti == null) {
+      return false;
+    }
+
+    final long now = this.currentTimeMillis();
+    final long expiration;
+    if (expiresAt == null) {
+      expiration = now + maxRetention;
+    } else {
+      expiration = expiresAt.getTime();
+    }
+    if (expiration <= now) {
+      return false;
+    }
+
+    this.add(jti, expiration);
+
+    boolean persisted;
+    try {
+      persisted = revokedTokenService.revoke(jti, new Date(expiration));
+    } catch (DataIntegrityViolationException e) {
+      // Revoked at the same time by another node
+      LOG.debug("Token {} already revoked", jti, e);
+      persisted = false;
+    }
+    return persisted;
+  }
+
+  private void add(final String jti, final long expiresAt) {
+    synchronized (filterLock) {
+      if (revoked.put(jti, expiresAt) == null) {
+        filter.put(jti);
+        filterInsertions++;
+      }
+    }
+  }
+
+  /**
+   * Load the tokens revoked by any node since the previous poll, and forget the expired ones.
+   * 
+   * <p>
+   * The first poll loads all the revoked tokens not yet expired.
+   * </p>
+   * 
+   * @return the number of revoked tokens loaded, including the ones already known.
+   */
+  @Scheduled(initialDelay = 0L, fixedDelayString = "${token.revocation.poll-interval:5000}")
+  public synchronized int poll() {
+    final long now = this.currentTimeMillis();
+    final Date since;
+    if (lastPoll == 0L) {
+      since = new Date(0L);
+    } else {
+      since = new Date(lastPoll - pollOverlap);
+    }
+
+    final Map<String, Date> revokedSince;
+    try {
+      revokedSince = revokedTokenService.findRevokedSince(since, new Date(now));
+    } catch (DataAccessException e) {
+      pollFailures.increment();
+      LOG.error("Revoked tokens poll failed", e);
+      return 0;
+    }
+    polls.increment();
+    lastPoll = now;
+
+    for (final Map.Entry<String, Date> entry : revokedSince.entrySet()) {
+      this.add(entry.getKey(), entry.getValue().getTime());
+    }
+
+    revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    this.rebuildIfStale();
+
+    return revokedSince.size();
+  }
+
+  /**
+   * Rebuild the Bloom filter once too many of its tokens expired, or once it holds more tokens
+   * than it was sized for, to keep its false positive rate low.
+   */
+  private void rebuildIfStale() {
+    synchronized (filterLock) {
+      final int size = revoked.size();
+      if (filterInsertions - size <= size / 2 && filterInsertions <= expectedSize) {
+        return;
+      }
+
+      final BloomFilter rebuilt =
+          new BloomFilter(Math.max(expectedSize, 2 * size), falsePositiveRate);
+      for (final String jti : revoked.keySet()) {
+        rebuilt.put(jti);
+      }
+      this.filter = rebuilt;
+      this.filterInsertions = size;
+      rebuilds.increment();
+    }
+  }
+
+  /**
+   * Get the current time, in milliseconds.
+   * 
+   * @return the current time, in milliseconds.
+   */
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  /**
+   * Get the number of tokens checked.
+   * 
+   * @return the number of tokens checked.
+   */
+  public long getCheckCount() {
+    return checks.sum();
+  }
+
+  /**
+   * Get the number of tokens checked which the Bloom filter might contain.
+   * 
+   * @return the number of tokens checked which the Bloom filter might contain.
+   */
+  public long getFilterHitCount() {
+    return filterHits.sum();
+  }
+
+  /**
+   * Get the number of revoked tokens checked.
+   * 
+   * @return the number of revoked tokens checked.
+   */
+  public long getRevokedHitCount() {
+    return revokedHits.sum();
+  }
+
+  /**
+   * Get the number of successful polls.
+   * 
+   * @return the number of successful polls.
+   */
+  public long getPollCount() {
+    return polls.sum();
+  }
+
+  /**
+   * Get the number of failed polls.
+   * 
+   * @return the number of failed polls.
+   */
+  public long getPollFailureCount() {
+    return pollFailures.sum();
+  }
+
+  /**
+   * Get the number of Bloom filter rebuilds.
+   * 
+   * @return the number of Bloom filter rebuilds.
+   */
+  public long getRebuildCount() {
+    return rebuilds.sum();
+  }
+
+  /**
+   * Get the number of revoked tokens currently known.
+   * 
+   * @return the number of revoked tokens currently known.
+   */
+  public int getSize() {
+    return revoked.size();
+  }
+
+}
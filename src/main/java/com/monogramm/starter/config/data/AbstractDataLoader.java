@@ -29,8 +29,8 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Locale;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.MessageSource;
@@ -525,9 +525,9 @@ public abstract class AbstractDataLoader implements ApplicationListener<ContextR
 
     if (user == null) {
       LOG.warn(" ");
-      LOG.warn("User name: " + username);
-      LOG.warn("User email: " + email);
-      LOG.warn("User password: " + Arrays.toString(password));
+      LOG.warn("User name: {}", username);
+      LOG.warn("User email: {}", email);
+      LOG.warn("User password: {}", Arrays.toString(password));
       LOG.warn(" ");
       user = User.builder(username, email).password(password).role(userRole).build();
 
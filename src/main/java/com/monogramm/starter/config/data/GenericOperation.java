@@ -7,6 +7,9 @@ package com.monogramm.starter.config.data;
 import com.monogramm.starter.persistence.permission.entity.Permission;
 import com.monogramm.starter.persistence.type.entity.Type;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Generic CRUD operations for types.
  * 
@@ -81,6 +84,21 @@ public enum GenericOperation {
    */
   public static final String PERM_DELETE = "DELETE";
 
+  /**
+   * Maximum number of type names whose permission names are kept in memory.
+   */
+  private static final int MAX_CACHED_TYPES = 1024;
+
+  /**
+   * The permission names of each type name, indexed by operation ordinal.
+   * 
+   * <p>
+   * Type names almost never change: the permission names are built once per type name so that
+   * checking a permission does not build any string.
+   * </p>
+   */
+  private static final Map<String, String[]> PERMISSION_NAMES = new ConcurrentHashMap<>();
+
 
   /**
    * Create a regular {@link Permission} name for the given type and operation.
@@ -103,11 +121,7 @@ public enum GenericOperation {
    * @return a regular {@link Permission} name for the given type and operation.
    */
   public static String permissionName(final String typeName, final GenericOperation operation) {
-    final StringBuilder permissionName = new StringBuilder();
-
-    permissionName.append(typeName).append(GenericOperation.PERM_SEP).append(operation.toString());
-
-    return permissionName.toString().toUpperCase();
+    return permissionNames(typeName)[operation.ordinal()];
   }
 
   /**
@@ -140,12 +154,48 @@ public enum GenericOperation {
    * @return all regular {@link Permission} names for the given type.
    */
   public static String[] allPermissionNames(final String typeName) {
+    return permissionNames(typeName).clone();
+  }
+
+  /**
+   * Get the permission names of a type name, built once and kept in memory.
+   * 
+   * @param typeName a type name.
+   * 
+   * @return the permission names of the type, indexed by operation ordinal. Must not be modified.
+   */
+  private static String[] permissionNames(final String typeName) {
+    if (typeName == null) {
+      return buildPermissionNames(null);
+    }
+
+    String[] permissionNames = PERMISSION_NAMES.get(typeName);
+
+    if (permissionNames == null) {
+      permissionNames = buildPermissionNames(typeName);
+      // Do not let unexpected type names fill the memory
+      if (PERMISSION_NAMES.size() < MAX_CACHED_TYPES) {
+        final String[] previous = PERMISSION_NAMES.putIfAbsent(typeName, permissionNames);
+        if (previous != null) {
+          permissionNames = previous;
+        }
+      }
+    }
+
+    return permissionNames;
+  }
+
+  private static String[] buildPermissionNames(final String typeName) {
     final GenericOperation[] values = GenericOperation.values();
     final String[] permissionNames = new String[values.length];
 
     for (int i = 0; i < values.length; i++) {
-      final GenericOperation genericOperation = values[i];
-      permissionNames[i] = permissionName(typeName, genericOperation);
+      final StringBuilder permissionName = new StringBuilder();
+
+      permissionName.append(typeName).append(GenericOperation.PERM_SEP)
+          .append(values[i].toString());
+
+      permissionNames[i] = permissionName.toString().toUpperCase();
     }
 
     return permissionNames;
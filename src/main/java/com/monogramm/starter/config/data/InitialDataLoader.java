@@ -5,6 +5,7 @@
 package com.monogramm.starter.config.data;
 
 import com.github.madmath03.password.Passwords;
+import com.monogramm.starter.api.oauth.controller.ClientDetailsEndpoint;
 import com.monogramm.starter.api.parameter.controller.ParameterController;
 import com.monogramm.starter.api.permission.controller.PermissionController;
 import com.monogramm.starter.api.role.controller.RoleController;
@@ -50,6 +51,7 @@ public class InitialDataLoader extends AbstractDataLoader {
   private Type typeType;
   private Type permissionType;
   private Type parameterType;
+  private Type clientType;
 
   private Role adminRole;
   private Role supportRole;
@@ -102,6 +104,10 @@ public class InitialDataLoader extends AbstractDataLoader {
       this.parameterType = this.createType(ParameterController.TYPE);
     }
 
+    if (this.clientType == null) {
+      this.clientType = this.createType(ClientDetailsEndpoint.TYPE);
+    }
+
 
 
     // Setup the initial roles
@@ -112,6 +118,7 @@ public class InitialDataLoader extends AbstractDataLoader {
       this.addAllPermissions(typeType, adminRole);
       this.addAllPermissions(permissionType, adminRole);
       this.addAllPermissions(parameterType, adminRole);
+      this.addAllPermissions(clientType, adminRole);
     }
 
     if (this.supportRole == null) {
@@ -123,6 +130,7 @@ public class InitialDataLoader extends AbstractDataLoader {
       this.addAllPermissions(typeType, supportOperations, supportRole);
       this.addAllPermissions(permissionType, supportOperations, supportRole);
       this.addAllPermissions(parameterType, supportOperations, supportRole);
+      this.addAllPermissions(clientType, supportOperations, supportRole);
     }
 
     if (this.userRole == null) {
@@ -4,13 +4,20 @@
 
 package com.monogramm.starter.config.filter;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.monogramm.starter.config.component.CustomServletRequestWrapper;
+import com.monogramm.starter.utils.JsonUtils;
 
-import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.servlet.Filter;
@@ -20,20 +27,86 @@ import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.apache.catalina.connector.RequestFacade;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 /**
  * JsonToUrlEncodedAuthenticationFilter.
  * 
+ * <p>
+ * Converts the JSON OAuth token requests to the request parameters expected by the token endpoint.
+ * The JSON object is streamed from the request body through a shared {@link ObjectReader} directly
+ * into the parameters, without copying the body first. Each member of the object becomes a
+ * parameter, and the members of an array become the values of a multi-valued parameter.
+ * </p>
+ * 
+ * <p>
+ * Bodies larger than {@link #PROP_MAX_BODY_SIZE} bytes are rejected with a <em>413 Payload Too
+ * Large</em> status.
+ * </p>
+ * 
  * @author madmath03
  */
 @Component
 @Order(value = Integer.MIN_VALUE)
 public class JsonToUrlEncodedAuthenticationFilter implements Filter {
 
+  /**
+   * Property for the maximum size, in bytes, of a JSON token request body.
+   */
+  public static final String PROP_MAX_BODY_SIZE = "oauth.token.json.max-size";
+
+  /**
+   * Default maximum size, in bytes, of a JSON token request body.
+   */
+  public static final int DEFAULT_MAX_BODY_SIZE = 16_384;
+
+  /**
+   * A shared reader, whose factory creates the streaming parsers.
+   */
+  private static final ObjectReader READER = JsonUtils.reader(JsonNode.class);
+
+  private final int maxBodySize;
+
+  /**
+   * Create a {@link JsonToUrlEncodedAuthenticationFilter} accepting bodies of at most
+   * {@link #DEFAULT_MAX_BODY_SIZE} bytes.
+   */
+  public JsonToUrlEncodedAuthenticationFilter() {
+    this(DEFAULT_MAX_BODY_SIZE);
+  }
+
+  /**
+   * Create a {@link JsonToUrlEncodedAuthenticationFilter} configured through the application
+   * properties.
+   * 
+   * @param env the application environment.
+   */
+  @Autowired
+  public JsonToUrlEncodedAuthenticationFilter(final Environment env) {
+    this(env.getProperty(PROP_MAX_BODY_SIZE, Integer.class, DEFAULT_MAX_BODY_SIZE));
+  }
+
+  /**
+   * Create a {@link JsonToUrlEncodedAuthenticationFilter}.
+   * 
+   * @param maxBodySize the maximum size, in bytes, of a JSON token request body.
+   * 
+   * @throws IllegalArgumentException if {@code maxBodySize} is not positive.
+   */
+  public JsonToUrlEncodedAuthenticationFilter(final int maxBodySize) {
+    super();
+    if (maxBodySize <= 0) {
+      throw new IllegalArgumentException("Maximum body size must be positive.");
+    }
+    this.maxBodySize = maxBodySize;
+  }
+
   /*
    * (non-Javadoc)
    * 
@@ -61,8 +134,16 @@ public class JsonToUrlEncodedAuthenticationFilter implements Filter {
         && "/oauth/token".equals(((RequestFacade) request).getServletPath())) {
       final RequestFacade requestFacade = (RequestFacade) request;
 
-      final Map<String, String[]> parameters =
-          this.readAndConvertContent(requestFacade.getInputStream());
+      final Map<String, String[]> parameters;
+      try {
+        parameters = this.readParameters(requestFacade.getInputStream());
+      } catch (BodyTooLargeException e) {
+        if (response instanceof HttpServletResponse) {
+          ((HttpServletResponse) response).sendError(413, e.getMessage());
+          return;
+        }
+        throw e;
+      }
 
       parameters.put("_method", new String[] {requestFacade.getMethod()});
 
@@ -77,62 +158,71 @@ public class JsonToUrlEncodedAuthenticationFilter implements Filter {
     chain.doFilter(finalRequest, response);
   }
 
-  private byte[] readContent(final InputStream is) throws IOException {
-    byte[] json;
+  /**
+   * Stream the parameters from a JSON object.
+   * 
+   * @param is the JSON input stream.
+   * 
+   * @return the parameters, empty if the input is empty or {@code null}.
+   * 
+   * @throws IOException if the input is not a JSON object or is too large.
+   */
+  Map<String, String[]> readParameters(final InputStream is) throws IOException {
+    final Map<String, String[]> parameters = new HashMap<>();
 
-    try (ByteArrayOutputStream buffer = new ByteArrayOutputStream()) {
-      int read;
-      final byte[] data = new byte[16384];
+    try (JsonParser parser =
+        READER.getFactory().createParser(new LimitedInputStream(is, maxBodySize))) {
+      final JsonToken token = parser.nextToken();
 
-      while ((read = is.read(data, 0, data.length)) != -1) {
-        buffer.write(data, 0, read);
+      if (token == JsonToken.START_OBJECT) {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          final String name = parser.getCurrentName();
+          parameters.put(name, readValues(parser, parser.nextToken()));
+        }
+      } else if (token != null && token != JsonToken.VALUE_NULL) {
+        throw new JsonParseException(parser, "Expected a JSON object");
       }
-      buffer.flush();
-      json = buffer.toByteArray();
     }
 
-    return json;
+    return parameters;
   }
 
-  private <T> T readContent(final InputStream is, final Class<T> resultClass) throws IOException {
-    final byte[] json = this.readContent(is);
+  private static String[] readValues(final JsonParser parser, final JsonToken token)
+      throws IOException {
+    final String[] values;
 
-    final T result;
-    if (json == null || json.length == 0) {
-      result = null;
+    if (token == JsonToken.START_ARRAY) {
+      final List<String> list = new ArrayList<>();
+      JsonToken item = parser.nextToken();
+      while (item != JsonToken.END_ARRAY) {
+        list.add(readValue(parser, item));
+        item = parser.nextToken();
+      }
+      values = list.toArray(new String[list.size()]);
     } else {
-      result = new ObjectMapper().readValue(json, resultClass);
+      values = new String[] {readValue(parser, token)};
     }
 
-    return result;
+    return values;
   }
 
-  private Map<String, String[]> convertMap(final Map<?, ?> map) {
-    final Map<String, String[]> parameters = new HashMap<>();
-
-    if (map != null) {
-      for (final Map.Entry<?, ?> entry : map.entrySet()) {
-        if (entry.getKey() == null) {
-          continue;
-        }
+  private static String readValue(final JsonParser parser, final JsonToken token)
+      throws IOException {
+    final String value;
 
-        final String key = entry.getKey().toString();
-        final String[] value;
-        if (entry.getValue() == null) {
-          value = new String[] {null};
-        } else {
-          value = new String[] {entry.getValue().toString()};
-        }
-
-        parameters.put(key, value);
-      }
+    if (token == null) {
+      throw new JsonParseException(parser, "Unexpected end of JSON input");
+    } else if (token == JsonToken.VALUE_NULL) {
+      value = null;
+    } else if (token.isStructStart()) {
+      // Nested structures are kept as JSON
+      final JsonNode node = READER.readTree(parser);
+      value = node.toString();
+    } else {
+      value = parser.getText();
     }
 
-    return parameters;
-  }
-
-  private Map<String, String[]> readAndConvertContent(final InputStream is) throws IOException {
-    return this.convertMap(this.readContent(is, HashMap.class));
+    return value;
   }
 
   /*
@@ -145,4 +235,65 @@ public class JsonToUrlEncodedAuthenticationFilter implements Filter {
     // Nothing to do
   }
 
+  /**
+   * An input stream failing once more than a maximum number of bytes are read.
+   * 
+   * @author madmath03
+   */
+  private static final class LimitedInputStream extends FilterInputStream {
+    private final int maxSize;
+
+    private int size;
+
+    private LimitedInputStream(final InputStream in, final int maxSize) {
+      super(in);
+      this.maxSize = maxSize;
+    }
+
+    private void count(final int read) throws BodyTooLargeException {
+      if (read > 0) {
+        size += read;
+        if (size > maxSize) {
+          throw new BodyTooLargeException(maxSize);
+        }
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int read = super.read();
+      if (read >= 0) {
+        this.count(1);
+      }
+      return read;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      final int read = super.read(b, off, len);
+      this.count(read);
+      return read;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      final long skipped = super.skip(n);
+      this.count((int) Math.min(skipped, Integer.MAX_VALUE));
+      return skipped;
+    }
+  }
+
+  /**
+   * Exception thrown when a JSON token request body is too large.
+   * 
+   * @author madmath03
+   */
+  private static final class BodyTooLargeException extends IOException {
+    private static final long serialVersionUID = 3529102758815407963L;
+
+    private BodyTooLargeException(final int maxSize) {
+      super("JSON body larger than " + maxSize + " bytes");
+    }
+  }
+
 }
@@ -0,0 +1,69 @@
+/*
+ * Creation by madmath03 the 2018-02-13.
+ */
+
+package com.monogramm.starter.config.filter;
+
+import com.monogramm.starter.config.component.ReplicaRoutingContext;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Make each HTTP request a {@link ReplicaRoutingContext unit of work}, so that its reads stick to
+ * the primary database once it wrote.
+ * 
+ * @author madmath03
+ */
+@Component
+@Order(value = Ordered.HIGHEST_PRECEDENCE)
+public class ReplicaRoutingFilter implements Filter {
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see javax.servlet.Filter#init(javax.servlet.FilterConfig)
+   */
+  @Override
+  public void init(FilterConfig filterConfig) throws ServletException {
+    // Nothing to do
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see javax.servlet.Filter#doFilter(javax.servlet.ServletRequest, javax.servlet.ServletResponse,
+   * javax.servlet.FilterChain)
+   */
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    ReplicaRoutingContext.begin();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      ReplicaRoutingContext.end();
+    }
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see javax.servlet.Filter#destroy()
+   */
+  @Override
+  public void destroy() {
+    // Nothing to do
+  }
+
+}
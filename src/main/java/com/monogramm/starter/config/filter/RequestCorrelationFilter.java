@@ -0,0 +1,152 @@
+/*
+ * Creation by madmath03 the 2018-02-20.
+ */
+
+package com.monogramm.starter.config.filter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Give each HTTP request a correlation ID, put in the logging context (MDC) under
+ * {@link #MDC_KEY} so that every log line written while handling the request carries it.
+ * 
+ * <p>
+ * The ID given by the client or a proxy through the {@link #HEADER} header is kept when it is
+ * short and made of safe characters only. Otherwise a random ID is generated. The ID is sent back
+ * in the same response header.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@Component
+@Order(value = Ordered.HIGHEST_PRECEDENCE)
+public class RequestCorrelationFilter implements Filter {
+
+  /**
+   * The request and response header carrying the correlation ID.
+   */
+  public static final String HEADER = "X-Request-ID";
+
+  /**
+   * The logging context key of the correlation ID.
+   */
+  public static final String MDC_KEY = "requestId";
+
+  /**
+   * Maximum length of a correlation ID given by a client.
+   */
+  public static final int MAX_LENGTH = 64;
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see javax.servlet.Filter#init(javax.servlet.FilterConfig)
+   */
+  @Override
+  public void init(FilterConfig filterConfig) throws ServletException {
+    // Nothing to do
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see javax.servlet.Filter#doFilter(javax.servlet.ServletRequest, javax.servlet.ServletResponse,
+   * javax.servlet.FilterChain)
+   */
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    String requestId = null;
+    if (request instanceof HttpServletRequest) {
+      requestId = ((HttpServletRequest) request).getHeader(HEADER);
+    }
+    if (!isValid(requestId)) {
+      requestId = generate();
+    }
+
+    if (response instanceof HttpServletResponse) {
+      ((HttpServletResponse) response).setHeader(HEADER, requestId);
+    }
+
+    ThreadContext.put(MDC_KEY, requestId);
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      ThreadContext.remove(MDC_KEY);
+    }
+  }
+
+  /**
+   * Tests if a correlation ID given by a client can be kept and logged as is.
+   * 
+   * @param requestId the correlation ID.
+   * 
+   * @return {@code true} if the ID is short and made of letters, digits, dots, dashes or
+   *         underscores only.
+   */
+  static boolean isValid(final String requestId) {
+    if (requestId == null || requestId.isEmpty() || requestId.length() > MAX_LENGTH) {
+      return false;
+    }
+
+    for (int i = 0; i < requestId.length(); i++) {
+      final char c = requestId.charAt(i);
+      if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-'
+          || c == '_' || c == '.')) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Generate a random correlation ID.
+   * 
+   * <p>
+   * The ID is 16 hexadecimal digits drawn from a thread local random generator, which does not
+   * contend between request threads as a secure random generator would.
+   * </p>
+   * 
+   * @return a random correlation ID.
+   */
+  static String generate() {
+    long random = ThreadLocalRandom.current().nextLong();
+
+    final char[] chars = new char[16];
+    for (int i = chars.length - 1; i >= 0; i--) {
+      chars[i] = HEX_DIGITS[(int) (random & 0xF)];
+      random >>>= 4;
+    }
+
+    return new String(chars);
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see javax.servlet.Filter#destroy()
+   */
+  @Override
+  public void destroy() {
+    // Nothing to do
+  }
+
+}
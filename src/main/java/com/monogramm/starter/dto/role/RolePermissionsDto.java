@@ -0,0 +1,91 @@
+/*
+ * Creation by madmath03 the 2018-02-15.
+ */
+
+package com.monogramm.starter.dto.role;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * A Data Transfer Object granting or revoking permissions to several roles at once.
+ * 
+ * <p>
+ * Each of the {@link #permissions} is granted to, or revoked from, each of the {@link #roles}.
+ * </p>
+ * 
+ * @author madmath03
+ */
+public class RolePermissionsDto implements Serializable {
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = 4671398563247658390L;
+
+  /**
+   * Array of Id (relation) to the roles.
+   */
+  private UUID[] roles = {};
+
+  /**
+   * Array of Id (relation) to the permissions.
+   */
+  private UUID[] permissions = {};
+
+  /**
+   * Create a {@link RolePermissionsDto}.
+   * 
+   */
+  public RolePermissionsDto() {
+    super();
+  }
+
+  /**
+   * Create a {@link RolePermissionsDto}.
+   * 
+   * @param roles the roles identifiers.
+   * @param permissions the permissions identifiers.
+   */
+  public RolePermissionsDto(final UUID[] roles, final UUID[] permissions) {
+    super();
+    this.roles = roles;
+    this.permissions = permissions;
+  }
+
+  /**
+   * Get the {@link #roles}.
+   * 
+   * @return the {@link #roles}.
+   */
+  public final UUID[] getRoles() {
+    return roles;
+  }
+
+  /**
+   * Set the {@link #roles}.
+   * 
+   * @param roles the {@link #roles} to set.
+   */
+  public final void setRoles(final UUID[] roles) {
+    this.roles = roles;
+  }
+
+  /**
+   * Get the {@link #permissions}.
+   * 
+   * @return the {@link #permissions}.
+   */
+  public final UUID[] getPermissions() {
+    return permissions;
+  }
+
+  /**
+   * Set the {@link #permissions}.
+   * 
+   * @param permissions the {@link #permissions} to set.
+   */
+  public final void setPermissions(final UUID[] permissions) {
+    this.permissions = permissions;
+  }
+
+}
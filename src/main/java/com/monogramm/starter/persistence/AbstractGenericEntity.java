@@ -49,10 +49,16 @@ public abstract class AbstractGenericEntity implements Serializable, Jsonable {
 
   /**
    * The Universally Unique Identifier (primary key) of this record.
+   * 
+   * <p>
+   * Generated in time order by a {@link TimeOrderedUuidGenerator} so that the records are appended
+   * to the primary key index.
+   * </p>
    */
   @Id
-  @GeneratedValue(generator = "uuid2")
-  @GenericGenerator(name = "uuid2", strategy = "uuid2")
+  @GeneratedValue(generator = "uuid7")
+  @GenericGenerator(name = "uuid7",
+      strategy = "com.monogramm.starter.persistence.TimeOrderedUuidGenerator")
   @Column(name = "id", columnDefinition = "BINARY(16)", nullable = false, updatable = false)
   private UUID id;
 
@@ -280,7 +286,7 @@ public abstract class AbstractGenericEntity implements Serializable, Jsonable {
   @PrePersist
   protected void preInsert() {
     if (this.id == null) {
-      this.id = UUID.randomUUID();
+      this.id = TimeOrderedUuidGenerator.generate();
     }
     if (this.createdAt == null) {
       this.createdAt = new Date();
@@ -5,12 +5,39 @@
 package com.monogramm.starter.persistence;
 
 import com.monogramm.starter.dto.AbstractGenericDto;
+import com.monogramm.starter.persistence.search.TrigramIndex;
 import com.monogramm.starter.persistence.user.dao.IUserRepository;
+import com.monogramm.starter.persistence.user.entity.User;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.annotation.PostConstruct;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Abstract Generic Service.
@@ -20,13 +47,52 @@ import org.springframework.transaction.annotation.Transactional;
  * functional uniqueness instead of the technical primary key existence.
  * </p>
  * 
+ * <p>
+ * A service may provide a {@link TrigramIndex} to answer "<em>containing</em>" searches from memory
+ * instead of a full table scan. The index is loaded at startup through
+ * {@link #findAllSearchTerms()} and kept up to date by the {@link #add(AbstractGenericEntity)},
+ * {@link #update(AbstractGenericEntity)} and {@link #deleteById(UUID)} operations once their
+ * transaction is committed. The other changes, such as bulk updates, are read from the
+ * {@link EntityChangedEvent}s and applied by {@link #refreshSearchIndex()}.
+ * </p>
+ * 
+ * <p>
+ * The read operations returning DTOs convert the entities within a read-only transaction, whose
+ * Hibernate session is never flushed, so that the connection is released as soon as the entities
+ * are converted, without keeping a session open for the whole request.
+ * </p>
+ * 
+ * <p>
+ * These operations also publish an {@link EntityChangedEvent} once their transaction is committed,
+ * so that the components caching entities may forget them.
+ * </p>
+ * 
  * @param <T> the entity type used to manage data in persistence storage.
  * @param <D> the DTO type to convert entities to/from.
  * 
  * @author madmath03
  */
 public abstract class AbstractGenericService<T extends AbstractGenericEntity,
-    D extends AbstractGenericDto> implements GenericService<T, D> {
+    D extends AbstractGenericDto>
+    implements GenericService<T, D>, ApplicationEventPublisherAware, EnvironmentAware {
+
+  /**
+   * Logger for {@link AbstractGenericService}.
+   */
+  private static final Logger LOG = LogManager.getLogger(AbstractGenericService.class);
+
+  /**
+   * Maximum number of results returned by a search through the {@link #searchIndex}.
+   */
+  public static final int DEFAULT_SEARCH_LIMIT = 100;
+
+  /**
+   * Property for the time, in milliseconds, after which the {@link #searchIndex} is rebuilt to
+   * catch up with the changes made by other application instances.
+   */
+  public static final String PROP_SEARCH_REBUILD_INTERVAL = "search.index.rebuild-interval";
+
+  private static final long DEFAULT_SEARCH_REBUILD_INTERVAL = 600_000L;
 
   private final GenericRepository<T> repository;
 
@@ -34,6 +100,20 @@ public abstract class AbstractGenericService<T extends AbstractGenericEntity,
 
   private final AbstractGenericBridge<T, D> bridge;
 
+  private final TrigramIndex searchIndex;
+
+  private final AtomicBoolean searchIndexStale = new AtomicBoolean();
+
+  private final Set<UUID> searchIndexChanges = ConcurrentHashMap.newKeySet();
+
+  private long searchIndexBuiltAt;
+
+  private long searchRebuildInterval = DEFAULT_SEARCH_REBUILD_INTERVAL;
+
+  private final Class<? extends AbstractGenericEntity> entityType;
+
+  private ApplicationEventPublisher eventPublisher;
+
   /**
    * Create a {@link AbstractGenericService}.
    * 
@@ -45,6 +125,22 @@ public abstract class AbstractGenericService<T extends AbstractGenericEntity,
    */
   protected AbstractGenericService(GenericRepository<T> repository,
       final IUserRepository userRepository, AbstractGenericBridge<T, D> bridge) {
+    this(repository, userRepository, bridge, null);
+  }
+
+  /**
+   * Create a {@link AbstractGenericService}.
+   * 
+   * @param repository The Entity Data Access Object (DAO).
+   * @param userRepository The User Entity Data Access Object (DAO).
+   * @param bridge a bridge to convert this DTO to an entity and vice versa.
+   * @param searchIndex an in-memory search index of the entities. May be {@code null}.
+   * 
+   * @throws IllegalArgumentException if {@code repository} or {@code bridge} is {@code null}.
+   */
+  protected AbstractGenericService(GenericRepository<T> repository,
+      final IUserRepository userRepository, AbstractGenericBridge<T, D> bridge,
+      final TrigramIndex searchIndex) {
     super();
     if (repository == null || userRepository == null || bridge == null) {
       throw new IllegalArgumentException("Repositories and bridge cannot be null.");
@@ -52,6 +148,26 @@ public abstract class AbstractGenericService<T extends AbstractGenericEntity,
     this.repository = repository;
     this.userRepository = userRepository;
     this.bridge = bridge;
+    this.searchIndex = searchIndex;
+
+    final Class<?>[] typeArguments =
+        GenericTypeResolver.resolveTypeArguments(getClass(), AbstractGenericService.class);
+    if (typeArguments == null) {
+      this.entityType = AbstractGenericEntity.class;
+    } else {
+      this.entityType = typeArguments[0].asSubclass(AbstractGenericEntity.class);
+    }
+  }
+
+  @Override
+  public void setApplicationEventPublisher(final ApplicationEventPublisher eventPublisher) {
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Override
+  public void setEnvironment(final Environment env) {
+    this.searchRebuildInterval = env.getProperty(PROP_SEARCH_REBUILD_INTERVAL, Long.class,
+        DEFAULT_SEARCH_REBUILD_INTERVAL);
   }
 
   /**
@@ -101,6 +217,324 @@ public abstract class AbstractGenericService<T extends AbstractGenericEntity,
     return userRepository;
   }
 
+  /**
+   * Get a reference to the user account of the current authentication.
+   * 
+   * @return the user account authenticated, {@code null} if no user is authenticated.
+   */
+  protected User getCurrentUser() {
+    final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+    final UUID userId;
+    if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+      userId = null;
+    } else {
+      userId = userRepository.findIdByEmailIgnoreCase(authentication.getName());
+    }
+
+    final User user;
+    if (userId == null) {
+      user = null;
+    } else {
+      user = userRepository.getOne(userId);
+    }
+
+    return user;
+  }
+
+  /**
+   * Get the {@link #searchIndex}.
+   * 
+   * @return the {@link #searchIndex}, {@code null} if the service does not index its entities.
+   */
+  protected TrigramIndex getSearchIndex() {
+    return searchIndex;
+  }
+
+  /**
+   * Get the values of an entity to put in the {@link #searchIndex}.
+   * 
+   * <p>
+   * Services providing a {@link #searchIndex} must override this method and return one value per
+   * indexed field.
+   * </p>
+   * 
+   * @param entity the entity to index.
+   * 
+   * @return the values of an entity to put in the search index.
+   */
+  protected String[] getSearchTerms(T entity) {
+    return null;
+  }
+
+  /**
+   * Find the values of all the entities to put in the {@link #searchIndex}.
+   * 
+   * <p>
+   * Services providing a {@link #searchIndex} must override this method and return, for each
+   * entity, an array made of the entity identifier followed by the indexed field values.
+   * </p>
+   * 
+   * @return the identifier and the values of all the entities to put in the search index.
+   */
+  protected List<Object[]> findAllSearchTerms() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Load all the entities from the repository into the {@link #searchIndex}.
+   * 
+   * <p>
+   * If loading fails, the index is left unavailable and searches keep going through the
+   * repository until the next {@link #refreshSearchIndex()}.
+   * </p>
+   */
+  @PostConstruct
+  public synchronized void buildSearchIndex() {
+    if (searchIndex == null) {
+      return;
+    }
+
+    searchIndexBuiltAt = System.currentTimeMillis();
+    searchIndex.clear();
+    try {
+      final int fieldCount = searchIndex.getFieldCount();
+      for (final Object[] row : this.findAllSearchTerms()) {
+        final String[] terms = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+          terms[i] = (String) row[i + 1];
+        }
+        searchIndex.put((UUID) row[0], terms);
+      }
+      searchIndex.setReady(true);
+    } catch (DataAccessException e) {
+      LOG.error("Failed to build search index of {}", this.getClass().getSimpleName(), e);
+      searchIndex.clear();
+      // Try again on the next refresh
+      searchIndexStale.set(true);
+    }
+  }
+
+  /**
+   * Record the entities changed outside of the operations of this service, to be applied to the
+   * {@link #searchIndex} by the next {@link #refreshSearchIndex()}.
+   * 
+   * <p>
+   * Changes of several or unknown entities, such as bulk updates, mark the whole index as stale.
+   * </p>
+   * 
+   * @param event the entity change.
+   */
+  @EventListener
+  public void onEntityChanged(final EntityChangedEvent event) {
+    if (searchIndex == null || !event.isAbout(entityType)) {
+      return;
+    }
+
+    if (event.getEntityId() == null) {
+      searchIndexStale.set(true);
+    } else if (event.getSource() != this) {
+      // The single entity operations of this service already updated the index
+      searchIndexChanges.add(event.getEntityId());
+    }
+  }
+
+  /**
+   * Apply the changes recorded by {@link #onEntityChanged(EntityChangedEvent)} to the
+   * {@link #searchIndex}.
+   * 
+   * <p>
+   * The index is rebuilt if it is stale or older than the rebuild interval. Otherwise, only the
+   * entities changed are read again.
+   * </p>
+   * 
+   * <p>
+   * Read from the primary database: a lagging replica would miss the changes just committed, which
+   * would then stay out of the index until the next rebuild.
+   * </p>
+   */
+  @Transactional
+  @Scheduled(initialDelayString = "${search.index.refresh-interval:10000}",
+      fixedDelayString = "${search.index.refresh-interval:10000}")
+  public synchronized void refreshSearchIndex() {
+    if (searchIndex == null) {
+      return;
+    }
+
+    final long age = System.currentTimeMillis() - searchIndexBuiltAt;
+    if (searchIndexStale.getAndSet(false) || age >= searchRebuildInterval) {
+      searchIndexChanges.clear();
+      this.buildSearchIndex();
+    } else if (!searchIndexChanges.isEmpty()) {
+      final List<UUID> ids = new ArrayList<>(searchIndexChanges);
+      searchIndexChanges.removeAll(ids);
+
+      try {
+        final Map<UUID, T> entities = new HashMap<>();
+        for (final T entity : repository.findAll(ids)) {
+          entities.put(entity.getId(), entity);
+        }
+        for (final UUID id : ids) {
+          final T entity = entities.get(id);
+          final String[] terms;
+          if (entity == null) {
+            terms = null;
+          } else {
+            terms = this.getSearchTerms(entity);
+          }
+
+          if (terms == null) {
+            searchIndex.remove(id);
+          } else {
+            searchIndex.put(id, terms);
+          }
+        }
+      } catch (DataAccessException e) {
+        LOG.error("Failed to refresh search index of {}", this.getClass().getSimpleName(), e);
+        searchIndexStale.set(true);
+      }
+    }
+  }
+
+  /**
+   * Search the entities containing the queries while ignoring case through the
+   * {@link #searchIndex}.
+   * 
+   * @param queries the queries, one per indexed field.
+   * 
+   * @return at most {@link #DEFAULT_SEARCH_LIMIT} entities, best match first, or {@code null} if
+   *         the search index is not available or no query is given, in which case the repository
+   *         must be searched instead.
+   */
+  protected List<T> search(String... queries) {
+    if (searchIndex == null || !searchIndex.isReady() || !hasSearchQuery(queries)) {
+      return null;
+    }
+
+    final List<UUID> ids = searchIndex.search(DEFAULT_SEARCH_LIMIT, queries);
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    final Map<UUID, T> entities = new HashMap<>();
+    for (final T entity : repository.findAll(ids)) {
+      entities.put(entity.getId(), entity);
+    }
+
+    // Keep the ranking of the search index
+    final List<T> results = new ArrayList<>(entities.size());
+    for (final UUID id : ids) {
+      final T entity = entities.get(id);
+      if (entity != null) {
+        results.add(entity);
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Tests if at least one of the queries is neither {@code null} nor empty.
+   * 
+   * @param queries the search queries.
+   * 
+   * @return {@code true} if at least one query can be searched, {@code false} otherwise.
+   */
+  private static boolean hasSearchQuery(final String... queries) {
+    if (queries != null) {
+      for (final String query : queries) {
+        if (query != null && !query.isEmpty()) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Put an entity in the {@link #searchIndex} once the current transaction is committed.
+   * 
+   * @param entity the entity to index.
+   */
+  private void indexAfterCommit(final T entity) {
+    if (searchIndex == null || entity == null || entity.getId() == null) {
+      return;
+    }
+
+    final UUID id = entity.getId();
+    final String[] terms = this.getSearchTerms(entity);
+    if (terms != null) {
+      afterCommit(() -> searchIndex.put(id, terms));
+    }
+  }
+
+  /**
+   * Remove an entity from the {@link #searchIndex} once the current transaction is committed.
+   * 
+   * @param entityId the entity identifier.
+   */
+  private void unindexAfterCommit(final UUID entityId) {
+    if (searchIndex != null) {
+      afterCommit(() -> searchIndex.remove(entityId));
+    }
+  }
+
+  /**
+   * Publish an {@link EntityChangedEvent} once the current transaction is committed.
+   * 
+   * @param entityId the identifier of the entity changed, {@code null} if several or unknown
+   *        entities changed.
+   */
+  protected void publishChangeAfterCommit(final UUID entityId) {
+    this.publishChangeAfterCommit(entityType, entityId);
+  }
+
+  /**
+   * Publish an {@link EntityChangedEvent} once the current transaction is committed.
+   * 
+   * @param type the type of the entity changed.
+   * @param entityId the identifier of the entity changed, {@code null} if several or unknown
+   *        entities changed.
+   */
+  protected void publishChangeAfterCommit(final Class<? extends AbstractGenericEntity> type,
+      final UUID entityId) {
+    if (eventPublisher != null) {
+      final EntityChangedEvent event = new EntityChangedEvent(this, type, entityId);
+      afterCommit(() -> eventPublisher.publishEvent(event));
+    }
+  }
+
+  /**
+   * Publish an application event immediately.
+   * 
+   * @param event the event to publish.
+   */
+  protected void publishEvent(final ApplicationEvent event) {
+    if (eventPublisher != null) {
+      eventPublisher.publishEvent(event);
+    }
+  }
+
+  /**
+   * Run an action once the current transaction is committed, or immediately if there is no
+   * transaction.
+   * 
+   * @param action the action to run.
+   */
+  protected static void afterCommit(final Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+
   @Override
   public AbstractGenericBridge<T, D> getBridge() {
     return bridge;
@@ -116,6 +550,26 @@ public abstract class AbstractGenericService<T extends AbstractGenericEntity,
     return repository.findById(entityId);
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public List<D> findAllDtos() {
+    return this.toDto(repository.findAll());
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public D findDtoById(UUID entityId) {
+    final T entity = repository.findById(entityId);
+
+    final D dto;
+    if (entity == null) {
+      dto = null;
+    } else {
+      dto = this.toDto(entity);
+    }
+    return dto;
+  }
+
   @Override
   public boolean add(T entity) {
     final boolean added;
@@ -125,6 +579,9 @@ public abstract class AbstractGenericService<T extends AbstractGenericEntity,
     } else {
       repository.add(entity);
       added = true;
+
+      this.indexAfterCommit(entity);
+      this.publishChangeAfterCommit(entity.getId());
     }
 
     return added;
@@ -139,9 +596,26 @@ public abstract class AbstractGenericService<T extends AbstractGenericEntity,
       throw this.createEntityNotFoundException(entity);
     }
 
+    this.indexAfterCommit(updatedEntity);
+    this.publishChangeAfterCommit(updatedEntity.getId());
+
     return updatedEntity;
   }
 
+  @Override
+  @Transactional(rollbackFor = {EntityNotFoundException.class})
+  public D updateToDto(T entity) {
+    final T updatedEntity = this.update(entity);
+
+    final D dto;
+    if (updatedEntity == null) {
+      dto = null;
+    } else {
+      dto = this.toDto(updatedEntity);
+    }
+    return dto;
+  }
+
   @Override
   @Transactional(rollbackFor = {EntityNotFoundException.class})
   public void deleteById(UUID entityId) {
@@ -150,6 +624,9 @@ public abstract class AbstractGenericService<T extends AbstractGenericEntity,
     if (deleted == null || deleted == 0) {
       throw this.createEntityNotFoundException(entityId);
     }
+
+    this.unindexAfterCommit(entityId);
+    this.publishChangeAfterCommit(entityId);
   }
 
 }
@@ -171,6 +171,20 @@ public abstract class AbstractParameter extends AbstractGenericEntity {
     return type.read(value);
   }
 
+  /**
+   * Get the {@link #value} as an object of a given class.
+   * 
+   * @see ParameterType#read(String, Class)
+   * 
+   * @param <V> the type of the returned value.
+   * @param valueType the class of the returned value.
+   * 
+   * @return the {@link #value}.
+   */
+  public <V> V readValue(Class<V> valueType) {
+    return type.read(value, valueType);
+  }
+
   /**
    * Get the {@link #value}.
    * 
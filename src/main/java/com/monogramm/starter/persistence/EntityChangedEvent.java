@@ -0,0 +1,75 @@
+/*
+ * Creation by madmath03 the 2018-02-08.
+ */
+
+package com.monogramm.starter.persistence;
+
+import java.util.UUID;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published once a transaction adding, updating or deleting entities is committed.
+ * 
+ * <p>
+ * Listeners keeping entities in memory use it to forget stale copies.
+ * </p>
+ * 
+ * @author madmath03
+ */
+public class EntityChangedEvent extends ApplicationEvent {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = -2260953318346632415L;
+
+  private final Class<? extends AbstractGenericEntity> entityType;
+
+  private final UUID entityId;
+
+  /**
+   * Create a {@link EntityChangedEvent}.
+   * 
+   * @param source the service which changed the entity.
+   * @param entityType the type of the entity changed.
+   * @param entityId the identifier of the entity changed, {@code null} if several or unknown
+   *        entities changed.
+   */
+  public EntityChangedEvent(final Object source,
+      final Class<? extends AbstractGenericEntity> entityType, final UUID entityId) {
+    super(source);
+    this.entityType = entityType;
+    this.entityId = entityId;
+  }
+
+  /**
+   * Get the {@link #entityType}.
+   * 
+   * @return the {@link #entityType}.
+   */
+  public Class<? extends AbstractGenericEntity> getEntityType() {
+    return entityType;
+  }
+
+  /**
+   * Get the {@link #entityId}.
+   * 
+   * @return the {@link #entityId}, {@code null} if several or unknown entities changed.
+   */
+  public UUID getEntityId() {
+    return entityId;
+  }
+
+  /**
+   * Whether the change concerns a type of entities.
+   * 
+   * @param type a type of entities.
+   * 
+   * @return {@code true} if the entity changed is of the given type.
+   */
+  public boolean isAbout(final Class<? extends AbstractGenericEntity> type) {
+    return entityType != null && type.isAssignableFrom(entityType);
+  }
+
+}
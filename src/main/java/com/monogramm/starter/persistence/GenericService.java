@@ -115,6 +115,30 @@ public interface GenericService<T extends AbstractGenericEntity, D extends Abstr
    */
   T findById(UUID entityId);
 
+  /**
+   * Find all entities and convert them to DTOs within a single read-only transaction.
+   * 
+   * <p>
+   * Callers outside of any transaction should prefer this method to converting the result of
+   * {@link #findAll()}: the lazy associations read by the conversion are loaded before the
+   * connection goes back to the pool.
+   * </p>
+   * 
+   * @return the DTOs of all the entities available through the service, an empty list if there
+   *         are none. Never {@code null}.
+   */
+  List<D> findAllDtos();
+
+  /**
+   * Find an entity through its primary key and convert it to a DTO within a single read-only
+   * transaction.
+   * 
+   * @param entityId the entity unique identifier.
+   * 
+   * @return the DTO of the entity matching the identifier, or {@code null} if none matches.
+   */
+  D findDtoById(UUID entityId);
+
   /**
    * Add an entity.
    * 
@@ -135,6 +159,17 @@ public interface GenericService<T extends AbstractGenericEntity, D extends Abstr
    */
   T update(T entity);
 
+  /**
+   * Update an entity through the repository and convert it to a DTO within the same transaction.
+   * 
+   * @param entity the reference entity used for the update.
+   * 
+   * @return the DTO of the updated entity.
+   * 
+   * @throws EntityNotFoundException if no entity matches the reference entity in the repository.
+   */
+  D updateToDto(T entity);
+
   /**
    * Delete an entity.
    * 
@@ -3,10 +3,14 @@ package com.monogramm.starter.persistence;
 import com.monogramm.starter.utils.JsonUtils;
 
 import java.awt.Color;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -14,6 +18,12 @@ import java.time.LocalTime;
 /**
  * Parameter Types and their matching object.
  * 
+ * <p>
+ * Each type writes and reads its objects to and from a string representation. Numeric, date and
+ * time types also have a compact binary encoding, the other types being encoded as the UTF-8
+ * bytes of their string representation.
+ * </p>
+ * 
  * @see AbstractParameter
  * 
  * @author madmath03
@@ -41,28 +51,74 @@ public enum ParameterType {
   COLOR(Color.class, object -> object.toString(), Color::decode),
   /**
    * A Date and Time parameter.
+   * 
+   * <p>
+   * Encoded in binary as its epoch day followed by its nano of day.
+   * </p>
    */
-  DATE_TIME(LocalDateTime.class, object -> object.toString(), LocalDateTime::parse),
+  DATE_TIME(LocalDateTime.class, object -> object.toString(), LocalDateTime::parse,
+      object -> ByteBuffer.allocate(2 * Long.BYTES)
+          .putLong(((LocalDateTime) object).toLocalDate().toEpochDay())
+          .putLong(((LocalDateTime) object).toLocalTime().toNanoOfDay()).array(),
+      bytes -> {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return LocalDateTime.of(LocalDate.ofEpochDay(buffer.getLong()),
+            LocalTime.ofNanoOfDay(buffer.getLong()));
+      }),
   /**
    * A Time parameter.
+   * 
+   * <p>
+   * Encoded in binary as its nano of day.
+   * </p>
    */
-  TIME(LocalTime.class, object -> object.toString(), LocalTime::parse),
+  TIME(LocalTime.class, object -> object.toString(), LocalTime::parse,
+      object -> ByteBuffer.allocate(Long.BYTES).putLong(((LocalTime) object).toNanoOfDay())
+          .array(),
+      bytes -> LocalTime.ofNanoOfDay(ByteBuffer.wrap(bytes).getLong())),
   /**
    * A Date parameter.
+   * 
+   * <p>
+   * Encoded in binary as its epoch day.
+   * </p>
+   */
+  DATE(LocalDate.class, object -> object.toString(), LocalDate::parse,
+      object -> ByteBuffer.allocate(Long.BYTES).putLong(((LocalDate) object).toEpochDay())
+          .array(),
+      bytes -> LocalDate.ofEpochDay(ByteBuffer.wrap(bytes).getLong())),
+  /**
+   * A Duration parameter, in the ISO-8601 format such as {@code PT1M30S}.
+   * 
+   * <p>
+   * Encoded in binary as its seconds followed by its nanoseconds adjustment.
+   * </p>
    */
-  DATE(LocalDate.class, object -> object.toString(), LocalDate::parse),
+  DURATION(Duration.class, object -> object.toString(), Duration::parse,
+      object -> ByteBuffer.allocate(Long.BYTES + Integer.BYTES)
+          .putLong(((Duration) object).getSeconds()).putInt(((Duration) object).getNano())
+          .array(),
+      bytes -> {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return Duration.ofSeconds(buffer.getLong(), buffer.getInt());
+      }),
   /**
    * A double parameter.
    */
-  DOUBLE(Double.class, object -> object.toString(), Double::valueOf),
+  DOUBLE(Double.class, object -> object.toString(), Double::valueOf,
+      object -> ByteBuffer.allocate(Double.BYTES).putDouble((Double) object).array(),
+      bytes -> ByteBuffer.wrap(bytes).getDouble()),
   /**
    * An integer parameter.
    */
-  INTEGER(Integer.class, object -> object.toString(), Integer::valueOf),
+  INTEGER(Integer.class, object -> object.toString(), Integer::valueOf,
+      object -> ByteBuffer.allocate(Integer.BYTES).putInt((Integer) object).array(),
+      bytes -> ByteBuffer.wrap(bytes).getInt()),
   /**
    * An integer parameter.
    */
-  BOOLEAN(Boolean.class, object -> object.toString(), Boolean::valueOf),
+  BOOLEAN(Boolean.class, object -> object.toString(), Boolean::valueOf,
+      object -> new byte[] {(byte) (((Boolean) object) ? 1 : 0)}, bytes -> bytes[0] != 0),
   /**
    * A String parameter.
    */
@@ -71,12 +127,11 @@ public enum ParameterType {
    * A parameter whose value can be anything.
    * 
    * <p>
-   * Provides JSON serialization of objects but no deserialization.
+   * Provides JSON serialization of objects. Deserialization gives maps for JSON objects and lists
+   * for JSON arrays, unless read as a given class through {@link #read(String, Class)}.
    * </p>
    */
-  ANY(Object.class, JsonUtils::json, value -> {
-    throw new UnsupportedOperationException();
-  });
+  ANY(Object.class, JsonUtils::json, ParameterType::readJson);
 
 
   /**
@@ -124,28 +179,103 @@ public enum ParameterType {
     T run(final String value);
   }
 
+
   /**
-   * Get the most appropriate parameter type for an object.
+   * A functional interface for encoding an object representation of a parameter to a compact
+   * binary representation.
    * 
-   * @param object object for which to find the most appropriate {@link ParameterType}.
+   * @author madmath03
+   */
+  public interface ParameterEncoder {
+
+    /**
+     * Encode an object to a binary representation.
+     * 
+     * @see ParameterDecoder#run(byte[])
+     * 
+     * @param object object to encode.
+     * 
+     * @return the object as bytes.
+     */
+    byte[] run(final Object object);
+  }
+
+
+  /**
+   * A functional interface for decoding a compact binary representation of a parameter to an
+   * object representation.
    * 
-   * @return the most appropriate {@link ParameterType} for given object.
+   * @author madmath03
    */
-  public static ParameterType typeOf(final Object object) {
-    ParameterType type = ANY;
+  public interface ParameterDecoder {
+
+    /**
+     * Decode an object from a binary representation.
+     * 
+     * @see ParameterEncoder#run(Object)
+     * 
+     * @param bytes bytes to decode as an object.
+     * 
+     * @return the bytes as an object.
+     */
+    Object run(final byte[] bytes);
+  }
+
+  /**
+   * The most appropriate type of each class, looked up once per class.
+   */
+  private static final ClassValue<ParameterType> TYPES = new ClassValue<ParameterType>() {
+    @Override
+    protected ParameterType computeValue(final Class<?> objectClass) {
+      ParameterType type = ANY;
 
-    if (object != null) {
       for (ParameterType t : values()) {
-        if (t.typeClass.isInstance(object)) {
+        if (t.typeClass.isAssignableFrom(objectClass)) {
           type = t;
           break;
         }
       }
+
+      return type;
+    }
+  };
+
+  /**
+   * Get the most appropriate parameter type for an object.
+   * 
+   * @param object object for which to find the most appropriate {@link ParameterType}.
+   * 
+   * @return the most appropriate {@link ParameterType} for given object.
+   */
+  public static ParameterType typeOf(final Object object) {
+    final ParameterType type;
+
+    if (object == null) {
+      type = ANY;
+    } else {
+      type = TYPES.get(object.getClass());
     }
 
     return type;
   }
 
+  /**
+   * Read any JSON value.
+   * 
+   * @param value JSON value.
+   * 
+   * @return a map for a JSON object, a list for a JSON array, or the JSON scalar value.
+   * 
+   * @throws IllegalArgumentException if the value is not valid JSON.
+   */
+  private static Object readJson(final String value) {
+    try {
+      return JsonUtils.reader(Object.class).readValue(value);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Invalid JSON value: " + value, e);
+    }
+  }
+
 
   private final Class<?> typeClass;
 
@@ -153,9 +283,13 @@ public enum ParameterType {
 
   private final ParameterImporter<?> importer;
 
+  private final ParameterEncoder encoder;
+
+  private final ParameterDecoder decoder;
+
 
   /**
-   * Create a {@link ParameterType}.
+   * Create a {@link ParameterType} without compact binary encoding.
    * 
    * @param typeClass class associated to this type.
    * @param exporter function responsible of exporting an object to a string value parameter.
@@ -163,9 +297,25 @@ public enum ParameterType {
    */
   private ParameterType(Class<?> typeClass, ParameterExporter exporter,
       ParameterImporter<?> importer) {
+    this(typeClass, exporter, importer, null, null);
+  }
+
+  /**
+   * Create a {@link ParameterType}.
+   * 
+   * @param typeClass class associated to this type.
+   * @param exporter function responsible of exporting an object to a string value parameter.
+   * @param importer function responsible of importing an object from a string value parameter.
+   * @param encoder function responsible of encoding an object to a compact binary value.
+   * @param decoder function responsible of decoding an object from a compact binary value.
+   */
+  private ParameterType(Class<?> typeClass, ParameterExporter exporter,
+      ParameterImporter<?> importer, ParameterEncoder encoder, ParameterDecoder decoder) {
     this.typeClass = typeClass;
     this.exporter = exporter;
     this.importer = importer;
+    this.encoder = encoder;
+    this.decoder = decoder;
   }
 
 
@@ -200,4 +350,88 @@ public enum ParameterType {
     return this.importer.run(value);
   }
 
+  /**
+   * Read an object of a given class from a string representation.
+   * 
+   * <p>
+   * An {@link #ANY} value is read directly as the given class, through a JSON reader built once
+   * per class.
+   * </p>
+   * 
+   * @param <T> the type of the returned object.
+   * @param value value to import as an object.
+   * @param valueType the class of the returned object.
+   * 
+   * @return the value as an object of the given class.
+   * 
+   * @throws IllegalArgumentException if an {@link #ANY} value cannot be read as the given class.
+   * @throws ClassCastException if the value of another type is not of the given class.
+   */
+  public <T> T read(String value, Class<T> valueType) {
+    final T object;
+
+    if (this == ANY) {
+      try {
+        object = JsonUtils.reader(valueType).readValue(value);
+      } catch (IOException e) {
+        throw new IllegalArgumentException(
+            "Cannot read JSON value as " + valueType.getName() + ": " + value, e);
+      }
+    } else {
+      object = valueType.cast(this.read(value));
+    }
+
+    return object;
+  }
+
+  /**
+   * Whether this type has a compact binary encoding.
+   * 
+   * @return {@code true} if objects are encoded in binary more compactly than as strings.
+   */
+  public boolean hasBinaryEncoding() {
+    return encoder != null;
+  }
+
+  /**
+   * Encode an object to a binary representation.
+   * 
+   * @param object object to encode.
+   * 
+   * @return the compact binary representation of the object if this type has one, or the UTF-8
+   *         bytes of its string representation.
+   */
+  public byte[] encode(Object object) {
+    final byte[] bytes;
+
+    if (encoder == null) {
+      bytes = this.write(object).getBytes(StandardCharsets.UTF_8);
+    } else {
+      bytes = encoder.run(object);
+    }
+
+    return bytes;
+  }
+
+  /**
+   * Decode an object from a binary representation.
+   * 
+   * @see #encode(Object)
+   * 
+   * @param bytes bytes to decode as an object.
+   * 
+   * @return the bytes as an object.
+   */
+  public Object decode(byte[] bytes) {
+    final Object object;
+
+    if (decoder == null) {
+      object = this.read(new String(bytes, StandardCharsets.UTF_8));
+    } else {
+      object = decoder.run(bytes);
+    }
+
+    return object;
+  }
+
 }
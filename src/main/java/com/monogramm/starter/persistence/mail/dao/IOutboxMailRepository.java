@@ -0,0 +1,180 @@
+/*
+ * Creation by madmath03 the 2018-02-06.
+ */
+
+package com.monogramm.starter.persistence.mail.dao;
+
+import com.monogramm.starter.persistence.GenericRepository;
+import com.monogramm.starter.persistence.mail.entity.OutboxMail;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The {@link OutboxMail}s Data Access Object (DAO) interface.
+ * 
+ * @author madmath03
+ */
+@Repository
+public interface IOutboxMailRepository extends GenericRepository<OutboxMail> {
+
+  /**
+   * Find the identifiers of the mails which can be sent at a date, oldest first.
+   * 
+   * @param date the date at which mails can be sent.
+   * @param pageable the page of identifiers to return.
+   * 
+   * @return the identifiers of the mails which can be sent.
+   */
+  @Transactional(readOnly = true)
+  @Query("SELECT m.id FROM OutboxMail AS m "
+      + "WHERE m.nextAttemptAt <= :date ORDER BY m.nextAttemptAt")
+  List<UUID> findDueIds(@Param("date") final Date date, final Pageable pageable);
+
+  /**
+   * Claim mails which can still be sent at a date.
+   * 
+   * <p>
+   * The next attempt of the claimed mails is postponed to the end of the lease, so that no other
+   * dispatch sends them meanwhile, even on another application instance.
+   * </p>
+   * 
+   * @param mailIds the identifiers of the mails to claim.
+   * @param claim the identifier of the claim.
+   * @param date the date at which mails can be sent.
+   * @param leaseEnd the date at which the claim expires.
+   * 
+   * @return the number of claimed mails.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE OutboxMail AS m SET m.claim = :claim, m.nextAttemptAt = :leaseEnd "
+      + "WHERE m.id IN (:mailIds) AND m.nextAttemptAt <= :date")
+  int claim(@Param("mailIds") final Collection<UUID> mailIds, @Param("claim") final UUID claim,
+      @Param("date") final Date date, @Param("leaseEnd") final Date leaseEnd);
+
+  /**
+   * Find the mails of a claim.
+   * 
+   * @param claim the identifier of the claim.
+   * 
+   * @return the mails of the claim.
+   */
+  @Transactional(readOnly = true)
+  List<OutboxMail> findByClaim(final UUID claim);
+
+  /**
+   * Claim a batch of mails which can be sent at a date.
+   * 
+   * @param date the date at which mails can be sent.
+   * @param batchSize the maximum number of mails to claim.
+   * @param leaseEnd the date at which the claim expires.
+   * 
+   * @return the claimed mails.
+   */
+  default List<OutboxMail> claimDue(final Date date, final int batchSize, final Date leaseEnd) {
+    final List<UUID> dueIds = findDueIds(date, new PageRequest(0, batchSize));
+
+    final List<OutboxMail> claimed;
+    if (dueIds.isEmpty()) {
+      claimed = Collections.emptyList();
+    } else {
+      final UUID claim = UUID.randomUUID();
+      if (claim(dueIds, claim, date, leaseEnd) == 0) {
+        claimed = Collections.emptyList();
+      } else {
+        claimed = findByClaim(claim);
+      }
+    }
+
+    return claimed;
+  }
+
+  /**
+   * Delete mails through their primary keys in a single statement.
+   * 
+   * @param mailIds the identifiers of the mails to delete.
+   * 
+   * @return the number of deleted mails.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("DELETE FROM OutboxMail AS m WHERE m.id IN (:mailIds)")
+  int deleteByIds(@Param("mailIds") final Collection<UUID> mailIds);
+
+  /**
+   * Record a failed sending attempt and schedule the next one.
+   * 
+   * @param mailId the identifier of the mail.
+   * @param nextAttemptAt the date of the next attempt, {@code null} to give up the mail.
+   * @param error the error of the failed attempt.
+   * 
+   * @return the number of updated mails.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE OutboxMail AS m SET m.attempts = m.attempts + 1, m.claim = NULL, "
+      + "m.nextAttemptAt = :nextAttemptAt, m.lastError = :error, "
+      + "m.modifiedAt = CURRENT_TIMESTAMP WHERE m.id = :mailId")
+  int reschedule(@Param("mailId") final UUID mailId,
+      @Param("nextAttemptAt") final Date nextAttemptAt, @Param("error") final String error);
+
+  /**
+   * Find the identifiers of the mails given up before a date, oldest first.
+   * 
+   * @param date the date before which mails were given up.
+   * @param pageable the page of identifiers to return.
+   * 
+   * @return the identifiers of the given up mails.
+   */
+  @Transactional(readOnly = true)
+  @Query("SELECT m.id FROM OutboxMail AS m "
+      + "WHERE m.nextAttemptAt IS NULL AND m.modifiedAt < :date ORDER BY m.modifiedAt")
+  List<UUID> findGivenUpIds(@Param("date") final Date date, final Pageable pageable);
+
+  /**
+   * Delete a batch of mails given up before a date.
+   * 
+   * <p>
+   * The given up mails are looked up through the next attempt date index and deleted by primary
+   * key, so that each batch only locks the rows it deletes.
+   * </p>
+   * 
+   * @param date the date before which mails were given up.
+   * @param batchSize the maximum number of mails to delete.
+   * 
+   * @return the number of deleted mails.
+   */
+  default int deleteGivenUp(final Date date, final int batchSize) {
+    final List<UUID> givenUpIds = findGivenUpIds(date, new PageRequest(0, batchSize));
+
+    final int deleted;
+    if (givenUpIds.isEmpty()) {
+      deleted = 0;
+    } else {
+      deleted = deleteByIds(givenUpIds);
+    }
+
+    return deleted;
+  }
+
+  /**
+   * Count the mails waiting to be sent.
+   * 
+   * @return the number of mails waiting to be sent.
+   */
+  @Transactional(readOnly = true)
+  long countByNextAttemptAtNotNull();
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Creation by madmath03 the 2018-02-06.
+ */
+
+package com.monogramm.starter.persistence.mail.entity;
+
+import com.monogramm.starter.persistence.AbstractGenericEntity;
+
+import java.util.Date;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+/**
+ * A mail waiting in the outbox to be sent.
+ * 
+ * <p>
+ * Mails are written to the outbox in the same transaction as the data they relate to, and sent
+ * asynchronously. A mail is removed from the outbox once sent. A mail without
+ * {@link #nextAttemptAt} has been given up after too many failed attempts.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@Entity
+@Table(name = "mail_outbox",
+    indexes = {@Index(name = "idx_mail_outbox_next_attempt_at", columnList = "next_attempt_at"),
+        @Index(name = "idx_mail_outbox_claim", columnList = "claim")})
+public class OutboxMail extends AbstractGenericEntity {
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = 3174806125360187143L;
+
+  /**
+   * Address maximum length.
+   */
+  public static final int MAX_LENGTH_ADDRESS = 255;
+
+  /**
+   * Subject maximum length.
+   */
+  public static final int MAX_LENGTH_SUBJECT = 255;
+
+  /**
+   * Last error maximum length.
+   */
+  public static final int MAX_LENGTH_ERROR = 255;
+
+  @Column(name = "sender", nullable = true, length = MAX_LENGTH_ADDRESS)
+  private String sender;
+
+  @Column(name = "recipient", nullable = false, length = MAX_LENGTH_ADDRESS)
+  private String recipient;
+
+  @Column(name = "subject", nullable = true, length = MAX_LENGTH_SUBJECT)
+  private String subject;
+
+  @Lob
+  @Column(name = "body", nullable = true)
+  private String body;
+
+  /**
+   * Number of failed sending attempts.
+   */
+  @Column(name = "attempts", nullable = false)
+  private int attempts = 0;
+
+  /**
+   * Date from which the mail can be sent, {@code null} if the mail has been given up.
+   */
+  @Column(name = "next_attempt_at", nullable = true)
+  private Date nextAttemptAt;
+
+  /**
+   * Identifier of the dispatch currently sending the mail.
+   */
+  @Column(name = "claim", columnDefinition = "BINARY(16)", nullable = true)
+  private UUID claim;
+
+  /**
+   * The error of the last failed sending attempt.
+   */
+  @Column(name = "last_error", nullable = true, length = MAX_LENGTH_ERROR)
+  private String lastError;
+
+  /**
+   * Create a {@link OutboxMail}.
+   * 
+   */
+  public OutboxMail() {
+    super();
+  }
+
+  /**
+   * Create a {@link OutboxMail} ready to be sent.
+   * 
+   * @param sender the sender address.
+   * @param recipient the recipient address.
+   * @param subject the mail subject.
+   * @param body the mail text.
+   */
+  public OutboxMail(String sender, String recipient, String subject, String body) {
+    super();
+    this.sender = sender;
+    this.recipient = recipient;
+    this.subject = subject;
+    this.body = body;
+    this.nextAttemptAt = new Date();
+  }
+
+  /**
+   * Get the {@link #sender}.
+   * 
+   * @return the {@link #sender}.
+   */
+  public String getSender() {
+    return sender;
+  }
+
+  /**
+   * Set the {@link #sender}.
+   * 
+   * @param sender the {@link #sender} to set.
+   */
+  public void setSender(String sender) {
+    this.sender = sender;
+  }
+
+  /**
+   * Get the {@link #recipient}.
+   * 
+   * @return the {@link #recipient}.
+   */
+  public String getRecipient() {
+    return recipient;
+  }
+
+  /**
+   * Set the {@link #recipient}.
+   * 
+   * @param recipient the {@link #recipient} to set.
+   */
+  public void setRecipient(String recipient) {
+    this.recipient = recipient;
+  }
+
+  /**
+   * Get the {@link #subject}.
+   * 
+   * @return the {@link #subject}.
+   */
+  public String getSubject() {
+    return subject;
+  }
+
+  /**
+   * Set the {@link #subject}.
+   * 
+   * @param subject the {@link #subject} to set.
+   */
+  public void setSubject(String subject) {
+    this.subject = subject;
+  }
+
+  /**
+   * Get the {@link #body}.
+   * 
+   * @return the {@link #body}.
+   */
+  public String getBody() {
+    return body;
+  }
+
+  /**
+   * Set the {@link #body}.
+   * 
+   * @param body the {@link #body} to set.
+   */
+  public void setBody(String body) {
+    this.body = body;
+  }
+
+  /**
+   * Get the {@link #attempts}.
+   * 
+   * @return the {@link #attempts}.
+   */
+  public int getAttempts() {
+    return attempts;
+  }
+
+  /**
+   * Set the {@link #attempts}.
+   * 
+   * @param attempts the {@link #attempts} to set.
+   */
+  public void setAttempts(int attempts) {
+    this.attempts = attempts;
+  }
+
+  /**
+   * Get the {@link #nextAttemptAt}.
+   * 
+   * @return the {@link #nextAttemptAt}.
+   */
+  public Date getNextAttemptAt() {
+    return nextAttemptAt;
+  }
+
+  /**
+   * Set the {@link #nextAttemptAt}.
+   * 
+   * @param nextAttemptAt the {@link #nextAttemptAt} to set.
+   */
+  public void setNextAttemptAt(Date nextAttemptAt) {
+    this.nextAttemptAt = nextAttemptAt;
+  }
+
+  /**
+   * Get the {@link #claim}.
+   * 
+   * @return the {@link #claim}.
+   */
+  public UUID getClaim() {
+    return claim;
+  }
+
+  /**
+   * Set the {@link #claim}.
+   * 
+   * @param claim the {@link #claim} to set.
+   */
+  public void setClaim(UUID claim) {
+    this.claim = claim;
+  }
+
+  /**
+   * Get the {@link #lastError}.
+   * 
+   * @return the {@link #lastError}.
+   */
+  public String getLastError() {
+    return lastError;
+  }
+
+  /**
+   * Set the {@link #lastError}.
+   * 
+   * @param lastError the {@link #lastError} to set.
+   */
+  public void setLastError(String lastError) {
+    this.lastError = lastError;
+  }
+
+}
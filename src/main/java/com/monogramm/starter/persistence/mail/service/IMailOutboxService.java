@@ -0,0 +1,84 @@
+/*
+ * Creation by madmath03 the 2018-02-06.
+ */
+
+package com.monogramm.starter.persistence.mail.service;
+
+import com.monogramm.starter.persistence.mail.entity.OutboxMail;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.mail.SimpleMailMessage;
+
+/**
+ * The mail outbox service.
+ * 
+ * @author madmath03
+ */
+public interface IMailOutboxService {
+
+  /**
+   * Write a mail to the outbox, one entry per recipient.
+   * 
+   * <p>
+   * The mail is written in the current transaction, if any, and will only be sent once the
+   * transaction is committed.
+   * </p>
+   * 
+   * @param message the mail to send.
+   * 
+   * @return the number of entries written to the outbox.
+   * 
+   * @throws IllegalArgumentException if {@code message} is {@code null} or has no recipient.
+   */
+  int enqueue(final SimpleMailMessage message);
+
+  /**
+   * Claim a batch of mails ready to be sent.
+   * 
+   * @param batchSize the maximum number of mails to claim.
+   * 
+   * @return the claimed mails.
+   */
+  List<OutboxMail> claim(final int batchSize);
+
+  /**
+   * Remove sent mails from the outbox.
+   * 
+   * @param mailIds the identifiers of the sent mails.
+   * 
+   * @return the number of mails removed from the outbox.
+   */
+  int markSent(final Collection<UUID> mailIds);
+
+  /**
+   * Record a failed sending attempt and schedule a retry with an exponential backoff.
+   * 
+   * @param mail the mail which could not be sent.
+   * @param error the error of the failed attempt.
+   * 
+   * @return {@code true} if the mail will be retried, {@code false} if it has been given up.
+   */
+  boolean markFailed(final OutboxMail mail, final String error);
+
+  /**
+   * Delete a batch of mails given up for longer than the retention period.
+   * 
+   * @param date the date at which the retention period is evaluated.
+   * @param batchSize the maximum number of mails to delete.
+   * 
+   * @return the number of deleted mails.
+   */
+  int deleteGivenUp(final Date date, final int batchSize);
+
+  /**
+   * Count the mails waiting to be sent.
+   * 
+   * @return the number of mails waiting to be sent.
+   */
+  long countPending();
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Creation by madmath03 the 2018-02-06.
+ */
+
+package com.monogramm.starter.persistence.mail.service;
+
+import com.monogramm.starter.persistence.mail.dao.IOutboxMailRepository;
+import com.monogramm.starter.persistence.mail.entity.OutboxMail;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The mail outbox service.
+ * 
+ * @author madmath03
+ */
+@Service
+public class MailOutboxService implements IMailOutboxService {
+
+  /**
+   * Property for the maximum number of sending attempts of a mail.
+   */
+  public static final String PROP_MAX_ATTEMPTS = "mail.outbox.max-attempts";
+  /**
+   * Property for the delay, in milliseconds, before the first retry of a mail.
+   */
+  public static final String PROP_BACKOFF = "mail.outbox.backoff";
+  /**
+   * Property for the maximum delay, in milliseconds, between two retries of a mail.
+   */
+  public static final String PROP_MAX_BACKOFF = "mail.outbox.max-backoff";
+  /**
+   * Property for the time, in milliseconds, a claimed mail is reserved to its dispatch.
+   */
+  public static final String PROP_LEASE = "mail.outbox.lease";
+  /**
+   * Property for the time, in milliseconds, a given up mail is kept in the outbox.
+   */
+  public static final String PROP_RETENTION = "mail.outbox.retention";
+
+  private static final int DEFAULT_MAX_ATTEMPTS = 8;
+  private static final long DEFAULT_BACKOFF = 30_000L;
+  private static final long DEFAULT_MAX_BACKOFF = 3_600_000L;
+  private static final long DEFAULT_LEASE = 300_000L;
+  private static final long DEFAULT_RETENTION = 604_800_000L;
+
+  private final IOutboxMailRepository repository;
+
+  private final int maxAttempts;
+
+  private final long backoff;
+
+  private final long maxBackoff;
+
+  private final long lease;
+
+  private final long retention;
+
+  /**
+   * Create a {@link MailOutboxService} configured through the application properties.
+   * 
+   * @param repository the outbox repository.
+   * @param env the application environment.
+   */
+  @Autowired
+  public MailOutboxService(final IOutboxMailRepository repository, final Environment env) {
+    this(repository, env.getProperty(PROP_MAX_ATTEMPTS, Integer.class, DEFAULT_MAX_ATTEMPTS),
+        env.getProperty(PROP_BACKOFF, Long.class, DEFAULT_BACKOFF),
+        env.getProperty(PROP_MAX_BACKOFF, Long.class, DEFAULT_MAX_BACKOFF),
+        env.getProperty(PROP_LEASE, Long.class, DEFAULT_LEASE),
+        env.getProperty(PROP_RETENTION, Long.class, DEFAULT_RETENTION));
+  }
+
+  /**
+   * Create a {@link MailOutboxService} keeping the given up mails for a week.
+   * 
+   * @param repository the outbox repository.
+   * @param maxAttempts the maximum number of sending attempts of a mail.
+   * @param backoff the delay, in milliseconds, before the first retry of a mail.
+   * @param maxBackoff the maximum delay, in milliseconds, between two retries of a mail.
+   * @param lease the time, in milliseconds, a claimed mail is reserved to its dispatch.
+   * 
+   * @throws IllegalArgumentException if {@code repository} is {@code null}.
+   */
+  public MailOutboxService(final IOutboxMailRepository repository, final int maxAttempts,
+      final long backoff, final long maxBackoff, final long lease) {
+    this(repository, maxAttempts, backoff, maxBackoff, lease, DEFAULT_RETENTION);
+  }
+
+  /**
+   * Create a {@link MailOutboxService}.
+   * 
+   * @param repository the outbox repository.
+   * @param maxAttempts the maximum number of sending attempts of a mail.
+   * @param backoff the delay, in milliseconds, before the first retry of a mail.
+   * @param maxBackoff the maximum delay, in milliseconds, between two retries of a mail.
+   * @param lease the time, in milliseconds, a claimed mail is reserved to its dispatch.
+   * @param retention the time, in milliseconds, a given up mail is kept in the outbox.
+   * 
+   * @throws IllegalArgumentException if {@code repository} is {@code null}.
+   */
+  public MailOutboxService(final IOutboxMailRepository repository, final int maxAttempts,
+      final long backoff, final long maxBackoff, final long lease, final long retention) {
+    super();
+    if (repository == null) {
+      throw new IllegalArgumentException("Outbox repository cannot be null.");
+    }
+    this.repository = repository;
+    this.maxAttempts = maxAttempts;
+    this.backoff = backoff;
+    this.maxBackoff = maxBackoff;
+    this.lease = lease;
+    this.retention = retention;
+  }
+
+  @Transactional
+  @Override
+  public int enqueue(final SimpleMailMessage message) {
+    if (message == null || message.getTo() == null || message.getTo().length == 0) {
+      throw new IllegalArgumentException("Mail must have at least one recipient.");
+    }
+
+    for (final String recipient : message.getTo()) {
+      repository.save(new OutboxMail(message.getFrom(), recipient, message.getSubject(),
+          message.getText()));
+    }
+
+    return message.getTo().length;
+  }
+
+  @Override
+  public List<OutboxMail> claim(final int batchSize) {
+    final Date now = new Date();
+    return repository.claimDue(now, batchSize, new Date(now.getTime() + lease));
+  }
+
+  @Override
+  public int markSent(final Collection<UUID> mailIds) {
+    final int removed;
+
+    if (mailIds == null || mailIds.isEmpty()) {
+      removed = 0;
+    } else {
+      removed = repository.deleteByIds(mailIds);
+    }
+
+    return removed;
+  }
+
+  @Override
+  public boolean markFailed(final OutboxMail mail, final String error) {
+    final int attempts = mail.getAttempts() + 1;
+
+    final Date nextAttemptAt;
+    if (attempts >= maxAttempts) {
+      nextAttemptAt = null;
+    } else {
+      nextAttemptAt = new Date(System.currentTimeMillis() + this.backoff(attempts));
+    }
+
+    String lastError = error;
+    if (lastError != null && lastError.length() > OutboxMail.MAX_LENGTH_ERROR) {
+      lastError = lastError.substring(0, OutboxMail.MAX_LENGTH_ERROR);
+    }
+    repository.reschedule(mail.getId(), nextAttemptAt, lastError);
+
+    return nextAttemptAt != null;
+  }
+
+  /**
+   * Compute the delay before the next attempt of a mail.
+   * 
+   * @param attempts the number of failed attempts, at least {@code 1}.
+   * 
+   * @return the delay before the next attempt, in milliseconds.
+   */
+  protected long backoff(final int attempts) {
+    final int shift = Math.min(attempts - 1, Long.numberOfLeadingZeros(backoff) - 1);
+    return Math.min(maxBackoff, backoff << shift);
+  }
+
+  @Override
+  public int deleteGivenUp(final Date date, final int batchSize) {
+    return repository.deleteGivenUp(new Date(date.getTime() - retention), batchSize);
+  }
+
+  @Override
+  public long countPending() {
+    return repository.countByNextAttemptAtNotNull();
+  }
+
+}
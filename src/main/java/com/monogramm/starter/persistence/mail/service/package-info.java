@@ -0,0 +1,10 @@
+/*
+ * Creation by madmath03 the 2018-02-06.
+ */
+
+/**
+ * The <em>Mail Outbox</em> Services.
+ * 
+ * @author madmath03
+ */
+package com.monogramm.starter.persistence.mail.service;
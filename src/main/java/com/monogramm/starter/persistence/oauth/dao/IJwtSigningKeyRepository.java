@@ -0,0 +1,48 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.persistence.oauth.dao;
+
+import com.monogramm.starter.persistence.GenericRepository;
+import com.monogramm.starter.persistence.oauth.entity.JwtSigningKey;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The {@link JwtSigningKey}s Data Access Object (DAO) interface.
+ * 
+ * @author madmath03
+ */
+@Repository
+public interface IJwtSigningKeyRepository extends GenericRepository<JwtSigningKey> {
+
+  /**
+   * Find all the signing keys, in their activation order.
+   * 
+   * @return the signing keys, the first activated first.
+   */
+  @Transactional(readOnly = true)
+  @Query("SELECT k FROM JwtSigningKey AS k ORDER BY k.activatesAt")
+  List<JwtSigningKey> findAllByActivation();
+
+  /**
+   * Delete signing keys through their key ids in a single statement.
+   * 
+   * @param kids the key ids of the signing keys to delete.
+   * 
+   * @return the number of deleted signing keys.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("DELETE FROM JwtSigningKey AS k WHERE k.kid IN (:kids)")
+  int deleteByKids(@Param("kids") final Collection<String> kids);
+
+}
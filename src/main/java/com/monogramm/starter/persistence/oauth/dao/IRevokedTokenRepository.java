@@ -0,0 +1,108 @@
+/*
+ * Creation by madmath03 the 2018-02-11.
+ */
+
+package com.monogramm.starter.persistence.oauth.dao;
+
+import com.monogramm.starter.persistence.GenericRepository;
+import com.monogramm.starter.persistence.oauth.entity.RevokedToken;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The {@link RevokedToken}s Data Access Object (DAO) interface.
+ * 
+ * @author madmath03
+ */
+@Repository
+public interface IRevokedTokenRepository extends GenericRepository<RevokedToken> {
+
+  /**
+   * Find the token identifiers and expiration dates of the tokens revoked since a date and not yet
+   * expired.
+   * 
+   * @param since the date since which the tokens were revoked.
+   * @param date the date at which the tokens must not be expired.
+   * 
+   * @return the {@code jti} and {@code expiresAt} of each token.
+   */
+  @Transactional(readOnly = true)
+  @Query("SELECT t.jti, t.expiresAt FROM RevokedToken AS t "
+      + "WHERE t.createdAt >= :since AND t.expiresAt > :date")
+  List<Object[]> findRevokedSince(@Param("since") final Date since,
+      @Param("date") final Date date);
+
+  /**
+   * Check if a token is revoked.
+   * 
+   * @param jti the token identifier.
+   * 
+   * @return {@code true} if the token is revoked.
+   */
+  @Transactional(readOnly = true)
+  @Query("SELECT count(t) > 0 FROM RevokedToken AS t WHERE t.jti = :jti")
+  boolean existsByJti(@Param("jti") final String jti);
+
+  /**
+   * Find the identifiers of the revoked tokens expired at a date, oldest first.
+   * 
+   * @param date the date at which the tokens are expired.
+   * @param pageable the page of identifiers to return.
+   * 
+   * @return the identifiers of the expired revoked tokens.
+   */
+  @Transactional(readOnly = true)
+  @Query("SELECT t.id FROM RevokedToken AS t "
+      + "WHERE t.expiresAt <= :date ORDER BY t.expiresAt")
+  List<UUID> findExpiredIds(@Param("date") final Date date, final Pageable pageable);
+
+  /**
+   * Delete revoked tokens through their primary keys in a single statement.
+   * 
+   * @param tokenIds the identifiers of the revoked tokens to delete.
+   * 
+   * @return the number of deleted revoked tokens.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("DELETE FROM RevokedToken AS t WHERE t.id IN (:tokenIds)")
+  int deleteByIds(@Param("tokenIds") final Collection<UUID> tokenIds);
+
+  /**
+   * Delete a batch of revoked tokens expired at a date.
+   * 
+   * <p>
+   * The expired tokens are looked up through the expiration date index and deleted by primary
+   * key, so that each batch only locks the rows it deletes.
+   * </p>
+   * 
+   * @param date the date at which the tokens are expired.
+   * @param batchSize the maximum number of revoked tokens to delete.
+   * 
+   * @return the number of deleted revoked tokens.
+   */
+  default int deleteExpired(final Date date, final int batchSize) {
+    final List<UUID> expiredIds = findExpiredIds(date, new PageRequest(0, batchSize));
+
+    final int deleted;
+    if (expiredIds.isEmpty()) {
+      deleted = 0;
+    } else {
+      deleted = deleteByIds(expiredIds);
+    }
+
+    return deleted;
+  }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.persistence.oauth.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.monogramm.starter.persistence.AbstractGenericEntity;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * A generated key signing the JSON Web Tokens, shared by all the nodes.
+ * 
+ * <p>
+ * The key signs the tokens from its activation date until the activation of the next key. A single
+ * key activates at a given date, so that nodes rotating the keys concurrently agree on the key
+ * they add.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@Entity
+@Table(name = "jwt_signing_key",
+    uniqueConstraints = {@UniqueConstraint(name = "uk_jwt_signing_key_kid", columnNames = "kid"),
+        @UniqueConstraint(name = "uk_jwt_signing_key_activates_at",
+            columnNames = "activates_at")})
+public class JwtSigningKey extends AbstractGenericEntity {
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = 5384219364470518245L;
+
+  /**
+   * Key id maximum length.
+   */
+  public static final int MAX_LENGTH_KID = 64;
+  /**
+   * Signature algorithm maximum length.
+   */
+  public static final int MAX_LENGTH_ALGORITHM = 16;
+  /**
+   * Encoded key maximum length.
+   */
+  public static final int MAX_LENGTH_KEY = 4096;
+
+  /**
+   * The key id.
+   */
+  @Column(name = "kid", nullable = false, updatable = false, length = MAX_LENGTH_KID)
+  private String kid;
+
+  /**
+   * The signature algorithm.
+   */
+  @Column(name = "algorithm", nullable = false, updatable = false,
+      length = MAX_LENGTH_ALGORITHM)
+  private String algorithm;
+
+  /**
+   * The X.509 encoded public key.
+   */
+  @Column(name = "public_key", nullable = false, updatable = false, length = MAX_LENGTH_KEY)
+  private byte[] publicKey;
+
+  /**
+   * The encrypted PKCS #8 encoded private key.
+   */
+  @JsonIgnore
+  @Column(name = "private_key", nullable = false, updatable = false, length = MAX_LENGTH_KEY)
+  private byte[] privateKey;
+
+  /**
+   * The date from which the key signs the tokens.
+   */
+  @Column(name = "activates_at", nullable = false, updatable = false)
+  private Date activatesAt;
+
+  /**
+   * Create a {@link JwtSigningKey}.
+   * 
+   */
+  public JwtSigningKey() {
+    super();
+  }
+
+  /**
+   * Create a {@link JwtSigningKey}.
+   * 
+   * @param kid the key id.
+   * @param algorithm the signature algorithm.
+   * @param publicKey the X.509 encoded public key.
+   * @param privateKey the encrypted PKCS #8 encoded private key.
+   * @param activatesAt the date from which the key signs the tokens.
+   */
+  public JwtSigningKey(final String kid, final String algorithm, final byte[] publicKey,
+      final byte[] privateKey, final Date activatesAt) {
+    super();
+    this.kid = kid;
+    this.algorithm = algorithm;
+    this.publicKey = publicKey;
+    this.privateKey = privateKey;
+    this.activatesAt = activatesAt;
+  }
+
+  /**
+   * Get the {@link #kid}.
+   * 
+   * @return the {@link #kid}.
+   */
+  public String getKid() {
+    return kid;
+  }
+
+  /**
+   * Set the {@link #kid}.
+   * 
+   * @param kid the {@link #kid} to set.
+   */
+  public void setKid(String kid) {
+    this.kid = kid;
+  }
+
+  /**
+   * Get the {@link #algorithm}.
+   * 
+   * @return the {@link #algorithm}.
+   */
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  /**
+   * Set the {@link #algorithm}.
+   * 
+   * @param algorithm the {@link #algorithm} to set.
+   */
+  public void setAlgorithm(String algorithm) {
+    this.algorithm = algorithm;
+  }
+
+  /**
+   * Get the {@link #publicKey}.
+   * 
+   * @return the {@link #publicKey}.
+   */
+  public byte[] getPublicKey() {
+    return publicKey;
+  }
+
+  /**
+   * Set the {@link #publicKey}.
+   * 
+   * @param publicKey the {@link #publicKey} to set.
+   */
+  public void setPublicKey(byte[] publicKey) {
+    this.publicKey = publicKey;
+  }
+
+  /**
+   * Get the {@link #privateKey}.
+   * 
+   * @return the {@link #privateKey}.
+   */
+  public byte[] getPrivateKey() {
+    return privateKey;
+  }
+
+  /**
+   * Set the {@link #privateKey}.
+   * 
+   * @param privateKey the {@link #privateKey} to set.
+   */
+  public void setPrivateKey(byte[] privateKey) {
+    this.privateKey = privateKey;
+  }
+
+  /**
+   * Get the {@link #activatesAt}.
+   * 
+   * @return the {@link #activatesAt}.
+   */
+  public Date getActivatesAt() {
+    return activatesAt;
+  }
+
+  /**
+   * Set the {@link #activatesAt}.
+   * 
+   * @param activatesAt the {@link #activatesAt} to set.
+   */
+  public void setActivatesAt(Date activatesAt) {
+    this.activatesAt = activatesAt;
+  }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Creation by madmath03 the 2018-02-11.
+ */
+
+package com.monogramm.starter.persistence.oauth.entity;
+
+import com.monogramm.starter.persistence.AbstractGenericEntity;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * A revoked access or refresh token, identified by its {@code jti} claim.
+ * 
+ * <p>
+ * A revoked token is kept until the date at which the token expires anyway.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@Entity
+@Table(name = "revoked_token",
+    uniqueConstraints = {@UniqueConstraint(name = "uk_revoked_token_jti", columnNames = "jti")},
+    indexes = {@Index(name = "idx_revoked_token_created_at", columnList = "created_at"),
+        @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at")})
+public class RevokedToken extends AbstractGenericEntity {
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = -1824463217418330655L;
+
+  /**
+   * Token identifier maximum length.
+   */
+  public static final int MAX_LENGTH_JTI = 64;
+
+  /**
+   * The token identifier.
+   */
+  @Column(name = "jti", nullable = false, updatable = false, length = MAX_LENGTH_JTI)
+  private String jti;
+
+  /**
+   * The date at which the token expires.
+   */
+  @Column(name = "expires_at", nullable = false, updatable = false)
+  private Date expiresAt;
+
+  /**
+   * Create a {@link RevokedToken}.
+   * 
+   */
+  public RevokedToken() {
+    super();
+  }
+
+  /**
+   * Create a {@link RevokedToken}.
+   * 
+   * @param jti the token identifier.
+   * @param expiresAt the date at which the token expires.
+   */
+  public RevokedToken(final String jti, final Date expiresAt) {
+    super();
+    this.jti = jti;
+    this.expiresAt = expiresAt;
+  }
+
+  /**
+   * Get the {@link #jti}.
+   * 
+   * @return the {@link #jti}.
+   */
+  public String getJti() {
+    return jti;
+  }
+
+  /**
+   * Set the {@link #jti}.
+   * 
+   * @param jti the {@link #jti} to set.
+   */
+  public void setJti(String jti) {
+    this.jti = jti;
+  }
+
+  /**
+   * Get the {@link #expiresAt}.
+   * 
+   * @return the {@link #expiresAt}.
+   */
+  public Date getExpiresAt() {
+    return expiresAt;
+  }
+
+  /**
+   * Set the {@link #expiresAt}.
+   * 
+   * @param expiresAt the {@link #expiresAt} to set.
+   */
+  public void setExpiresAt(Date expiresAt) {
+    this.expiresAt = expiresAt;
+  }
+
+}
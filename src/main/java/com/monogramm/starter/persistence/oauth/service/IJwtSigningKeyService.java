@@ -0,0 +1,47 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.persistence.oauth.service;
+
+import com.monogramm.starter.persistence.oauth.entity.JwtSigningKey;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The JSON Web Token signing keys service.
+ * 
+ * @author madmath03
+ */
+public interface IJwtSigningKeyService {
+
+  /**
+   * Find all the signing keys, in their activation order.
+   * 
+   * @return the signing keys, the first activated first.
+   */
+  List<JwtSigningKey> findAll();
+
+  /**
+   * Add a signing key.
+   * 
+   * @param signingKey the signing key to add.
+   * 
+   * @return {@code true} if the key was added, {@code false} if a key with the same key id or
+   *         activation date was added first, by another node for instance.
+   * 
+   * @throws IllegalArgumentException if {@code signingKey} is {@code null}.
+   */
+  boolean add(final JwtSigningKey signingKey);
+
+  /**
+   * Delete signing keys.
+   * 
+   * @param kids the key ids of the signing keys to delete.
+   * 
+   * @return the number of deleted signing keys.
+   */
+  int delete(final Collection<String> kids);
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Creation by madmath03 the 2018-02-11.
+ */
+
+package com.monogramm.starter.persistence.oauth.service;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * The revoked tokens service.
+ * 
+ * @author madmath03
+ */
+public interface IRevokedTokenService {
+
+  /**
+   * Record the revocation of a token.
+   * 
+   * @param jti the token identifier.
+   * @param expiresAt the date at which the token expires.
+   * 
+   * @return {@code true} if the token was revoked, {@code false} if it was already revoked.
+   * 
+   * @throws IllegalArgumentException if {@code jti} or {@code expiresAt} is {@code null}.
+   */
+  boolean revoke(final String jti, final Date expiresAt);
+
+  /**
+   * Check if a token is revoked.
+   * 
+   * @param jti the token identifier.
+   * 
+   * @return {@code true} if the token is revoked.
+   */
+  boolean isRevoked(final String jti);
+
+  /**
+   * Find the tokens revoked since a date and not yet expired.
+   * 
+   * @param since the date since which the tokens were revoked.
+   * @param date the date at which the tokens must not be expired.
+   * 
+   * @return the expiration date of each revoked token, by token identifier.
+   */
+  Map<String, Date> findRevokedSince(final Date since, final Date date);
+
+  /**
+   * Delete a batch of revoked tokens expired at a date.
+   * 
+   * @param date the date at which the tokens are expired.
+   * @param batchSize the maximum number of revoked tokens to delete.
+   * 
+   * @return the number of deleted revoked tokens.
+   */
+  int deleteExpired(final Date date, final int batchSize);
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.persistence.oauth.service;
+
+import com.monogramm.starter.persistence.oauth.dao.IJwtSigningKeyRepository;
+import com.monogramm.starter.persistence.oauth.entity.JwtSigningKey;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The JSON Web Token signing keys service.
+ * 
+ * @author madmath03
+ */
+@Service
+public class JwtSigningKeyService implements IJwtSigningKeyService {
+
+  private final IJwtSigningKeyRepository repository;
+
+  /**
+   * Create a {@link JwtSigningKeyService}.
+   * 
+   * @param repository the signing keys repository.
+   * 
+   * @throws IllegalArgumentException if {@code repository} is {@code null}.
+   */
+  @Autowired
+  public JwtSigningKeyService(final IJwtSigningKeyRepository repository) {
+    super();
+    if (repository == null) {
+      throw new IllegalArgumentException("JWT signing key repository cannot be null.");
+    }
+    this.repository = repository;
+  }
+
+  /*
+   * Read from the primary database: a key just added by another node must be found.
+   */
+  @Transactional
+  @Override
+  public List<JwtSigningKey> findAll() {
+    return repository.findAllByActivation();
+  }
+
+  /*
+   * Not transactional: a constraint violation must not mark an enclosing transaction as rollback
+   * only.
+   */
+  @Override
+  public boolean add(final JwtSigningKey signingKey) {
+    if (signingKey == null) {
+      throw new IllegalArgumentException("JWT signing key cannot be null.");
+    }
+
+    boolean added;
+    try {
+      repository.add(signingKey);
+      added = true;
+    } catch (DataIntegrityViolationException e) {
+      added = false;
+    }
+
+    return added;
+  }
+
+  @Override
+  public int delete(final Collection<String> kids) {
+    final int deleted;
+    if (kids == null || kids.isEmpty()) {
+      deleted = 0;
+    } else {
+      deleted = repository.deleteByKids(kids);
+    }
+    return deleted;
+  }
+
+}
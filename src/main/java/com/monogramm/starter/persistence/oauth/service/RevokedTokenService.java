@@ -0,0 +1,87 @@
+/*
+ * Creation by madmath03 the 2018-02-11.
+ */
+
+package com.monogramm.starter.persistence.oauth.service;
+
+import com.monogramm.starter.persistence.oauth.dao.IRevokedTokenRepository;
+import com.monogramm.starter.persistence.oauth.entity.RevokedToken;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The revoked tokens service.
+ * 
+ * @author madmath03
+ */
+@Service
+public class RevokedTokenService implements IRevokedTokenService {
+
+  private final IRevokedTokenRepository repository;
+
+  /**
+   * Create a {@link RevokedTokenService}.
+   * 
+   * @param repository the revoked tokens repository.
+   * 
+   * @throws IllegalArgumentException if {@code repository} is {@code null}.
+   */
+  @Autowired
+  public RevokedTokenService(final IRevokedTokenRepository repository) {
+    super();
+    if (repository == null) {
+      throw new IllegalArgumentException("Revoked token repository cannot be null.");
+    }
+    this.repository = repository;
+  }
+
+  @Transactional
+  @Override
+  public boolean revoke(final String jti, final Date expiresAt) {
+    if (jti == null || expiresAt == null) {
+      throw new IllegalArgumentException("Token identifier and expiration cannot be null.");
+    }
+
+    final boolean revoked;
+    if (repository.existsByJti(jti)) {
+      revoked = false;
+    } else {
+      repository.save(new RevokedToken(jti, expiresAt));
+      revoked = true;
+    }
+
+    return revoked;
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public boolean isRevoked(final String jti) {
+    return jti != null && repository.existsByJti(jti);
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public Map<String, Date> findRevokedSince(final Date since, final Date date) {
+    final List<Object[]> rows = repository.findRevokedSince(since, date);
+
+    final Map<String, Date> revoked = new HashMap<>(rows.size());
+    for (final Object[] row : rows) {
+      revoked.put((String) row[0], (Date) row[1]);
+    }
+
+    return revoked;
+  }
+
+  @Override
+  public int deleteExpired(final Date date, final int batchSize) {
+    return repository.deleteExpired(date, batchSize);
+  }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Creation by madmath03 the 2018-02-16.
+ */
+
+package com.monogramm.starter.persistence.parameter.dao;
+
+import com.monogramm.starter.persistence.GenericRepository;
+import com.monogramm.starter.persistence.parameter.entity.ParameterChange;
+import com.monogramm.starter.persistence.parameter.entity.ParameterVersion;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The {@link ParameterChange}s Data Access Object (DAO) interface.
+ * 
+ * @author madmath03
+ */
+@Repository
+public interface IParameterChangeRepository extends GenericRepository<ParameterChange> {
+
+  /**
+   * Find the current global version of the parameters.
+   * 
+   * <p>
+   * A lookup of the unique index on the version, cheap enough to be polled often. Read from the
+   * primary database, not from a replica which may lag behind by several seconds.
+   * </p>
+   * 
+   * @return the version of the last change, {@code 0} if there was none.
+   */
+  @Transactional
+  @Query("SELECT COALESCE(MAX(c.version), 0) FROM ParameterChange AS c")
+  long findVersion();
+
+  /**
+   * Increment the {@link ParameterVersion} counter.
+   * 
+   * <p>
+   * The counter row stays locked until the current transaction ends, so that concurrent changes
+   * take the following versions once this one is committed.
+   * </p>
+   * 
+   * @return the number of counters incremented, {@code 0} if the counter does not exist yet.
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE ParameterVersion AS v SET v.version = v.version + 1 WHERE v.id = "
+      + ParameterVersion.ID)
+  int incrementVersion();
+
+  /**
+   * Find the value of the {@link ParameterVersion} counter.
+   * 
+   * <p>
+   * Read in the current transaction, so that the counter incremented by the transaction is read.
+   * </p>
+   * 
+   * @return the value of the counter.
+   */
+  @Transactional
+  @Query("SELECT v.version FROM ParameterVersion AS v WHERE v.id = " + ParameterVersion.ID)
+  long findCounterVersion();
+
+  /**
+   * Create the {@link ParameterVersion} counter at the current version, in a new transaction.
+   * 
+   * @return the number of counters created.
+   * 
+   * @throws DataIntegrityViolationException if the counter already exists.
+   */
+  @Modifying
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  @Query(value = "INSERT INTO parameter_version (id, version) SELECT " + ParameterVersion.ID
+      + ", COALESCE(MAX(version), 0) FROM parameter_change", nativeQuery = true)
+  int createVersionCounter();
+
+  /**
+   * Find the changes following a version, ordered by version.
+   * 
+   * <p>
+   * Read from the primary database, as {@link #findVersion()}.
+   * </p>
+   * 
+   * @param version the version known.
+   * 
+   * @return the version, the parameter identifier, the parameter name and the operation of each
+   *         change following {@code version}.
+   */
+  @Transactional
+  @Query("SELECT c.version, c.parameterId, c.name, c.operation FROM ParameterChange AS c "
+      + "WHERE c.version > :version ORDER BY c.version")
+  List<Object[]> findChangesSince(@Param("version") final long version);
+
+  /**
+   * Delete the changes created before a date, but the last one which holds the current version.
+   * 
+   * @param date the date before which changes are deleted.
+   * 
+   * @return the number of changes deleted.
+   */
+  default int deleteCreatedBefore(final Date date) {
+    return this.deleteCreatedBefore(date, this.findVersion());
+  }
+
+  /**
+   * Delete the changes created before a date and preceding a version.
+   * 
+   * @param date the date before which changes are deleted.
+   * @param version the version before which changes are deleted.
+   * 
+   * @return the number of changes deleted.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("DELETE FROM ParameterChange AS c WHERE c.createdAt < :date AND c.version < :version")
+  int deleteCreatedBefore(@Param("date") final Date date, @Param("version") final long version);
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Creation by madmath03 the 2018-02-16.
+ */
+
+package com.monogramm.starter.persistence.parameter.entity;
+
+import com.monogramm.starter.config.data.GenericOperation;
+import com.monogramm.starter.persistence.AbstractGenericEntity;
+import com.monogramm.starter.persistence.AbstractParameter;
+
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * A change of a {@link Parameter}, numbered by the global version of the parameters it created.
+ * 
+ * <p>
+ * Versions are contiguous: each change takes the next version of the {@link ParameterVersion}
+ * counter, which concurrent changes wait for until the change is committed. A node knowing a
+ * version can therefore find exactly which parameters changed since.
+ * </p>
+ * 
+ * @author madmath03
+ */
+@Entity
+@Table(name = "parameter_change",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_parameter_change_version", columnNames = "version")},
+    indexes = {@Index(name = "idx_parameter_change_created_at", columnList = "created_at")})
+public class ParameterChange extends AbstractGenericEntity {
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = 3057184460922958114L;
+
+  /**
+   * The version of the parameters created by this change.
+   */
+  @Column(name = "version", nullable = false, updatable = false)
+  private long version;
+
+  /**
+   * The operation which changed the parameter: {@link GenericOperation#CREATE},
+   * {@link GenericOperation#UPDATE} or {@link GenericOperation#DELETE}.
+   */
+  @Enumerated(EnumType.STRING)
+  @Column(name = "operation", nullable = false, updatable = false, length = 16)
+  private GenericOperation operation;
+
+  /**
+   * The identifier of the parameter changed.
+   */
+  @Column(name = "parameter_id", columnDefinition = "BINARY(16)", nullable = false,
+      updatable = false)
+  private UUID parameterId;
+
+  /**
+   * The name of the parameter changed, {@code null} if it was deleted.
+   */
+  @Column(name = "name", nullable = true, updatable = false,
+      length = AbstractParameter.MAX_LENGTH_NAME)
+  private String name;
+
+  /**
+   * Create a {@link ParameterChange}.
+   * 
+   */
+  public ParameterChange() {
+    super();
+  }
+
+  /**
+   * Create a {@link ParameterChange}.
+   * 
+   * @param version the version of the parameters created by this change.
+   * @param operation the operation which changed the parameter.
+   * @param parameterId the identifier of the parameter changed.
+   * @param name the name of the parameter changed, {@code null} if it was deleted.
+   */
+  public ParameterChange(final long version, final GenericOperation operation,
+      final UUID parameterId, final String name) {
+    super();
+    this.version = version;
+    this.operation = operation;
+    this.parameterId = parameterId;
+    this.name = name;
+  }
+
+  /**
+   * Get the {@link #version}.
+   * 
+   * @return the {@link #version}.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Set the {@link #version}.
+   * 
+   * @param version the {@link #version} to set.
+   */
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  /**
+   * Get the {@link #operation}.
+   * 
+   * @return the {@link #operation}.
+   */
+  public GenericOperation getOperation() {
+    return operation;
+  }
+
+  /**
+   * Set the {@link #operation}.
+   * 
+   * @param operation the {@link #operation} to set.
+   */
+  public void setOperation(GenericOperation operation) {
+    this.operation = operation;
+  }
+
+  /**
+   * Get the {@link #parameterId}.
+   * 
+   * @return the {@link #parameterId}.
+   */
+  public UUID getParameterId() {
+    return parameterId;
+  }
+
+  /**
+   * Set the {@link #parameterId}.
+   * 
+   * @param parameterId the {@link #parameterId} to set.
+   */
+  public void setParameterId(UUID parameterId) {
+    this.parameterId = parameterId;
+  }
+
+  /**
+   * Get the {@link #name}.
+   * 
+   * @return the {@link #name}.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Set the {@link #name}.
+   * 
+   * @param name the {@link #name} to set.
+   */
+  public void setName(String name) {
+    this.name = name;
+  }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Creation by madmath03 the 2018-02-16.
+ */
+
+package com.monogramm.starter.persistence.parameter.entity;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * The counter of the global versions of the parameters, held by a single row.
+ * 
+ * <p>
+ * Each change increments the counter in its own transaction, which locks the row until the change
+ * is committed: concurrent changes therefore take contiguous versions, in the order of their
+ * commits.
+ * </p>
+ * 
+ * @see ParameterChange
+ * 
+ * @author madmath03
+ */
+@Entity
+@Table(name = "parameter_version")
+public class ParameterVersion implements Serializable {
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = -6285137044296551374L;
+
+  /**
+   * The identifier of the counter row.
+   */
+  public static final int ID = 1;
+
+  /**
+   * The identifier of the counter row, always {@link #ID}.
+   */
+  @Id
+  @Column(name = "id", nullable = false, updatable = false)
+  private int id = ID;
+
+  /**
+   * The version of the last change.
+   */
+  @Column(name = "version", nullable = false)
+  private long version;
+
+  /**
+   * Create a {@link ParameterVersion}.
+   * 
+   */
+  public ParameterVersion() {
+    super();
+  }
+
+  /**
+   * Get the {@link #id}.
+   * 
+   * @return the {@link #id}.
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Get the {@link #version}.
+   * 
+   * @return the {@link #version}.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Set the {@link #version}.
+   * 
+   * @param version the {@link #version} to set.
+   */
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+}
@@ -9,6 +9,12 @@ import com.monogramm.starter.persistence.GenericService;
 import com.monogramm.starter.persistence.parameter.entity.Parameter;
 import com.monogramm.starter.persistence.parameter.exception.ParameterNotFoundException;
 
+import java.net.URL;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
 /**
  * IParameterService.
  * 
@@ -30,4 +36,173 @@ public interface IParameterService extends GenericService<Parameter, ParameterDt
    */
   Parameter findByName(final String name);
 
+  /**
+   * Get the decoded value of a parameter through its name while ignoring case.
+   * 
+   * <p>
+   * The decoded values are cached until the parameter changes.
+   * </p>
+   * 
+   * @param name the name of the parameter.
+   * 
+   * @return the decoded value of the parameter, {@code null} if no parameter matches the name or
+   *         if its value cannot be decoded.
+   */
+  Object getValue(final String name);
+
+  /**
+   * Get the decoded value of a parameter through its name while ignoring case.
+   * 
+   * @param <T> the type of the value.
+   * @param name the name of the parameter.
+   * @param type the expected type of the value.
+   * @param defaultValue the value returned if the parameter does not exist or is not of the
+   *        expected type.
+   * 
+   * @return the decoded value of the parameter, or {@code defaultValue}.
+   */
+  default <T> T getValue(final String name, final Class<T> type, final T defaultValue) {
+    final Object value = this.getValue(name);
+
+    final T result;
+    if (type.isInstance(value)) {
+      result = type.cast(value);
+    } else {
+      result = defaultValue;
+    }
+    return result;
+  }
+
+  /**
+   * Get the value of a {@link com.monogramm.starter.persistence.ParameterType#STRING} parameter.
+   * 
+   * @param name the name of the parameter.
+   * @param defaultValue the value returned if the parameter does not exist or is not a string.
+   * 
+   * @return the value of the parameter, or {@code defaultValue}.
+   */
+  default String getString(final String name, final String defaultValue) {
+    return this.getValue(name, String.class, defaultValue);
+  }
+
+  /**
+   * Get the value of an {@link com.monogramm.starter.persistence.ParameterType#INTEGER}
+   * parameter.
+   * 
+   * @param name the name of the parameter.
+   * @param defaultValue the value returned if the parameter does not exist or is not an integer.
+   * 
+   * @return the value of the parameter, or {@code defaultValue}.
+   */
+  default int getInt(final String name, final int defaultValue) {
+    return this.getValue(name, Integer.class, defaultValue);
+  }
+
+  /**
+   * Get the value of a {@link com.monogramm.starter.persistence.ParameterType#DOUBLE} parameter.
+   * 
+   * @param name the name of the parameter.
+   * @param defaultValue the value returned if the parameter does not exist or is not a double.
+   * 
+   * @return the value of the parameter, or {@code defaultValue}.
+   */
+  default double getDouble(final String name, final double defaultValue) {
+    return this.getValue(name, Double.class, defaultValue);
+  }
+
+  /**
+   * Get the value of a {@link com.monogramm.starter.persistence.ParameterType#BOOLEAN}
+   * parameter.
+   * 
+   * @param name the name of the parameter.
+   * @param defaultValue the value returned if the parameter does not exist or is not a boolean.
+   * 
+   * @return the value of the parameter, or {@code defaultValue}.
+   */
+  default boolean getBoolean(final String name, final boolean defaultValue) {
+    return this.getValue(name, Boolean.class, defaultValue);
+  }
+
+  /**
+   * Get the value of a {@link com.monogramm.starter.persistence.ParameterType#DURATION}
+   * parameter.
+   * 
+   * @param name the name of the parameter.
+   * @param defaultValue the value returned if the parameter does not exist or is not a duration.
+   * 
+   * @return the value of the parameter, or {@code defaultValue}.
+   */
+  default Duration getDuration(final String name, final Duration defaultValue) {
+    return this.getValue(name, Duration.class, defaultValue);
+  }
+
+  /**
+   * Get the value of a {@link com.monogramm.starter.persistence.ParameterType#DATE_TIME}
+   * parameter.
+   * 
+   * @param name the name of the parameter.
+   * @param defaultValue the value returned if the parameter does not exist or is not a date time.
+   * 
+   * @return the value of the parameter, or {@code defaultValue}.
+   */
+  default LocalDateTime getDateTime(final String name, final LocalDateTime defaultValue) {
+    return this.getValue(name, LocalDateTime.class, defaultValue);
+  }
+
+  /**
+   * Get the value of a {@link com.monogramm.starter.persistence.ParameterType#DATE} parameter.
+   * 
+   * @param name the name of the parameter.
+   * @param defaultValue the value returned if the parameter does not exist or is not a date.
+   * 
+   * @return the value of the parameter, or {@code defaultValue}.
+   */
+  default LocalDate getDate(final String name, final LocalDate defaultValue) {
+    return this.getValue(name, LocalDate.class, defaultValue);
+  }
+
+  /**
+   * Get the value of a {@link com.monogramm.starter.persistence.ParameterType#TIME} parameter.
+   * 
+   * @param name the name of the parameter.
+   * @param defaultValue the value returned if the parameter does not exist or is not a time.
+   * 
+   * @return the value of the parameter, or {@code defaultValue}.
+   */
+  default LocalTime getTime(final String name, final LocalTime defaultValue) {
+    return this.getValue(name, LocalTime.class, defaultValue);
+  }
+
+  /**
+   * Get the value of an {@link com.monogramm.starter.persistence.ParameterType#URL} parameter.
+   * 
+   * @param name the name of the parameter.
+   * @param defaultValue the value returned if the parameter does not exist or is not an URL.
+   * 
+   * @return the value of the parameter, or {@code defaultValue}.
+   */
+  default URL getUrl(final String name, final URL defaultValue) {
+    return this.getValue(name, URL.class, defaultValue);
+  }
+
+  /**
+   * Invalidate all the decoded values cached on this node.
+   */
+  void invalidateAll();
+
+  /**
+   * Invalidate the decoded values of the parameters changed on the other nodes since the last
+   * poll.
+   * 
+   * @return the global version of the parameters now cached, {@code -1} if unknown.
+   */
+  long pollChanges();
+
+  /**
+   * Delete the parameter changes older than {@link ParameterService#CHANGE_RETENTION}.
+   * 
+   * @return the number of changes deleted.
+   */
+  int purgeChanges();
+
 }
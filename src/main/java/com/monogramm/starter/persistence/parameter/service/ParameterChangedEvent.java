@@ -0,0 +1,104 @@
+/*
+ * Creation by madmath03 the 2018-02-17.
+ */
+
+package com.monogramm.starter.persistence.parameter.service;
+
+import com.monogramm.starter.config.data.GenericOperation;
+
+import java.util.UUID;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published once a node learns that a parameter changed, on any node.
+ * 
+ * <p>
+ * Events are published in the order of the global version of the parameters. A <em>reset</em>
+ * event, without operation, means that the changes preceding its version are unknown and that
+ * any parameter may have changed.
+ * </p>
+ * 
+ * @see ParameterService#pollChanges()
+ * 
+ * @author madmath03
+ */
+public class ParameterChangedEvent extends ApplicationEvent {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = 5843207951246708113L;
+
+  private final long version;
+
+  private final GenericOperation operation;
+
+  private final UUID parameterId;
+
+  private final String name;
+
+  /**
+   * Create a {@link ParameterChangedEvent}.
+   * 
+   * @param source the service which learnt about the change.
+   * @param version the version of the parameters created by the change.
+   * @param operation the operation which changed the parameter, {@code null} for a reset.
+   * @param parameterId the identifier of the parameter changed, {@code null} for a reset.
+   * @param name the name of the parameter changed, {@code null} if it was deleted.
+   */
+  public ParameterChangedEvent(final Object source, final long version,
+      final GenericOperation operation, final UUID parameterId, final String name) {
+    super(source);
+    this.version = version;
+    this.operation = operation;
+    this.parameterId = parameterId;
+    this.name = name;
+  }
+
+  /**
+   * Get the {@link #version}.
+   * 
+   * @return the {@link #version}.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Get the {@link #operation}.
+   * 
+   * @return the {@link #operation}, {@code null} for a reset.
+   */
+  public GenericOperation getOperation() {
+    return operation;
+  }
+
+  /**
+   * Get the {@link #parameterId}.
+   * 
+   * @return the {@link #parameterId}, {@code null} for a reset.
+   */
+  public UUID getParameterId() {
+    return parameterId;
+  }
+
+  /**
+   * Get the {@link #name}.
+   * 
+   * @return the {@link #name}, {@code null} if the parameter was deleted.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Whether any parameter may have changed.
+   * 
+   * @return {@code true} if the changes preceding this event are unknown.
+   */
+  public boolean isReset() {
+    return operation == null;
+  }
+
+}
@@ -4,38 +4,105 @@
 
 package com.monogramm.starter.persistence.parameter.service;
 
+import com.monogramm.starter.config.data.GenericOperation;
 import com.monogramm.starter.dto.parameter.ParameterDto;
 import com.monogramm.starter.persistence.AbstractGenericService;
 import com.monogramm.starter.persistence.EntityNotFoundException;
+import com.monogramm.starter.persistence.parameter.dao.IParameterChangeRepository;
 import com.monogramm.starter.persistence.parameter.dao.IParameterRepository;
 import com.monogramm.starter.persistence.parameter.entity.Parameter;
+import com.monogramm.starter.persistence.parameter.entity.ParameterChange;
 import com.monogramm.starter.persistence.parameter.exception.ParameterNotFoundException;
 import com.monogramm.starter.persistence.user.dao.IUserRepository;
 
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * ParameterService.
  * 
+ * <p>
+ * The values of the parameters are cached once decoded, by name. Each change of a parameter
+ * creates a new global version of the parameters, and each node regularly polls that version to
+ * invalidate the parameters changed by the other nodes.
+ * </p>
+ * 
+ * <p>
+ * Each change polled, whichever node made it, is then published as a
+ * {@link ParameterChangedEvent}, in the order of the versions.
+ * </p>
+ * 
  * @author madmath03
  */
 @Service
 public class ParameterService extends AbstractGenericService<Parameter, ParameterDto>
     implements IParameterService {
 
+  /**
+   * Logger for {@link ParameterService}.
+   */
+  private static final Logger LOG = LogManager.getLogger(ParameterService.class);
+
+  /**
+   * The time, in milliseconds, changes are kept for the nodes lagging behind. A node missing some
+   * of the changes following its version invalidates all its parameters.
+   */
+  public static final long CHANGE_RETENTION = 86_400_000L;
+
+  private final IParameterChangeRepository changeRepository;
+
+  /**
+   * The decoded parameters, by lower case name.
+   */
+  private final Map<String, CachedParameter> cache = new ConcurrentHashMap<>();
+
+  /**
+   * The number of invalidations, so that a parameter loaded while being invalidated is not cached.
+   */
+  private final AtomicLong invalidations = new AtomicLong();
+
+  /**
+   * The global version of the parameters cached, or {@code -1} before the first poll.
+   */
+  private long version = -1L;
+
+  /**
+   * Create a {@link ParameterService} only invalidating the parameters changed on this node.
+   * 
+   * @param repository the entity repository.
+   * @param userRepository the user repository.
+   */
+  public ParameterService(IParameterRepository repository, IUserRepository userRepository) {
+    this(repository, userRepository, null);
+  }
+
   /**
    * Create a {@link ParameterService}.
    * 
    * @param repository the entity repository.
    * @param userRepository the user repository.
+   * @param changeRepository the parameter changes repository. May be {@code null} to only
+   *        invalidate the parameters changed on this node.
    */
   @Autowired
-  public ParameterService(IParameterRepository repository, IUserRepository userRepository) {
+  public ParameterService(IParameterRepository repository, IUserRepository userRepository,
+      IParameterChangeRepository changeRepository) {
     super(repository, userRepository, new ParameterBridge(userRepository));
+    this.changeRepository = changeRepository;
   }
 
   @Override
@@ -69,4 +136,234 @@ public class ParameterService extends AbstractGenericService<Parameter, Paramete
     return getRepository().findByNameIgnoreCase(name);
   }
 
+  @Override
+  @Transactional
+  public boolean add(Parameter entity) {
+    final boolean added = super.add(entity);
+
+    if (added) {
+      this.recordChange(GenericOperation.CREATE, entity.getId(), entity.getName());
+    }
+
+    return added;
+  }
+
+  @Override
+  @Transactional(rollbackFor = {EntityNotFoundException.class})
+  public Parameter update(Parameter entity) {
+    final Parameter updatedEntity = super.update(entity);
+
+    this.recordChange(GenericOperation.UPDATE, updatedEntity.getId(), updatedEntity.getName());
+
+    return updatedEntity;
+  }
+
+  @Override
+  @Transactional(rollbackFor = {EntityNotFoundException.class})
+  public void deleteById(UUID entityId) {
+    super.deleteById(entityId);
+
+    this.recordChange(GenericOperation.DELETE, entityId, null);
+  }
+
+  /**
+   * Record the change of a parameter under a new global version, and invalidate it on this node
+   * once committed.
+   * 
+   * @param operation the operation which changed the parameter.
+   * @param parameterId the identifier of the parameter changed.
+   * @param name the name of the parameter changed, {@code null} if it was deleted.
+   */
+  private void recordChange(final GenericOperation operation, final UUID parameterId,
+      final String name) {
+    if (changeRepository != null) {
+      final long next = this.nextVersion();
+      changeRepository.add(new ParameterChange(next, operation, parameterId, name));
+    }
+
+    afterCommit(() -> this.invalidate(parameterId, name));
+  }
+
+  /**
+   * Take the next global version of the parameters, locking out the concurrent changes until the
+   * current transaction ends.
+   * 
+   * @return the next global version.
+   */
+  private long nextVersion() {
+    if (changeRepository.incrementVersion() == 0) {
+      // First change recorded: create the counter, unless another change just did
+      try {
+        changeRepository.createVersionCounter();
+      } catch (DataIntegrityViolationException e) {
+        LOG.debug("Parameter version counter created concurrently", e);
+      }
+      changeRepository.incrementVersion();
+    }
+
+    return changeRepository.findCounterVersion();
+  }
+
+  @Override
+  public Object getValue(final String name) {
+    if (name == null) {
+      return null;
+    }
+    final String key = name.toLowerCase(Locale.ROOT);
+
+    CachedParameter cached = cache.get(key);
+    if (cached == null) {
+      final long before = invalidations.get();
+      final CachedParameter loaded = this.load(name);
+
+      // Do not cache a parameter invalidated while it was loaded
+      cached = cache.compute(key, (k, current) -> {
+        final CachedParameter result;
+        if (current != null) {
+          result = current;
+        } else if (invalidations.get() == before) {
+          result = loaded;
+        } else {
+          result = null;
+        }
+        return result;
+      });
+      if (cached == null) {
+        cached = loaded;
+      }
+    }
+
+    return cached.value;
+  }
+
+  private CachedParameter load(final String name) {
+    Parameter parameter;
+    try {
+      parameter = getRepository().findByNameIgnoreCase(name);
+    } catch (ParameterNotFoundException e) {
+      LOG.debug("load(name={})", name, e);
+      parameter = null;
+    }
+
+    final CachedParameter loaded;
+    if (parameter == null) {
+      loaded = new CachedParameter(null, null);
+    } else {
+      Object value;
+      try {
+        value = parameter.readValue();
+      } catch (RuntimeException e) {
+        LOG.warn("Cannot decode value of parameter {}", name, e);
+        value = null;
+      }
+      loaded = new CachedParameter(parameter.getId(), value);
+    }
+
+    return loaded;
+  }
+
+  /**
+   * Invalidate a parameter on this node.
+   * 
+   * @param parameterId the identifier of the parameter, to invalidate it under its previous name.
+   * @param name the current name of the parameter, to invalidate it if it was missing until now.
+   */
+  private void invalidate(final UUID parameterId, final String name) {
+    invalidations.incrementAndGet();
+
+    if (name != null) {
+      cache.remove(name.toLowerCase(Locale.ROOT));
+    }
+    if (parameterId != null) {
+      cache.values().removeIf(cached -> parameterId.equals(cached.id));
+    }
+  }
+
+  @Override
+  public void invalidateAll() {
+    invalidations.incrementAndGet();
+    cache.clear();
+  }
+
+  @Override
+  @Scheduled(initialDelay = 0L, fixedDelayString = "${parameter.cache.poll-interval:1000}")
+  public synchronized long pollChanges() {
+    if (changeRepository == null) {
+      return version;
+    }
+
+    try {
+      final long current = changeRepository.findVersion();
+
+      if (current == version) {
+        return version;
+      } else if (version < 0L || current < version) {
+        // First poll, or changes history reset
+        this.invalidateAll();
+        version = current;
+        this.publishEvent(new ParameterChangedEvent(this, version, null, null, null));
+      } else {
+        final List<Object[]> changes = changeRepository.findChangesSince(version);
+
+        if (changes.isEmpty() || ((Number) changes.get(0)[0]).longValue() != version + 1) {
+          LOG.warn("Parameter changes following version {} were purged: invalidating all"
+              + " parameters", version);
+          this.invalidateAll();
+          version = current;
+          this.publishEvent(new ParameterChangedEvent(this, version, null, null, null));
+        } else {
+          for (final Object[] change : changes) {
+            final UUID parameterId = (UUID) change[1];
+            final String name = (String) change[2];
+            this.invalidate(parameterId, name);
+            this.publishEvent(new ParameterChangedEvent(this, ((Number) change[0]).longValue(),
+                (GenericOperation) change[3], parameterId, name));
+          }
+          version = Math.max(current, ((Number) changes.get(changes.size() - 1)[0]).longValue());
+        }
+      }
+    } catch (DataAccessException e) {
+      LOG.error("Parameter changes poll failed", e);
+    }
+
+    return version;
+  }
+
+  @Override
+  @Scheduled(initialDelay = 60_000L, fixedDelayString = "${parameter.cache.purge-interval:3600000}")
+  public int purgeChanges() {
+    final int deleted;
+
+    if (changeRepository == null) {
+      deleted = 0;
+    } else {
+      deleted = changeRepository
+          .deleteCreatedBefore(new Date(System.currentTimeMillis() - CHANGE_RETENTION));
+    }
+
+    return deleted;
+  }
+
+  /**
+   * A decoded parameter.
+   * 
+   * @author madmath03
+   */
+  private static final class CachedParameter {
+    /**
+     * The parameter identifier, {@code null} if the parameter does not exist.
+     */
+    private final UUID id;
+
+    /**
+     * The decoded value.
+     */
+    private final Object value;
+
+    private CachedParameter(final UUID id, final Object value) {
+      this.id = id;
+      this.value = value;
+    }
+  }
+
 }
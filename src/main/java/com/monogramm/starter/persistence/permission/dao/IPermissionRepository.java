@@ -40,6 +40,19 @@ public interface IPermissionRepository extends GenericRepository<Permission> {
   List<Permission> findAllContainingNameIgnoreCase(
       @Param("name") final String name);
 
+  /**
+   * Find the identifier and name of all permissions from the repository.
+   * 
+   * <p>
+   * This is used to load the permission search index without loading the entities.
+   * </p>
+   * 
+   * @return the identifier and name of all permissions.
+   */
+  @Transactional(readOnly = true)
+  @Query("SELECT p.id, p.name FROM Permission AS p")
+  List<Object[]> findAllSearchTerms();
+
   /**
    * Find an permission through its name while ignoring case.
    * 
@@ -62,9 +62,13 @@ public class Permission extends AbstractGenericEntity {
 
   /**
    * Users having the current permission through retrieved through their foreign key relation.
+   * 
+   * <p>
+   * Loaded lazily: reading permissions must not load every role granted them.
+   * </p>
    */
   @JsonIgnore
-  @ManyToMany(mappedBy = "permissions", fetch = FetchType.EAGER)
+  @ManyToMany(mappedBy = "permissions", fetch = FetchType.LAZY)
   private final Set<Role> roles = new HashSet<>();
 
   /**
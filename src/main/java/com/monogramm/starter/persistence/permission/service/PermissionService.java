@@ -5,6 +5,7 @@ import com.monogramm.starter.persistence.AbstractGenericService;
 import com.monogramm.starter.persistence.permission.dao.IPermissionRepository;
 import com.monogramm.starter.persistence.permission.entity.Permission;
 import com.monogramm.starter.persistence.permission.exception.PermissionNotFoundException;
+import com.monogramm.starter.persistence.search.TrigramIndex;
 import com.monogramm.starter.persistence.user.dao.IUserRepository;
 
 import java.util.List;
@@ -27,7 +28,7 @@ public class PermissionService extends AbstractGenericService<Permission, Permis
   @Autowired
   public PermissionService(final IPermissionRepository permissionDao,
       final IUserRepository userDao) {
-    super(permissionDao, userDao, new PermissionBridge(userDao));
+    super(permissionDao, userDao, new PermissionBridge(userDao), new TrigramIndex(1));
   }
 
   @Override
@@ -45,6 +46,16 @@ public class PermissionService extends AbstractGenericService<Permission, Permis
     return getRepository().exists(entity.getId(), entity.getName());
   }
 
+  @Override
+  protected String[] getSearchTerms(Permission entity) {
+    return new String[] {entity.getName()};
+  }
+
+  @Override
+  protected List<Object[]> findAllSearchTerms() {
+    return getRepository().findAllSearchTerms();
+  }
+
   @Override
   protected PermissionNotFoundException createEntityNotFoundException(Permission entity) {
     return new PermissionNotFoundException("Following permission not found:" + entity);
@@ -64,6 +75,10 @@ public class PermissionService extends AbstractGenericService<Permission, Permis
   @Transactional(readOnly = true)
   @Override
   public List<Permission> findAllByName(final String name) {
-    return getRepository().findAllContainingNameIgnoreCase(name);
+    List<Permission> permissions = this.search(name);
+    if (permissions == null) {
+      permissions = getRepository().findAllContainingNameIgnoreCase(name);
+    }
+    return permissions;
   }
 }
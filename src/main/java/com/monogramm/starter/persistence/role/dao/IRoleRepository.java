@@ -3,24 +3,47 @@ package com.monogramm.starter.persistence.role.dao;
 import com.monogramm.starter.persistence.GenericRepository;
 import com.monogramm.starter.persistence.role.entity.Role;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
 
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * The Roles Data Access Object (DAO) interface.
  * 
+ * <p>
+ * The roles are read along with their permissions, through the {@link Role#GRAPH_PERMISSIONS}
+ * entity graph, in a single query.
+ * </p>
+ * 
  * @author madmath03
  */
 @Repository
 public interface IRoleRepository extends GenericRepository<Role> {
 
+  @Override
+  @EntityGraph(Role.GRAPH_PERMISSIONS)
+  @Query("SELECT DISTINCT r FROM Role AS r")
+  List<Role> findAll();
+
+  @Override
+  @EntityGraph(Role.GRAPH_PERMISSIONS)
+  @Query("SELECT DISTINCT r FROM Role AS r WHERE r.id IN :ids")
+  List<Role> findAll(@Param("ids") final Iterable<UUID> ids);
+
+  @Override
+  @EntityGraph(Role.GRAPH_PERMISSIONS)
+  Role findById(final UUID entityId);
+
   /**
    * Find all roles from the repository containing the name while ignoring case.
    * 
@@ -28,10 +51,23 @@ public interface IRoleRepository extends GenericRepository<Role> {
    * 
    * @return the list of all the roles matching the search through the repository.
    */
-  @Query("FROM Role AS r "
+  @EntityGraph(Role.GRAPH_PERMISSIONS)
+  @Query("SELECT DISTINCT r FROM Role AS r "
       + "WHERE LOWER(r.name) LIKE concat('%', LOWER(:name), '%')")
   List<Role> findAllContainingNameIgnoreCase(@Param("name") final String name);
 
+  /**
+   * Find the identifier and name of all roles from the repository.
+   * 
+   * <p>
+   * This is used to load the role search index without loading the entities.
+   * </p>
+   * 
+   * @return the identifier and name of all roles.
+   */
+  @Query("SELECT r.id, r.name FROM Role AS r")
+  List<Object[]> findAllSearchTerms();
+
   /**
    * Find an role through its name while ignoring case.
    * 
@@ -42,6 +78,7 @@ public interface IRoleRepository extends GenericRepository<Role> {
    * @throws NoResultException if no role matches the name in the repository.
    * @throws NonUniqueResultException if several roles match the name in the repository.
    */
+  @EntityGraph(Role.GRAPH_PERMISSIONS)
   Role findByNameIgnoreCase(final String name);
 
   /**
@@ -56,4 +93,41 @@ public interface IRoleRepository extends GenericRepository<Role> {
       + "WHERE r.id = :roleId OR LOWER(r.name) = LOWER(:name)")
   boolean exists(@Param("roleId") final UUID roleId,
       @Param("name") final String name);
+
+  /**
+   * Grant several permissions to several roles, without loading the roles permissions.
+   * 
+   * <p>
+   * Unknown roles or permissions are ignored, as well as the permissions already granted.
+   * </p>
+   * 
+   * @param roleIds the roles identifiers. Must not be empty.
+   * @param permissionIds the permissions identifiers. Must not be empty.
+   * 
+   * @return the number of permissions granted.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query(value = "INSERT INTO role_permission (role_id, permission_id) "
+      + "SELECT r.id, p.id FROM role AS r CROSS JOIN permission AS p "
+      + "WHERE r.id IN (:roleIds) AND p.id IN (:permissionIds) "
+      + "AND NOT EXISTS (SELECT 1 FROM role_permission AS rp "
+      + "WHERE rp.role_id = r.id AND rp.permission_id = p.id)", nativeQuery = true)
+  int addPermissions(@Param("roleIds") final Collection<UUID> roleIds,
+      @Param("permissionIds") final Collection<UUID> permissionIds);
+
+  /**
+   * Revoke several permissions from several roles, without loading the roles permissions.
+   * 
+   * @param roleIds the roles identifiers. Must not be empty.
+   * @param permissionIds the permissions identifiers. Must not be empty.
+   * 
+   * @return the number of permissions revoked.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query(value = "DELETE FROM role_permission "
+      + "WHERE role_id IN (:roleIds) AND permission_id IN (:permissionIds)", nativeQuery = true)
+  int removePermissions(@Param("roleIds") final Collection<UUID> roleIds,
+      @Param("permissionIds") final Collection<UUID> permissionIds);
 }
@@ -17,13 +17,20 @@ import javax.persistence.FetchType;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
 import org.apache.commons.lang.builder.ReflectionToStringBuilder;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
 
 @Entity
 @Table(name = "role")
+@NamedEntityGraph(name = Role.GRAPH_PERMISSIONS,
+    attributeNodes = @NamedAttributeNode("permissions"))
 public class Role extends AbstractGenericEntity {
   /**
    * The {@code serialVersionUID}.
@@ -35,6 +42,11 @@ public class Role extends AbstractGenericEntity {
    */
   public static final int MAX_LENGTH_DISPLAYNAME = 30;
 
+  /**
+   * Entity graph loading a role along with its permissions.
+   */
+  public static final String GRAPH_PERMISSIONS = "Role.permissions";
+
   /**
    * Get a new {@link RoleBuilder}.
    *
@@ -63,16 +75,26 @@ public class Role extends AbstractGenericEntity {
 
   /**
    * Users having this role through retrieved through their foreign key relation.
+   * 
+   * <p>
+   * Extra lazy: a role may have a lot of users, so its size and membership tests are queried
+   * instead of loading the whole collection. Page through them with the user repository.
+   * </p>
    */
   @JsonIgnore
   @OneToMany(mappedBy = "role", fetch = FetchType.LAZY)
+  @LazyCollection(LazyCollectionOption.EXTRA)
   private final Set<User> users = new HashSet<>();
 
   /**
    * Permissions attached to this role through their foreign key relation.
+   * 
+   * <p>
+   * Loaded lazily: the read paths needing them load the {@link #GRAPH_PERMISSIONS} entity graph.
+   * </p>
    */
   @JsonIdentityReference(alwaysAsId = true)
-  @ManyToMany(fetch = FetchType.EAGER)
+  @ManyToMany(fetch = FetchType.LAZY)
   @JoinTable(name = "role_permission",
       joinColumns = @JoinColumn(name = "role_id", referencedColumnName = "id"),
       inverseJoinColumns = @JoinColumn(name = "permission_id", referencedColumnName = "id"))
@@ -230,7 +252,7 @@ public class Role extends AbstractGenericEntity {
    */
   public final boolean addPermission(final Permission permission) {
     if (this.getPermissions().add(permission)) {
-      permission.addRole(this);
+      this.linkPermission(permission);
       return true;
     } else {
       return false;
@@ -249,7 +271,7 @@ public class Role extends AbstractGenericEntity {
    */
   public final boolean addPermissions(final Collection<Permission> permissions) {
     if (this.getPermissions().addAll(permissions)) {
-      permissions.forEach(permission -> permission.addRole(this));
+      permissions.forEach(this::linkPermission);
       return true;
     } else {
       return false;
@@ -267,7 +289,7 @@ public class Role extends AbstractGenericEntity {
    */
   public final boolean removePermission(final Permission permission) {
     if (this.getPermissions().remove(permission)) {
-      permission.removeRole(this);
+      this.unlinkPermission(permission);
       return true;
     } else {
       return false;
@@ -286,7 +308,7 @@ public class Role extends AbstractGenericEntity {
    */
   public final boolean removePermissions(final Collection<Permission> permissions) {
     if (this.getPermissions().removeAll(permissions)) {
-      permissions.forEach(permission -> permission.removeRole(this));
+      permissions.forEach(this::unlinkPermission);
       return true;
     } else {
       return false;
@@ -302,6 +324,33 @@ public class Role extends AbstractGenericEntity {
     this.getPermissions().clear();
 
     for (Permission permission : clonePermissions) {
+      this.unlinkPermission(permission);
+    }
+  }
+
+  /**
+   * Add this role to the roles of a permission, unless they are not loaded.
+   * 
+   * <p>
+   * This role owns the relation: loading the roles of the permission would only load every role
+   * sharing it.
+   * </p>
+   * 
+   * @param permission permission added to this role.
+   */
+  private void linkPermission(final Permission permission) {
+    if (Hibernate.isInitialized(permission.getRoles())) {
+      permission.addRole(this);
+    }
+  }
+
+  /**
+   * Remove this role from the roles of a permission, unless they are not loaded.
+   * 
+   * @param permission permission removed from this role.
+   */
+  private void unlinkPermission(final Permission permission) {
+    if (Hibernate.isInitialized(permission.getRoles())) {
       permission.removeRole(this);
     }
   }
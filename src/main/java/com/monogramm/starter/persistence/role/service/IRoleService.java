@@ -5,7 +5,9 @@ import com.monogramm.starter.persistence.GenericService;
 import com.monogramm.starter.persistence.role.entity.Role;
 import com.monogramm.starter.persistence.role.exception.RoleNotFoundException;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 public interface IRoleService extends GenericService<Role, RoleDto> {
 
@@ -32,4 +34,50 @@ public interface IRoleService extends GenericService<Role, RoleDto> {
    */
   Role findByName(final String name);
 
+  /**
+   * Grant several permissions to a role.
+   * 
+   * @param roleId the role identifier.
+   * @param permissionIds the permissions identifiers.
+   * 
+   * @return the number of permissions granted. Unknown permissions and permissions already granted
+   *         are ignored.
+   * 
+   * @throws RoleNotFoundException if no role is found.
+   */
+  int addPermissions(final UUID roleId, final Collection<UUID> permissionIds);
+
+  /**
+   * Grant several permissions to each of several roles.
+   * 
+   * @param roleIds the roles identifiers.
+   * @param permissionIds the permissions identifiers.
+   * 
+   * @return the number of permissions granted. Unknown roles, unknown permissions and permissions
+   *         already granted are ignored.
+   */
+  int addPermissions(final Collection<UUID> roleIds, final Collection<UUID> permissionIds);
+
+  /**
+   * Revoke several permissions from a role.
+   * 
+   * @param roleId the role identifier.
+   * @param permissionIds the permissions identifiers.
+   * 
+   * @return the number of permissions revoked. Permissions not granted are ignored.
+   * 
+   * @throws RoleNotFoundException if no role is found.
+   */
+  int removePermissions(final UUID roleId, final Collection<UUID> permissionIds);
+
+  /**
+   * Revoke several permissions from each of several roles.
+   * 
+   * @param roleIds the roles identifiers.
+   * @param permissionIds the permissions identifiers.
+   * 
+   * @return the number of permissions revoked. Permissions not granted are ignored.
+   */
+  int removePermissions(final Collection<UUID> roleIds, final Collection<UUID> permissionIds);
+
 }
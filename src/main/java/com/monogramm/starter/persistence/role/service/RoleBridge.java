@@ -11,6 +11,7 @@ import com.monogramm.starter.persistence.permission.entity.Permission;
 import com.monogramm.starter.persistence.role.entity.Role;
 import com.monogramm.starter.persistence.user.dao.IUserRepository;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.UUID;
 
@@ -73,12 +74,9 @@ public class RoleBridge extends AbstractGenericBridge<Role, RoleDto> {
           entity.addPermission(Permission.builder().id(id).build());
         }
       } else {
-        for (final UUID id : dto.getPermissions()) {
-          final Permission permission = this.permissionRepository.findById(id);
-          if (permission != null) {
-            entity.addPermission(permission);
-          }
-        }
+        // Look up all the permissions at once, ignoring the unknown ones
+        entity.addPermissions(
+            this.permissionRepository.findAll(Arrays.asList(dto.getPermissions())));
       }
     }
 
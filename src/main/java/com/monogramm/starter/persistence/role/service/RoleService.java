@@ -6,8 +6,11 @@ import com.monogramm.starter.persistence.permission.dao.IPermissionRepository;
 import com.monogramm.starter.persistence.role.dao.IRoleRepository;
 import com.monogramm.starter.persistence.role.entity.Role;
 import com.monogramm.starter.persistence.role.exception.RoleNotFoundException;
+import com.monogramm.starter.persistence.search.TrigramIndex;
 import com.monogramm.starter.persistence.user.dao.IUserRepository;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,7 +33,7 @@ public class RoleService extends AbstractGenericService<Role, RoleDto> implement
   @Autowired
   public RoleService(final IRoleRepository roleDao, final IUserRepository userDao,
       final IPermissionRepository permissionDao) {
-    super(roleDao, userDao, new RoleBridge(userDao, permissionDao));
+    super(roleDao, userDao, new RoleBridge(userDao, permissionDao), new TrigramIndex(1));
     if (permissionDao == null) {
       throw new IllegalArgumentException("Permission repository cannot be null.");
     }
@@ -61,6 +64,16 @@ public class RoleService extends AbstractGenericService<Role, RoleDto> implement
     return getRepository().exists(entity.getId(), entity.getName());
   }
 
+  @Override
+  protected String[] getSearchTerms(Role entity) {
+    return new String[] {entity.getName()};
+  }
+
+  @Override
+  protected List<Object[]> findAllSearchTerms() {
+    return getRepository().findAllSearchTerms();
+  }
+
   @Override
   protected RoleNotFoundException createEntityNotFoundException(Role entity) {
     return new RoleNotFoundException("Following role not found:" + entity);
@@ -80,6 +93,64 @@ public class RoleService extends AbstractGenericService<Role, RoleDto> implement
   @Transactional(readOnly = true)
   @Override
   public List<Role> findAllByName(final String name) {
-    return getRepository().findAllContainingNameIgnoreCase(name);
+    List<Role> roles = this.search(name);
+    if (roles == null) {
+      roles = getRepository().findAllContainingNameIgnoreCase(name);
+    }
+    return roles;
+  }
+
+  @Transactional(rollbackFor = {RoleNotFoundException.class})
+  @Override
+  public int addPermissions(final UUID roleId, final Collection<UUID> permissionIds) {
+    if (!getRepository().exists(roleId)) {
+      throw this.createEntityNotFoundException(roleId);
+    }
+
+    return this.addPermissions(Collections.singletonList(roleId), permissionIds);
+  }
+
+  @Override
+  public int addPermissions(final Collection<UUID> roleIds,
+      final Collection<UUID> permissionIds) {
+    final int granted;
+
+    if (isEmpty(roleIds) || isEmpty(permissionIds)) {
+      granted = 0;
+    } else {
+      granted = getRepository().addPermissions(roleIds, permissionIds);
+      this.publishChangeAfterCommit(null);
+    }
+
+    return granted;
+  }
+
+  @Transactional(rollbackFor = {RoleNotFoundException.class})
+  @Override
+  public int removePermissions(final UUID roleId, final Collection<UUID> permissionIds) {
+    if (!getRepository().exists(roleId)) {
+      throw this.createEntityNotFoundException(roleId);
+    }
+
+    return this.removePermissions(Collections.singletonList(roleId), permissionIds);
+  }
+
+  @Override
+  public int removePermissions(final Collection<UUID> roleIds,
+      final Collection<UUID> permissionIds) {
+    final int revoked;
+
+    if (isEmpty(roleIds) || isEmpty(permissionIds)) {
+      revoked = 0;
+    } else {
+      revoked = getRepository().removePermissions(roleIds, permissionIds);
+      this.publishChangeAfterCommit(null);
+    }
+
+    return revoked;
+  }
+
+  private static boolean isEmpty(final Collection<UUID> ids) {
+    return ids == null || ids.isEmpty();
   }
 }
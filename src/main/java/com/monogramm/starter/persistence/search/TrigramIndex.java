@@ -0,0 +1,461 @@
+/*
+ * Creation by madmath03 the 2018-02-03.
+ */
+
+package com.monogramm.starter.persistence.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory trigram inverted index to search entities containing a text while ignoring case.
+ *
+ * <p>
+ * Each document is identified by the entity {@link UUID} and holds one value per indexed field.
+ * Values are normalized to lower case and split into trigrams. Each trigram of each field points to
+ * a posting list of internal document numbers, stored as a sorted primitive {@code int} array.
+ * </p>
+ *
+ * <p>
+ * A search intersects the posting lists of the query trigrams, checks the remaining candidates
+ * actually contain the query and ranks them: exact matches first, then prefix matches, then the
+ * earliest and shortest matches. Queries shorter than a trigram are answered by a scan of the
+ * indexed values, which stays in memory.
+ * </p>
+ *
+ * <p>
+ * Removed documents are only marked as deleted and filtered at search time. The index is compacted
+ * once the deleted documents outnumber the live ones.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author madmath03
+ */
+public class TrigramIndex {
+
+  /**
+   * Length of the n-grams indexed.
+   */
+  public static final int GRAM_LENGTH = 3;
+
+  /**
+   * Minimum number of deleted documents before considering a compaction.
+   */
+  private static final int COMPACTION_THRESHOLD = 1024;
+
+  private static final int INITIAL_POSTING_CAPACITY = 4;
+
+  private static final int RANK_EXACT = 0;
+  private static final int RANK_PREFIX = 1;
+  private static final int RANK_CONTAINS = 2;
+
+  private static final Comparator<Hit> HIT_ORDER =
+      Comparator.comparingInt((Hit hit) -> hit.rank).thenComparingInt(hit -> hit.position)
+          .thenComparingInt(hit -> hit.length).thenComparingInt(hit -> hit.doc);
+
+  private final int fieldCount;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<Long, PostingList> postings = new HashMap<>();
+
+  private final Map<UUID, Integer> documents = new HashMap<>();
+
+  private final List<UUID> ids = new ArrayList<>();
+
+  private final List<String[]> values = new ArrayList<>();
+
+  private int deleted = 0;
+
+  private volatile boolean ready = false;
+
+  /**
+   * Create a {@link TrigramIndex}.
+   *
+   * @param fieldCount the number of fields indexed for each document.
+   *
+   * @throws IllegalArgumentException if {@code fieldCount} is not strictly positive.
+   */
+  public TrigramIndex(final int fieldCount) {
+    super();
+    if (fieldCount <= 0) {
+      throw new IllegalArgumentException("Field count must be strictly positive.");
+    }
+    this.fieldCount = fieldCount;
+  }
+
+  /**
+   * Normalize a value before indexing or searching.
+   *
+   * @param value a value to normalize.
+   *
+   * @return the normalized value, {@code null} if {@code value} is {@code null}.
+   */
+  protected static String normalize(final String value) {
+    final String normalized;
+    if (value == null) {
+      normalized = null;
+    } else {
+      normalized = value.toLowerCase(Locale.ROOT);
+    }
+    return normalized;
+  }
+
+  /**
+   * Compute the posting key of a trigram.
+   *
+   * @param field the field index.
+   * @param value the normalized value.
+   * @param start the first character index of the trigram in {@code value}.
+   *
+   * @return the posting key of the trigram.
+   */
+  private static long key(final int field, final String value, final int start) {
+    return ((long) field << 48) | ((long) value.charAt(start) << 32)
+        | ((long) value.charAt(start + 1) << 16) | value.charAt(start + 2);
+  }
+
+  /**
+   * Get the number of fields indexed for each document.
+   *
+   * @return the number of fields indexed for each document.
+   */
+  public int getFieldCount() {
+    return fieldCount;
+  }
+
+  /**
+   * Tests if the index has been fully loaded and can answer searches.
+   *
+   * @return {@code true} if the index can answer searches, {@code false} otherwise.
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Set the {@link #ready} status of the index.
+   *
+   * @param ready {@code true} once the index has been fully loaded.
+   */
+  public void setReady(final boolean ready) {
+    this.ready = ready;
+  }
+
+  /**
+   * Get the number of live documents in the index.
+   *
+   * @return the number of live documents in the index.
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return documents.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Remove all the documents from the index and mark it as not ready.
+   */
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      this.ready = false;
+      postings.clear();
+      documents.clear();
+      ids.clear();
+      values.clear();
+      deleted = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Add or replace a document in the index.
+   *
+   * @param id the document identifier.
+   * @param fieldValues the values of the document, one per field. {@code null} values are not
+   *        indexed.
+   *
+   * @throws IllegalArgumentException if {@code id} is {@code null} or if the number of values does
+   *         not match the {@link #getFieldCount()}.
+   */
+  public void put(final UUID id, final String... fieldValues) {
+    if (id == null) {
+      throw new IllegalArgumentException("Document identifier cannot be null.");
+    }
+    if (fieldValues == null || fieldValues.length != fieldCount) {
+      throw new IllegalArgumentException("Expected " + fieldCount + " field values.");
+    }
+
+    final String[] normalized = new String[fieldCount];
+    for (int field = 0; field < fieldCount; field++) {
+      normalized[field] = normalize(fieldValues[field]);
+    }
+
+    lock.writeLock().lock();
+    try {
+      this.delete(id);
+      this.insert(id, normalized);
+      this.compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove a document from the index.
+   *
+   * @param id the document identifier.
+   *
+   * @return {@code true} if the document was indexed, {@code false} otherwise.
+   */
+  public boolean remove(final UUID id) {
+    lock.writeLock().lock();
+    try {
+      final boolean removed = this.delete(id);
+      this.compactIfNeeded();
+      return removed;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Search the documents containing the queries while ignoring case.
+   *
+   * <p>
+   * A document matches if any of its fields contains the query given for that field. Fields with a
+   * {@code null} or empty query are ignored.
+   * </p>
+   *
+   * @param limit the maximum number of results.
+   * @param queries the queries, one per field.
+   *
+   * @return the identifiers of the matching documents, best match first.
+   *
+   * @throws IllegalArgumentException if the number of queries does not match the
+   *         {@link #getFieldCount()}.
+   */
+  public List<UUID> search(final int limit, final String... queries) {
+    if (queries == null || queries.length != fieldCount) {
+      throw new IllegalArgumentException("Expected " + fieldCount + " queries.");
+    }
+    if (limit <= 0) {
+      return Collections.emptyList();
+    }
+
+    lock.readLock().lock();
+    try {
+      final Map<Integer, Hit> hits = new HashMap<>();
+
+      for (int field = 0; field < fieldCount; field++) {
+        final String query = normalize(queries[field]);
+        if (query != null && !query.isEmpty()) {
+          this.searchField(field, query, hits);
+        }
+      }
+
+      final Hit[] ranked = hits.values().toArray(new Hit[hits.size()]);
+      Arrays.sort(ranked, HIT_ORDER);
+
+      final int size = Math.min(limit, ranked.length);
+      final List<UUID> results = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        results.add(ids.get(ranked[i].doc));
+      }
+      return results;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void searchField(final int field, final String query, final Map<Integer, Hit> hits) {
+    if (query.length() < GRAM_LENGTH) {
+      for (int doc = 0, n = ids.size(); doc < n; doc++) {
+        this.match(doc, field, query, hits);
+      }
+    } else {
+      final PostingList[] lists = new PostingList[query.length() - GRAM_LENGTH + 1];
+      for (int i = 0; i < lists.length; i++) {
+        lists[i] = postings.get(key(field, query, i));
+        if (lists[i] == null) {
+          // A trigram of the query is nowhere to be found
+          return;
+        }
+      }
+      Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+      final int[] candidates = intersect(lists);
+      for (final int doc : candidates) {
+        this.match(doc, field, query, hits);
+      }
+    }
+  }
+
+  private void match(final int doc, final int field, final String query,
+      final Map<Integer, Hit> hits) {
+    if (ids.get(doc) == null) {
+      return;
+    }
+    final String value = values.get(doc)[field];
+    if (value == null) {
+      return;
+    }
+
+    final int position = value.indexOf(query);
+    if (position >= 0) {
+      final int rank;
+      if (position > 0) {
+        rank = RANK_CONTAINS;
+      } else if (value.length() == query.length()) {
+        rank = RANK_EXACT;
+      } else {
+        rank = RANK_PREFIX;
+      }
+
+      final Hit hit = new Hit(doc, rank, position, value.length());
+      final Hit previous = hits.get(doc);
+      if (previous == null || HIT_ORDER.compare(hit, previous) < 0) {
+        hits.put(doc, hit);
+      }
+    }
+  }
+
+  private static int[] intersect(final PostingList[] lists) {
+    int[] result = Arrays.copyOf(lists[0].docs, lists[0].size);
+    int resultSize = result.length;
+
+    for (int l = 1; l < lists.length && resultSize > 0; l++) {
+      final PostingList list = lists[l];
+      int size = 0;
+      int i = 0;
+      int j = 0;
+      while (i < resultSize && j < list.size) {
+        final int left = result[i];
+        final int right = list.docs[j];
+        if (left < right) {
+          i++;
+        } else if (left > right) {
+          j++;
+        } else {
+          result[size++] = left;
+          i++;
+          j++;
+        }
+      }
+      resultSize = size;
+    }
+
+    if (resultSize < result.length) {
+      result = Arrays.copyOf(result, resultSize);
+    }
+    return result;
+  }
+
+  private void insert(final UUID id, final String[] normalized) {
+    final int doc = ids.size();
+    ids.add(id);
+    values.add(normalized);
+    documents.put(id, doc);
+
+    for (int field = 0; field < fieldCount; field++) {
+      final String value = normalized[field];
+      if (value == null) {
+        continue;
+      }
+      for (int i = 0, n = value.length() - GRAM_LENGTH; i <= n; i++) {
+        final PostingList list =
+            postings.computeIfAbsent(key(field, value, i), k -> new PostingList());
+        // Documents are appended in order, so a repeated trigram is always the last element
+        if (list.size == 0 || list.docs[list.size - 1] != doc) {
+          list.add(doc);
+        }
+      }
+    }
+  }
+
+  private boolean delete(final UUID id) {
+    final Integer doc = documents.remove(id);
+    if (doc == null) {
+      return false;
+    }
+    ids.set(doc, null);
+    values.set(doc, null);
+    deleted++;
+    return true;
+  }
+
+  private void compactIfNeeded() {
+    if (deleted < COMPACTION_THRESHOLD || deleted < documents.size()) {
+      return;
+    }
+
+    final List<UUID> liveIds = new ArrayList<>(documents.size());
+    final List<String[]> liveValues = new ArrayList<>(documents.size());
+    for (int doc = 0, n = ids.size(); doc < n; doc++) {
+      if (ids.get(doc) != null) {
+        liveIds.add(ids.get(doc));
+        liveValues.add(values.get(doc));
+      }
+    }
+
+    postings.clear();
+    documents.clear();
+    ids.clear();
+    values.clear();
+    deleted = 0;
+
+    for (int i = 0, n = liveIds.size(); i < n; i++) {
+      this.insert(liveIds.get(i), liveValues.get(i));
+    }
+  }
+
+  /**
+   * A growable sorted list of primitive document numbers.
+   */
+  private static final class PostingList {
+    private int[] docs = new int[INITIAL_POSTING_CAPACITY];
+    private int size = 0;
+
+    private void add(final int doc) {
+      if (size == docs.length) {
+        docs = Arrays.copyOf(docs, size << 1);
+      }
+      docs[size++] = doc;
+    }
+  }
+
+  /**
+   * A ranked search hit.
+   */
+  private static final class Hit {
+    private final int doc;
+    private final int rank;
+    private final int position;
+    private final int length;
+
+    private Hit(final int doc, final int rank, final int position, final int length) {
+      this.doc = doc;
+      this.rank = rank;
+      this.position = position;
+      this.length = length;
+    }
+  }
+
+}
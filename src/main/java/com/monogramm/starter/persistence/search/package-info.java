@@ -0,0 +1,10 @@
+/*
+ * Creation by madmath03 the 2018-02-03.
+ */
+
+/**
+ * The in-memory search indexes.
+ * 
+ * @author madmath03
+ */
+package com.monogramm.starter.persistence.search;
@@ -32,6 +32,18 @@ public interface ITypeRepository extends GenericRepository<Type> {
       + "WHERE LOWER(t.name) LIKE concat('%', LOWER(:name), '%')")
   List<Type> findAllContainingNameIgnoreCase(@Param("name") final String name);
 
+  /**
+   * Find the identifier and name of all types from the repository.
+   * 
+   * <p>
+   * This is used to load the type search index without loading the entities.
+   * </p>
+   * 
+   * @return the identifier and name of all types.
+   */
+  @Query("SELECT t.id, t.name FROM Type AS t")
+  List<Object[]> findAllSearchTerms();
+
   /**
    * Find an type through its name while ignoring case.
    * 
@@ -2,6 +2,7 @@ package com.monogramm.starter.persistence.type.service;
 
 import com.monogramm.starter.dto.type.TypeDto;
 import com.monogramm.starter.persistence.AbstractGenericService;
+import com.monogramm.starter.persistence.search.TrigramIndex;
 import com.monogramm.starter.persistence.type.dao.ITypeRepository;
 import com.monogramm.starter.persistence.type.entity.Type;
 import com.monogramm.starter.persistence.type.exception.TypeNotFoundException;
@@ -25,7 +26,7 @@ public class TypeService extends AbstractGenericService<Type, TypeDto> implement
    */
   @Autowired
   public TypeService(final ITypeRepository typeDao, final IUserRepository userDao) {
-    super(typeDao, userDao, new TypeBridge(userDao));
+    super(typeDao, userDao, new TypeBridge(userDao), new TrigramIndex(1));
   }
 
   @Override
@@ -43,6 +44,16 @@ public class TypeService extends AbstractGenericService<Type, TypeDto> implement
     return getRepository().exists(entity.getId(), entity.getName());
   }
 
+  @Override
+  protected String[] getSearchTerms(Type entity) {
+    return new String[] {entity.getName()};
+  }
+
+  @Override
+  protected List<Object[]> findAllSearchTerms() {
+    return getRepository().findAllSearchTerms();
+  }
+
   @Override
   protected TypeNotFoundException createEntityNotFoundException(Type entity) {
     return new TypeNotFoundException("Following type not found:" + entity);
@@ -62,6 +73,10 @@ public class TypeService extends AbstractGenericService<Type, TypeDto> implement
   @Transactional(readOnly = true)
   @Override
   public List<Type> findAllByName(final String name) {
-    return getRepository().findAllContainingNameIgnoreCase(name);
+    List<Type> types = this.search(name);
+    if (types == null) {
+      types = getRepository().findAllContainingNameIgnoreCase(name);
+    }
+    return types;
   }
 }
@@ -8,11 +8,17 @@ import com.monogramm.starter.persistence.GenericRepository;
 import com.monogramm.starter.persistence.user.entity.PasswordResetToken;
 import com.monogramm.starter.persistence.user.entity.User;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -63,10 +69,141 @@ public interface IPasswordResetTokenRepository extends GenericRepository<Passwor
    * @param tokenId the identifier of the token to check existence.
    * @param token the token code of the reset token to check existence.
    * 
+   * <p>
+   * The primary key and the token code are looked up separately, each through its own index.
+   * </p>
+   * 
+   * @return {@code true} if token exists, {@code false} otherwise.
+   */
+  @Transactional(readOnly = true)
+  default boolean exists(final UUID tokenId, final String token) {
+    return (tokenId != null && this.exists(tokenId)) || this.existsByCode(token);
+  }
+
+  /**
+   * Tests if an entity exists in the repository for the given token code.
+   * 
+   * @param token the token code of the reset token to check existence.
+   * 
    * @return {@code true} if token exists, {@code false} otherwise.
    */
   @Transactional(readOnly = true)
+  @Query("SELECT count(p) > 0 FROM PasswordResetToken AS p WHERE p.code = :code")
+  boolean existsByCode(@Param("code") final String token);
+
+  /**
+   * Tests if a token is still valid, without invalidating it.
+   * 
+   * @param email the email of the token user, ignoring case.
+   * @param code the token code.
+   * @param date the date at which the token must still be valid.
+   * 
+   * @return {@code true} if a valid token matches, {@code false} otherwise.
+   */
+  default boolean isValid(final String email, final String code, final Date date) {
+    return this.isValidNormalized(User.normalize(email), code, date);
+  }
+
+  /**
+   * Tests if a token is still valid, without invalidating it.
+   * 
+   * @param email the normalized email of the token user.
+   * @param code the token code.
+   * @param date the date at which the token must still be valid.
+   * 
+   * @return {@code true} if a valid token matches, {@code false} otherwise.
+   */
+  @Transactional(readOnly = true)
   @Query("SELECT count(p) > 0 FROM PasswordResetToken AS p "
-      + "WHERE p.id = :tokenId OR p.code = :code")
-  boolean exists(@Param("tokenId") final UUID tokenId, @Param("code") final String token);
+      + "WHERE p.code = :code AND p.expiryDate > :date "
+      + "AND p.user.id IN (SELECT u.id FROM User AS u WHERE u.emailNormalized = :email)")
+  boolean isValidNormalized(@Param("email") final String email, @Param("code") final String code,
+      @Param("date") final Date date);
+
+  /**
+   * Invalidate a token if it is still valid.
+   * 
+   * <p>
+   * The token is looked up, checked and invalidated in a single statement so that a token can only
+   * be consumed once, even by concurrent requests.
+   * </p>
+   * 
+   * @param email the email of the token user, ignoring case.
+   * @param code the token code.
+   * @param date the consumption date, set as the token expiry date.
+   * 
+   * @return the number of consumed tokens, {@code 0} if no valid token matches.
+   */
+  default int consume(final String email, final String code, final Date date) {
+    return this.consumeNormalized(User.normalize(email), code, date);
+  }
+
+  /**
+   * Invalidate a token if it is still valid.
+   * 
+   * @param email the normalized email of the token user.
+   * @param code the token code.
+   * @param date the consumption date, set as the token expiry date.
+   * 
+   * @return the number of consumed tokens, {@code 0} if no valid token matches.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE PasswordResetToken AS p "
+      + "SET p.expiryDate = :date, p.modifiedAt = CURRENT_TIMESTAMP "
+      + "WHERE p.code = :code AND p.expiryDate > :date "
+      + "AND p.user.id IN (SELECT u.id FROM User AS u WHERE u.emailNormalized = :email)")
+  int consumeNormalized(@Param("email") final String email, @Param("code") final String code,
+      @Param("date") final Date date);
+
+  /**
+   * Find the identifiers of the tokens expired before a date, oldest first.
+   * 
+   * @param date the date before which tokens are expired.
+   * @param pageable the page of identifiers to return.
+   * 
+   * @return the identifiers of the expired tokens.
+   */
+  @Transactional(readOnly = true)
+  @Query("SELECT p.id FROM PasswordResetToken AS p "
+      + "WHERE p.expiryDate < :date ORDER BY p.expiryDate")
+  List<UUID> findExpiredIds(@Param("date") final Date date, final Pageable pageable);
+
+  /**
+   * Delete tokens through their primary keys in a single statement.
+   * 
+   * @param tokenIds the identifiers of the tokens to delete.
+   * 
+   * @return the number of deleted tokens.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("DELETE FROM PasswordResetToken AS p WHERE p.id IN (:tokenIds)")
+  int deleteByIds(@Param("tokenIds") final Collection<UUID> tokenIds);
+
+  /**
+   * Delete a batch of tokens expired before a date.
+   * 
+   * <p>
+   * The expired tokens are looked up through the expiry date index and deleted by primary key, so
+   * that each batch only locks the rows it deletes.
+   * </p>
+   * 
+   * @param date the date before which tokens are expired.
+   * @param batchSize the maximum number of tokens to delete.
+   * 
+   * @return the number of deleted tokens.
+   */
+  default int deleteExpired(final Date date, final int batchSize) {
+    final List<UUID> expiredIds = findExpiredIds(date, new PageRequest(0, batchSize));
+
+    final int deleted;
+    if (expiredIds.isEmpty()) {
+      deleted = 0;
+    } else {
+      deleted = deleteByIds(expiredIds);
+    }
+
+    return deleted;
+  }
 }
@@ -1,14 +1,20 @@
 package com.monogramm.starter.persistence.user.dao;
 
+import com.github.madmath03.password.Passwords;
 import com.monogramm.starter.persistence.GenericRepository;
+import com.monogramm.starter.persistence.role.entity.Role;
 import com.monogramm.starter.persistence.user.entity.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -58,6 +64,19 @@ public interface IUserRepository extends GenericRepository<User> {
   List<User> findAllContainingUsernameOrEmailIgnoreCase(@Param("username") final String username,
       @Param("email") final String email);
 
+  /**
+   * Find the identifier, username and email of all users from the repository.
+   * 
+   * <p>
+   * This is used to load the users search index without loading the entities.
+   * </p>
+   * 
+   * @return the identifier, username and email of all users.
+   */
+  @Transactional(readOnly = true)
+  @Query("SELECT u.id, u.username, u.email FROM User AS u")
+  List<Object[]> findAllSearchTerms();
+
   /**
    * Find an user account through its username while ignoring case.
    * 
@@ -68,8 +87,24 @@ public interface IUserRepository extends GenericRepository<User> {
    * @throws NoResultException if no user matches the username in the repository.
    * @throws NonUniqueResultException if several users match the username in the repository.
    */
+  default User findByUsernameIgnoreCase(final String username) {
+    return this.findByUsernameNormalized(User.normalize(username));
+  }
+
+  /**
+   * Find an user account through its normalized username.
+   * 
+   * @see User#normalize(String)
+   * 
+   * @param usernameNormalized the normalized username to search.
+   * 
+   * @return the user account matching the normalized username.
+   * 
+   * @throws NoResultException if no user matches the username in the repository.
+   * @throws NonUniqueResultException if several users match the username in the repository.
+   */
   @Transactional(readOnly = true)
-  User findByUsernameIgnoreCase(final String username);
+  User findByUsernameNormalized(final String usernameNormalized);
 
   /**
    * Find an user account through its email while ignoring case.
@@ -81,8 +116,75 @@ public interface IUserRepository extends GenericRepository<User> {
    * @throws NoResultException if no user matches the email in the repository.
    * @throws NonUniqueResultException if several users match the email in the repository.
    */
+  default User findByEmailIgnoreCase(final String email) {
+    return this.findByEmailNormalized(User.normalize(email));
+  }
+
+  /**
+   * Find an user account through its normalized email.
+   * 
+   * @see User#normalize(String)
+   * 
+   * @param emailNormalized the normalized email to search.
+   * 
+   * @return the user account matching the normalized email.
+   * 
+   * @throws NoResultException if no user matches the email in the repository.
+   * @throws NonUniqueResultException if several users match the email in the repository.
+   */
   @Transactional(readOnly = true)
-  User findByEmailIgnoreCase(final String email);
+  User findByEmailNormalized(final String emailNormalized);
+
+  /**
+   * Find the identifier of an user account through its email while ignoring case.
+   * 
+   * @param email the email to search.
+   * 
+   * @return the identifier of the user account matching the email, {@code null} if none matches.
+   */
+  default UUID findIdByEmailIgnoreCase(final String email) {
+    return this.findIdByEmailNormalized(User.normalize(email));
+  }
+
+  /**
+   * Find the identifier of an user account through its normalized email.
+   * 
+   * @see User#normalize(String)
+   * 
+   * @param email the normalized email to search.
+   * 
+   * @return the identifier of the user account matching the email, {@code null} if none matches.
+   */
+  @Transactional(readOnly = true)
+  @Query("SELECT u.id FROM User AS u WHERE u.emailNormalized = :email")
+  UUID findIdByEmailNormalized(@Param("email") final String email);
+
+  /**
+   * Find an user account through its email while ignoring case, along with its role and the role
+   * permissions.
+   * 
+   * @param email the email to search.
+   * 
+   * @return the user account matching the email, {@code null} if none matches.
+   */
+  default User findWithAuthoritiesByEmailIgnoreCase(final String email) {
+    return this.findWithAuthoritiesByEmailNormalized(User.normalize(email));
+  }
+
+  /**
+   * Find an user account through its normalized email, along with its role and the role
+   * permissions, in a single query.
+   * 
+   * @see User#normalize(String)
+   * 
+   * @param emailNormalized the normalized email to search.
+   * 
+   * @return the user account matching the normalized email, {@code null} if none matches.
+   */
+  @Transactional(readOnly = true)
+  @Query("SELECT DISTINCT u FROM User AS u LEFT JOIN FETCH u.role AS r "
+      + "LEFT JOIN FETCH r.permissions WHERE u.emailNormalized = :email")
+  User findWithAuthoritiesByEmailNormalized(@Param("email") final String emailNormalized);
 
   /**
    * Find an user account through its username or email while ignoring case.
@@ -96,71 +198,166 @@ public interface IUserRepository extends GenericRepository<User> {
    * @throws NonUniqueResultException if several users match the username or email in the
    *         repository.
    */
+  default User findByUsernameOrEmailIgnoreCase(final String username, final String email) {
+    return this.findByUsernameNormalizedOrEmailNormalized(User.normalize(username),
+        User.normalize(email));
+  }
+
+  /**
+   * Find an user account through its normalized username or email.
+   * 
+   * @see User#normalize(String)
+   * 
+   * @param usernameNormalized the normalized username to search.
+   * @param emailNormalized the normalized email to search.
+   * 
+   * @return the user account matching the normalized username or email.
+   * 
+   * @throws NoResultException if no user matches the username or email in the repository.
+   * @throws NonUniqueResultException if several users match the username or email in the
+   *         repository.
+   */
   @Transactional(readOnly = true)
-  User findByUsernameOrEmailIgnoreCase(final String username, final String email);
+  User findByUsernameNormalizedOrEmailNormalized(final String usernameNormalized,
+      final String emailNormalized);
 
   /**
    * Set the password of a user account.
    * 
    * @param userId the user account identifier.
    * @param password the clear password to hash and set.
+   * @param modifiedBy the user account making the change. May be {@code null}.
    * 
-   * @return the updated user account, {@code null} if user account was not found in persistence
-   *         layer.
+   * @return the number of user accounts updated, {@code 0} if user account was not found in
+   *         persistence layer.
    */
-  default User setPassword(final UUID userId, final char[] password) {
-    User updateEntity = this.findById(userId);
+  default int setPassword(final UUID userId, final char[] password, final User modifiedBy) {
+    final String hash;
+    if (password == null) {
+      hash = null;
+    } else {
+      hash = Passwords.getHash(password);
+    }
 
-    if (updateEntity != null) {
-      updateEntity.setPassword(password);
+    return this.setPasswordHash(userId, hash, modifiedBy);
+  }
 
-      updateEntity = this.save(updateEntity);
-    }
+  /**
+   * Set the hashed password of a user account.
+   * 
+   * @param userId the user account identifier.
+   * @param password the hashed password to set.
+   * @param modifiedBy the user account making the change. May be {@code null}.
+   * 
+   * @return the number of user accounts updated, {@code 0} if user account was not found in
+   *         persistence layer.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE User AS u SET u.password = :password, u.modifiedAt = CURRENT_TIMESTAMP, "
+      + "u.modifiedBy = :modifiedBy WHERE u.id = :userId")
+  int setPasswordHash(@Param("userId") final UUID userId,
+      @Param("password") final String password, @Param("modifiedBy") final User modifiedBy);
 
-    return updateEntity;
+  /**
+   * Set the hashed password of a user account through its email.
+   * 
+   * @param email the user account email, ignoring case.
+   * @param password the hashed password to set.
+   * 
+   * @return the number of user accounts updated, {@code 0} if user account was not found in
+   *         persistence layer.
+   */
+  default int setPasswordHashByEmail(final String email, final String password) {
+    return this.setPasswordHashByEmailNormalized(User.normalize(email), password);
   }
 
+  /**
+   * Set the hashed password of a user account through its normalized email.
+   * 
+   * <p>
+   * The user account is recorded as the author of the change, the password being reset by its
+   * owner.
+   * </p>
+   * 
+   * @param email the user account normalized email.
+   * @param password the hashed password to set.
+   * 
+   * @return the number of user accounts updated, {@code 0} if user account was not found in
+   *         persistence layer.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE User AS u SET u.password = :password, u.modifiedAt = CURRENT_TIMESTAMP, "
+      + "u.modifiedBy = u WHERE u.emailNormalized = :email")
+  int setPasswordHashByEmailNormalized(@Param("email") final String email,
+      @Param("password") final String password);
+
   /**
    * Set the active status of a user account.
    * 
    * @param userId the user account identifier.
    * @param enabled the enabled status to set.
+   * @param modifiedBy the user account making the change. May be {@code null}.
    * 
-   * @return the updated user account, {@code null} if user account was not found in persistence
-   *         layer.
+   * @return the number of user accounts updated, {@code 0} if user account was not found in
+   *         persistence layer.
    */
-  default User setEnabled(final UUID userId, final boolean enabled) {
-    User updateEntity = this.findById(userId);
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE User AS u SET u.enabled = :enabled, u.modifiedAt = CURRENT_TIMESTAMP, "
+      + "u.modifiedBy = :modifiedBy WHERE u.id = :userId")
+  int setEnabled(@Param("userId") final UUID userId, @Param("enabled") final boolean enabled,
+      @Param("modifiedBy") final User modifiedBy);
 
-    if (updateEntity != null) {
-      updateEntity.setEnabled(enabled);
-
-      updateEntity = this.save(updateEntity);
-    }
-
-    return updateEntity;
-  }
+  /**
+   * Set the active status of several user accounts.
+   * 
+   * @param userIds the user accounts identifiers. Must not be empty.
+   * @param enabled the enabled status to set.
+   * @param modifiedBy the user account making the change. May be {@code null}.
+   * 
+   * @return the number of user accounts updated.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE User AS u SET u.enabled = :enabled, u.modifiedAt = CURRENT_TIMESTAMP, "
+      + "u.modifiedBy = :modifiedBy WHERE u.id IN (:userIds)")
+  int setEnabled(@Param("userIds") final Collection<UUID> userIds,
+      @Param("enabled") final boolean enabled, @Param("modifiedBy") final User modifiedBy);
 
   /**
    * Set the verified status of a user account.
    * 
    * @param userId the user account identifier.
    * @param verified the verified status to set.
+   * @param modifiedBy the user account making the change. May be {@code null}.
    * 
-   * @return the updated user account, {@code null} if user account was not found in persistence
-   *         layer.
+   * @return the number of user accounts updated, {@code 0} if user account was not found in
+   *         persistence layer.
    */
-  default User setVerified(final UUID userId, final boolean verified) {
-    User updateEntity = this.findById(userId);
-
-    if (updateEntity != null) {
-      updateEntity.setVerified(verified);
-
-      updateEntity = this.save(updateEntity);
-    }
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE User AS u SET u.verified = :verified, u.modifiedAt = CURRENT_TIMESTAMP, "
+      + "u.modifiedBy = :modifiedBy WHERE u.id = :userId")
+  int setVerified(@Param("userId") final UUID userId, @Param("verified") final boolean verified,
+      @Param("modifiedBy") final User modifiedBy);
 
-    return updateEntity;
-  }
+  /**
+   * Set the verified status of several user accounts.
+   * 
+   * @param userIds the user accounts identifiers. Must not be empty.
+   * @param verified the verified status to set.
+   * @param modifiedBy the user account making the change. May be {@code null}.
+   * 
+   * @return the number of user accounts updated.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE User AS u SET u.verified = :verified, u.modifiedAt = CURRENT_TIMESTAMP, "
+      + "u.modifiedBy = :modifiedBy WHERE u.id IN (:userIds)")
+  int setVerified(@Param("userIds") final Collection<UUID> userIds,
+      @Param("verified") final boolean verified, @Param("modifiedBy") final User modifiedBy);
 
   /**
    * Tests if an entity exists in the repository for the given primary key or the username or the
@@ -172,9 +369,127 @@ public interface IUserRepository extends GenericRepository<User> {
    * 
    * @return {@code true} if user account exists, {@code false} otherwise.
    */
+  default boolean exists(final UUID userId, final String username, final String email) {
+    return this.existsNormalized(userId, User.normalize(username), User.normalize(email));
+  }
+
+  /**
+   * Tests if an entity exists in the repository for the given primary key or the normalized
+   * username or the normalized email.
+   * 
+   * @see User#normalize(String)
+   * 
+   * @param userId the identifier of the user account to check existence.
+   * @param usernameNormalized the normalized username of the user account to check existence.
+   * @param emailNormalized the normalized email of the user account to check existence.
+   * 
+   * @return {@code true} if user account exists, {@code false} otherwise.
+   */
   @Transactional(readOnly = true)
   @Query("SELECT count(u) > 0 FROM User AS u WHERE u.id = :userId "
-      + "OR LOWER(u.username) = LOWER(:username) OR LOWER(u.email) = LOWER(:email)")
-  boolean exists(@Param("userId") final UUID userId, @Param("username") final String username,
-      @Param("email") final String email);
+      + "OR u.usernameNormalized = :username OR u.emailNormalized = :email")
+  boolean existsNormalized(@Param("userId") final UUID userId,
+      @Param("username") final String usernameNormalized,
+      @Param("email") final String emailNormalized);
+
+  /**
+   * Find a page of the users having a role, ordered by identifier.
+   * 
+   * <p>
+   * Keyset pagination: the next page starts after the last user of the previous page, so that
+   * deep pages cost as much as the first one.
+   * </p>
+   * 
+   * @param roleId the role identifier.
+   * @param after the identifier of the last user of the previous page, {@code null} for the first
+   *        page.
+   * @param size the maximum number of users to return.
+   * 
+   * @return the users having the role, following {@code after}.
+   */
+  default List<User> findAllByRole(final UUID roleId, final UUID after, final int size) {
+    final Pageable page = new PageRequest(0, size);
+    final List<User> users;
+
+    if (after == null) {
+      users = this.findAllByRole(roleId, page);
+    } else {
+      users = this.findAllByRoleAfter(roleId, after, page);
+    }
+
+    return users;
+  }
+
+  /**
+   * Find the first users having a role, ordered by identifier.
+   * 
+   * @param roleId the role identifier.
+   * @param page the page request limiting the number of users.
+   * 
+   * @return the first users having the role.
+   */
+  @Transactional(readOnly = true)
+  @Query("FROM User AS u WHERE u.role.id = :roleId ORDER BY u.id")
+  List<User> findAllByRole(@Param("roleId") final UUID roleId, final Pageable page);
+
+  /**
+   * Find the users having a role following a given user, ordered by identifier.
+   * 
+   * @param roleId the role identifier.
+   * @param after the identifier of the last user of the previous page.
+   * @param page the page request limiting the number of users.
+   * 
+   * @return the users having the role, following {@code after}.
+   */
+  @Transactional(readOnly = true)
+  @Query("FROM User AS u WHERE u.role.id = :roleId AND u.id > :after ORDER BY u.id")
+  List<User> findAllByRoleAfter(@Param("roleId") final UUID roleId,
+      @Param("after") final UUID after, final Pageable page);
+
+  /**
+   * Count the users having a role.
+   * 
+   * @param roleId the role identifier.
+   * 
+   * @return the number of users having the role.
+   */
+  @Transactional(readOnly = true)
+  @Query("SELECT COUNT(u) FROM User AS u WHERE u.role.id = :roleId")
+  long countByRole(@Param("roleId") final UUID roleId);
+
+  /**
+   * Set the role of several user accounts.
+   * 
+   * @param userIds the user accounts identifiers. Must not be empty.
+   * @param role the role to set.
+   * @param modifiedBy the user account making the change. May be {@code null}.
+   * 
+   * @return the number of user accounts updated.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE User AS u SET u.role = :role, u.modifiedAt = CURRENT_TIMESTAMP, "
+      + "u.modifiedBy = :modifiedBy WHERE u.id IN (:userIds)")
+  int setRole(@Param("userIds") final Collection<UUID> userIds, @Param("role") final Role role,
+      @Param("modifiedBy") final User modifiedBy);
+
+  /**
+   * Remove a role from several user accounts.
+   * 
+   * <p>
+   * User accounts not having the role are left untouched.
+   * </p>
+   * 
+   * @param userIds the user accounts identifiers. Must not be empty.
+   * @param role the role to remove.
+   * @param modifiedBy the user account making the change. May be {@code null}.
+   * 
+   * @return the number of user accounts updated.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE User AS u SET u.role = NULL, u.modifiedAt = CURRENT_TIMESTAMP, "
+      + "u.modifiedBy = :modifiedBy WHERE u.id IN (:userIds) AND u.role = :role")
+  int unsetRole(@Param("userIds") final Collection<UUID> userIds,
+      @Param("role") final Role role, @Param("modifiedBy") final User modifiedBy);
 }
@@ -8,11 +8,17 @@ import com.monogramm.starter.persistence.GenericRepository;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.entity.VerificationToken;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -63,10 +69,98 @@ public interface IVerificationTokenRepository extends GenericRepository<Verifica
    * @param tokenId the identifier of the token to check existence.
    * @param token the token code of the verification token to check existence.
    * 
+   * <p>
+   * The primary key and the token code are looked up separately, each through its own index.
+   * </p>
+   * 
+   * @return {@code true} if token exists, {@code false} otherwise.
+   */
+  @Transactional(readOnly = true)
+  default boolean exists(final UUID tokenId, final String token) {
+    return (tokenId != null && this.exists(tokenId)) || this.existsByCode(token);
+  }
+
+  /**
+   * Tests if an entity exists in the repository for the given token code.
+   * 
+   * @param token the token code of the verification token to check existence.
+   * 
    * @return {@code true} if token exists, {@code false} otherwise.
    */
   @Transactional(readOnly = true)
-  @Query("SELECT count(v) > 0 FROM VerificationToken AS v "
-      + "WHERE v.id = :tokenId OR v.code = :code")
-  boolean exists(@Param("tokenId") final UUID tokenId, @Param("code") final String token);
+  @Query("SELECT count(v) > 0 FROM VerificationToken AS v WHERE v.code = :code")
+  boolean existsByCode(@Param("code") final String token);
+
+  /**
+   * Invalidate a token if it is still valid.
+   * 
+   * <p>
+   * The token is looked up, checked and invalidated in a single statement so that a token can only
+   * be consumed once, even by concurrent requests.
+   * </p>
+   * 
+   * @param userId the user id of the token.
+   * @param code the token code.
+   * @param date the consumption date, set as the token expiry date.
+   * 
+   * @return the number of consumed tokens, {@code 0} if no valid token matches.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE VerificationToken AS v "
+      + "SET v.expiryDate = :date, v.modifiedAt = CURRENT_TIMESTAMP "
+      + "WHERE v.user.id = :userId AND v.code = :code AND v.expiryDate > :date")
+  int consume(@Param("userId") final UUID userId, @Param("code") final String code,
+      @Param("date") final Date date);
+
+  /**
+   * Find the identifiers of the tokens expired before a date, oldest first.
+   * 
+   * @param date the date before which tokens are expired.
+   * @param pageable the page of identifiers to return.
+   * 
+   * @return the identifiers of the expired tokens.
+   */
+  @Transactional(readOnly = true)
+  @Query("SELECT v.id FROM VerificationToken AS v "
+      + "WHERE v.expiryDate < :date ORDER BY v.expiryDate")
+  List<UUID> findExpiredIds(@Param("date") final Date date, final Pageable pageable);
+
+  /**
+   * Delete tokens through their primary keys in a single statement.
+   * 
+   * @param tokenIds the identifiers of the tokens to delete.
+   * 
+   * @return the number of deleted tokens.
+   */
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("DELETE FROM VerificationToken AS v WHERE v.id IN (:tokenIds)")
+  int deleteByIds(@Param("tokenIds") final Collection<UUID> tokenIds);
+
+  /**
+   * Delete a batch of tokens expired before a date.
+   * 
+   * <p>
+   * The expired tokens are looked up through the expiry date index and deleted by primary key, so
+   * that each batch only locks the rows it deletes.
+   * </p>
+   * 
+   * @param date the date before which tokens are expired.
+   * @param batchSize the maximum number of tokens to delete.
+   * 
+   * @return the number of deleted tokens.
+   */
+  default int deleteExpired(final Date date, final int batchSize) {
+    final List<UUID> expiredIds = findExpiredIds(date, new PageRequest(0, batchSize));
+
+    final int deleted;
+    if (expiredIds.isEmpty()) {
+      deleted = 0;
+    } else {
+      deleted = deleteByIds(expiredIds);
+    }
+
+    return deleted;
+  }
 }
@@ -9,6 +9,7 @@ import com.monogramm.starter.persistence.AbstractToken;
 import java.util.Date;
 
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.Table;
 
 /**
@@ -20,7 +21,10 @@ import javax.persistence.Table;
  * @author madmath03
  */
 @Entity
-@Table(name = "password_reset")
+@Table(name = "password_reset", indexes = {
+    @Index(name = "idx_password_reset_user_code", columnList = "user_id, code"),
+    @Index(name = "idx_password_reset_code", columnList = "code"),
+    @Index(name = "idx_password_reset_expiry_date", columnList = "expiry_date")})
 public class PasswordResetToken extends AbstractToken {
   /**
    * The {@code serialVersionUID}.
@@ -5,17 +5,24 @@ import com.github.madmath03.password.Passwords;
 import com.monogramm.starter.persistence.AbstractGenericEntity;
 import com.monogramm.starter.persistence.role.entity.Role;
 
+import java.util.Locale;
 import java.util.Objects;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
 
+import org.hibernate.Hibernate;
+
 @Entity
-@Table(name = "user")
+@Table(name = "user",
+    indexes = {@Index(name = "idx_user_role_id", columnList = "role, id")})
 public class User extends AbstractGenericEntity {
   /**
    * The {@code serialVersionUID}.
@@ -35,6 +42,23 @@ public class User extends AbstractGenericEntity {
    */
   public static final int MAX_LENGTH_PASSWORD = 512;
 
+  /**
+   * Normalize a username or an email for case insensitive lookups.
+   * 
+   * @param value the username or email to normalize.
+   * 
+   * @return the normalized value, {@code null} if {@code value} is {@code null}.
+   */
+  public static String normalize(final String value) {
+    final String normalized;
+    if (value == null) {
+      normalized = null;
+    } else {
+      normalized = value.toLowerCase(Locale.ROOT);
+    }
+    return normalized;
+  }
+
   /**
    * Get a new {@link UserBuilder}.
    *
@@ -73,12 +97,32 @@ public class User extends AbstractGenericEntity {
   @Column(name = "username", unique = true, nullable = false, length = MAX_LENGTH_USERNAME)
   private String username = null;
 
+  /**
+   * The user's account name in lower case, used for case insensitive lookups.
+   * 
+   * <p>
+   * Nullable only to allow rows created before this column existed to be backfilled.
+   * </p>
+   */
+  @Column(name = "username_normalized", unique = true, length = MAX_LENGTH_USERNAME)
+  private String usernameNormalized = null;
+
   /**
    * The user's account email.
    */
   @Column(name = "email", unique = true, nullable = false, length = MAX_LENGTH_EMAIL)
   private String email = null;
 
+  /**
+   * The user's account email in lower case, used for case insensitive lookups.
+   * 
+   * <p>
+   * Nullable only to allow rows created before this column existed to be backfilled.
+   * </p>
+   */
+  @Column(name = "email_normalized", unique = true, length = MAX_LENGTH_EMAIL)
+  private String emailNormalized = null;
+
   /**
    * The user's account hashed password.
    */
@@ -121,6 +165,7 @@ public class User extends AbstractGenericEntity {
   public User(final String username) {
     super();
     this.username = username;
+    this.usernameNormalized = normalize(username);
   }
 
   /**
@@ -132,7 +177,9 @@ public class User extends AbstractGenericEntity {
   public User(final String username, final String email) {
     super();
     this.username = username;
+    this.usernameNormalized = normalize(username);
     this.email = email;
+    this.emailNormalized = normalize(email);
   }
 
   /**
@@ -146,7 +193,9 @@ public class User extends AbstractGenericEntity {
     super(other);
 
     this.username = other.getUsername();
+    this.usernameNormalized = normalize(this.username);
     this.email = other.getEmail();
+    this.emailNormalized = normalize(this.email);
     this.password = other.getPassword();
     this.enabled = other.isEnabled();
     this.verified = other.isVerified();
@@ -169,6 +218,16 @@ public class User extends AbstractGenericEntity {
    */
   public void setUsername(final String username) {
     this.username = username;
+    this.usernameNormalized = normalize(username);
+  }
+
+  /**
+   * Get the {@link #usernameNormalized}.
+   * 
+   * @return the {@link #usernameNormalized}.
+   */
+  public String getUsernameNormalized() {
+    return usernameNormalized;
   }
 
   /**
@@ -192,10 +251,20 @@ public class User extends AbstractGenericEntity {
   public void setEmail(final String email) {
     if (!Objects.equals(this.email, email)) {
       this.email = email;
+      this.emailNormalized = normalize(email);
       this.setVerified(false);
     }
   }
 
+  /**
+   * Get the {@link #emailNormalized}.
+   * 
+   * @return the {@link #emailNormalized}.
+   */
+  public String getEmailNormalized() {
+    return emailNormalized;
+  }
+
   /**
    * Get the {@link #password}.
    * 
@@ -275,6 +344,10 @@ public class User extends AbstractGenericEntity {
   /**
    * Set the {@link role}.
    * 
+   * <p>
+   * The users of the roles are only kept in sync when they are already loaded.
+   * </p>
+   * 
    * @param role the {@link #role} to set.
    */
   public void setRole(final Role role) {
@@ -282,17 +355,27 @@ public class User extends AbstractGenericEntity {
       return;
     }
 
-    if (this.role != null) {
+    if (this.role != null && Hibernate.isInitialized(this.role.getUsers())) {
       this.role.removeUser(this);
     }
 
     this.role = role;
 
-    if (role != null) {
+    if (role != null && Hibernate.isInitialized(role.getUsers())) {
       role.addUser(this);
     }
   }
 
+  /**
+   * Make sure the normalized columns match the username and email before persisting.
+   */
+  @PrePersist
+  @PreUpdate
+  protected void preNormalize() {
+    this.usernameNormalized = normalize(this.username);
+    this.emailNormalized = normalize(this.email);
+  }
+
   @Override
   public <T extends AbstractGenericEntity> void update(T entity) {
     super.update(entity);
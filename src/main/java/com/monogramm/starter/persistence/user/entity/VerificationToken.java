@@ -12,6 +12,7 @@ import java.util.Objects;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.Table;
 
 /**
@@ -23,7 +24,10 @@ import javax.persistence.Table;
  * @author madmath03
  */
 @Entity
-@Table(name = "user_verification")
+@Table(name = "user_verification", indexes = {
+    @Index(name = "idx_user_verification_user_code", columnList = "user_id, code"),
+    @Index(name = "idx_user_verification_code", columnList = "code"),
+    @Index(name = "idx_user_verification_expiry_date", columnList = "expiry_date")})
 public class VerificationToken extends AbstractToken {
   /**
    * The {@code serialVersionUID}.
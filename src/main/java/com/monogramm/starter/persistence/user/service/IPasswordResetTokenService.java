@@ -9,7 +9,9 @@ import com.monogramm.starter.persistence.GenericService;
 import com.monogramm.starter.persistence.user.entity.PasswordResetToken;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.exception.PasswordResetTokenNotFoundException;
+import com.monogramm.starter.persistence.user.exception.UserNotFoundException;
 
+import java.util.Date;
 import java.util.UUID;
 
 public interface IPasswordResetTokenService
@@ -42,4 +44,47 @@ public interface IPasswordResetTokenService
    */
   PasswordResetToken findByUserAndCode(final UUID userId, final String code);
 
+  /**
+   * Tests if a token is still valid, without consuming it.
+   * 
+   * <p>
+   * This is only a cheap check to run before hashing a new password: the token must still be
+   * consumed through {@link #consume(String, String, String)}, which checks it again.
+   * </p>
+   * 
+   * @param email the email of the token user.
+   * @param code the token code.
+   * 
+   * @return {@code true} if a valid token matches, {@code false} otherwise.
+   */
+  boolean isValid(final String email, final String code);
+
+  /**
+   * Consume a valid token and reset the user account password.
+   * 
+   * <p>
+   * The token is invalidated and the user account updated in the same transaction, with one
+   * statement each.
+   * </p>
+   * 
+   * @param email the email of the token user.
+   * @param code the token code.
+   * @param passwordHash the hashed password to set.
+   * 
+   * @return {@code true} if a valid token was consumed, {@code false} otherwise.
+   * 
+   * @throws UserNotFoundException if the user account of the token is not found.
+   */
+  boolean consume(final String email, final String code, final String passwordHash);
+
+  /**
+   * Delete a batch of tokens expired before a date.
+   * 
+   * @param date the date before which tokens are expired.
+   * @param batchSize the maximum number of tokens to delete.
+   * 
+   * @return the number of deleted tokens.
+   */
+  int deleteExpired(final Date date, final int batchSize);
+
 }
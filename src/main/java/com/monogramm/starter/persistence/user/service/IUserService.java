@@ -4,9 +4,11 @@ import com.monogramm.starter.dto.user.RegistrationDto;
 import com.monogramm.starter.dto.user.UserDto;
 import com.monogramm.starter.persistence.EntityNotFoundException;
 import com.monogramm.starter.persistence.GenericService;
+import com.monogramm.starter.persistence.role.exception.RoleNotFoundException;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.exception.UserNotFoundException;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -65,6 +67,19 @@ public interface IUserService extends GenericService<User, UserDto> {
    */
   User findByEmail(final String email);
 
+  /**
+   * Find an user account through its email, along with its role and the role permissions.
+   * 
+   * <p>
+   * Used on authentication to load everything needed in a single query.
+   * </p>
+   * 
+   * @param email the email to search.
+   * 
+   * @return the user account matching the email, or {@code null} if none matches.
+   */
+  User findWithAuthoritiesByEmail(final String email);
+
   /**
    * Find an user account through its username or email.
    * 
@@ -77,17 +92,38 @@ public interface IUserService extends GenericService<User, UserDto> {
    */
   User findByUsernameOrEmail(final String username, final String email);
 
+  /**
+   * Find an user account through its username or email and convert it to a DTO within a single
+   * read-only transaction.
+   * 
+   * @param username the username to search.
+   * @param email the email to search.
+   * 
+   * @return the DTO of the user account matching the username or email, or {@code null} if none
+   *         matches.
+   */
+  UserDto findDtoByUsernameOrEmail(final String username, final String email);
+
   /**
    * Set the password of a user account.
    * 
    * @param userId the user account identifier.
    * @param password the clear password to hash and set.
    * 
-   * @return the updated user account.
+   * @return the number of user accounts updated.
    * 
    * @throws UserNotFoundException if no user account is found.
    */
-  User setPassword(final UUID userId, final char[] password);
+  int setPassword(final UUID userId, final char[] password);
+
+  /**
+   * Hash a password the way user account passwords are stored.
+   * 
+   * @param password the clear password to hash.
+   * 
+   * @return the hashed password, {@code null} if {@code password} is {@code null}.
+   */
+  String hashPassword(final char[] password);
 
   /**
    * Set the active status of a user account.
@@ -95,22 +131,32 @@ public interface IUserService extends GenericService<User, UserDto> {
    * @param userId the user account identifier.
    * @param enabled the enabled status to set.
    * 
-   * @return the updated user account.
+   * @return the number of user accounts updated.
    * 
    * @throws UserNotFoundException if no user account is found.
    */
-  User setEnabled(final UUID userId, final boolean enabled);
+  int setEnabled(final UUID userId, final boolean enabled);
+
+  /**
+   * Set the active status of several user accounts.
+   * 
+   * @param userIds the user accounts identifiers.
+   * @param enabled the enabled status to set.
+   * 
+   * @return the number of user accounts updated. User accounts not found are ignored.
+   */
+  int setEnabled(final Collection<UUID> userIds, final boolean enabled);
 
   /**
    * Activate a user account.
    * 
    * @param userId the user account identifier.
    * 
-   * @return the active user account.
+   * @return the number of user accounts activated.
    * 
    * @throws UserNotFoundException if no user account is found.
    */
-  default User enable(final UUID userId) {
+  default int enable(final UUID userId) {
     return this.setEnabled(userId, true);
   }
 
@@ -120,25 +166,100 @@ public interface IUserService extends GenericService<User, UserDto> {
    * @param userId the user account identifier.
    * @param verified the verified status to set.
    * 
-   * @return the updated user account.
+   * @return the number of user accounts updated.
    * 
    * @throws UserNotFoundException if no user account is found.
    */
-  User setVerified(final UUID userId, final boolean verified);
+  int setVerified(final UUID userId, final boolean verified);
+
+  /**
+   * Set the verified status of several user accounts.
+   * 
+   * @param userIds the user accounts identifiers.
+   * @param verified the verified status to set.
+   * 
+   * @return the number of user accounts updated. User accounts not found are ignored.
+   */
+  int setVerified(final Collection<UUID> userIds, final boolean verified);
 
   /**
    * Verify a user account.
    * 
    * @param userId the user account identifier.
    * 
-   * @return the verified user account.
+   * @return the number of user accounts verified.
    * 
    * @throws UserNotFoundException if no user account is found.
    */
-  default User verify(final UUID userId) {
+  default int verify(final UUID userId) {
     return this.setVerified(userId, true);
   }
 
+  /**
+   * Find a page of the users having a role, ordered by identifier.
+   * 
+   * @param roleId the role identifier.
+   * @param after the identifier of the last user of the previous page, {@code null} for the first
+   *        page.
+   * @param size the maximum number of users to return.
+   * 
+   * @return the users having the role, following {@code after}.
+   * 
+   * @throws RoleNotFoundException if no role is found.
+   */
+  List<User> findAllByRole(final UUID roleId, final UUID after, final int size);
+
+  /**
+   * Find a page of the users having a role, ordered by identifier, and convert them to DTOs within
+   * a single read-only transaction.
+   * 
+   * @param roleId the role identifier.
+   * @param after the identifier of the last user of the previous page, {@code null} for the first
+   *        page.
+   * @param size the maximum number of users to return.
+   * 
+   * @return the DTOs of the users having the role, following {@code after}.
+   * 
+   * @throws RoleNotFoundException if no role is found.
+   */
+  List<UserDto> findAllDtosByRole(final UUID roleId, final UUID after, final int size);
+
+  /**
+   * Count the users having a role.
+   * 
+   * @param roleId the role identifier.
+   * 
+   * @return the number of users having the role.
+   * 
+   * @throws RoleNotFoundException if no role is found.
+   */
+  long countByRole(final UUID roleId);
+
+  /**
+   * Give a role to several user accounts, replacing their current role.
+   * 
+   * @param roleId the role identifier.
+   * @param userIds the user accounts identifiers.
+   * 
+   * @return the number of user accounts updated. User accounts not found are ignored.
+   * 
+   * @throws RoleNotFoundException if no role is found.
+   */
+  int addToRole(final UUID roleId, final Collection<UUID> userIds);
+
+  /**
+   * Remove a role from several user accounts.
+   * 
+   * @param roleId the role identifier.
+   * @param userIds the user accounts identifiers.
+   * 
+   * @return the number of user accounts updated. User accounts not found or not having the role
+   *         are ignored.
+   * 
+   * @throws RoleNotFoundException if no role is found.
+   */
+  int removeFromRole(final UUID roleId, final Collection<UUID> userIds);
+
   /**
    * Register a new user.
    * 
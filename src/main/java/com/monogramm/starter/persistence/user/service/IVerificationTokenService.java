@@ -8,8 +8,10 @@ import com.monogramm.starter.dto.user.VerificationTokenDto;
 import com.monogramm.starter.persistence.GenericService;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.entity.VerificationToken;
+import com.monogramm.starter.persistence.user.exception.UserNotFoundException;
 import com.monogramm.starter.persistence.user.exception.VerificationTokenNotFoundException;
 
+import java.util.Date;
 import java.util.UUID;
 
 public interface IVerificationTokenService
@@ -42,4 +44,31 @@ public interface IVerificationTokenService
    */
   VerificationToken findByUserAndCode(final UUID userId, final String code);
 
+  /**
+   * Consume a valid token and mark the user account as verified.
+   * 
+   * <p>
+   * The token is invalidated and the user account updated in the same transaction, with one
+   * statement each.
+   * </p>
+   * 
+   * @param userId the user id of the token.
+   * @param code the token code.
+   * 
+   * @return {@code true} if a valid token was consumed, {@code false} otherwise.
+   * 
+   * @throws UserNotFoundException if the user account of the token is not found.
+   */
+  boolean consume(final UUID userId, final String code);
+
+  /**
+   * Delete a batch of tokens expired before a date.
+   * 
+   * @param date the date before which tokens are expired.
+   * @param batchSize the maximum number of tokens to delete.
+   * 
+   * @return the number of deleted tokens.
+   */
+  int deleteExpired(final Date date, final int batchSize);
+
 }
@@ -7,7 +7,9 @@ import com.monogramm.starter.persistence.user.dao.IUserRepository;
 import com.monogramm.starter.persistence.user.entity.PasswordResetToken;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.exception.PasswordResetTokenNotFoundException;
+import com.monogramm.starter.persistence.user.exception.UserNotFoundException;
 
+import java.util.Date;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -69,4 +71,36 @@ public class PasswordResetTokenService
   public PasswordResetToken findByUserAndCode(final UUID userId, final String token) {
     return getRepository().findByUserAndCode(userId, token);
   }
+
+  /*
+   * Read from the primary database: a token just consumed must not be found valid on a lagging
+   * replica.
+   */
+  @Transactional
+  @Override
+  public boolean isValid(final String email, final String code) {
+    return getRepository().isValid(email, code, new Date());
+  }
+
+  @Transactional
+  @Override
+  public boolean consume(final String email, final String code, final String passwordHash) {
+    final boolean consumed;
+
+    if (getRepository().consume(email, code, new Date()) == 0) {
+      consumed = false;
+    } else if (getUserRepository().setPasswordHashByEmail(email, passwordHash) == 0) {
+      throw new UserNotFoundException("No user for email=" + email);
+    } else {
+      consumed = true;
+      this.publishChangeAfterCommit(User.class, null);
+    }
+
+    return consumed;
+  }
+
+  @Override
+  public int deleteExpired(final Date date, final int batchSize) {
+    return getRepository().deleteExpired(date, batchSize);
+  }
 }
@@ -5,6 +5,7 @@
 package com.monogramm.starter.persistence.user.service;
 
 import com.github.madmath03.password.Passwords;
+import com.monogramm.starter.config.component.PasswordHashingExecutor;
 import com.monogramm.starter.dto.user.UserDto;
 import com.monogramm.starter.persistence.AbstractGenericBridge;
 import com.monogramm.starter.persistence.role.dao.IRoleRepository;
@@ -20,6 +21,8 @@ import com.monogramm.starter.persistence.user.entity.User;
 public class UserBridge extends AbstractGenericBridge<User, UserDto> {
   private IRoleRepository roleRepository;
 
+  private PasswordHashingExecutor passwordHashingExecutor;
+
   /**
    * Create a {@link UserBridge}.
    * 
@@ -46,6 +49,19 @@ public class UserBridge extends AbstractGenericBridge<User, UserDto> {
     this.roleRepository = roleRepository;
   }
 
+  /**
+   * Create a {@link UserBridge}.
+   * 
+   * @param userRepository repository to lookup users.
+   * @param roleRepository repository to lookup roles.
+   * @param passwordHashingExecutor executor dedicated to password hashing. May be {@code null}.
+   */
+  public UserBridge(final IUserRepository userRepository, final IRoleRepository roleRepository,
+      final PasswordHashingExecutor passwordHashingExecutor) {
+    this(userRepository, roleRepository);
+    this.passwordHashingExecutor = passwordHashingExecutor;
+  }
+
   @Override
   protected User buildEntity() {
     return new User();
@@ -63,7 +79,11 @@ public class UserBridge extends AbstractGenericBridge<User, UserDto> {
     entity.setUsername(dto.getUsername());
     entity.setEmail(dto.getEmail());
     if (dto.getPassword() != null) {
-      entity.setPassword(Passwords.getHash(dto.getPassword()));
+      if (passwordHashingExecutor == null) {
+        entity.setPassword(Passwords.getHash(dto.getPassword()));
+      } else {
+        entity.setPassword(passwordHashingExecutor.hash(dto.getPassword()));
+      }
     }
     entity.setEnabled(dto.isEnabled());
     entity.setVerified(dto.isVerified());
@@ -107,6 +127,15 @@ public class UserBridge extends AbstractGenericBridge<User, UserDto> {
     return roleRepository;
   }
 
+  /**
+   * Get the {@link #passwordHashingExecutor}.
+   * 
+   * @return the {@link #passwordHashingExecutor}.
+   */
+  protected final PasswordHashingExecutor getPasswordHashingExecutor() {
+    return passwordHashingExecutor;
+  }
+
   /**
    * Set the {@link roleRepository}.
    * 
@@ -1,20 +1,24 @@
 package com.monogramm.starter.persistence.user.service;
 
+import com.github.madmath03.password.Passwords;
+import com.monogramm.starter.config.component.PasswordHashingExecutor;
 import com.monogramm.starter.dto.user.RegistrationDto;
 import com.monogramm.starter.dto.user.UserDto;
 import com.monogramm.starter.persistence.AbstractGenericService;
 import com.monogramm.starter.persistence.role.dao.IRoleRepository;
 import com.monogramm.starter.persistence.role.entity.Role;
 import com.monogramm.starter.persistence.role.exception.RoleNotFoundException;
+import com.monogramm.starter.persistence.search.TrigramIndex;
 import com.monogramm.starter.persistence.user.dao.IUserRepository;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.exception.UserNotFoundException;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,23 +33,52 @@ public class UserService extends AbstractGenericService<User, UserDto> implement
 
   public static final String DEFAULT_ROLE = "User";
 
+  /**
+   * Index of the username field in the search index.
+   */
+  private static final int SEARCH_USERNAME = 0;
+
+  /**
+   * Index of the email field in the search index.
+   */
+  private static final int SEARCH_EMAIL = 1;
+
   private final IRoleRepository roleRepository;
 
+  private final PasswordHashingExecutor passwordHashingExecutor;
+
+  /**
+   * Create a {@link UserService} hashing passwords on the calling thread.
+   * 
+   * @param userDao the user repository.
+   * @param roleDao the role repository.
+   * 
+   * @throws IllegalArgumentException if {@code roleDao} is {@code null}.
+   */
+  public UserService(final IUserRepository userDao, final IRoleRepository roleDao) {
+    this(userDao, roleDao, null);
+  }
+
   /**
    * Create a {@link UserService}.
    * 
    * @param userDao the user repository.
    * @param roleDao the role repository.
+   * @param passwordHashingExecutor the executor dedicated to password hashing. May be
+   *        {@code null}.
    * 
    * @throws IllegalArgumentException if {@code roleDao} is {@code null}.
    */
   @Autowired
-  public UserService(final IUserRepository userDao, final IRoleRepository roleDao) {
-    super(userDao, userDao, new UserBridge(userDao, roleDao));
+  public UserService(final IUserRepository userDao, final IRoleRepository roleDao,
+      final PasswordHashingExecutor passwordHashingExecutor) {
+    super(userDao, userDao, new UserBridge(userDao, roleDao, passwordHashingExecutor),
+        new TrigramIndex(2));
     if (roleDao == null) {
       throw new IllegalArgumentException("Role repository cannot be null.");
     }
     this.roleRepository = roleDao;
+    this.passwordHashingExecutor = passwordHashingExecutor;
   }
 
   /**
@@ -72,6 +105,19 @@ public class UserService extends AbstractGenericService<User, UserDto> implement
     return getRepository().exists(entity.getId(), entity.getUsername(), entity.getEmail());
   }
 
+  @Override
+  protected String[] getSearchTerms(User entity) {
+    final String[] terms = new String[2];
+    terms[SEARCH_USERNAME] = entity.getUsername();
+    terms[SEARCH_EMAIL] = entity.getEmail();
+    return terms;
+  }
+
+  @Override
+  protected List<Object[]> findAllSearchTerms() {
+    return getRepository().findAllSearchTerms();
+  }
+
   @Override
   protected UserNotFoundException createEntityNotFoundException(User entity) {
     return new UserNotFoundException("Following user not found:" + entity);
@@ -85,19 +131,31 @@ public class UserService extends AbstractGenericService<User, UserDto> implement
   @Transactional(readOnly = true)
   @Override
   public List<User> findAllContainingUsername(final String username) {
-    return getRepository().findAllContainingUsernameIgnoreCase(username);
+    List<User> users = this.search(username, null);
+    if (users == null) {
+      users = getRepository().findAllContainingUsernameIgnoreCase(username);
+    }
+    return users;
   }
 
   @Transactional(readOnly = true)
   @Override
   public List<User> findAllContainingEmail(final String email) {
-    return getRepository().findAllContainingEmailIgnoreCase(email);
+    List<User> users = this.search(null, email);
+    if (users == null) {
+      users = getRepository().findAllContainingEmailIgnoreCase(email);
+    }
+    return users;
   }
 
   @Transactional(readOnly = true)
   @Override
   public List<User> findAllContainingUsernameOrEmail(final String username, final String email) {
-    return getRepository().findAllContainingUsernameOrEmailIgnoreCase(username, email);
+    List<User> users = this.search(username, email);
+    if (users == null) {
+      users = getRepository().findAllContainingUsernameOrEmailIgnoreCase(username, email);
+    }
+    return users;
   }
 
   @Transactional(readOnly = true)
@@ -112,6 +170,16 @@ public class UserService extends AbstractGenericService<User, UserDto> implement
     return getRepository().findByEmailIgnoreCase(email);
   }
 
+  /*
+   * Read from the primary database: a login must not be granted with the password, status or
+   * authorities a lagging replica still holds.
+   */
+  @Transactional
+  @Override
+  public User findWithAuthoritiesByEmail(String email) {
+    return getRepository().findWithAuthoritiesByEmailIgnoreCase(email);
+  }
+
   @Transactional(readOnly = true)
   @Override
   public User findByUsernameOrEmail(String username, String email) {
@@ -125,43 +193,186 @@ public class UserService extends AbstractGenericService<User, UserDto> implement
     return user;
   }
 
+  @Transactional(readOnly = true)
+  @Override
+  public UserDto findDtoByUsernameOrEmail(String username, String email) {
+    final User user = this.findByUsernameOrEmail(username, email);
+
+    final UserDto dto;
+    if (user == null) {
+      dto = null;
+    } else {
+      dto = this.toDto(user);
+    }
+    return dto;
+  }
+
   @Override
-  public User setPassword(final UUID userId, char[] password) {
-    final User updatedEntity = getRepository().setPassword(userId, password);
+  public int setPassword(final UUID userId, char[] password) {
+    final int updated;
+    if (passwordHashingExecutor == null || password == null) {
+      updated = getRepository().setPassword(userId, password, getCurrentUser());
+    } else {
+      updated = getRepository().setPasswordHash(userId, passwordHashingExecutor.hash(password),
+          getCurrentUser());
+    }
 
-    if (updatedEntity == null) {
+    if (updated == 0) {
       throw this.createEntityNotFoundException(userId);
     }
+    this.publishChangeAfterCommit(userId);
 
-    return updatedEntity;
+    return updated;
   }
 
   @Override
-  public User setEnabled(final UUID userId, boolean enabled) {
-    final User updatedEntity = getRepository().setEnabled(userId, enabled);
+  public String hashPassword(final char[] password) {
+    final String hash;
+
+    if (password == null) {
+      hash = null;
+    } else if (passwordHashingExecutor == null) {
+      hash = Passwords.getHash(password);
+    } else {
+      hash = passwordHashingExecutor.hash(password);
+    }
 
-    if (updatedEntity == null) {
+    return hash;
+  }
+
+  @Override
+  public int setEnabled(final UUID userId, boolean enabled) {
+    final int updated = getRepository().setEnabled(userId, enabled, getCurrentUser());
+
+    if (updated == 0) {
       throw this.createEntityNotFoundException(userId);
     }
+    this.publishChangeAfterCommit(userId);
+
+    return updated;
+  }
+
+  @Override
+  public int setEnabled(final Collection<UUID> userIds, boolean enabled) {
+    final int updated;
+
+    if (userIds == null || userIds.isEmpty()) {
+      updated = 0;
+    } else {
+      updated = getRepository().setEnabled(userIds, enabled, getCurrentUser());
+      this.publishChangeAfterCommit(null);
+    }
 
-    return updatedEntity;
+    return updated;
   }
 
   @Override
-  public User setVerified(final UUID userId, boolean verified) {
-    final User updatedEntity = getRepository().setVerified(userId, true);
+  public int setVerified(final UUID userId, boolean verified) {
+    final int updated = getRepository().setVerified(userId, verified, getCurrentUser());
 
-    if (updatedEntity == null) {
+    if (updated == 0) {
       throw this.createEntityNotFoundException(userId);
     }
+    this.publishChangeAfterCommit(userId);
+
+    return updated;
+  }
+
+  @Override
+  public int setVerified(final Collection<UUID> userIds, boolean verified) {
+    final int updated;
+
+    if (userIds == null || userIds.isEmpty()) {
+      updated = 0;
+    } else {
+      updated = getRepository().setVerified(userIds, verified, getCurrentUser());
+      this.publishChangeAfterCommit(null);
+    }
+
+    return updated;
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public List<User> findAllByRole(final UUID roleId, final UUID after, final int size) {
+    this.checkRoleExists(roleId);
+
+    return getRepository().findAllByRole(roleId, after, size);
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public List<UserDto> findAllDtosByRole(final UUID roleId, final UUID after, final int size) {
+    return this.toDto(this.findAllByRole(roleId, after, size));
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public long countByRole(final UUID roleId) {
+    this.checkRoleExists(roleId);
+
+    return getRepository().countByRole(roleId);
+  }
+
+  @Transactional(rollbackFor = {RoleNotFoundException.class})
+  @Override
+  public int addToRole(final UUID roleId, final Collection<UUID> userIds) {
+    this.checkRoleExists(roleId);
+
+    final int updated;
+
+    if (userIds == null || userIds.isEmpty()) {
+      updated = 0;
+    } else {
+      updated =
+          getRepository().setRole(userIds, roleRepository.getOne(roleId), getCurrentUser());
+      this.publishChangeAfterCommit(null);
+    }
+
+    return updated;
+  }
+
+  @Transactional(rollbackFor = {RoleNotFoundException.class})
+  @Override
+  public int removeFromRole(final UUID roleId, final Collection<UUID> userIds) {
+    this.checkRoleExists(roleId);
+
+    final int updated;
+
+    if (userIds == null || userIds.isEmpty()) {
+      updated = 0;
+    } else {
+      updated =
+          getRepository().unsetRole(userIds, roleRepository.getOne(roleId), getCurrentUser());
+      this.publishChangeAfterCommit(null);
+    }
 
-    return updatedEntity;
+    return updated;
+  }
+
+  /**
+   * Check a role exists, without loading it nor its users.
+   * 
+   * @param roleId the role identifier.
+   * 
+   * @throws RoleNotFoundException if no role is found.
+   */
+  private void checkRoleExists(final UUID roleId) {
+    if (!roleRepository.exists(roleId)) {
+      throw new RoleNotFoundException("No role for ID=" + roleId);
+    }
   }
 
   @Override
   public boolean register(final RegistrationDto registration) {
-    final User user = User.builder(registration.getUsername(), registration.getEmail())
-        .password(registration.getPassword()).build();
+    final User user;
+    if (passwordHashingExecutor == null) {
+      user = User.builder(registration.getUsername(), registration.getEmail())
+          .password(registration.getPassword()).build();
+    } else {
+      user = User.builder(registration.getUsername(), registration.getEmail())
+          .password(passwordHashingExecutor.hash(registration.getPassword())).build();
+    }
 
     /*
      * TODO Add password strengths and rules.
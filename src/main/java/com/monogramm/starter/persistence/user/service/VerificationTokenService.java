@@ -6,8 +6,10 @@ import com.monogramm.starter.persistence.user.dao.IUserRepository;
 import com.monogramm.starter.persistence.user.dao.IVerificationTokenRepository;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.entity.VerificationToken;
+import com.monogramm.starter.persistence.user.exception.UserNotFoundException;
 import com.monogramm.starter.persistence.user.exception.VerificationTokenNotFoundException;
 
+import java.util.Date;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -69,4 +71,28 @@ public class VerificationTokenService
   public VerificationToken findByUserAndCode(final UUID userId, final String token) {
     return getRepository().findByUserAndCode(userId, token);
   }
+
+  @Transactional
+  @Override
+  public boolean consume(final UUID userId, final String code) {
+    final boolean consumed;
+
+    if (getRepository().consume(userId, code, new Date()) == 0) {
+      consumed = false;
+    } else if (getUserRepository().setVerified(userId, true,
+        // The user account is verified by its owner
+        getUserRepository().getOne(userId)) == 0) {
+      throw new UserNotFoundException("No user for ID=" + userId);
+    } else {
+      consumed = true;
+      this.publishChangeAfterCommit(User.class, userId);
+    }
+
+    return consumed;
+  }
+
+  @Override
+  public int deleteExpired(final Date date, final int batchSize) {
+    return getRepository().deleteExpired(date, batchSize);
+  }
 }
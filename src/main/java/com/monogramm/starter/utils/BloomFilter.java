@@ -0,0 +1,157 @@
+/*
+ * Creation by madmath03 the 2018-02-11.
+ */
+
+package com.monogramm.starter.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread safe Bloom filter of strings.
+ * 
+ * <p>
+ * A Bloom filter tells in constant time whether a string might have been added to it: it never
+ * gives false negatives, and gives false positives at about the rate it was sized for as long as
+ * no more strings than expected are added. Strings cannot be removed from it.
+ * </p>
+ * 
+ * @author madmath03
+ */
+public final class BloomFilter {
+
+  private static final double LN2 = Math.log(2);
+
+  private final AtomicLongArray bits;
+
+  private final long bitSize;
+
+  private final int hashFunctions;
+
+  /**
+   * Create a {@link BloomFilter}.
+   * 
+   * @param expectedInsertions the expected number of strings added to the filter.
+   * @param falsePositiveRate the expected false positive rate, strictly between {@code 0} and
+   *        {@code 1}.
+   * 
+   * @throws IllegalArgumentException if {@code expectedInsertions} is not strictly positive or
+   *         if {@code falsePositiveRate} is not strictly between {@code 0} and {@code 1}.
+   */
+  public BloomFilter(final int expectedInsertions, final double falsePositiveRate) {
+    super();
+    if (expectedInsertions <= 0) {
+      throw new IllegalArgumentException("Expected insertions must be strictly positive.");
+    }
+    if (!(falsePositiveRate > 0D && falsePositiveRate < 1D)) {
+      throw new IllegalArgumentException("False positive rate must be between 0 and 1.");
+    }
+
+    final long optimalBits =
+        (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+    final int words = (int) Math.min(Integer.MAX_VALUE, Math.max(1L, (optimalBits + 63) >>> 6));
+
+    this.bits = new AtomicLongArray(words);
+    this.bitSize = (long) words << 6;
+    this.hashFunctions =
+        Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * LN2));
+  }
+
+  /**
+   * Add a string to the filter.
+   * 
+   * @param value the string to add.
+   */
+  public void put(final String value) {
+    final long hash = hash(value);
+    final int hash1 = (int) hash;
+    final int hash2 = (int) (hash >>> 32);
+
+    for (int i = 1; i <= hashFunctions; i++) {
+      final long index = this.index(hash1 + i * hash2);
+      final int word = (int) (index >>> 6);
+      final long mask = 1L << index;
+
+      long current;
+      do {
+        current = bits.get(word);
+        if ((current & mask) != 0L) {
+          break;
+        }
+      } while (!bits.compareAndSet(word, current, current | mask));
+    }
+  }
+
+  /**
+   * Check if a string might have been added to the filter.
+   * 
+   * @param value the string to check.
+   * 
+   * @return {@code false} if the string was never added to the filter, {@code true} if it
+   *         probably was.
+   */
+  public boolean mightContain(final String value) {
+    final long hash = hash(value);
+    final int hash1 = (int) hash;
+    final int hash2 = (int) (hash >>> 32);
+
+    for (int i = 1; i <= hashFunctions; i++) {
+      final long index = this.index(hash1 + i * hash2);
+      if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0L) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private long index(final int combinedHash) {
+    // Flip all the bits of negative hashes rather than losing one bit with Math.abs
+    final int positiveHash;
+    if (combinedHash < 0) {
+      positiveHash = ~combinedHash;
+    } else {
+      positiveHash = combinedHash;
+    }
+    return positiveHash % bitSize;
+  }
+
+  /**
+   * Compute a well mixed 64 bits hash of a string, FNV-1a followed by a MurmurHash3 finalizer.
+   * 
+   * @param value the string to hash.
+   * 
+   * @return the hash of the string.
+   */
+  private static long hash(final String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  /**
+   * Get the number of bits of the filter.
+   * 
+   * @return the number of bits of the filter.
+   */
+  public long getBitSize() {
+    return bitSize;
+  }
+
+  /**
+   * Get the number of hash functions of the filter.
+   * 
+   * @return the number of hash functions of the filter.
+   */
+  public int getHashFunctions() {
+    return hashFunctions;
+  }
+
+}
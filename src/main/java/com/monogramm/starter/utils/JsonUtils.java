@@ -10,6 +10,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
@@ -18,8 +19,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
  * JSON utilities.
@@ -48,6 +49,16 @@ public final class JsonUtils {
     WRITER = MAPPER.writer().withDefaultPrettyPrinter();
   }
 
+  /**
+   * The object readers, built once per class type.
+   */
+  private static final ClassValue<ObjectReader> READERS = new ClassValue<ObjectReader>() {
+    @Override
+    protected ObjectReader computeValue(final Class<?> type) {
+      return MAPPER.readerFor(type);
+    }
+  };
+
   /**
    * Returns a JSON string representation of an object.
    * 
@@ -137,7 +148,7 @@ public final class JsonUtils {
    *         result type (or has other mismatch issues)
    */
   public static <T> T fromJson(final String source, final Class<T> valueType) throws IOException {
-    return MAPPER.readValue(source, valueType);
+    return reader(valueType).readValue(source);
   }
 
   /**
@@ -220,6 +231,23 @@ public final class JsonUtils {
     return MAPPER.readValue(sourceFile, valueType);
   }
 
+  /**
+   * Get the object reader of a class type.
+   * 
+   * <p>
+   * Readers are immutable and built once per class type, so that reading does not look up the
+   * deserializers again. Reading {@link Object} gives maps for JSON objects and lists for JSON
+   * arrays.
+   * </p>
+   * 
+   * @param valueType the class type of the objects read.
+   * 
+   * @return the object reader of the class type.
+   */
+  public static ObjectReader reader(final Class<?> valueType) {
+    return READERS.get(valueType);
+  }
+
   /**
    * Hidden creation of a {@link JsonUtils}.
    * 
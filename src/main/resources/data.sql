@@ -45,3 +45,18 @@ VALUES
 
 COMMIT;
 
+-- -----------------------------------------------------
+-- Migration 1: backfill the normalized columns of table user
+-- Runs once: skipped as soon as schema_migration holds its version
+-- -----------------------------------------------------
+
+UPDATE user SET username_normalized = LOWER(username)
+WHERE username_normalized IS NULL
+    AND NOT EXISTS (SELECT 1 FROM schema_migration WHERE version = '1');
+UPDATE user SET email_normalized = LOWER(email)
+WHERE email_normalized IS NULL
+    AND NOT EXISTS (SELECT 1 FROM schema_migration WHERE version = '1');
+
+INSERT IGNORE INTO schema_migration (version) VALUES ('1');
+
+COMMIT;
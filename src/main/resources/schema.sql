@@ -99,3 +99,13 @@ CREATE TABLE IF NOT EXISTS ClientDetails (
   additionalInformation VARCHAR(4096),
   autoApproveScopes VARCHAR(255)
 );
+
+-- -----------------------------------------------------
+-- Table schema_migration
+-- -----------------------------------------------------
+--DROP TABLE schema_migration;
+
+CREATE TABLE IF NOT EXISTS schema_migration (
+  version VARCHAR(64) PRIMARY KEY,
+  applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
@@ -167,13 +167,11 @@ public abstract class AbstractGenericControllerTest<T extends AbstractGenericEnt
     final D dto = bridge.toDto(model);
     final ResponseEntity<D> expectedResponse = new ResponseEntity<>(dto, HttpStatus.OK);
 
-    when(mockService.findById(model.getId())).thenReturn(model);
-    when(mockService.toDto(model)).thenReturn(dto);
+    when(mockService.findDtoById(model.getId())).thenReturn(dto);
 
     final ResponseEntity<D> actual = controller.getDataById(model.getId().toString());
 
-    verify(mockService, times(1)).findById(model.getId());
-    verify(mockService, times(1)).toDto(model);
+    verify(mockService, times(1)).findDtoById(model.getId());
     verifyNoMoreInteractions(mockService);
 
     assertThat(actual, is(expectedResponse));
@@ -184,15 +182,14 @@ public abstract class AbstractGenericControllerTest<T extends AbstractGenericEnt
    */
   @Test
   public void testGetDataByIdStringNotFound() {
-    final T model = null;
     final D dto = null;
     final ResponseEntity<D> expectedResponse = new ResponseEntity<>(dto, HttpStatus.NOT_FOUND);
 
-    when(mockService.findById(RANDOM_ID)).thenReturn(model);
+    when(mockService.findDtoById(RANDOM_ID)).thenReturn(dto);
 
     final ResponseEntity<D> actual = controller.getDataById(RANDOM_ID.toString());
 
-    verify(mockService, times(1)).findById(RANDOM_ID);
+    verify(mockService, times(1)).findDtoById(RANDOM_ID);
     verifyNoMoreInteractions(mockService);
 
     assertThat(actual, is(expectedResponse));
@@ -221,20 +218,16 @@ public abstract class AbstractGenericControllerTest<T extends AbstractGenericEnt
     final T model = this.buildTestEntity();
     final D dto = bridge.toDto(model);
 
-    final List<T> models = new ArrayList<>();
-    models.add(model);
     final List<D> results = new ArrayList<>();
     results.add(dto);
 
     final ResponseEntity<List<D>> expectedResponse = new ResponseEntity<>(results, HttpStatus.OK);
 
-    when(mockService.findAll()).thenReturn(models);
-    when(mockService.toDto(models)).thenReturn(results);
+    when(mockService.findAllDtos()).thenReturn(results);
 
     final ResponseEntity<List<D>> actual = controller.getAllData();
 
-    verify(mockService, times(1)).findAll();
-    verify(mockService, times(1)).toDto(models);
+    verify(mockService, times(1)).findAllDtos();
     verifyNoMoreInteractions(mockService);
 
     assertThat(actual, is(expectedResponse));
@@ -245,17 +238,14 @@ public abstract class AbstractGenericControllerTest<T extends AbstractGenericEnt
    */
   @Test
   public void testGetAllDataEmpty() {
-    final List<T> models = new ArrayList<>();
     final List<D> results = new ArrayList<>();
     final ResponseEntity<List<D>> expectedResponse = new ResponseEntity<>(results, HttpStatus.OK);
 
-    when(mockService.findAll()).thenReturn(models);
-    when(mockService.toDto(models)).thenReturn(results);
+    when(mockService.findAllDtos()).thenReturn(results);
 
     final ResponseEntity<List<D>> actual = controller.getAllData();
 
-    verify(mockService, times(1)).findAll();
-    verify(mockService, times(1)).toDto(models);
+    verify(mockService, times(1)).findAllDtos();
     verifyNoMoreInteractions(mockService);
 
     assertThat(actual, is(expectedResponse));
@@ -265,21 +255,18 @@ public abstract class AbstractGenericControllerTest<T extends AbstractGenericEnt
    * Test method for {@link AbstractGenericController#getAllData()}.
    */
   @Test
-  public void testGetAllDataNull() {
-    final List<T> models = null;
-    final List<D> results = new ArrayList<>();
-    final ResponseEntity<List<D>> expectedResponse = new ResponseEntity<>(results, HttpStatus.OK);
-
-    when(mockService.findAll()).thenReturn(models);
-    when(mockService.toDto(models)).thenReturn(results);
+  public void testGetAllDataNone() {
+    // The service returns an empty list rather than null when there is no entity
+    when(mockService.findAllDtos()).thenReturn(new ArrayList<>());
 
     final ResponseEntity<List<D>> actual = controller.getAllData();
 
-    verify(mockService, times(1)).findAll();
-    verify(mockService, times(1)).toDto(models);
+    verify(mockService, times(1)).findAllDtos();
     verifyNoMoreInteractions(mockService);
 
-    assertThat(actual, is(expectedResponse));
+    assertThat(actual.getStatusCode(), is(HttpStatus.OK));
+    assertNotNull(actual.getBody());
+    assertThat(actual.getBody().isEmpty(), is(true));
   }
 
   /**
@@ -345,14 +332,12 @@ public abstract class AbstractGenericControllerTest<T extends AbstractGenericEnt
     final ResponseEntity<D> expectedResponse = new ResponseEntity<>(dto, HttpStatus.OK);
 
     when(mockService.toEntity(dto)).thenReturn(model);
-    when(mockService.update(model)).thenReturn(model);
-    when(mockService.toDto(model)).thenReturn(dto);
+    when(mockService.updateToDto(model)).thenReturn(dto);
 
     final ResponseEntity<D> actual = controller.updateData(model.getId().toString(), dto);
 
     verify(mockService, times(1)).toEntity(dto);
-    verify(mockService, times(1)).update(model);
-    verify(mockService, times(1)).toDto(model);
+    verify(mockService, times(1)).updateToDto(model);
     verifyNoMoreInteractions(mockService);
 
     assertThat(actual, is(expectedResponse));
@@ -371,12 +356,12 @@ public abstract class AbstractGenericControllerTest<T extends AbstractGenericEnt
     final ResponseEntity<D> expectedResponse = new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
     when(mockService.toEntity(dto)).thenReturn(model);
-    when(mockService.update(model)).thenReturn(null);
+    when(mockService.updateToDto(model)).thenReturn(null);
 
     final ResponseEntity<D> actual = controller.updateData(model.getId().toString(), dto);
 
     verify(mockService, times(1)).toEntity(dto);
-    verify(mockService, times(1)).update(model);
+    verify(mockService, times(1)).updateToDto(model);
     verifyNoMoreInteractions(mockService);
 
     assertThat(actual, is(expectedResponse));
@@ -394,12 +379,12 @@ public abstract class AbstractGenericControllerTest<T extends AbstractGenericEnt
     final ResponseEntity<D> expectedResponse = new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
     when(mockService.toEntity(dto)).thenReturn(model);
-    when(mockService.update(model)).thenThrow(this.buildTestEntityNotFound());
+    when(mockService.updateToDto(model)).thenThrow(this.buildTestEntityNotFound());
 
     final ResponseEntity<D> actual = controller.updateData(model.getId().toString(), dto);
 
     verify(mockService, times(1)).toEntity(dto);
-    verify(mockService, times(1)).update(model);
+    verify(mockService, times(1)).updateToDto(model);
     verifyNoMoreInteractions(mockService);
 
     assertThat(actual, is(expectedResponse));
@@ -0,0 +1,95 @@
+/*
+ * Creation by madmath03 the 2018-02-12.
+ */
+
+package com.monogramm.starter.api.oauth.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.monogramm.starter.config.component.CachingClientDetailsService;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.client.BaseClientDetails;
+import org.springframework.security.oauth2.provider.client.JdbcClientDetailsService;
+
+/**
+ * {@link ClientDetailsEndpoint} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class ClientDetailsEndpointTest {
+
+  private JdbcClientDetailsService delegate;
+
+  private CachingClientDetailsService clientDetailsService;
+
+  private ClientDetailsEndpoint endpoint;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.delegate = mock(JdbcClientDetailsService.class);
+    final BaseClientDetails client =
+        new BaseClientDetails("web", null, "read,write", "password", "ROLE_CLIENT");
+    client.setClientSecret("secret");
+    when(delegate.listClientDetails()).thenReturn(Arrays.<ClientDetails>asList(client));
+
+    this.clientDetailsService = new CachingClientDetailsService(delegate);
+    this.endpoint = new ClientDetailsEndpoint(clientDetailsService);
+  }
+
+  /**
+   * Test method for {@link ClientDetailsEndpoint#ClientDetailsEndpoint(CachingClientDetailsService)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testClientDetailsEndpointNull() {
+    new ClientDetailsEndpoint(null);
+  }
+
+  /**
+   * Test method for {@link ClientDetailsEndpoint#getClients()}.
+   */
+  @Test
+  public void testGetClients() {
+    clientDetailsService.refresh();
+
+    final ResponseEntity<Map<String, Object>> response = endpoint.getClients();
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(1L, response.getBody().get("refreshes"));
+    final List<?> clients = (List<?>) response.getBody().get("clients");
+    assertEquals(1, clients.size());
+    final Map<?, ?> client = (Map<?, ?>) clients.get(0);
+    assertEquals("web", client.get("clientId"));
+    // Secrets are never exposed
+    assertFalse(client.containsKey("clientSecret"));
+    assertFalse(client.values().contains("secret"));
+  }
+
+  /**
+   * Test method for {@link ClientDetailsEndpoint#refresh()}.
+   */
+  @Test
+  public void testRefresh() {
+    final ResponseEntity<Map<String, Object>> response = endpoint.refresh();
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertTrue((Boolean) response.getBody().get("refreshed"));
+    assertEquals(1, ((List<?>) response.getBody().get("clients")).size());
+  }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.api.oauth.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.monogramm.starter.config.component.JwtKeyManager;
+import com.monogramm.starter.config.component.SigningKey;
+import com.monogramm.starter.persistence.oauth.service.InMemoryJwtSigningKeyService;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * {@link JwkSetEndpoint} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class JwkSetEndpointTest {
+
+  private static final long ROTATION_PERIOD = 60_000L;
+
+  private long now;
+
+  private JwtKeyManager keyManager;
+
+  private WebRequest request;
+
+  private JwkSetEndpoint endpoint;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.now = System.currentTimeMillis();
+    this.keyManager = new JwtKeyManager(SigningKey.ES256, ROTATION_PERIOD, 2 * ROTATION_PERIOD,
+        10_000L, new InMemoryJwtSigningKeyService(), "secret") {
+      @Override
+      protected long currentTimeMillis() {
+        return now;
+      }
+    };
+    this.request = mock(WebRequest.class);
+
+    this.endpoint = new JwkSetEndpoint(keyManager, 300L);
+  }
+
+  /**
+   * Test method for {@link JwkSetEndpoint#JwkSetEndpoint(JwtKeyManager, long)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testJwkSetEndpointNull() {
+    new JwkSetEndpoint(null, 300L);
+  }
+
+  /**
+   * Test method for {@link JwkSetEndpoint#getJwkSet(WebRequest)}.
+   */
+  @Test
+  public void testGetJwkSet() {
+    when(request.checkNotModified(anyString())).thenReturn(false);
+
+    final ResponseEntity<Map<String, Object>> response = endpoint.getJwkSet(request);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertSame(keyManager.getJwkSet(), response.getBody());
+    assertEquals('"' + keyManager.getJwkSetTag() + '"', response.getHeaders().getETag());
+    assertEquals("max-age=300, public", response.getHeaders().getCacheControl());
+  }
+
+  /**
+   * Test method for {@link JwkSetEndpoint#getJwkSet(WebRequest)}.
+   */
+  @Test
+  public void testGetJwkSetNotModified() {
+    when(request.checkNotModified('"' + keyManager.getJwkSetTag() + '"')).thenReturn(true);
+
+    assertNull(endpoint.getJwkSet(request));
+  }
+
+  /**
+   * Test method for {@link JwkSetEndpoint#getJwkSet(WebRequest)}.
+   */
+  @Test
+  public void testGetJwkSetRotated() {
+    final String tag = '"' + keyManager.getJwkSetTag() + '"';
+    when(request.checkNotModified(tag)).thenReturn(true);
+
+    now += ROTATION_PERIOD;
+    keyManager.refresh();
+    final ResponseEntity<Map<String, Object>> response = endpoint.getJwkSet(request);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals('"' + keyManager.getJwkSetTag() + '"',
+        response.getHeaders().getFirst(HttpHeaders.ETAG));
+  }
+
+}
@@ -5,9 +5,12 @@
 package com.monogramm.starter.api.parameter.controller;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import com.monogramm.starter.api.AbstractGenericControllerTest;
+import com.monogramm.starter.api.parameter.listener.ParameterChangeBroadcaster;
 import com.monogramm.starter.dto.parameter.ParameterDto;
 import com.monogramm.starter.persistence.parameter.entity.Parameter;
 import com.monogramm.starter.persistence.parameter.exception.ParameterNotFoundException;
@@ -19,6 +22,7 @@ import java.util.UUID;
 import org.junit.After;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * {@link ParameterController} Unit Test.
@@ -32,6 +36,8 @@ public class ParameterControllerTest
   private static final String NAME = "Foo";
   private static final Object VALUE = 42;
 
+  private ParameterChangeBroadcaster broadcaster;
+
   /**
    * @throws java.lang.Exception if the test cleanup crashes.
    */
@@ -53,7 +59,8 @@ public class ParameterControllerTest
 
   @Override
   protected ParameterController buildTestController() {
-    return new ParameterController(getMockService());
+    this.broadcaster = mock(ParameterChangeBroadcaster.class);
+    return new ParameterController(getMockService(), broadcaster);
   }
 
   @Override
@@ -77,12 +84,60 @@ public class ParameterControllerTest
     return new ParameterNotFoundException();
   }
 
+  @Override
+  protected ParameterController getController() {
+    return (ParameterController) super.getController();
+  }
+
   /**
-   * Test method for {@link ParameterController#ParameterController(IParameterService)}.
+   * Test method for
+   * {@link ParameterController#ParameterController(IParameterService, ParameterChangeBroadcaster)}.
    */
   @Test
   public void testParameterController() {
     assertNotNull(getController());
   }
 
+  /**
+   * Test method for
+   * {@link ParameterController#ParameterController(IParameterService, ParameterChangeBroadcaster)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testParameterControllerNullBroadcaster() {
+    new ParameterController(getMockService(), null);
+  }
+
+  /**
+   * Test method for {@link ParameterController#streamEvents(String)}.
+   */
+  @Test
+  public void testStreamEvents() {
+    final SseEmitter emitter = new SseEmitter();
+    when(broadcaster.subscribe(null)).thenReturn(emitter);
+
+    assertSame(emitter, getController().streamEvents(null));
+  }
+
+  /**
+   * Test method for {@link ParameterController#streamEvents(String)}.
+   */
+  @Test
+  public void testStreamEventsResume() {
+    final SseEmitter emitter = new SseEmitter();
+    when(broadcaster.subscribe(42L)).thenReturn(emitter);
+
+    assertSame(emitter, getController().streamEvents(" 42"));
+  }
+
+  /**
+   * Test method for {@link ParameterController#streamEvents(String)}.
+   */
+  @Test
+  public void testStreamEventsInvalidLastEventId() {
+    final SseEmitter emitter = new SseEmitter();
+    when(broadcaster.subscribe(null)).thenReturn(emitter);
+
+    assertSame(emitter, getController().streamEvents("foo"));
+  }
+
 }
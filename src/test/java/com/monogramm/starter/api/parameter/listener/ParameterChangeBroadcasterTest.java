@@ -0,0 +1,220 @@
+/*
+ * Creation by madmath03 the 2018-02-17.
+ */
+
+package com.monogramm.starter.api.parameter.listener;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.monogramm.starter.config.data.GenericOperation;
+import com.monogramm.starter.persistence.parameter.entity.Parameter;
+import com.monogramm.starter.persistence.parameter.service.IParameterService;
+import com.monogramm.starter.persistence.parameter.service.ParameterBridge;
+import com.monogramm.starter.persistence.parameter.service.ParameterChangedEvent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * {@link ParameterChangeBroadcaster} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class ParameterChangeBroadcasterTest {
+
+  private static final UUID ID = UUID.randomUUID();
+  private static final String NAME = "Foo";
+
+  private static final int BUFFER_SIZE = 4;
+  private static final int HISTORY_SIZE = 3;
+
+  private IParameterService parameterService;
+
+  private ParameterChangeBroadcaster broadcaster;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.parameterService = mock(IParameterService.class);
+    when(parameterService.findDtoById(ID))
+        .thenReturn(new ParameterBridge().toDto(Parameter.builder(NAME, 42).id(ID).build()));
+
+    this.broadcaster = this.buildBroadcaster(Runnable::run);
+  }
+
+  private ParameterChangeBroadcaster buildBroadcaster(final Executor executor) {
+    return new ParameterChangeBroadcaster(parameterService, BUFFER_SIZE, HISTORY_SIZE, 0L,
+        executor) {
+      @Override
+      protected SseEmitter createEmitter(final long streamTimeout) {
+        return new RecordingEmitter();
+      }
+    };
+  }
+
+  private ParameterChangedEvent change(final long version, final GenericOperation operation) {
+    return new ParameterChangedEvent(this, version, operation, ID, NAME);
+  }
+
+  /**
+   * Test method for
+   * {@link ParameterChangeBroadcaster#ParameterChangeBroadcaster(IParameterService, int, int, long, Executor)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testParameterChangeBroadcasterNullService() {
+    new ParameterChangeBroadcaster(null, BUFFER_SIZE, HISTORY_SIZE, 0L, Runnable::run);
+  }
+
+  /**
+   * Test method for
+   * {@link ParameterChangeBroadcaster#ParameterChangeBroadcaster(IParameterService, int, int, long, Executor)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testParameterChangeBroadcasterEmptyBuffer() {
+    new ParameterChangeBroadcaster(parameterService, 0, HISTORY_SIZE, 0L, Runnable::run);
+  }
+
+  /**
+   * Test method for {@link ParameterChangeBroadcaster#onParameterChanged(ParameterChangedEvent)}.
+   */
+  @Test
+  public void testOnParameterChanged() {
+    final RecordingEmitter first = (RecordingEmitter) broadcaster.subscribe(null);
+    final RecordingEmitter second = (RecordingEmitter) broadcaster.subscribe(null);
+    assertEquals(2, broadcaster.getSubscriptionCount());
+
+    broadcaster.onParameterChanged(this.change(1L, GenericOperation.CREATE));
+    broadcaster.onParameterChanged(this.change(2L, GenericOperation.DELETE));
+
+    for (final RecordingEmitter emitter : new RecordingEmitter[] {first, second}) {
+      assertEquals(2, emitter.events.size());
+      assertThat(emitter.events.get(0), containsString("id:1\nevent:create\ndata:"));
+      assertThat(emitter.events.get(0), containsString("\"value\":\"42\""));
+      assertThat(emitter.events.get(1), containsString("id:2\nevent:delete\ndata:"));
+      assertThat(emitter.events.get(1), containsString(ID.toString()));
+    }
+
+    // Loaded once whatever the number of streams
+    verify(parameterService, times(1)).findDtoById(ID);
+  }
+
+  /**
+   * Test method for {@link ParameterChangeBroadcaster#subscribe(Long)}.
+   */
+  @Test
+  public void testSubscribeResume() {
+    broadcaster.onParameterChanged(new ParameterChangedEvent(this, 1L, null, null, null));
+    broadcaster.onParameterChanged(this.change(2L, GenericOperation.UPDATE));
+    broadcaster.onParameterChanged(this.change(3L, GenericOperation.UPDATE));
+
+    final RecordingEmitter emitter = (RecordingEmitter) broadcaster.subscribe(2L);
+
+    assertEquals(1, emitter.events.size());
+    assertThat(emitter.events.get(0), containsString("id:3\nevent:update\n"));
+
+    final RecordingEmitter upToDate = (RecordingEmitter) broadcaster.subscribe(3L);
+    assertTrue(upToDate.events.isEmpty());
+  }
+
+  /**
+   * Test method for {@link ParameterChangeBroadcaster#subscribe(Long)}.
+   */
+  @Test
+  public void testSubscribeResumeTooOld() {
+    for (long version = 1L; version <= HISTORY_SIZE + 2; version++) {
+      broadcaster.onParameterChanged(this.change(version, GenericOperation.UPDATE));
+    }
+
+    final RecordingEmitter emitter = (RecordingEmitter) broadcaster.subscribe(1L);
+
+    assertEquals(1, emitter.events.size());
+    assertThat(emitter.events.get(0), containsString("event:reset\ndata:{\"version\":5}"));
+  }
+
+  /**
+   * Test method for {@link ParameterChangeBroadcaster#heartbeat()}.
+   */
+  @Test
+  public void testHeartbeat() {
+    final RecordingEmitter emitter = (RecordingEmitter) broadcaster.subscribe(null);
+
+    broadcaster.heartbeat();
+
+    assertEquals(1, emitter.events.size());
+    assertThat(emitter.events.get(0), containsString(":heartbeat\n"));
+  }
+
+  /**
+   * Test method for {@link ParameterChangeBroadcaster#onParameterChanged(ParameterChangedEvent)}.
+   */
+  @Test
+  public void testOnParameterChangedSlowStream() {
+    final List<Runnable> pending = new ArrayList<>();
+    broadcaster = this.buildBroadcaster(pending::add);
+    broadcaster.subscribe(null);
+
+    // Nothing written while the queue fills up
+    for (long version = 1L; version <= BUFFER_SIZE; version++) {
+      broadcaster.onParameterChanged(this.change(version, GenericOperation.UPDATE));
+    }
+    assertEquals(1, pending.size());
+    assertEquals(1, broadcaster.getSubscriptionCount());
+
+    broadcaster.onParameterChanged(this.change(BUFFER_SIZE + 1L, GenericOperation.UPDATE));
+    assertEquals(0, broadcaster.getSubscriptionCount());
+  }
+
+  /**
+   * Test method for {@link ParameterChangeBroadcaster#onParameterChanged(ParameterChangedEvent)}.
+   */
+  @Test
+  public void testOnParameterChangedClosedStream() {
+    final RecordingEmitter emitter = (RecordingEmitter) broadcaster.subscribe(null);
+    emitter.broken = true;
+
+    broadcaster.onParameterChanged(this.change(1L, GenericOperation.UPDATE));
+
+    assertEquals(0, broadcaster.getSubscriptionCount());
+  }
+
+  /**
+   * Emitter recording the events sent.
+   * 
+   * @author madmath03
+   */
+  private static class RecordingEmitter extends SseEmitter {
+    private final List<String> events = new ArrayList<>();
+
+    private boolean broken;
+
+    @Override
+    public void send(final SseEventBuilder builder) throws IOException {
+      if (broken) {
+        throw new IOException("Broken pipe");
+      }
+      final StringBuilder event = new StringBuilder();
+      for (final DataWithMediaType data : builder.build()) {
+        event.append(data.getData());
+      }
+      events.add(event.toString());
+    }
+  }
+
+}
@@ -4,24 +4,38 @@
 
 package com.monogramm.starter.api.role.controller;
 
+import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 import com.monogramm.starter.api.AbstractGenericController;
 import com.monogramm.starter.api.AbstractGenericControllerTest;
 import com.monogramm.starter.dto.role.RoleDto;
+import com.monogramm.starter.dto.role.RolePermissionsDto;
+import com.monogramm.starter.dto.user.UserDto;
 import com.monogramm.starter.persistence.AbstractGenericBridge;
 import com.monogramm.starter.persistence.role.entity.Role;
 import com.monogramm.starter.persistence.role.exception.RoleNotFoundException;
 import com.monogramm.starter.persistence.role.service.IRoleService;
 import com.monogramm.starter.persistence.role.service.RoleBridge;
+import com.monogramm.starter.persistence.user.service.IUserService;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 
 /**
  * {@link RoleController} Unit Test.
@@ -33,11 +47,14 @@ public class RoleControllerTest extends AbstractGenericControllerTest<Role, Role
   private static final UUID ID = UUID.randomUUID();
   private static final String DISPLAYNAME = "Foo";
 
+  private IUserService userService;
+
   /**
    * @throws java.lang.Exception if the test setup crashes.
    */
   @Before
   public void setUp() throws Exception {
+    this.userService = mock(IUserService.class);
     super.setUp();
   }
 
@@ -47,6 +64,7 @@ public class RoleControllerTest extends AbstractGenericControllerTest<Role, Role
   @After
   public void tearDown() throws Exception {
     Mockito.reset(getMockService());
+    Mockito.reset(userService);
     this.setBridge(null);
   }
 
@@ -55,6 +73,11 @@ public class RoleControllerTest extends AbstractGenericControllerTest<Role, Role
     return (IRoleService) super.getMockService();
   }
 
+  @Override
+  protected RoleController getController() {
+    return (RoleController) super.getController();
+  }
+
   @Override
   protected IRoleService buildTestService() {
     return mock(IRoleService.class);
@@ -62,7 +85,7 @@ public class RoleControllerTest extends AbstractGenericControllerTest<Role, Role
 
   @Override
   protected AbstractGenericController<Role, RoleDto> buildTestController() {
-    return new RoleController(getMockService());
+    return new RoleController(getMockService(), userService);
   }
 
   @Override
@@ -87,11 +110,395 @@ public class RoleControllerTest extends AbstractGenericControllerTest<Role, Role
   }
 
   /**
-   * Test method for {@link RoleController#RoleController(IRoleService)}.
+   * Test method for {@link RoleController#RoleController(IRoleService, IUserService)}.
    */
   @Test
   public void testRoleController() {
     assertNotNull(getController());
   }
 
+  /**
+   * Test method for {@link RoleController#RoleController(IRoleService, IUserService)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRoleControllerNoUserService() {
+    new RoleController(getMockService(), null);
+  }
+
+  /**
+   * Test method for {@link RoleController#getUsers(String, String, Integer)}.
+   */
+  @Test
+  public void testGetUsers() {
+    final UUID after = UUID.randomUUID();
+    final List<UserDto> dtos = Arrays.asList(new UserDto());
+
+    when(userService.findAllDtosByRole(ID, after, 10)).thenReturn(dtos);
+
+    final ResponseEntity<List<UserDto>> actual =
+        getController().getUsers(ID.toString(), after.toString(), 10);
+
+    verify(userService, times(1)).findAllDtosByRole(ID, after, 10);
+    verifyNoMoreInteractions(userService);
+
+    assertThat(actual, is(new ResponseEntity<>(dtos, HttpStatus.OK)));
+  }
+
+  /**
+   * Test method for {@link RoleController#getUsers(String, String, Integer)}.
+   */
+  @Test
+  public void testGetUsersFirstPage() {
+    final List<UserDto> dtos = Arrays.asList();
+
+    when(userService.findAllDtosByRole(ID, null, RoleController.DEFAULT_PAGE_SIZE))
+        .thenReturn(dtos);
+
+    final ResponseEntity<List<UserDto>> actual =
+        getController().getUsers(ID.toString(), null, null);
+
+    verify(userService, times(1)).findAllDtosByRole(ID, null, RoleController.DEFAULT_PAGE_SIZE);
+
+    assertThat(actual, is(new ResponseEntity<>(dtos, HttpStatus.OK)));
+  }
+
+  /**
+   * Test method for {@link RoleController#getUsers(String, String, Integer)}.
+   */
+  @Test
+  public void testGetUsersNotFound() {
+    when(userService.findAllDtosByRole(ID, null, 10)).thenThrow(new RoleNotFoundException());
+
+    final ResponseEntity<List<UserDto>> actual = getController().getUsers(ID.toString(), null, 10);
+
+    assertThat(actual, is(new ResponseEntity<>(HttpStatus.NOT_FOUND)));
+  }
+
+  /**
+   * Test method for {@link RoleController#getUsers(String, String, Integer)}.
+   */
+  @Test
+  public void testGetUsersIllegal() {
+    final ResponseEntity<List<UserDto>> expectedResponse =
+        new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+    assertThat(getController().getUsers(ID.toString(), "this_is_not_a_UUID", null),
+        is(expectedResponse));
+    assertThat(getController().getUsers(ID.toString(), null, 0), is(expectedResponse));
+    assertThat(getController().getUsers(ID.toString(), null, RoleController.MAX_PAGE_SIZE + 1),
+        is(expectedResponse));
+
+    verifyNoMoreInteractions(userService);
+  }
+
+  /**
+   * Test method for {@link RoleController#countUsers(String)}.
+   */
+  @Test
+  public void testCountUsers() {
+    when(userService.countByRole(ID)).thenReturn(42L);
+
+    final ResponseEntity<Long> actual = getController().countUsers(ID.toString());
+
+    verify(userService, times(1)).countByRole(ID);
+    verifyNoMoreInteractions(userService);
+
+    assertThat(actual, is(new ResponseEntity<>(42L, HttpStatus.OK)));
+  }
+
+  /**
+   * Test method for {@link RoleController#countUsers(String)}.
+   */
+  @Test
+  public void testCountUsersNotFound() {
+    when(userService.countByRole(ID)).thenThrow(new RoleNotFoundException());
+
+    final ResponseEntity<Long> actual = getController().countUsers(ID.toString());
+
+    assertThat(actual, is(new ResponseEntity<>(HttpStatus.NOT_FOUND)));
+  }
+
+  /**
+   * Test method for {@link RoleController#addUsers(String, List)}.
+   */
+  @Test
+  public void testAddUsers() {
+    final List<UUID> users = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+
+    when(userService.addToRole(ID, users)).thenReturn(2);
+
+    final ResponseEntity<Integer> actual = getController().addUsers(ID.toString(),
+        Arrays.asList(users.get(0).toString(), users.get(1).toString()));
+
+    verify(userService, times(1)).addToRole(ID, users);
+    verifyNoMoreInteractions(userService);
+
+    assertThat(actual, is(new ResponseEntity<>(2, HttpStatus.OK)));
+  }
+
+  /**
+   * Test method for {@link RoleController#addUsers(String, List)}.
+   */
+  @Test
+  public void testAddUsersNotFound() {
+    final List<UUID> users = Arrays.asList(UUID.randomUUID());
+
+    when(userService.addToRole(ID, users)).thenThrow(new RoleNotFoundException());
+
+    final ResponseEntity<Integer> actual =
+        getController().addUsers(ID.toString(), Arrays.asList(users.get(0).toString()));
+
+    assertThat(actual, is(new ResponseEntity<>(HttpStatus.NOT_FOUND)));
+  }
+
+  /**
+   * Test method for {@link RoleController#addUsers(String, List)}.
+   */
+  @Test
+  public void testAddUsersIllegal() {
+    final ResponseEntity<Integer> expectedResponse = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+    assertThat(getController().addUsers(ID.toString(), null), is(expectedResponse));
+    assertThat(getController().addUsers(ID.toString(), Arrays.asList("this_is_not_a_UUID")),
+        is(expectedResponse));
+
+    verifyNoMoreInteractions(userService);
+  }
+
+  /**
+   * Test method for {@link RoleController#removeUsers(String, List)}.
+   */
+  @Test
+  public void testRemoveUsers() {
+    final List<UUID> users = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+
+    when(userService.removeFromRole(ID, users)).thenReturn(1);
+
+    final ResponseEntity<Integer> actual = getController().removeUsers(ID.toString(),
+        Arrays.asList(users.get(0).toString(), users.get(1).toString()));
+
+    verify(userService, times(1)).removeFromRole(ID, users);
+    verifyNoMoreInteractions(userService);
+
+    assertThat(actual, is(new ResponseEntity<>(1, HttpStatus.OK)));
+  }
+
+  /**
+   * Test method for {@link RoleController#removeUsers(String, List)}.
+   */
+  @Test
+  public void testRemoveUsersNotFound() {
+    final List<UUID> users = Arrays.asList(UUID.randomUUID());
+
+    when(userService.removeFromRole(ID, users)).thenThrow(new RoleNotFoundException());
+
+    final ResponseEntity<Integer> actual =
+        getController().removeUsers(ID.toString(), Arrays.asList(users.get(0).toString()));
+
+    assertThat(actual, is(new ResponseEntity<>(HttpStatus.NOT_FOUND)));
+  }
+
+  /**
+   * Test method for {@link RoleController#addPermissions(String, List)}.
+   * 
+   * @throws RoleNotFoundException if the role is not found.
+   */
+  @Test
+  public void testAddPermissions() throws RoleNotFoundException {
+    final List<UUID> permissions = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+    final ResponseEntity<Integer> expectedResponse = new ResponseEntity<>(2, HttpStatus.OK);
+
+    when(getMockService().addPermissions(ID, permissions)).thenReturn(2);
+
+    final ResponseEntity<Integer> actual = getController().addPermissions(ID.toString(),
+        Arrays.asList(permissions.get(0).toString(), permissions.get(1).toString()));
+
+    verify(getMockService(), times(1)).addPermissions(ID, permissions);
+    verifyNoMoreInteractions(getMockService());
+
+    assertThat(actual, is(expectedResponse));
+  }
+
+  /**
+   * Test method for {@link RoleController#addPermissions(String, List)}.
+   * 
+   * @throws RoleNotFoundException if the role is not found.
+   */
+  @Test
+  public void testAddPermissionsNotFound() throws RoleNotFoundException {
+    final List<UUID> permissions = Arrays.asList(UUID.randomUUID());
+    final ResponseEntity<Integer> expectedResponse = new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+    when(getMockService().addPermissions(ID, permissions)).thenThrow(new RoleNotFoundException());
+
+    final ResponseEntity<Integer> actual =
+        getController().addPermissions(ID.toString(), Arrays.asList(permissions.get(0).toString()));
+
+    verify(getMockService(), times(1)).addPermissions(ID, permissions);
+    verifyNoMoreInteractions(getMockService());
+
+    assertThat(actual, is(expectedResponse));
+  }
+
+  /**
+   * Test method for {@link RoleController#addPermissions(String, List)}.
+   */
+  @Test
+  public void testAddPermissionsIdIllegal() {
+    final ResponseEntity<Integer> expectedResponse = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+    final ResponseEntity<Integer> actual =
+        getController().addPermissions(ID.toString(), Arrays.asList("this_is_not_a_UUID"));
+
+    verifyNoMoreInteractions(getMockService());
+
+    assertThat(actual, is(expectedResponse));
+    assertNull(actual.getBody());
+  }
+
+  /**
+   * Test method for {@link RoleController#addPermissions(String, List)}.
+   */
+  @Test
+  public void testAddPermissionsNoPermissions() {
+    final ResponseEntity<Integer> expectedResponse = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+    final ResponseEntity<Integer> actual = getController().addPermissions(ID.toString(), null);
+
+    verifyNoMoreInteractions(getMockService());
+
+    assertThat(actual, is(expectedResponse));
+  }
+
+  /**
+   * Test method for {@link RoleController#removePermissions(String, List)}.
+   * 
+   * @throws RoleNotFoundException if the role is not found.
+   */
+  @Test
+  public void testRemovePermissions() throws RoleNotFoundException {
+    final List<UUID> permissions = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+    final ResponseEntity<Integer> expectedResponse = new ResponseEntity<>(1, HttpStatus.OK);
+
+    when(getMockService().removePermissions(ID, permissions)).thenReturn(1);
+
+    final ResponseEntity<Integer> actual = getController().removePermissions(ID.toString(),
+        Arrays.asList(permissions.get(0).toString(), permissions.get(1).toString()));
+
+    verify(getMockService(), times(1)).removePermissions(ID, permissions);
+    verifyNoMoreInteractions(getMockService());
+
+    assertThat(actual, is(expectedResponse));
+  }
+
+  /**
+   * Test method for {@link RoleController#removePermissions(String, List)}.
+   * 
+   * @throws RoleNotFoundException if the role is not found.
+   */
+  @Test
+  public void testRemovePermissionsNotFound() throws RoleNotFoundException {
+    final List<UUID> permissions = Arrays.asList(UUID.randomUUID());
+    final ResponseEntity<Integer> expectedResponse = new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+    when(getMockService().removePermissions(ID, permissions))
+        .thenThrow(new RoleNotFoundException());
+
+    final ResponseEntity<Integer> actual = getController().removePermissions(ID.toString(),
+        Arrays.asList(permissions.get(0).toString()));
+
+    verify(getMockService(), times(1)).removePermissions(ID, permissions);
+    verifyNoMoreInteractions(getMockService());
+
+    assertThat(actual, is(expectedResponse));
+  }
+
+  /**
+   * Test method for {@link RoleController#removePermissions(String, List)}.
+   */
+  @Test
+  public void testRemovePermissionsIdIllegal() {
+    final ResponseEntity<Integer> expectedResponse = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+    final ResponseEntity<Integer> actual =
+        getController().removePermissions(ID.toString(), Arrays.asList("this_is_not_a_UUID"));
+
+    verifyNoMoreInteractions(getMockService());
+
+    assertThat(actual, is(expectedResponse));
+  }
+
+  /**
+   * Test method for {@link RoleController#addPermissionsMatrix(RolePermissionsDto)}.
+   */
+  @Test
+  public void testAddPermissionsMatrix() {
+    final UUID[] roles = {ID, UUID.randomUUID()};
+    final UUID[] permissions = {UUID.randomUUID(), UUID.randomUUID()};
+    final ResponseEntity<Integer> expectedResponse = new ResponseEntity<>(4, HttpStatus.OK);
+
+    when(getMockService().addPermissions(Arrays.asList(roles), Arrays.asList(permissions)))
+        .thenReturn(4);
+
+    final ResponseEntity<Integer> actual =
+        getController().addPermissionsMatrix(new RolePermissionsDto(roles, permissions));
+
+    verify(getMockService(), times(1)).addPermissions(Arrays.asList(roles),
+        Arrays.asList(permissions));
+    verifyNoMoreInteractions(getMockService());
+
+    assertThat(actual, is(expectedResponse));
+  }
+
+  /**
+   * Test method for {@link RoleController#addPermissionsMatrix(RolePermissionsDto)}.
+   */
+  @Test
+  public void testAddPermissionsMatrixNull() {
+    final ResponseEntity<Integer> expectedResponse = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+    final ResponseEntity<Integer> actual = getController().addPermissionsMatrix(null);
+
+    verifyNoMoreInteractions(getMockService());
+
+    assertThat(actual, is(expectedResponse));
+  }
+
+  /**
+   * Test method for {@link RoleController#removePermissionsMatrix(RolePermissionsDto)}.
+   */
+  @Test
+  public void testRemovePermissionsMatrix() {
+    final UUID[] roles = {ID, UUID.randomUUID()};
+    final UUID[] permissions = {UUID.randomUUID()};
+    final ResponseEntity<Integer> expectedResponse = new ResponseEntity<>(2, HttpStatus.OK);
+
+    when(getMockService().removePermissions(Arrays.asList(roles), Arrays.asList(permissions)))
+        .thenReturn(2);
+
+    final ResponseEntity<Integer> actual =
+        getController().removePermissionsMatrix(new RolePermissionsDto(roles, permissions));
+
+    verify(getMockService(), times(1)).removePermissions(Arrays.asList(roles),
+        Arrays.asList(permissions));
+    verifyNoMoreInteractions(getMockService());
+
+    assertThat(actual, is(expectedResponse));
+  }
+
+  /**
+   * Test method for {@link RoleController#removePermissionsMatrix(RolePermissionsDto)}.
+   */
+  @Test
+  public void testRemovePermissionsMatrixNoRoles() {
+    final ResponseEntity<Integer> expectedResponse = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+    final ResponseEntity<Integer> actual = getController()
+        .removePermissionsMatrix(new RolePermissionsDto(null, new UUID[] {UUID.randomUUID()}));
+
+    verifyNoMoreInteractions(getMockService());
+
+    assertThat(actual, is(expectedResponse));
+  }
+
 }
@@ -8,6 +8,7 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -16,25 +17,25 @@ import static org.mockito.Mockito.when;
 
 import com.monogramm.starter.api.AbstractGenericController;
 import com.monogramm.starter.api.AbstractGenericControllerTest;
+import com.monogramm.starter.config.component.RateLimitExceededException;
+import com.monogramm.starter.config.component.RateLimiter;
 import com.monogramm.starter.dto.user.PasswordResetDto;
 import com.monogramm.starter.dto.user.RegistrationDto;
 import com.monogramm.starter.dto.user.UserDto;
 import com.monogramm.starter.persistence.AbstractGenericBridge;
 import com.monogramm.starter.persistence.EntityNotFoundException;
 import com.monogramm.starter.persistence.role.exception.RoleNotFoundException;
-import com.monogramm.starter.persistence.user.entity.PasswordResetToken;
 import com.monogramm.starter.persistence.user.entity.User;
-import com.monogramm.starter.persistence.user.entity.VerificationToken;
-import com.monogramm.starter.persistence.user.exception.PasswordResetTokenNotFoundException;
 import com.monogramm.starter.persistence.user.exception.UserNotFoundException;
-import com.monogramm.starter.persistence.user.exception.VerificationTokenNotFoundException;
 import com.monogramm.starter.persistence.user.service.IPasswordResetTokenService;
 import com.monogramm.starter.persistence.user.service.IUserService;
 import com.monogramm.starter.persistence.user.service.IVerificationTokenService;
 import com.monogramm.starter.persistence.user.service.UserBridge;
 import com.monogramm.starter.utils.validation.PasswordConfirmationDto;
 
-import java.util.Date;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.After;
@@ -58,6 +59,7 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
   private static final String EMAIL = "foo@email.com";
   private static final char[] PASSWORD = {'p', 'a', 's', 's', 'w', 'o', 'r', 'd'};
   private static final String TOKEN = "Foo";
+  private static final String PASSWORD_HASH = "hash";
 
   private char[] password;
 
@@ -166,16 +168,14 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
     final UserDto dto = getBridge().toDto(model);
     final ResponseEntity<UserDto> expectedResponse = new ResponseEntity<>(dto, HttpStatus.OK);
 
-    when(this.getMockService().findByUsernameOrEmail(model.getUsername(), model.getEmail()))
-        .thenReturn(model);
-    when(this.getMockService().toDto(model)).thenReturn(dto);
+    when(this.getMockService().findDtoByUsernameOrEmail(model.getUsername(), model.getEmail()))
+        .thenReturn(dto);
 
     final ResponseEntity<UserDto> actual =
         getController().getUserByUsernameOrEmail(model.getUsername(), model.getEmail());
 
-    verify(this.getMockService(), times(1)).findByUsernameOrEmail(model.getUsername(),
+    verify(this.getMockService(), times(1)).findDtoByUsernameOrEmail(model.getUsername(),
         model.getEmail());
-    verify(this.getMockService(), times(1)).toDto(model);
     verifyNoMoreInteractions(this.getMockService());
 
     assertThat(actual, is(expectedResponse));
@@ -186,16 +186,15 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
    */
   @Test
   public void testGeUserByUsernameOrEmailNotFound() {
-    final User model = null;
     final UserDto dto = null;
     final ResponseEntity<UserDto> expectedResponse =
         new ResponseEntity<>(dto, HttpStatus.NOT_FOUND);
 
-    when(this.getMockService().findByUsernameOrEmail(null, null)).thenReturn(model);
+    when(this.getMockService().findDtoByUsernameOrEmail(null, null)).thenReturn(dto);
 
     final ResponseEntity<UserDto> actual = getController().getUserByUsernameOrEmail(null, null);
 
-    verify(this.getMockService(), times(1)).findByUsernameOrEmail(null, null);
+    verify(this.getMockService(), times(1)).findDtoByUsernameOrEmail(null, null);
     verifyNoMoreInteractions(this.getMockService());
 
     assertThat(actual, is(expectedResponse));
@@ -210,13 +209,13 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
     final ResponseEntity<UserDto> expectedResponse =
         new ResponseEntity<>(dto, HttpStatus.NOT_FOUND);
 
-    when(this.getMockService().findByUsernameOrEmail("dummy_name", "this_is_not_an_email"))
+    when(this.getMockService().findDtoByUsernameOrEmail("dummy_name", "this_is_not_an_email"))
         .thenReturn(null);
 
     final ResponseEntity<UserDto> actual =
         getController().getUserByUsernameOrEmail("dummy_name", "this_is_not_an_email");
 
-    verify(this.getMockService(), times(1)).findByUsernameOrEmail("dummy_name",
+    verify(this.getMockService(), times(1)).findDtoByUsernameOrEmail("dummy_name",
         "this_is_not_an_email");
     verifyNoMoreInteractions(this.getMockService());
 
@@ -282,98 +281,64 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
 
   /**
    * Test method for {@link UserController#resetPassword(java.lang.String)}.
-   * 
-   * @throws PasswordResetTokenNotFoundException if password reset not found.
-   * @throws UserNotFoundException if user not found.
    */
   @Test
-  public void testResetPasswordPasswordResetDto() {
-    final User model = User.builder(USERNAME, EMAIL).id(ID).build();
-    final PasswordResetToken passwordResetToken =
-        new PasswordResetToken(TOKEN, new Date(System.currentTimeMillis() + 1440 * 60_000));
-    final PasswordResetDto passwordReset =
-        new PasswordResetDto(EMAIL, TOKEN, PASSWORD.clone(), PASSWORD.clone());
-    final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NO_CONTENT);
+  public void testResetPasswordStringRateLimited() {
+    final RateLimiter rateLimiter = new RateLimiter(true, 16,
+        Collections.singletonMap(RateLimiter.RESET_PASSWORD, new RateLimiter.Limit(1, 60_000L)));
+    final UserController controller = new UserController(getMockService(), eventPublisher,
+        verificationService, passwordResetTokenService, rateLimiter);
 
-    when(getMockService().findByEmail(EMAIL)).thenReturn(model);
-    when(passwordResetTokenService.findByUserAndCode(model, TOKEN)).thenReturn(passwordResetToken);
-    when(getMockService().setPassword(model.getId(), passwordReset.getPassword()))
-        .thenReturn(model);
+    when(getMockService().findByEmail(EMAIL)).thenReturn(null);
 
-    final ResponseEntity<Void> actual = getController().resetPassword(passwordReset);
+    controller.resetPassword(EMAIL, request);
+    try {
+      controller.resetPassword("{\"email\": \" Foo@Email.com \"}", request);
+      fail("Second password reset should have been rejected");
+    } catch (RateLimitExceededException e) {
+      assertThat(e.getRetryAfterSeconds(), is(60L));
+    }
 
     verify(getMockService(), times(1)).findByEmail(EMAIL);
-    verify(getMockService(), times(1)).setPassword(model.getId(), passwordReset.getPassword());
     verifyNoMoreInteractions(getMockService());
-
-    verify(passwordResetTokenService, times(1)).findByUserAndCode(model, TOKEN);
-    verify(passwordResetTokenService, times(1)).update(passwordResetToken);
-    verifyNoMoreInteractions(passwordResetTokenService);
-
-    assertThat(actual.getStatusCode(), is(expectedResponse.getStatusCode()));
-    assertNull(expectedResponse.getBody());
-
-    assertNull(actual.getBody());
+    assertThat(rateLimiter.getRejectedCount(RateLimiter.RESET_PASSWORD), is(1L));
   }
 
   /**
-   * Test method for {@link UserController#resetPassword(java.lang.String)}.
-   * 
-   * @throws PasswordResetTokenNotFoundException if password reset not found.
-   * @throws UserNotFoundException if user not found.
+   * Test method for {@link UserController#readEmail(String)}.
    */
   @Test
-  public void testResetPasswordPasswordResetDtoOutOfDate() {
-    final User model = User.builder(USERNAME, EMAIL).id(ID).build();
-    final PasswordResetToken passwordResetToken =
-        new PasswordResetToken(TOKEN, new Date(System.currentTimeMillis() - 1));
-    final PasswordResetDto passwordReset =
-        new PasswordResetDto(EMAIL, TOKEN, PASSWORD.clone(), PASSWORD.clone());
-    final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
-    when(getMockService().findByEmail(EMAIL)).thenReturn(model);
-    when(passwordResetTokenService.findByUserAndCode(model, TOKEN)).thenReturn(passwordResetToken);
-
-    final ResponseEntity<Void> actual = getController().resetPassword(passwordReset);
-
-    verify(getMockService(), times(1)).findByEmail(EMAIL);
-    verifyNoMoreInteractions(getMockService());
-
-    verify(passwordResetTokenService, times(1)).findByUserAndCode(model, TOKEN);
-    verifyNoMoreInteractions(passwordResetTokenService);
-
-    assertThat(actual.getStatusCode(), is(expectedResponse.getStatusCode()));
-    assertNull(expectedResponse.getBody());
-
-    assertNull(actual.getBody());
+  public void testReadEmail() {
+    assertNull(UserController.readEmail(null));
+    assertThat(UserController.readEmail(EMAIL), is(EMAIL));
+    assertThat(UserController.readEmail(" Foo@Email.com\n"), is(EMAIL));
+    assertThat(UserController.readEmail("\"FOO@email.com\""), is(EMAIL));
+    assertThat(UserController.readEmail("{\"email\":\"foo@EMAIL.com\"}"), is(EMAIL));
+    assertThat(UserController.readEmail("\"foo@email.com"), is("\"foo@email.com"));
   }
 
   /**
-   * Test method for {@link UserController#resetPassword(java.lang.String)}.
+   * Test method for {@link UserController#resetPassword(PasswordResetDto)}.
    * 
-   * @throws PasswordResetTokenNotFoundException if password reset not found.
    * @throws UserNotFoundException if user not found.
    */
   @Test
-  public void testResetPasswordPasswordResetDtoPasswordUserNotFound() {
-    final User model = User.builder(USERNAME, EMAIL).id(ID).build();
-    final PasswordResetToken passwordResetToken =
-        new PasswordResetToken(TOKEN, new Date(System.currentTimeMillis() + 1440 * 60_000));
+  public void testResetPasswordPasswordResetDto() {
     final PasswordResetDto passwordReset =
         new PasswordResetDto(EMAIL, TOKEN, PASSWORD.clone(), PASSWORD.clone());
-    final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NO_CONTENT);
 
-    when(getMockService().findByEmail(EMAIL)).thenReturn(model);
-    when(passwordResetTokenService.findByUserAndCode(model, TOKEN)).thenReturn(passwordResetToken);
-    when(getMockService().setPassword(model.getId(), passwordReset.getPassword())).thenReturn(null);
+    when(passwordResetTokenService.isValid(EMAIL, TOKEN)).thenReturn(true);
+    when(getMockService().hashPassword(passwordReset.getPassword())).thenReturn(PASSWORD_HASH);
+    when(passwordResetTokenService.consume(EMAIL, TOKEN, PASSWORD_HASH)).thenReturn(true);
 
     final ResponseEntity<Void> actual = getController().resetPassword(passwordReset);
 
-    verify(getMockService(), times(1)).findByEmail(EMAIL);
-    verify(getMockService(), times(1)).setPassword(model.getId(), passwordReset.getPassword());
+    verify(getMockService(), times(1)).hashPassword(passwordReset.getPassword());
     verifyNoMoreInteractions(getMockService());
 
-    verify(passwordResetTokenService, times(1)).findByUserAndCode(model, TOKEN);
+    verify(passwordResetTokenService, times(1)).isValid(EMAIL, TOKEN);
+    verify(passwordResetTokenService, times(1)).consume(EMAIL, TOKEN, PASSWORD_HASH);
     verifyNoMoreInteractions(passwordResetTokenService);
 
     assertThat(actual.getStatusCode(), is(expectedResponse.getStatusCode()));
@@ -383,46 +348,52 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
   }
 
   /**
-   * Test method for {@link UserController#resetPassword(java.lang.String)}.
+   * Test method for {@link UserController#resetPassword(PasswordResetDto)}.
+   * 
+   * @throws UserNotFoundException if user not found.
    */
   @Test
-  public void testResetPasswordPasswordResetDtoUserNotFound() {
+  public void testResetPasswordPasswordResetDtoTokenNotFound() {
     final PasswordResetDto passwordReset =
         new PasswordResetDto(EMAIL, TOKEN, PASSWORD.clone(), PASSWORD.clone());
     final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
-    when(getMockService().findByEmail(EMAIL)).thenReturn(null);
+    when(passwordResetTokenService.isValid(EMAIL, TOKEN)).thenReturn(false);
 
     final ResponseEntity<Void> actual = getController().resetPassword(passwordReset);
 
-    verify(getMockService(), times(1)).findByEmail(EMAIL);
+    // An unknown token never costs a password hash
     verifyNoMoreInteractions(getMockService());
 
+    verify(passwordResetTokenService, times(1)).isValid(EMAIL, TOKEN);
+    verifyNoMoreInteractions(passwordResetTokenService);
+
     assertThat(actual, is(expectedResponse));
     assertNull(actual.getBody());
   }
 
   /**
-   * Test method for {@link UserController#resetPassword(java.lang.String)}.
+   * Test method for {@link UserController#resetPassword(PasswordResetDto)}.
    * 
-   * @throws PasswordResetTokenNotFoundException if password reset not found.
+   * @throws UserNotFoundException if user not found.
    */
   @Test
-  public void testResetPasswordPasswordResetDtoTokenNotFound() {
-    final User model = User.builder(USERNAME, EMAIL).id(ID).build();
+  public void testResetPasswordPasswordResetDtoTokenConsumedConcurrently() {
     final PasswordResetDto passwordReset =
         new PasswordResetDto(EMAIL, TOKEN, PASSWORD.clone(), PASSWORD.clone());
     final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
-    when(getMockService().findByEmail(EMAIL)).thenReturn(model);
-    when(passwordResetTokenService.findByUserAndCode(model, TOKEN)).thenReturn(null);
+    when(passwordResetTokenService.isValid(EMAIL, TOKEN)).thenReturn(true);
+    when(getMockService().hashPassword(passwordReset.getPassword())).thenReturn(PASSWORD_HASH);
+    when(passwordResetTokenService.consume(EMAIL, TOKEN, PASSWORD_HASH)).thenReturn(false);
 
     final ResponseEntity<Void> actual = getController().resetPassword(passwordReset);
 
-    verify(getMockService(), times(1)).findByEmail(EMAIL);
+    verify(getMockService(), times(1)).hashPassword(passwordReset.getPassword());
     verifyNoMoreInteractions(getMockService());
 
-    verify(passwordResetTokenService, times(1)).findByUserAndCode(model, TOKEN);
+    verify(passwordResetTokenService, times(1)).isValid(EMAIL, TOKEN);
+    verify(passwordResetTokenService, times(1)).consume(EMAIL, TOKEN, PASSWORD_HASH);
     verifyNoMoreInteractions(passwordResetTokenService);
 
     assertThat(actual, is(expectedResponse));
@@ -430,27 +401,25 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
   }
 
   /**
-   * Test method for {@link UserController#resetPassword(java.lang.String)}.
+   * Test method for {@link UserController#resetPassword(PasswordResetDto)}.
    * 
-   * @throws PasswordResetTokenNotFoundException
+   * @throws UserNotFoundException if user not found.
    */
   @Test
-  public void testResetPasswordPasswordResetDtoTokenNotFoundException() {
-    final User model = User.builder(USERNAME, EMAIL).id(ID).build();
+  public void testResetPasswordPasswordResetDtoUserNotFoundException() {
     final PasswordResetDto passwordReset =
         new PasswordResetDto(EMAIL, TOKEN, PASSWORD.clone(), PASSWORD.clone());
     final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
-    when(getMockService().findByEmail(EMAIL)).thenReturn(model);
-    when(passwordResetTokenService.findByUserAndCode(model, TOKEN))
-        .thenThrow(new PasswordResetTokenNotFoundException());
+    when(passwordResetTokenService.isValid(EMAIL, TOKEN)).thenReturn(true);
+    when(getMockService().hashPassword(passwordReset.getPassword())).thenReturn(PASSWORD_HASH);
+    when(passwordResetTokenService.consume(EMAIL, TOKEN, PASSWORD_HASH))
+        .thenThrow(new UserNotFoundException());
 
     final ResponseEntity<Void> actual = getController().resetPassword(passwordReset);
 
-    verify(getMockService(), times(1)).findByEmail(EMAIL);
-    verifyNoMoreInteractions(getMockService());
-
-    verify(passwordResetTokenService, times(1)).findByUserAndCode(model, TOKEN);
+    verify(passwordResetTokenService, times(1)).isValid(EMAIL, TOKEN);
+    verify(passwordResetTokenService, times(1)).consume(EMAIL, TOKEN, PASSWORD_HASH);
     verifyNoMoreInteractions(passwordResetTokenService);
 
     assertThat(actual, is(expectedResponse));
@@ -464,11 +433,10 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
    */
   @Test
   public void testChangePassword() {
-    final User model = User.builder(USERNAME, EMAIL).id(ID).build();
     final PasswordConfirmationDto dto = new PasswordConfirmationDto(password, password);
     final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NO_CONTENT);
 
-    when(getMockService().setPassword(ID, password)).thenReturn(model);
+    when(getMockService().setPassword(ID, password)).thenReturn(1);
 
     final ResponseEntity<Void> actual = getController().changePassword(ID.toString(), dto);
 
@@ -509,7 +477,7 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
     final PasswordConfirmationDto dto = new PasswordConfirmationDto(password, password);
     final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
-    when(getMockService().setPassword(ID, password)).thenReturn(null);
+    when(getMockService().setPassword(ID, password)).thenReturn(0);
 
     final ResponseEntity<Void> actual = getController().changePassword(ID.toString(), dto);
 
@@ -564,10 +532,9 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
    */
   @Test
   public void testActivate() {
-    final User model = User.builder(USERNAME, EMAIL).id(ID).build();
     final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NO_CONTENT);
 
-    when(getMockService().setEnabled(ID, false)).thenReturn(model);
+    when(getMockService().setEnabled(ID, false)).thenReturn(1);
 
     final ResponseEntity<Void> actual = getController().activate(ID.toString(), Boolean.FALSE);
 
@@ -606,7 +573,7 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
   public void testActivateNotFound() {
     final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
-    when(getMockService().setEnabled(ID, false)).thenReturn(null);
+    when(getMockService().setEnabled(ID, false)).thenReturn(0);
 
     final ResponseEntity<Void> actual = getController().activate(ID.toString(), Boolean.FALSE);
 
@@ -653,6 +620,56 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
     assertNull(actual.getBody());
   }
 
+  /**
+   * Test method for {@link UserController#activateAll(List, Boolean)}.
+   */
+  @Test
+  public void testActivateAll() {
+    final List<UUID> ids = Arrays.asList(ID, UUID.randomUUID());
+    final ResponseEntity<Integer> expectedResponse = new ResponseEntity<>(1, HttpStatus.OK);
+
+    when(getMockService().setEnabled(ids, true)).thenReturn(1);
+
+    final ResponseEntity<Integer> actual = getController()
+        .activateAll(Arrays.asList(ids.get(0).toString(), ids.get(1).toString()), Boolean.TRUE);
+
+    verify(getMockService(), times(1)).setEnabled(ids, true);
+    verifyNoMoreInteractions(getMockService());
+
+    assertThat(actual, is(expectedResponse));
+  }
+
+  /**
+   * Test method for {@link UserController#activateAll(List, Boolean)}.
+   */
+  @Test
+  public void testActivateAllIdIllegal() {
+    final ResponseEntity<Integer> expectedResponse = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+    final ResponseEntity<Integer> actual =
+        getController().activateAll(Arrays.asList("this_is_not_a_UUID"), Boolean.TRUE);
+
+    verifyNoMoreInteractions(getMockService());
+
+    assertThat(actual, is(expectedResponse));
+    assertNull(actual.getBody());
+  }
+
+  /**
+   * Test method for {@link UserController#activateAll(List, Boolean)}.
+   */
+  @Test
+  public void testActivateAllNoEnabled() {
+    final ResponseEntity<Integer> expectedResponse = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+    final ResponseEntity<Integer> actual =
+        getController().activateAll(Arrays.asList(ID.toString()), null);
+
+    verifyNoMoreInteractions(getMockService());
+
+    assertThat(actual, is(expectedResponse));
+  }
+
   /**
    * Test method for {@link UserController#register(RegisterRequest)}.
    * 
@@ -735,6 +752,38 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
     verifyNoMoreInteractions(getMockService());
   }
 
+  /**
+   * Test method for {@link UserController#register(RegisterRequest)}.
+   */
+  @Test
+  public void testRegisterRateLimited() {
+    final RateLimiter rateLimiter = new RateLimiter(true, 16,
+        Collections.singletonMap(RateLimiter.REGISTER, new RateLimiter.Limit(1, 60_000L)));
+    final UserController controller = new UserController(getMockService(), eventPublisher,
+        verificationService, passwordResetTokenService, rateLimiter);
+
+    final RegistrationDto model = new RegistrationDto();
+    model.setUsername(USERNAME);
+    model.setEmail(EMAIL);
+    model.setPassword(PASSWORD);
+    model.setMatchingPassword(PASSWORD);
+
+    when(getMockService().register(model)).thenReturn(false);
+
+    controller.register(model, request);
+    try {
+      controller.register(model, request);
+      fail("Second registration should have been rejected");
+    } catch (RateLimitExceededException e) {
+      assertThat(e.getRetryAfterSeconds(), is(60L));
+    }
+
+    verify(getMockService(), times(1)).register(model);
+    verifyNoMoreInteractions(getMockService());
+    assertThat(rateLimiter.getAllowedCount(RateLimiter.REGISTER), is(1L));
+    assertThat(rateLimiter.getRejectedCount(RateLimiter.REGISTER), is(1L));
+  }
+
   /**
    * Test method for {@link UserController#sendVerification(String, WebRequest)}.
    */
@@ -817,24 +866,18 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
    * Test method for {@link UserController#verify(String, String)}.
    * 
    * @throws UserNotFoundException if the user entity to update is not found.
-   * @throws VerificationTokenNotFoundException if the verification token entity is not found.
    */
   @Test
   public void testVerify() {
-    final VerificationToken verificationToken = new VerificationToken();
-    final User model = User.builder(USERNAME, EMAIL).id(ID).build();
     final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NO_CONTENT);
 
-    when(verificationService.findByUserAndCode(ID, TOKEN)).thenReturn(verificationToken);
-    when(getMockService().verify(ID)).thenReturn(model);
+    when(verificationService.consume(ID, TOKEN)).thenReturn(true);
 
     final ResponseEntity<Void> actual = getController().verify(ID.toString(), TOKEN);
 
-    verify(verificationService, times(1)).findByUserAndCode(ID, TOKEN);
-    verify(verificationService, times(1)).update(verificationToken);
+    verify(verificationService, times(1)).consume(ID, TOKEN);
     verifyNoMoreInteractions(verificationService);
 
-    verify(getMockService(), times(1)).verify(ID);
     verifyNoMoreInteractions(getMockService());
 
     assertThat(actual.getStatusCode(), is(expectedResponse.getStatusCode()));
@@ -847,67 +890,16 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
    * Test method for {@link UserController#verify(String, String)}.
    * 
    * @throws UserNotFoundException if the user entity to update is not found.
-   * @throws VerificationTokenNotFoundException if the verification token entity is not found.
    */
   @Test
   public void testVerifyNotFound() {
     final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
-    when(verificationService.findByUserAndCode(ID, TOKEN)).thenReturn(null);
-
-    final ResponseEntity<Void> actual = getController().verify(ID.toString(), TOKEN);
-
-    verify(verificationService, times(1)).findByUserAndCode(ID, TOKEN);
-    verifyNoMoreInteractions(verificationService);
-
-    verifyNoMoreInteractions(getMockService());
-
-    assertThat(actual, is(expectedResponse));
-    assertNull(actual.getBody());
-  }
-
-  /**
-   * Test method for {@link UserController#verify(String, String)}.
-   * 
-   * @throws UserNotFoundException if the user entity to update is not found.
-   * @throws VerificationTokenNotFoundException if the verification token entity is not found.
-   */
-  @Test
-  public void testVerifyUserNotFound() {
-    final VerificationToken verificationToken = new VerificationToken();
-    final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
-    when(verificationService.findByUserAndCode(ID, TOKEN)).thenReturn(verificationToken);
-    when(getMockService().verify(ID)).thenReturn(null);
-
-    final ResponseEntity<Void> actual = getController().verify(ID.toString(), TOKEN);
-
-    verify(verificationService, times(1)).findByUserAndCode(ID, TOKEN);
-    verifyNoMoreInteractions(verificationService);
-
-    verify(getMockService(), times(1)).verify(ID);
-    verifyNoMoreInteractions(getMockService());
-
-    assertThat(actual, is(expectedResponse));
-    assertNull(actual.getBody());
-  }
-
-  /**
-   * Test method for {@link UserController#verify(String, String)}.
-   * 
-   * @throws UserNotFoundException if the user entity to update is not found.
-   * @throws VerificationTokenNotFoundException if the verification token entity is not found.
-   */
-  @Test
-  public void testVerifyVerificationTokenNotFoundException() {
-    final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
-    when(verificationService.findByUserAndCode(ID, TOKEN))
-        .thenThrow(new VerificationTokenNotFoundException());
+    when(verificationService.consume(ID, TOKEN)).thenReturn(false);
 
     final ResponseEntity<Void> actual = getController().verify(ID.toString(), TOKEN);
 
-    verify(verificationService, times(1)).findByUserAndCode(ID, TOKEN);
+    verify(verificationService, times(1)).consume(ID, TOKEN);
     verifyNoMoreInteractions(verificationService);
 
     verifyNoMoreInteractions(getMockService());
@@ -920,22 +912,18 @@ public class UserControllerTest extends AbstractGenericControllerTest<User, User
    * Test method for {@link UserController#verify(String, String)}.
    * 
    * @throws UserNotFoundException if the user entity to update is not found.
-   * @throws VerificationTokenNotFoundException if the verification token entity is not found.
    */
   @Test
   public void testVerifyUserNotFoundException() {
-    final VerificationToken verificationToken = new VerificationToken();
     final ResponseEntity<Void> expectedResponse = new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
-    when(verificationService.findByUserAndCode(ID, TOKEN)).thenReturn(verificationToken);
-    when(getMockService().verify(ID)).thenThrow(new UserNotFoundException());
+    when(verificationService.consume(ID, TOKEN)).thenThrow(new UserNotFoundException());
 
     final ResponseEntity<Void> actual = getController().verify(ID.toString(), TOKEN);
 
-    verify(verificationService, times(1)).findByUserAndCode(ID, TOKEN);
+    verify(verificationService, times(1)).consume(ID, TOKEN);
     verifyNoMoreInteractions(verificationService);
 
-    verify(getMockService(), times(1)).verify(ID);
     verifyNoMoreInteractions(getMockService());
 
     assertThat(actual, is(expectedResponse));
@@ -14,6 +14,7 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import com.monogramm.starter.api.user.event.OnPasswordResetEvent;
+import com.monogramm.starter.persistence.mail.service.IMailOutboxService;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.exception.PasswordResetTokenNotFoundException;
 import com.monogramm.starter.persistence.user.service.IPasswordResetTokenService;
@@ -27,7 +28,6 @@ import org.mockito.Mockito;
 import org.springframework.context.MessageSource;
 import org.springframework.core.env.Environment;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 
 /**
  * {@link PasswordResetListener} Unit Test.
@@ -40,7 +40,7 @@ public class PasswordResetListenerTest {
 
   private MessageSource messages;
 
-  private JavaMailSender mailSender;
+  private IMailOutboxService outboxService;
 
   private Environment env;
 
@@ -57,13 +57,14 @@ public class PasswordResetListenerTest {
     messages = mock(MessageSource.class);
     assertNotNull(messages);
 
-    mailSender = mock(JavaMailSender.class);
-    assertNotNull(mailSender);
+    outboxService = mock(IMailOutboxService.class);
+    assertNotNull(outboxService);
 
     env = mock(Environment.class);
     assertNotNull(env);
 
-    this.listener = new PasswordResetListener(passwordResetTokenService, messages, mailSender, env);
+    this.listener =
+        new PasswordResetListener(passwordResetTokenService, messages, outboxService, env);
   }
 
   /**
@@ -73,7 +74,7 @@ public class PasswordResetListenerTest {
   public void tearDown() throws Exception {
     Mockito.reset(passwordResetTokenService);
     Mockito.reset(messages);
-    Mockito.reset(mailSender);
+    Mockito.reset(outboxService);
     Mockito.reset(env);
 
     this.listener = null;
@@ -81,47 +82,48 @@ public class PasswordResetListenerTest {
 
   /**
    * Test method for
-   * {@link PasswordResetListener#PasswordResetListener(IPasswordResetTokenService, MessageSource, JavaMailSender, Environment)}.
+   * {@link PasswordResetListener#PasswordResetListener(IPasswordResetTokenService, MessageSource, IMailOutboxService, Environment)}.
    */
   @Test
   public void testPasswordResetListener() {
-    assertNotNull(new PasswordResetListener(passwordResetTokenService, messages, mailSender, env));
+    assertNotNull(
+        new PasswordResetListener(passwordResetTokenService, messages, outboxService, env));
   }
 
   /**
    * Test method for
-   * {@link PasswordResetListener#PasswordResetListener(IPasswordResetTokenService, MessageSource, JavaMailSender, Environment)}.
+   * {@link PasswordResetListener#PasswordResetListener(IPasswordResetTokenService, MessageSource, IMailOutboxService, Environment)}.
    */
   @Test(expected = IllegalArgumentException.class)
   public void testPasswordResetListenerNullTokenService() {
-    new PasswordResetListener(null, messages, mailSender, env);
+    new PasswordResetListener(null, messages, outboxService, env);
   }
 
   /**
    * Test method for
-   * {@link PasswordResetListener#PasswordResetListener(IPasswordResetTokenService, MessageSource, JavaMailSender, Environment)}.
+   * {@link PasswordResetListener#PasswordResetListener(IPasswordResetTokenService, MessageSource, IMailOutboxService, Environment)}.
    */
   @Test(expected = IllegalArgumentException.class)
   public void testPasswordResetListenerNullMessageSource() {
-    new PasswordResetListener(passwordResetTokenService, null, mailSender, env);
+    new PasswordResetListener(passwordResetTokenService, null, outboxService, env);
   }
 
   /**
    * Test method for
-   * {@link PasswordResetListener#PasswordResetListener(IPasswordResetTokenService, MessageSource, JavaMailSender, Environment)}.
+   * {@link PasswordResetListener#PasswordResetListener(IPasswordResetTokenService, MessageSource, IMailOutboxService, Environment)}.
    */
   @Test(expected = IllegalArgumentException.class)
-  public void testPasswordResetListenerNullJavaMailSender() {
+  public void testPasswordResetListenerNullMailOutboxService() {
     new PasswordResetListener(passwordResetTokenService, messages, null, env);
   }
 
   /**
    * Test method for
-   * {@link PasswordResetListener#PasswordResetListener(IPasswordResetTokenService, MessageSource, JavaMailSender, Environment)}.
+   * {@link PasswordResetListener#PasswordResetListener(IPasswordResetTokenService, MessageSource, IMailOutboxService, Environment)}.
    */
   @Test(expected = IllegalArgumentException.class)
   public void testPasswordResetListenerNullEnvironment() {
-    new PasswordResetListener(passwordResetTokenService, messages, mailSender, null);
+    new PasswordResetListener(passwordResetTokenService, messages, outboxService, null);
   }
 
   /**
@@ -162,8 +164,8 @@ public class PasswordResetListenerTest {
     verify(env, times(1)).getProperty("no_reply.email");
     verifyNoMoreInteractions(env);
 
-    verify(mailSender, times(1)).send(any(SimpleMailMessage.class));
-    verifyNoMoreInteractions(mailSender);
+    verify(outboxService, times(1)).enqueue(any(SimpleMailMessage.class));
+    verifyNoMoreInteractions(outboxService);
   }
 
   /**
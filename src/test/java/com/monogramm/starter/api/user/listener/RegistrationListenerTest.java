@@ -14,6 +14,7 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import com.monogramm.starter.api.user.event.OnRegistrationCompleteEvent;
+import com.monogramm.starter.persistence.mail.service.IMailOutboxService;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.exception.VerificationTokenNotFoundException;
 import com.monogramm.starter.persistence.user.service.IVerificationTokenService;
@@ -27,7 +28,6 @@ import org.mockito.Mockito;
 import org.springframework.context.MessageSource;
 import org.springframework.core.env.Environment;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 
 /**
  * {@link RegistrationListener} Unit Test.
@@ -40,7 +40,7 @@ public class RegistrationListenerTest {
 
   private MessageSource messages;
 
-  private JavaMailSender mailSender;
+  private IMailOutboxService outboxService;
 
   private Environment env;
 
@@ -57,13 +57,13 @@ public class RegistrationListenerTest {
     messages = mock(MessageSource.class);
     assertNotNull(messages);
 
-    mailSender = mock(JavaMailSender.class);
-    assertNotNull(mailSender);
+    outboxService = mock(IMailOutboxService.class);
+    assertNotNull(outboxService);
 
     env = mock(Environment.class);
     assertNotNull(env);
 
-    this.listener = new RegistrationListener(verificationService, messages, mailSender, env);
+    this.listener = new RegistrationListener(verificationService, messages, outboxService, env);
   }
 
   /**
@@ -73,7 +73,7 @@ public class RegistrationListenerTest {
   public void tearDown() throws Exception {
     Mockito.reset(verificationService);
     Mockito.reset(messages);
-    Mockito.reset(mailSender);
+    Mockito.reset(outboxService);
     Mockito.reset(env);
 
     this.listener = null;
@@ -81,47 +81,47 @@ public class RegistrationListenerTest {
 
   /**
    * Test method for
-   * {@link RegistrationListener#RegistrationListener(IVerificationTokenService, MessageSource, JavaMailSender, Environment)}.
+   * {@link RegistrationListener#RegistrationListener(IVerificationTokenService, MessageSource, IMailOutboxService, Environment)}.
    */
   @Test
   public void testRegistrationListener() {
-    assertNotNull(new RegistrationListener(verificationService, messages, mailSender, env));
+    assertNotNull(new RegistrationListener(verificationService, messages, outboxService, env));
   }
 
   /**
    * Test method for
-   * {@link RegistrationListener#RegistrationListener(IVerificationTokenService, MessageSource, JavaMailSender, Environment)}.
+   * {@link RegistrationListener#RegistrationListener(IVerificationTokenService, MessageSource, IMailOutboxService, Environment)}.
    */
   @Test(expected = IllegalArgumentException.class)
   public void testRegistrationListenerNullTokenService() {
-    new RegistrationListener(null, messages, mailSender, env);
+    new RegistrationListener(null, messages, outboxService, env);
   }
 
   /**
    * Test method for
-   * {@link RegistrationListener#RegistrationListener(IVerificationTokenService, MessageSource, JavaMailSender, Environment)}.
+   * {@link RegistrationListener#RegistrationListener(IVerificationTokenService, MessageSource, IMailOutboxService, Environment)}.
    */
   @Test(expected = IllegalArgumentException.class)
   public void testRegistrationListenerNullMessageSource() {
-    new RegistrationListener(verificationService, null, mailSender, env);
+    new RegistrationListener(verificationService, null, outboxService, env);
   }
 
   /**
    * Test method for
-   * {@link RegistrationListener#RegistrationListener(IVerificationTokenService, MessageSource, JavaMailSender, Environment)}.
+   * {@link RegistrationListener#RegistrationListener(IVerificationTokenService, MessageSource, IMailOutboxService, Environment)}.
    */
   @Test(expected = IllegalArgumentException.class)
-  public void testRegistrationListenerNullJavaMailSender() {
+  public void testRegistrationListenerNullMailOutboxService() {
     new RegistrationListener(verificationService, messages, null, env);
   }
 
   /**
    * Test method for
-   * {@link RegistrationListener#RegistrationListener(IVerificationTokenService, MessageSource, JavaMailSender, Environment)}.
+   * {@link RegistrationListener#RegistrationListener(IVerificationTokenService, MessageSource, IMailOutboxService, Environment)}.
    */
   @Test(expected = IllegalArgumentException.class)
   public void testRegistrationListenerNullEnvironment() {
-    new RegistrationListener(verificationService, messages, mailSender, null);
+    new RegistrationListener(verificationService, messages, outboxService, null);
   }
 
   /**
@@ -163,8 +163,8 @@ public class RegistrationListenerTest {
     verify(env, times(1)).getProperty("no_reply.email");
     verifyNoMoreInteractions(env);
 
-    verify(mailSender, times(1)).send(any(SimpleMailMessage.class));
-    verifyNoMoreInteractions(mailSender);
+    verify(outboxService, times(1)).enqueue(any(SimpleMailMessage.class));
+    verifyNoMoreInteractions(outboxService);
   }
 
   /**
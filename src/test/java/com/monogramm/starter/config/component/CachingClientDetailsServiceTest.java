@@ -0,0 +1,151 @@
+/*
+ * Creation by madmath03 the 2018-02-12.
+ */
+
+package com.monogramm.starter.config.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.NoSuchClientException;
+import org.springframework.security.oauth2.provider.client.BaseClientDetails;
+import org.springframework.security.oauth2.provider.client.JdbcClientDetailsService;
+
+/**
+ * {@link CachingClientDetailsService} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class CachingClientDetailsServiceTest {
+
+  private JdbcClientDetailsService delegate;
+
+  private BaseClientDetails web;
+
+  private BaseClientDetails mobile;
+
+  private CachingClientDetailsService clientDetailsService;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.delegate = mock(JdbcClientDetailsService.class);
+    this.web = new BaseClientDetails("web", null, "read,write", "password", null);
+    this.mobile = new BaseClientDetails("mobile", null, "read", "password", null);
+
+    this.clientDetailsService = new CachingClientDetailsService(delegate);
+  }
+
+  /**
+   * Test method for
+   * {@link CachingClientDetailsService#CachingClientDetailsService(JdbcClientDetailsService)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testCachingClientDetailsServiceNull() {
+    new CachingClientDetailsService(null);
+  }
+
+  /**
+   * Test method for {@link CachingClientDetailsService#loadClientByClientId(String)}.
+   */
+  @Test
+  public void testLoadClientByClientId() {
+    when(delegate.listClientDetails()).thenReturn(Arrays.<ClientDetails>asList(web, mobile));
+    assertTrue(clientDetailsService.refresh());
+
+    assertSame(web, clientDetailsService.loadClientByClientId("web"));
+    assertSame(mobile, clientDetailsService.loadClientByClientId("mobile"));
+
+    verify(delegate, never()).loadClientByClientId("web");
+    assertEquals(2L, clientDetailsService.getHitCount());
+  }
+
+  /**
+   * Test method for {@link CachingClientDetailsService#loadClientByClientId(String)}.
+   */
+  @Test
+  public void testLoadClientByClientIdUnknown() {
+    when(delegate.listClientDetails()).thenReturn(Arrays.<ClientDetails>asList(web));
+    clientDetailsService.refresh();
+
+    try {
+      clientDetailsService.loadClientByClientId("unknown");
+      fail("Unknown client should not be found");
+    } catch (NoSuchClientException e) {
+      assertEquals(1L, clientDetailsService.getMissCount());
+      verify(delegate, never()).loadClientByClientId("unknown");
+    }
+  }
+
+  /**
+   * Test method for {@link CachingClientDetailsService#loadClientByClientId(String)}.
+   */
+  @Test
+  public void testLoadClientByClientIdNeverLoaded() {
+    when(delegate.loadClientByClientId("web")).thenReturn(web);
+
+    assertSame(web, clientDetailsService.loadClientByClientId("web"));
+
+    verify(delegate).loadClientByClientId("web");
+  }
+
+  /**
+   * Test method for {@link CachingClientDetailsService#refresh()}.
+   */
+  @Test
+  public void testRefresh() {
+    assertNull(clientDetailsService.getLastRefreshDate());
+    when(delegate.listClientDetails()).thenReturn(Arrays.<ClientDetails>asList(web),
+        Arrays.<ClientDetails>asList(web, mobile));
+
+    clientDetailsService.refresh();
+    assertEquals(1, clientDetailsService.getClients().size());
+
+    clientDetailsService.refresh();
+    assertEquals(2, clientDetailsService.getClients().size());
+    assertSame(mobile, clientDetailsService.loadClientByClientId("mobile"));
+    assertEquals(2L, clientDetailsService.getRefreshCount());
+  }
+
+  /**
+   * Test method for {@link CachingClientDetailsService#refresh()}.
+   */
+  @Test
+  public void testRefreshFailure() {
+    when(delegate.listClientDetails()).thenReturn(Arrays.<ClientDetails>asList(web))
+        .thenThrow(new QueryTimeoutException("Lock wait timeout"));
+    clientDetailsService.refresh();
+
+    assertFalse(clientDetailsService.refresh());
+
+    // The clients already loaded are kept
+    assertSame(web, clientDetailsService.loadClientByClientId("web"));
+    assertEquals(1L, clientDetailsService.getRefreshFailureCount());
+    assertEquals(1L, clientDetailsService.getRefreshCount());
+  }
+
+  /**
+   * Test method for {@link CachingClientDetailsService#getClients()}.
+   */
+  @Test
+  public void testGetClientsNeverLoaded() {
+    assertTrue(clientDetailsService.getClients().isEmpty());
+  }
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Creation by madmath03 the 2018-02-09.
+ */
+
+package com.monogramm.starter.config.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.NoSuchClientException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+/**
+ * {@link CachingTokenServices} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class CachingTokenServicesTest {
+
+  private static final String TOKEN_VALUE = "header.claims.signature";
+  private static final String OTHER_TOKEN_VALUE = "header.other_claims.signature";
+  private static final long TTL = 60_000L;
+
+  private TokenStore tokenStore;
+
+  private DefaultOAuth2AccessToken accessToken;
+
+  private OAuth2Authentication authentication;
+
+  private long start;
+
+  private long now;
+
+  private CachingTokenServices tokenServices;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.tokenStore = mock(TokenStore.class);
+    // Access tokens check their expiration against the system clock
+    this.start = System.currentTimeMillis();
+
+    this.accessToken = new DefaultOAuth2AccessToken(TOKEN_VALUE);
+    this.accessToken.setExpiration(new Date(start + 2 * TTL));
+    this.authentication = new OAuth2Authentication(
+        new OAuth2Request(null, "client", null, true, null, null, null, null, null), null);
+
+    when(tokenStore.readAccessToken(TOKEN_VALUE)).thenReturn(accessToken);
+    when(tokenStore.readAuthentication(accessToken)).thenReturn(authentication);
+
+    this.now = start;
+    this.tokenServices = this.buildTokenServices(TTL, 100);
+  }
+
+  private CachingTokenServices buildTokenServices(final long cacheTtl, final int cacheMaxSize) {
+    final CachingTokenServices services = new CachingTokenServices(cacheTtl, cacheMaxSize) {
+      @Override
+      protected long currentTimeMillis() {
+        return now;
+      }
+    };
+    services.setTokenStore(tokenStore);
+    return services;
+  }
+
+  private void mockToken(final String tokenValue, final long expiration) {
+    final DefaultOAuth2AccessToken otherToken = new DefaultOAuth2AccessToken(tokenValue);
+    otherToken.setExpiration(new Date(expiration));
+    when(tokenStore.readAccessToken(tokenValue)).thenReturn(otherToken);
+    when(tokenStore.readAuthentication(otherToken)).thenReturn(authentication);
+  }
+
+  /**
+   * Test method for {@link CachingTokenServices#loadAuthentication(String)}.
+   */
+  @Test
+  public void testLoadAuthenticationCached() {
+    final OAuth2Authentication first = tokenServices.loadAuthentication(TOKEN_VALUE);
+    final OAuth2Authentication second = tokenServices.loadAuthentication(TOKEN_VALUE);
+
+    assertEquals(authentication.getOAuth2Request(), first.getOAuth2Request());
+    assertEquals(authentication.getOAuth2Request(), second.getOAuth2Request());
+    // Each request gets its own authentication to set its details on
+    assertNotSame(first, second);
+    assertNotSame(authentication, second);
+
+    // The access token is read only once on a cache miss
+    verify(tokenStore, times(1)).readAccessToken(TOKEN_VALUE);
+    verify(tokenStore, times(1)).readAuthentication(accessToken);
+    assertEquals(1L, tokenServices.getCacheHitCount());
+    assertEquals(1L, tokenServices.getCacheMissCount());
+    assertEquals(0.5D, tokenServices.getCacheHitRate(), 0D);
+    assertEquals(1, tokenServices.getCacheSize());
+  }
+
+  /**
+   * Test method for {@link CachingTokenServices#loadAuthentication(String)}.
+   */
+  @Test
+  public void testLoadAuthenticationCacheDisabled() {
+    tokenServices = this.buildTokenServices(0L, 100);
+
+    tokenServices.loadAuthentication(TOKEN_VALUE);
+    tokenServices.loadAuthentication(TOKEN_VALUE);
+
+    verify(tokenStore, times(2)).readAuthentication(accessToken);
+    assertEquals(0, tokenServices.getCacheSize());
+    assertEquals(0D, tokenServices.getCacheHitRate(), 0D);
+  }
+
+  /**
+   * Test method for {@link CachingTokenServices#loadAuthentication(String)}.
+   */
+  @Test
+  public void testLoadAuthenticationCacheTtlExpired() {
+    tokenServices.loadAuthentication(TOKEN_VALUE);
+
+    now += TTL;
+    tokenServices.loadAuthentication(TOKEN_VALUE);
+
+    verify(tokenStore, times(2)).readAccessToken(TOKEN_VALUE);
+    verify(tokenStore, times(2)).readAuthentication(accessToken);
+    assertEquals(0L, tokenServices.getCacheHitCount());
+  }
+
+  /**
+   * Test method for {@link CachingTokenServices#loadAuthentication(String)}.
+   */
+  @Test
+  public void testLoadAuthenticationTokenExpired() {
+    accessToken.setExpiration(new Date(start + TTL / 2));
+    tokenServices.loadAuthentication(TOKEN_VALUE);
+
+    // The cached authentication expires with its token, before the cache TTL
+    now += TTL / 2;
+    tokenServices.loadAuthentication(TOKEN_VALUE);
+
+    verify(tokenStore, times(2)).readAuthentication(accessToken);
+    assertEquals(0L, tokenServices.getCacheHitCount());
+  }
+
+  /**
+   * Test method for {@link CachingTokenServices#loadAuthentication(String)}.
+   */
+  @Test(expected = InvalidTokenException.class)
+  public void testLoadAuthenticationInvalid() {
+    try {
+      tokenServices.loadAuthentication(OTHER_TOKEN_VALUE);
+    } finally {
+      assertEquals(0, tokenServices.getCacheSize());
+    }
+  }
+
+  /**
+   * Test method for {@link CachingTokenServices#loadAuthentication(String)}.
+   */
+  @Test(expected = InvalidTokenException.class)
+  public void testLoadAuthenticationClientNotValid() {
+    final ClientDetailsService clientDetailsService = mock(ClientDetailsService.class);
+    when(clientDetailsService.loadClientByClientId("client"))
+        .thenThrow(new NoSuchClientException("client"));
+    tokenServices.setClientDetailsService(clientDetailsService);
+
+    try {
+      tokenServices.loadAuthentication(TOKEN_VALUE);
+    } finally {
+      assertEquals(0, tokenServices.getCacheSize());
+    }
+  }
+
+  /**
+   * Test method for {@link CachingTokenServices#loadAuthentication(String)}.
+   */
+  @Test
+  public void testLoadAuthenticationCacheFull() {
+    tokenServices = this.buildTokenServices(TTL, 1);
+    this.mockToken(OTHER_TOKEN_VALUE, start + 2 * TTL);
+
+    tokenServices.loadAuthentication(TOKEN_VALUE);
+    tokenServices.loadAuthentication(OTHER_TOKEN_VALUE);
+
+    assertEquals(1, tokenServices.getCacheSize());
+    assertEquals(1L, tokenServices.getCacheEvictionCount());
+  }
+
+  /**
+   * Test method for {@link CachingTokenServices#loadAuthentication(String)}.
+   */
+  @Test
+  public void testLoadAuthenticationCacheFullOfExpired() {
+    tokenServices = this.buildTokenServices(TTL, 1);
+    this.mockToken(OTHER_TOKEN_VALUE, start + 2 * TTL);
+
+    tokenServices.loadAuthentication(TOKEN_VALUE);
+    now += TTL;
+    tokenServices.loadAuthentication(OTHER_TOKEN_VALUE);
+
+    assertEquals(1, tokenServices.getCacheSize());
+    assertEquals(0L, tokenServices.getCacheEvictionCount());
+  }
+
+  /**
+   * Test method for {@link CachingTokenServices#revokeToken(String)}.
+   */
+  @Test
+  public void testRevokeToken() {
+    tokenServices.loadAuthentication(TOKEN_VALUE);
+
+    tokenServices.revokeToken(TOKEN_VALUE);
+
+    assertEquals(0, tokenServices.getCacheSize());
+    tokenServices.loadAuthentication(TOKEN_VALUE);
+    verify(tokenStore, times(2)).readAuthentication(accessToken);
+  }
+
+  /**
+   * Test method for {@link CachingTokenServices#loadAuthentication(String)}.
+   */
+  @Test
+  public void testLoadAuthenticationRevokedOnAnotherNode() {
+    final TokenRevocationStore revocationStore = mock(TokenRevocationStore.class);
+    tokenServices.setRevocationStore(revocationStore);
+    accessToken.setAdditionalInformation(
+        Collections.<String, Object>singletonMap(AccessTokenConverter.JTI, "jti"));
+    tokenServices.loadAuthentication(TOKEN_VALUE);
+
+    when(revocationStore.isRevoked("jti")).thenReturn(true);
+    try {
+      tokenServices.loadAuthentication(TOKEN_VALUE);
+      fail("Revoked token should be rejected even though its authentication is cached");
+    } catch (InvalidTokenException e) {
+      assertEquals(0, tokenServices.getCacheSize());
+    }
+  }
+
+  /**
+   * Test method for {@link CachingTokenServices#evict(String)}.
+   */
+  @Test
+  public void testEvict() {
+    tokenServices.loadAuthentication(TOKEN_VALUE);
+
+    tokenServices.evict(OTHER_TOKEN_VALUE);
+    assertEquals(1, tokenServices.getCacheSize());
+
+    tokenServices.evict(TOKEN_VALUE);
+    assertEquals(0, tokenServices.getCacheSize());
+  }
+
+  /**
+   * Test method for {@link CachingTokenServices#clear()}.
+   */
+  @Test
+  public void testClear() {
+    tokenServices.loadAuthentication(TOKEN_VALUE);
+
+    tokenServices.clear();
+
+    assertEquals(0, tokenServices.getCacheSize());
+  }
+
+}
@@ -137,6 +137,7 @@ public class CustomTokenEnhancerTest {
 
     final OAuth2AccessToken enhancedToken = this.enhancer.enhance(token, oauthAuthentication);
 
+    verify(oauthAuthentication, times(1)).getPrincipal();
     verify(oauthAuthentication, times(1)).getName();
     verify(oauthAuthentication, times(1)).getAuthorities();
     verifyNoMoreInteractions(oauthAuthentication);
@@ -172,6 +173,7 @@ public class CustomTokenEnhancerTest {
 
     final OAuth2AccessToken enhancedToken = this.enhancer.enhance(token, oauthAuthentication);
 
+    verify(oauthAuthentication, times(1)).getPrincipal();
     verify(oauthAuthentication, times(1)).getName();
     verify(oauthAuthentication, times(1)).getAuthorities();
     verifyNoMoreInteractions(oauthAuthentication);
@@ -203,6 +205,7 @@ public class CustomTokenEnhancerTest {
 
     final OAuth2AccessToken enhancedToken = this.enhancer.enhance(token, oauthAuthentication);
 
+    verify(oauthAuthentication, times(1)).getPrincipal();
     verify(oauthAuthentication, times(1)).getName();
     verify(oauthAuthentication, times(1)).getAuthorities();
     verifyNoMoreInteractions(oauthAuthentication);
@@ -230,6 +233,7 @@ public class CustomTokenEnhancerTest {
 
     final OAuth2AccessToken enhancedToken = this.enhancer.enhance(token, oauthAuthentication);
 
+    verify(oauthAuthentication, times(1)).getPrincipal();
     verify(oauthAuthentication, times(1)).getName();
     verify(oauthAuthentication, times(1)).getAuthorities();
     verifyNoMoreInteractions(oauthAuthentication);
@@ -245,4 +249,37 @@ public class CustomTokenEnhancerTest {
     assertArrayEquals(new String[] {}, (String[]) additionalInformation.get("roles"));
   }
 
+  /**
+   * Test method for {@link CustomTokenEnhancer#enhance(OAuth2AccessToken, OAuth2Authentication)}.
+   */
+  @Test
+  public void testEnhanceAuthenticatedUser() {
+    final AuthenticatedUser principal = new AuthenticatedUser(UUID.randomUUID(), DUMMY_USERNAME,
+        DUMMY_EMAIL, "hash", true, true, Collections.emptyList());
+    final OAuth2AccessToken token = new DefaultOAuth2AccessToken(DUMMY_TOKEN);
+
+    when(oauthAuthentication.getPrincipal()).thenReturn(principal);
+    when(oauthAuthentication.getAuthorities()).thenReturn(DUMMY_AUTHORITIES);
+
+    final OAuth2AccessToken enhancedToken = this.enhancer.enhance(token, oauthAuthentication);
+
+    verify(oauthAuthentication, times(1)).getPrincipal();
+    verify(oauthAuthentication, times(1)).getAuthorities();
+    verifyNoMoreInteractions(oauthAuthentication);
+
+    // No database access
+    verifyNoMoreInteractions(userService);
+
+    final Map<String, Object> additionalInformation = enhancedToken.getAdditionalInformation();
+    assertNotNull(additionalInformation);
+    assertNotNull(additionalInformation.get("timestamp"));
+    assertEquals(principal.getId(), additionalInformation.get("principal_id"));
+    assertEquals(DUMMY_USERNAME, additionalInformation.get("principal_name"));
+    assertEquals(DUMMY_EMAIL, additionalInformation.get("principal_email"));
+    assertEquals(true, additionalInformation.get("verified"));
+    assertArrayEquals(new String[] {DUMMY_AUTH},
+        (String[]) additionalInformation.get("authorities"));
+    assertArrayEquals(new String[] {DUMMY_ROLE}, (String[]) additionalInformation.get("roles"));
+  }
+
 }
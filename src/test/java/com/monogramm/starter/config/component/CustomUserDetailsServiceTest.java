@@ -0,0 +1,219 @@
+/*
+ * Creation by madmath03 the 2018-02-08.
+ */
+
+package com.monogramm.starter.config.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.monogramm.starter.persistence.EntityChangedEvent;
+import com.monogramm.starter.persistence.parameter.entity.Parameter;
+import com.monogramm.starter.persistence.permission.entity.Permission;
+import com.monogramm.starter.persistence.role.entity.Role;
+import com.monogramm.starter.persistence.user.entity.User;
+import com.monogramm.starter.persistence.user.service.IUserService;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * {@link CustomUserDetailsService} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class CustomUserDetailsServiceTest {
+
+  private static final String USERNAME = "Foo";
+  private static final String EMAIL = "Foo@Email.com";
+  private static final String PASSWORD_HASH = "hash";
+
+  private IUserService userService;
+
+  private User user;
+
+  private CustomUserDetailsService userDetailsService;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.userService = mock(IUserService.class);
+
+    final Role role = Role.builder("Admin")
+        .permissions(Arrays.asList(Permission.builder("USERS_READ").build(),
+            Permission.builder("USERS_LIST").build()))
+        .build();
+    this.user = User.builder(USERNAME, EMAIL).password(PASSWORD_HASH).verified(true).role(role)
+        .id(UUID.randomUUID()).build();
+    when(userService.findWithAuthoritiesByEmail(User.normalize(EMAIL))).thenReturn(user);
+
+    this.userDetailsService = new CustomUserDetailsService(userService, 60_000L, 100);
+  }
+
+  /**
+   * Test method for
+   * {@link CustomUserDetailsService#CustomUserDetailsService(IUserService, long, int)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testCustomUserDetailsServiceNullUserService() {
+    new CustomUserDetailsService(null, 0L, 0);
+  }
+
+  /**
+   * Test method for {@link CustomUserDetailsService#loadUserByUsername(String)}.
+   */
+  @Test
+  public void testLoadUserByUsername() {
+    final AuthenticatedUser principal = userDetailsService.loadUserByUsername(EMAIL.toUpperCase());
+
+    assertEquals(user.getId(), principal.getId());
+    assertEquals(USERNAME, principal.getName());
+    assertEquals(EMAIL, principal.getUsername());
+    assertEquals(EMAIL, principal.getEmail());
+    assertEquals(PASSWORD_HASH, principal.getPassword());
+    assertTrue(principal.isEnabled());
+    assertTrue(principal.isVerified());
+
+    final Set<String> authorities = AuthorityUtils.authorityListToSet(principal.getAuthorities());
+    assertEquals(new HashSet<>(Arrays.asList("ROLE_ADMIN", "USERS_READ", "USERS_LIST")),
+        authorities);
+  }
+
+  /**
+   * Test method for {@link CustomUserDetailsService#loadUserByUsername(String)}.
+   */
+  @Test
+  public void testLoadUserByUsernameNoRole() {
+    user.setRole(null);
+    user.setPassword((String) null);
+
+    final AuthenticatedUser principal = userDetailsService.loadUserByUsername(EMAIL);
+
+    assertTrue(principal.getAuthorities().isEmpty());
+    assertEquals("", principal.getPassword());
+  }
+
+  /**
+   * Test method for {@link CustomUserDetailsService#loadUserByUsername(String)}.
+   */
+  @Test(expected = UsernameNotFoundException.class)
+  public void testLoadUserByUsernameNotFound() {
+    userDetailsService.loadUserByUsername("unknown@email.com");
+  }
+
+  /**
+   * Test method for {@link CustomUserDetailsService#loadUserByUsername(String)}.
+   */
+  @Test(expected = UsernameNotFoundException.class)
+  public void testLoadUserByUsernameNull() {
+    userDetailsService.loadUserByUsername(null);
+  }
+
+  /**
+   * Test method for {@link CustomUserDetailsService#loadUserByUsername(String)}.
+   */
+  @Test
+  public void testLoadUserByUsernameCached() {
+    final AuthenticatedUser first = userDetailsService.loadUserByUsername(EMAIL);
+    // Authentication erases the credentials of the principal returned
+    first.eraseCredentials();
+    final AuthenticatedUser second = userDetailsService.loadUserByUsername(EMAIL);
+
+    assertNotSame(first, second);
+    assertNull(first.getPassword());
+    assertEquals(PASSWORD_HASH, second.getPassword());
+
+    verify(userService, times(1)).findWithAuthoritiesByEmail(User.normalize(EMAIL));
+    assertEquals(1, userDetailsService.getCacheHitCount());
+    assertEquals(1, userDetailsService.getCacheMissCount());
+    assertEquals(1, userDetailsService.getCacheSize());
+  }
+
+  /**
+   * Test method for {@link CustomUserDetailsService#loadUserByUsername(String)}.
+   */
+  @Test
+  public void testLoadUserByUsernameNoCache() {
+    final CustomUserDetailsService noCache = new CustomUserDetailsService(userService, 0L, 100);
+
+    noCache.loadUserByUsername(EMAIL);
+    noCache.loadUserByUsername(EMAIL);
+
+    verify(userService, times(2)).findWithAuthoritiesByEmail(User.normalize(EMAIL));
+    assertEquals(0, noCache.getCacheSize());
+  }
+
+  /**
+   * Test method for {@link CustomUserDetailsService#onEntityChanged(EntityChangedEvent)}.
+   */
+  @Test
+  public void testOnEntityChangedUser() {
+    userDetailsService.loadUserByUsername(EMAIL);
+
+    userDetailsService.onEntityChanged(new EntityChangedEvent(this, User.class, UUID.randomUUID()));
+    assertEquals(1, userDetailsService.getCacheSize());
+
+    userDetailsService.onEntityChanged(new EntityChangedEvent(this, User.class, user.getId()));
+    assertEquals(0, userDetailsService.getCacheSize());
+
+    userDetailsService.loadUserByUsername(EMAIL);
+    userDetailsService.onEntityChanged(new EntityChangedEvent(this, User.class, null));
+    assertEquals(0, userDetailsService.getCacheSize());
+
+    verify(userService, times(2)).findWithAuthoritiesByEmail(User.normalize(EMAIL));
+  }
+
+  /**
+   * Test method for {@link CustomUserDetailsService#onEntityChanged(EntityChangedEvent)}.
+   */
+  @Test
+  public void testOnEntityChangedRoleOrPermission() {
+    userDetailsService.loadUserByUsername(EMAIL);
+    userDetailsService.onEntityChanged(new EntityChangedEvent(this, Parameter.class, null));
+    assertEquals(1, userDetailsService.getCacheSize());
+
+    userDetailsService.onEntityChanged(new EntityChangedEvent(this, Role.class, UUID.randomUUID()));
+    assertEquals(0, userDetailsService.getCacheSize());
+
+    userDetailsService.loadUserByUsername(EMAIL);
+    userDetailsService
+        .onEntityChanged(new EntityChangedEvent(this, Permission.class, UUID.randomUUID()));
+    assertEquals(0, userDetailsService.getCacheSize());
+  }
+
+  /**
+   * Test method for {@link AuthenticatedUser#AuthenticatedUser(AuthenticatedUser)}.
+   */
+  @Test
+  public void testAuthenticatedUserCopy() {
+    final AuthenticatedUser principal = userDetailsService.loadUserByUsername(EMAIL);
+    final AuthenticatedUser copy = new AuthenticatedUser(principal);
+
+    assertEquals(principal, copy);
+    assertEquals(principal.getId(), copy.getId());
+    assertEquals(principal.getName(), copy.getName());
+    assertEquals(principal.isVerified(), copy.isVerified());
+    for (final GrantedAuthority authority : principal.getAuthorities()) {
+      assertTrue(copy.getAuthorities().contains(authority));
+    }
+    assertFalse(copy.getAuthorities().isEmpty());
+  }
+
+}
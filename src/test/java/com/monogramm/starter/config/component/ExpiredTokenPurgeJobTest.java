@@ -0,0 +1,182 @@
+/*
+ * Creation by madmath03 the 2018-02-05.
+ */
+
+package com.monogramm.starter.config.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.monogramm.starter.persistence.mail.service.IMailOutboxService;
+import com.monogramm.starter.persistence.oauth.service.IRevokedTokenService;
+import com.monogramm.starter.persistence.user.service.IPasswordResetTokenService;
+import com.monogramm.starter.persistence.user.service.IVerificationTokenService;
+
+import java.util.Date;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * {@link ExpiredTokenPurgeJob} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class ExpiredTokenPurgeJobTest {
+
+  private static final int BATCH_SIZE = 10;
+  private static final int MAX_BATCHES = 3;
+
+  private IVerificationTokenService verificationService;
+  private IPasswordResetTokenService passwordResetService;
+  private IRevokedTokenService revokedTokenService;
+
+  private ExpiredTokenPurgeJob job;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.verificationService = mock(IVerificationTokenService.class);
+    this.passwordResetService = mock(IPasswordResetTokenService.class);
+    this.revokedTokenService = mock(IRevokedTokenService.class);
+
+    this.job = new ExpiredTokenPurgeJob(verificationService, passwordResetService,
+        revokedTokenService, BATCH_SIZE, MAX_BATCHES);
+  }
+
+  /**
+   * @throws java.lang.Exception If test clean up crashes.
+   */
+  @After
+  public void tearDown() throws Exception {
+    this.job = null;
+  }
+
+  /**
+   * Test method for
+   * {@link ExpiredTokenPurgeJob#ExpiredTokenPurgeJob(IVerificationTokenService, IPasswordResetTokenService, int, int)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testExpiredTokenPurgeJobBatchSize() {
+    new ExpiredTokenPurgeJob(verificationService, passwordResetService, 0, MAX_BATCHES);
+  }
+
+  /**
+   * Test method for
+   * {@link ExpiredTokenPurgeJob#ExpiredTokenPurgeJob(IVerificationTokenService, IPasswordResetTokenService, int, int)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testExpiredTokenPurgeJobMaxBatches() {
+    new ExpiredTokenPurgeJob(verificationService, passwordResetService, BATCH_SIZE, 0);
+  }
+
+  /**
+   * Test method for {@link ExpiredTokenPurgeJob#purge()}.
+   */
+  @Test
+  public void testPurge() {
+    assertNull(job.getLastRunDate());
+    when(verificationService.deleteExpired(any(Date.class), eq(BATCH_SIZE))).thenReturn(BATCH_SIZE,
+        4);
+    when(passwordResetService.deleteExpired(any(Date.class), eq(BATCH_SIZE))).thenReturn(0);
+
+    assertEquals(BATCH_SIZE + 4, job.purge());
+
+    verify(verificationService, times(2)).deleteExpired(any(Date.class), eq(BATCH_SIZE));
+    verify(passwordResetService, times(1)).deleteExpired(any(Date.class), eq(BATCH_SIZE));
+    verify(revokedTokenService, times(1)).deleteExpired(any(Date.class), eq(BATCH_SIZE));
+    assertEquals(1, job.getRunCount());
+    assertEquals(0, job.getFailureCount());
+    assertEquals(4, job.getBatchCount());
+    assertEquals(BATCH_SIZE + 4, job.getPurgedVerificationTokens());
+    assertEquals(0, job.getPurgedPasswordResetTokens());
+    assertEquals(0, job.getPurgedRevokedTokens());
+    assertNotNull(job.getLastRunDate());
+  }
+
+  /**
+   * Test method for {@link ExpiredTokenPurgeJob#purge()}.
+   */
+  @Test
+  public void testPurgeMaxBatches() {
+    when(verificationService.deleteExpired(any(Date.class), eq(BATCH_SIZE))).thenReturn(0);
+    when(passwordResetService.deleteExpired(any(Date.class), eq(BATCH_SIZE)))
+        .thenReturn(BATCH_SIZE);
+
+    assertEquals(BATCH_SIZE * MAX_BATCHES, job.purge());
+
+    verify(passwordResetService, times(MAX_BATCHES)).deleteExpired(any(Date.class),
+        eq(BATCH_SIZE));
+    assertEquals(BATCH_SIZE * MAX_BATCHES, job.getPurgedPasswordResetTokens());
+  }
+
+  /**
+   * Test method for {@link ExpiredTokenPurgeJob#purge()}.
+   */
+  @Test
+  public void testPurgeRevokedTokens() {
+    when(revokedTokenService.deleteExpired(any(Date.class), eq(BATCH_SIZE))).thenReturn(7);
+
+    assertEquals(7, job.purge());
+
+    assertEquals(7, job.getPurgedRevokedTokens());
+  }
+
+  /**
+   * Test method for {@link ExpiredTokenPurgeJob#purge()}.
+   */
+  @Test
+  public void testPurgeWithoutRevokedTokens() {
+    job = new ExpiredTokenPurgeJob(verificationService, passwordResetService, BATCH_SIZE,
+        MAX_BATCHES);
+    when(verificationService.deleteExpired(any(Date.class), eq(BATCH_SIZE))).thenReturn(2);
+
+    assertEquals(2, job.purge());
+
+    assertEquals(2, job.getBatchCount());
+    assertEquals(0, job.getPurgedRevokedTokens());
+  }
+
+  /**
+   * Test method for {@link ExpiredTokenPurgeJob#purge()}.
+   */
+  @Test
+  public void testPurgeOutboxMails() {
+    final IMailOutboxService outboxService = mock(IMailOutboxService.class);
+    job = new ExpiredTokenPurgeJob(verificationService, passwordResetService,
+        revokedTokenService, outboxService, BATCH_SIZE, MAX_BATCHES);
+    when(outboxService.deleteGivenUp(any(Date.class), eq(BATCH_SIZE))).thenReturn(BATCH_SIZE, 3);
+
+    assertEquals(BATCH_SIZE + 3, job.purge());
+
+    verify(outboxService, times(2)).deleteGivenUp(any(Date.class), eq(BATCH_SIZE));
+    assertEquals(5, job.getBatchCount());
+    assertEquals(BATCH_SIZE + 3, job.getPurgedOutboxMails());
+  }
+
+  /**
+   * Test method for {@link ExpiredTokenPurgeJob#purge()}.
+   */
+  @Test
+  public void testPurgeFailure() {
+    when(verificationService.deleteExpired(any(Date.class), eq(BATCH_SIZE)))
+        .thenThrow(new QueryTimeoutException("Lock wait timeout"));
+
+    assertEquals(0, job.purge());
+
+    assertEquals(1, job.getRunCount());
+    assertEquals(1, job.getFailureCount());
+  }
+
+}
@@ -0,0 +1,308 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.config.component;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.monogramm.starter.persistence.oauth.entity.JwtSigningKey;
+import com.monogramm.starter.persistence.oauth.service.IJwtSigningKeyService;
+import com.monogramm.starter.persistence.oauth.service.InMemoryJwtSigningKeyService;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link JwtKeyManager} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class JwtKeyManagerTest {
+
+  private static final long ROTATION_PERIOD = 60_000L;
+  private static final long RETENTION = 120_000L;
+  private static final long MIN_REFRESH_INTERVAL = 10_000L;
+  private static final String SECRET = "secret";
+
+  private long now;
+
+  private IJwtSigningKeyService keyService;
+
+  private JwtKeyManager keyManager;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.now = 1_000_000L;
+    this.keyService = new InMemoryJwtSigningKeyService();
+    this.keyManager = this.buildKeyManager(SECRET);
+  }
+
+  private JwtKeyManager buildKeyManager(final String secret) {
+    return new JwtKeyManager(SigningKey.ES256, ROTATION_PERIOD, RETENTION, MIN_REFRESH_INTERVAL,
+        keyService, secret) {
+      @Override
+      protected long currentTimeMillis() {
+        return now;
+      }
+    };
+  }
+
+  private JwtKeyManager buildKeyManager(final List<SigningKey> keys) {
+    return new JwtKeyManager(keys) {
+      @Override
+      protected long currentTimeMillis() {
+        return now;
+      }
+    };
+  }
+
+  private int jwkSetSize() {
+    return ((List<?>) keyManager.getJwkSet().get("keys")).size();
+  }
+
+  /**
+   * Test method for
+   * {@link JwtKeyManager#JwtKeyManager(String, long, long, long, IJwtSigningKeyService, String)}.
+   */
+  @Test
+  public void testJwtKeyManagerGenerated() {
+    final SigningKey active = keyManager.getActiveKey();
+    final SigningKey next = keyManager.getNextKey();
+
+    assertNotNull(active);
+    assertNotNull(next);
+    assertNotEquals(active.getKid(), next.getKid());
+    assertSame(active, keyManager.getKey(active.getKid()));
+    assertSame(next, keyManager.getKey(next.getKid()));
+    // The next key is published before it signs any token
+    assertEquals(2, this.jwkSetSize());
+
+    final List<JwtSigningKey> stored = keyService.findAll();
+    assertEquals(2, stored.size());
+    assertEquals(active.getKid(), stored.get(0).getKid());
+    assertArrayEquals(active.getPublicKey().getEncoded(), stored.get(0).getPublicKey());
+    assertEquals(next.getKid(), stored.get(1).getKid());
+    // Keys activate on the rotation schedule
+    assertEquals(0L, stored.get(0).getActivatesAt().getTime() % ROTATION_PERIOD);
+    assertEquals(ROTATION_PERIOD,
+        stored.get(1).getActivatesAt().getTime() - stored.get(0).getActivatesAt().getTime());
+  }
+
+  /**
+   * Test method for
+   * {@link JwtKeyManager#JwtKeyManager(String, long, long, long, IJwtSigningKeyService, String)}.
+   */
+  @Test
+  public void testJwtKeyManagerShared() {
+    final SigningKey active = keyManager.getActiveKey();
+
+    // Another node, or this node after a restart
+    final JwtKeyManager otherNode = this.buildKeyManager(SECRET);
+
+    assertEquals(active.getKid(), otherNode.getActiveKey().getKid());
+    assertEquals(keyManager.getNextKey().getKid(), otherNode.getNextKey().getKid());
+    assertEquals(keyManager.getJwkSetTag(), otherNode.getJwkSetTag());
+    assertEquals(2, keyService.findAll().size());
+
+    // Tokens signed by a node are verified by the other
+    final byte[] content = "content".getBytes(StandardCharsets.UTF_8);
+    final byte[] signature = otherNode.getActiveKey().getSigner().sign(content);
+    active.getVerifier().verify(content, signature);
+  }
+
+  /**
+   * Test method for
+   * {@link JwtKeyManager#JwtKeyManager(String, long, long, long, IJwtSigningKeyService, String)}.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testJwtKeyManagerWrongSecret() {
+    // The private keys are stored encrypted
+    this.buildKeyManager("other secret");
+  }
+
+  /**
+   * Test method for
+   * {@link JwtKeyManager#JwtKeyManager(String, long, long, long, IJwtSigningKeyService, String)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testJwtKeyManagerNoSecret() {
+    this.buildKeyManager((String) null);
+  }
+
+  /**
+   * Test method for
+   * {@link JwtKeyManager#JwtKeyManager(String, long, long, long, IJwtSigningKeyService, String)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testJwtKeyManagerPlaceholderSecret() {
+    // Publicly known: anyone could decrypt the stored private keys
+    this.buildKeyManager("CHANGE_ME");
+  }
+
+  /**
+   * Test method for
+   * {@link JwtKeyManager#JwtKeyManager(String, long, long, long, IJwtSigningKeyService, String)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testJwtKeyManagerUnsupportedAlgorithm() {
+    new JwtKeyManager("HS256", ROTATION_PERIOD, RETENTION, MIN_REFRESH_INTERVAL, keyService,
+        SECRET);
+  }
+
+  /**
+   * Test method for {@link JwtKeyManager#JwtKeyManager(List)}.
+   */
+  @Test
+  public void testJwtKeyManagerKeyStore() {
+    final SigningKey signing = SigningKey.generate(SigningKey.RS256, now);
+    final SigningKey generated = SigningKey.generate(SigningKey.RS256, now);
+    final SigningKey verifying =
+        new SigningKey("old", new KeyPair(generated.getPublicKey(), null), now);
+
+    keyManager = this.buildKeyManager(Arrays.asList(signing, verifying));
+
+    assertSame(signing, keyManager.getActiveKey());
+    assertNull(keyManager.getNextKey());
+    assertSame(verifying, keyManager.getKey("old"));
+    assertEquals(2, this.jwkSetSize());
+
+    // Keys of a key store are not rotated
+    now += ROTATION_PERIOD;
+    keyManager.refresh();
+    assertSame(signing, keyManager.getActiveKey());
+    assertNull(keyManager.resolveKey("unknown"));
+  }
+
+  /**
+   * Test method for {@link JwtKeyManager#JwtKeyManager(List)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testJwtKeyManagerKeyStoreCannotSign() {
+    final SigningKey generated = SigningKey.generate(SigningKey.RS256, now);
+    final SigningKey verifying =
+        new SigningKey("old", new KeyPair(generated.getPublicKey(), null), now);
+
+    this.buildKeyManager(Arrays.asList(verifying));
+  }
+
+  /**
+   * Test method for {@link JwtKeyManager#JwtKeyManager(List)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testJwtKeyManagerKeyStoreEmpty() {
+    this.buildKeyManager((List<SigningKey>) null);
+  }
+
+  /**
+   * Test method for {@link JwtKeyManager#refresh()}.
+   */
+  @Test
+  public void testRefresh() {
+    final SigningKey active = keyManager.getActiveKey();
+    final SigningKey next = keyManager.getNextKey();
+    final String tag = keyManager.getJwkSetTag();
+    final long rotation = keyService.findAll().get(1).getActivatesAt().getTime();
+
+    now = rotation - 1;
+    keyManager.refresh();
+    assertSame(active, keyManager.getActiveKey());
+    assertEquals(tag, keyManager.getJwkSetTag());
+
+    now = rotation;
+    keyManager.refresh();
+    assertSame(next, keyManager.getActiveKey());
+    assertNotEquals(next.getKid(), keyManager.getNextKey().getKid());
+    // The retired key still verifies tokens
+    assertSame(active, keyManager.getKey(active.getKid()));
+    assertEquals(3, this.jwkSetSize());
+    assertNotEquals(tag, keyManager.getJwkSetTag());
+
+    // Rotated once more, then forgotten once its retention is over
+    now += RETENTION;
+    keyManager.refresh();
+    assertNull(keyManager.getKey(active.getKid()));
+    assertEquals(3, this.jwkSetSize());
+    assertEquals(3, keyService.findAll().size());
+  }
+
+  /**
+   * Test method for {@link JwtKeyManager#refresh()}.
+   */
+  @Test
+  public void testRefreshConcurrentNodes() {
+    final JwtKeyManager otherNode = this.buildKeyManager(SECRET);
+
+    now += ROTATION_PERIOD;
+    keyManager.refresh();
+    otherNode.refresh();
+
+    // Both nodes rotated to the same keys, adding a single next key
+    assertEquals(keyManager.getActiveKey().getKid(), otherNode.getActiveKey().getKid());
+    assertEquals(keyManager.getNextKey().getKid(), otherNode.getNextKey().getKid());
+    assertEquals(3, keyService.findAll().size());
+  }
+
+  /**
+   * Test method for {@link JwtKeyManager#resolveKey(String)}.
+   */
+  @Test
+  public void testResolveKey() {
+    final JwtKeyManager otherNode = this.buildKeyManager(SECRET);
+
+    now += ROTATION_PERIOD;
+    keyManager.refresh();
+    final SigningKey added = keyManager.getNextKey();
+
+    assertNull(otherNode.getKey(added.getKid()));
+    assertEquals(added.getKid(), otherNode.resolveKey(added.getKid()).getKid());
+  }
+
+  /**
+   * Test method for {@link JwtKeyManager#resolveKey(String)}.
+   */
+  @Test
+  public void testResolveKeyUnknown() {
+    keyService = spy(new InMemoryJwtSigningKeyService());
+    keyManager = this.buildKeyManager(SECRET);
+    // Keys read, added, then read again
+    verify(keyService, times(2)).findAll();
+
+    assertNull(keyManager.resolveKey(null));
+    assertNull(keyManager.resolveKey("unknown"));
+    verify(keyService, times(2)).findAll();
+
+    // Unknown keys reload the keys at most once per minimum refresh interval
+    now += MIN_REFRESH_INTERVAL;
+    assertNull(keyManager.resolveKey("unknown"));
+    assertNull(keyManager.resolveKey("other"));
+    verify(keyService, times(3)).findAll();
+    assertNotNull(keyManager.resolveKey(keyManager.getActiveKey().getKid()));
+  }
+
+  /**
+   * Test method for {@link JwtKeyManager#getKey(String)}.
+   */
+  @Test
+  public void testGetKeyUnknown() {
+    assertNull(keyManager.getKey(null));
+    assertNull(keyManager.getKey("unknown"));
+  }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.config.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.monogramm.starter.persistence.oauth.service.IJwtSigningKeyService;
+import com.monogramm.starter.persistence.oauth.service.InMemoryJwtSigningKeyService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
+import org.springframework.web.client.RestOperations;
+
+/**
+ * {@link KeyRotatingJwtAccessTokenConverter} Unit Test.
+ *
+ * @author madmath03
+ */
+public class KeyRotatingJwtAccessTokenConverterTest {
+
+  private static final String CLIENT_ID = "client";
+  private static final String USERNAME = "foo@email.com";
+  private static final long ROTATION_PERIOD = 60_000L;
+  private static final String JWKS_URI = "https://auth.example.com/oauth/jwks";
+
+  private long now;
+
+  private JwtKeyManager keyManager;
+
+  private KeyRotatingJwtAccessTokenConverter converter;
+
+  private DefaultOAuth2AccessToken accessToken;
+
+  private OAuth2Authentication authentication;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.now = System.currentTimeMillis();
+    this.keyManager = this.buildKeyManager(new InMemoryJwtSigningKeyService());
+    this.converter = new KeyRotatingJwtAccessTokenConverter(keyManager);
+
+    this.accessToken = new DefaultOAuth2AccessToken("opaque");
+    this.accessToken.setExpiration(new Date(System.currentTimeMillis() + 60_000L));
+    this.authentication = new OAuth2Authentication(
+        new OAuth2Request(Collections.<String, String>emptyMap(), CLIENT_ID, null, true, null,
+            null, null, null, null),
+        new UsernamePasswordAuthenticationToken(USERNAME, "N/A",
+            AuthorityUtils.createAuthorityList("ROLE_USER")));
+  }
+
+  private JwtKeyManager buildKeyManager(final IJwtSigningKeyService keyService) {
+    return new JwtKeyManager(SigningKey.ES256, ROTATION_PERIOD, 2 * ROTATION_PERIOD, 10_000L,
+        keyService, "secret") {
+      @Override
+      protected long currentTimeMillis() {
+        return now;
+      }
+    };
+  }
+
+  /**
+   * Test method for
+   * {@link KeyRotatingJwtAccessTokenConverter#KeyRotatingJwtAccessTokenConverter(JwtKeyManager)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testKeyRotatingJwtAccessTokenConverterNull() {
+    new KeyRotatingJwtAccessTokenConverter(null);
+  }
+
+  /**
+   * Test method for {@link KeyRotatingJwtAccessTokenConverter#encode}.
+   */
+  @Test
+  public void testEncode() {
+    final String token = converter.encode(accessToken, authentication);
+
+    final Map<String, String> headers = JwtHelper.headers(token);
+    assertEquals(keyManager.getActiveKey().getKid(), headers.get("kid"));
+    assertEquals("ES256", headers.get("alg"));
+  }
+
+  /**
+   * Test method for {@link KeyRotatingJwtAccessTokenConverter#decode(String)}.
+   */
+  @Test
+  public void testDecode() {
+    final String token = converter.encode(accessToken, authentication);
+
+    final Map<String, Object> claims = converter.decode(token);
+
+    assertEquals(CLIENT_ID, claims.get(AccessTokenConverter.CLIENT_ID));
+    assertEquals(USERNAME, claims.get("user_name"));
+    assertTrue(claims.get(AccessTokenConverter.EXP) instanceof Long);
+  }
+
+  /**
+   * Test method for {@link KeyRotatingJwtAccessTokenConverter#decode(String)}.
+   */
+  @Test
+  public void testDecodeAfterRotation() {
+    final String token = converter.encode(accessToken, authentication);
+
+    now += ROTATION_PERIOD;
+    keyManager.refresh();
+    final String rotatedToken = converter.encode(accessToken, authentication);
+
+    assertNotEquals(JwtHelper.headers(token).get("kid"),
+        JwtHelper.headers(rotatedToken).get("kid"));
+    assertEquals(CLIENT_ID, converter.decode(token).get(AccessTokenConverter.CLIENT_ID));
+    assertEquals(CLIENT_ID, converter.decode(rotatedToken).get(AccessTokenConverter.CLIENT_ID));
+  }
+
+  /**
+   * Test method for {@link KeyRotatingJwtAccessTokenConverter#decode(String)}.
+   */
+  @Test(expected = InvalidTokenException.class)
+  public void testDecodeUnknownKey() {
+    final KeyRotatingJwtAccessTokenConverter otherConverter =
+        new KeyRotatingJwtAccessTokenConverter(
+            this.buildKeyManager(new InMemoryJwtSigningKeyService()));
+    final String token = otherConverter.encode(accessToken, authentication);
+
+    converter.decode(token);
+  }
+
+  /**
+   * Test method for {@link KeyRotatingJwtAccessTokenConverter#decode(String)}.
+   */
+  @Test
+  public void testDecodeRemoteJwkSet() {
+    final JwtKeyManager authorizationServerKeys =
+        this.buildKeyManager(new InMemoryJwtSigningKeyService());
+    final String token = new KeyRotatingJwtAccessTokenConverter(authorizationServerKeys)
+        .encode(accessToken, authentication);
+
+    // The key set is read when a token is signed by an unknown key
+    final RestOperations restOperations = mock(RestOperations.class);
+    when(restOperations.getForObject(eq(JWKS_URI), eq(Map.class)))
+        .thenReturn(authorizationServerKeys.getJwkSet());
+    converter.setRemoteJwkSet(new RemoteJwkSet(JWKS_URI, 10_000L, restOperations));
+
+    assertEquals(CLIENT_ID, converter.decode(token).get(AccessTokenConverter.CLIENT_ID));
+  }
+
+  /**
+   * Test method for {@link KeyRotatingJwtAccessTokenConverter#decode(String)}.
+   */
+  @Test(expected = InvalidTokenException.class)
+  public void testDecodeTampered() {
+    final String token = converter.encode(accessToken, authentication);
+    final String[] parts = token.split("\\.");
+    final String claims = Base64.getUrlEncoder().withoutPadding()
+        .encodeToString("{\"client_id\":\"other\"}".getBytes(StandardCharsets.UTF_8));
+
+    converter.decode(parts[0] + '.' + claims + '.' + parts[2]);
+  }
+
+  /**
+   * Test method for {@link KeyRotatingJwtAccessTokenConverter#decode(String)}.
+   */
+  @Test(expected = InvalidTokenException.class)
+  public void testDecodeMalformed() {
+    converter.decode("not a token");
+  }
+
+  /**
+   * Test method for {@link KeyRotatingJwtAccessTokenConverter#getKey()}.
+   */
+  @Test
+  public void testGetKey() {
+    final Map<String, String> key = converter.getKey();
+
+    assertEquals(EcdsaSigner.ALGORITHM, key.get("alg"));
+    assertEquals(keyManager.getActiveKey().getKid(), key.get("kid"));
+    assertTrue(key.get("value").startsWith("-----BEGIN PUBLIC KEY-----"));
+  }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Creation by madmath03 the 2018-02-06.
+ */
+
+package com.monogramm.starter.config.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.monogramm.starter.persistence.mail.entity.OutboxMail;
+import com.monogramm.starter.persistence.mail.service.IMailOutboxService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+/**
+ * {@link MailOutboxDispatcher} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class MailOutboxDispatcherTest {
+
+  private static final String SENDER = "no_reply@dummy.com";
+
+  private SmtpStandIn smtp;
+
+  private IMailOutboxService outboxService;
+
+  private JavaMailSenderImpl mailSender;
+
+  private MailOutboxDispatcher dispatcher;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.smtp = new SmtpStandIn();
+
+    this.mailSender = new JavaMailSenderImpl();
+    this.mailSender.setHost("localhost");
+    this.mailSender.setPort(smtp.getPort());
+    this.mailSender.setProtocol("smtp");
+
+    this.outboxService = mock(IMailOutboxService.class);
+
+    this.dispatcher = new MailOutboxDispatcher(outboxService, mailSender, true, 2, 3);
+  }
+
+  /**
+   * @throws java.lang.Exception If test clean up crashes.
+   */
+  @After
+  public void tearDown() throws Exception {
+    this.dispatcher.shutdown();
+    this.smtp.close();
+  }
+
+  private static List<OutboxMail> buildMails(final String... recipients) {
+    final List<OutboxMail> mails = new ArrayList<>(recipients.length);
+    for (final String recipient : recipients) {
+      final OutboxMail mail = new OutboxMail(SENDER, recipient, "Subject", "Text");
+      mail.setId(UUID.randomUUID());
+      mails.add(mail);
+    }
+    return mails;
+  }
+
+  /**
+   * Test method for
+   * {@link MailOutboxDispatcher#MailOutboxDispatcher(IMailOutboxService, org.springframework.mail.MailSender, boolean, int, int)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testMailOutboxDispatcherNullOutboxService() {
+    new MailOutboxDispatcher(null, mailSender, true, 2, 3);
+  }
+
+  /**
+   * Test method for
+   * {@link MailOutboxDispatcher#MailOutboxDispatcher(IMailOutboxService, org.springframework.mail.MailSender, boolean, int, int)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testMailOutboxDispatcherNoWorkers() {
+    new MailOutboxDispatcher(outboxService, mailSender, true, 0, 3);
+  }
+
+  /**
+   * Test method for {@link MailOutboxDispatcher#dispatch()}.
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testDispatch() {
+    final List<OutboxMail> mails =
+        buildMails("a@dummy.com", "b@dummy.com", "c@dummy.com", "d@dummy.com", "e@dummy.com");
+    when(outboxService.claim(6)).thenReturn(mails);
+
+    assertEquals(5, dispatcher.dispatch());
+
+    // One connection per batch
+    assertEquals(5, smtp.getReceived().size());
+    assertEquals(2, smtp.getConnections());
+    assertEquals(2, dispatcher.getBatchCount());
+    assertEquals(5, dispatcher.getSentCount());
+    assertEquals(0, dispatcher.getFailedCount());
+
+    final ArgumentCaptor<Collection<UUID>> sentIds =
+        (ArgumentCaptor<Collection<UUID>>) (ArgumentCaptor<?>) ArgumentCaptor
+            .forClass(Collection.class);
+    verify(outboxService, times(2)).markSent(sentIds.capture());
+    final List<UUID> allSentIds = new ArrayList<>();
+    for (final Collection<UUID> ids : sentIds.getAllValues()) {
+      allSentIds.addAll(ids);
+    }
+    assertEquals(5, allSentIds.size());
+    for (final OutboxMail mail : mails) {
+      assertTrue(allSentIds.contains(mail.getId()));
+    }
+    verify(outboxService, never()).markFailed(any(OutboxMail.class), anyString());
+  }
+
+  /**
+   * Test method for {@link MailOutboxDispatcher#dispatch()}.
+   */
+  @Test
+  public void testDispatchPartialFailure() {
+    smtp.reject("b@dummy.com");
+    final List<OutboxMail> mails = buildMails("a@dummy.com", "b@dummy.com", "c@dummy.com");
+    when(outboxService.claim(6)).thenReturn(mails);
+    when(outboxService.markFailed(any(OutboxMail.class), anyString())).thenReturn(true);
+
+    assertEquals(2, dispatcher.dispatch());
+
+    assertEquals(2, smtp.getReceived().size());
+    assertEquals(1, dispatcher.getFailedCount());
+    verify(outboxService, times(1)).markFailed(eq(mails.get(1)), anyString());
+    verify(outboxService, times(1))
+        .markSent(Arrays.asList(mails.get(0).getId(), mails.get(2).getId()));
+  }
+
+  /**
+   * Test method for {@link MailOutboxDispatcher#dispatch()}.
+   * 
+   * @throws java.lang.Exception If the mail server cannot be stopped.
+   */
+  @Test
+  public void testDispatchServerDown() throws Exception {
+    smtp.close();
+    final List<OutboxMail> mails = buildMails("a@dummy.com", "b@dummy.com");
+    when(outboxService.claim(6)).thenReturn(mails);
+    when(outboxService.markFailed(any(OutboxMail.class), anyString())).thenReturn(true);
+
+    assertEquals(0, dispatcher.dispatch());
+
+    assertEquals(2, dispatcher.getFailedCount());
+    verify(outboxService, times(2)).markFailed(any(OutboxMail.class), anyString());
+    verify(outboxService, times(1)).markSent(Collections.emptyList());
+  }
+
+  /**
+   * Test method for {@link MailOutboxDispatcher#dispatch()}.
+   */
+  @Test
+  public void testDispatchDisabled() {
+    final MailOutboxDispatcher disabled =
+        new MailOutboxDispatcher(outboxService, mailSender, false, 1, 1);
+    try {
+      assertEquals(0, disabled.dispatch());
+
+      verify(outboxService, never()).claim(anyInt());
+    } finally {
+      disabled.shutdown();
+    }
+  }
+
+}
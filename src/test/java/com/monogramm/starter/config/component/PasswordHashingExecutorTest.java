@@ -0,0 +1,250 @@
+/*
+ * Creation by madmath03 the 2018-02-04.
+ */
+
+package com.monogramm.starter.config.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.github.madmath03.password.Passwords;
+import com.jayway.awaitility.Awaitility;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link PasswordHashingExecutor} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class PasswordHashingExecutorTest {
+
+  private static final String PASSWORD_STR = "password";
+  private static final char[] PASSWORD = PASSWORD_STR.toCharArray();
+
+  private PasswordHashingExecutor executor;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.executor = new PasswordHashingExecutor(2, 4, 10_000L, 1L);
+  }
+
+  /**
+   * @throws java.lang.Exception If test clean up crashes.
+   */
+  @After
+  public void tearDown() throws Exception {
+    this.executor.shutdown();
+    this.executor = null;
+  }
+
+  /**
+   * Test method for {@link PasswordHashingExecutor#hash(char[])}.
+   */
+  @Test
+  public void testHash() {
+    final String hash = this.executor.hash(PASSWORD.clone());
+
+    assertTrue(hash.startsWith(PasswordHashingExecutor.HASH_PREFIX
+        + PasswordHashingExecutor.MIN_ITERATIONS + "$"));
+    assertNotEquals(hash, this.executor.hash(PASSWORD.clone()));
+    assertEquals(2, this.executor.getHashStatistics().getCount());
+    assertEquals(0, this.executor.getMatchStatistics().getCount());
+  }
+
+  /**
+   * Test method for
+   * {@link PasswordHashingExecutor#matches(java.lang.CharSequence, java.lang.String)}.
+   */
+  @Test
+  public void testMatches() {
+    final String hash = this.executor.hash(PASSWORD.clone());
+
+    assertTrue(this.executor.matches(PASSWORD_STR, hash));
+    assertFalse(this.executor.matches("wrong", hash));
+    assertEquals(2, this.executor.getMatchStatistics().getCount());
+  }
+
+  /**
+   * Test method for
+   * {@link PasswordHashingExecutor#matches(java.lang.CharSequence, java.lang.String)}.
+   */
+  @Test
+  public void testMatchesLegacyHash() {
+    final String hash = Passwords.getHash(PASSWORD.clone());
+
+    assertTrue(this.executor.matches(PASSWORD_STR, hash));
+    assertFalse(this.executor.matches("wrong", hash));
+  }
+
+  /**
+   * Test method for
+   * {@link PasswordHashingExecutor#matches(java.lang.CharSequence, java.lang.String)}.
+   */
+  @Test
+  public void testMatchesNull() {
+    assertFalse(this.executor.matches(null, "hash"));
+    assertFalse(this.executor.matches(PASSWORD_STR, null));
+    assertFalse(this.executor.matches(PASSWORD_STR, PasswordHashingExecutor.HASH_PREFIX + "10"));
+    assertEquals(1, this.executor.getMatchStatistics().getCount());
+  }
+
+  /**
+   * Test method for
+   * {@link PasswordHashingExecutor#matches(java.lang.CharSequence, java.lang.String)}.
+   */
+  @Test
+  public void testMatchesMalformedHash() {
+    final String hash = this.executor.hash(PASSWORD.clone());
+    final String digest = hash.substring(hash.indexOf('$') + 1);
+    final String prefix = PasswordHashingExecutor.HASH_PREFIX;
+
+    assertFalse(this.executor.matches(PASSWORD_STR, prefix + "abc$" + digest));
+    assertFalse(this.executor.matches(PASSWORD_STR, prefix + "99999999999$" + digest));
+    assertFalse(this.executor.matches(PASSWORD_STR, prefix + "0$" + digest));
+    assertFalse(this.executor.matches(PASSWORD_STR, prefix + "-1$" + digest));
+    assertFalse(this.executor.matches(PASSWORD_STR, prefix + "10000$abc"));
+    assertEquals(5, this.executor.getMatchStatistics().getCount());
+  }
+
+  /**
+   * Test method for {@link PasswordHashingExecutor#calibrate()}.
+   */
+  @Test
+  public void testCalibrate() {
+    final int iterations = this.executor.calibrate();
+
+    assertEquals(iterations, this.executor.getIterations());
+    assertTrue(iterations >= PasswordHashingExecutor.MIN_ITERATIONS);
+    assertTrue(iterations <= PasswordHashingExecutor.MAX_ITERATIONS);
+  }
+
+  /**
+   * Test method for {@link PasswordHashingExecutor#hash(char[])}.
+   * 
+   * @throws Exception if the blocking operation cannot be started.
+   */
+  @Test(expected = PasswordHashingUnavailableException.class)
+  public void testHashTimeout() throws Exception {
+    final PasswordHashingExecutor impatient = new PasswordHashingExecutor(1, 1, 100L, 1L);
+    final ExecutorService callers = Executors.newSingleThreadExecutor();
+    final BlockingPassword blocking = new BlockingPassword();
+    try {
+      final String hash = this.executor.hash(PASSWORD.clone());
+      callers.submit(() -> impatient.matches(blocking, hash));
+      blocking.started.await();
+
+      // The only hashing thread is busy until released: the hash cannot start in time
+      impatient.hash(PASSWORD.clone());
+    } finally {
+      blocking.release.countDown();
+      callers.shutdown();
+      impatient.shutdown();
+    }
+  }
+
+  /**
+   * Test method for {@link PasswordHashingExecutor#hash(char[])}.
+   * 
+   * @throws Exception if the waiting operations fail.
+   */
+  @Test
+  public void testHashSaturated() throws Exception {
+    final PasswordHashingExecutor saturated = new PasswordHashingExecutor(1, 1, 10_000L, 1L);
+    final ExecutorService callers = Executors.newFixedThreadPool(2);
+    final BlockingPassword blocking = new BlockingPassword();
+    try {
+      final String hash = this.executor.hash(PASSWORD.clone());
+      final Future<Boolean> running = callers.submit(() -> saturated.matches(blocking, hash));
+      blocking.started.await();
+      final Future<String> queued = callers.submit(() -> saturated.hash(PASSWORD.clone()));
+      Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> saturated.getQueueSize() == 1);
+
+      try {
+        saturated.hash(PASSWORD.clone());
+        fail("Hashing should be rejected while the thread and the queue are busy");
+      } catch (PasswordHashingUnavailableException e) {
+        assertEquals(1, saturated.getRejectedCount());
+      }
+
+      blocking.release.countDown();
+      assertFalse(running.get());
+      assertTrue(saturated.matches(PASSWORD_STR, queued.get()));
+    } finally {
+      blocking.release.countDown();
+      callers.shutdown();
+      saturated.shutdown();
+    }
+  }
+
+  /**
+   * Test method for {@link PasswordHashingExecutor#getPoolSize()}.
+   */
+  @Test
+  public void testGetPoolSize() {
+    assertEquals(2, this.executor.getPoolSize());
+
+    final PasswordHashingExecutor defaultSize = new PasswordHashingExecutor(0, 1, 0L, 1L);
+    try {
+      assertEquals(Runtime.getRuntime().availableProcessors(), defaultSize.getPoolSize());
+    } finally {
+      defaultSize.shutdown();
+    }
+  }
+
+  /**
+   * A password blocking the hashing thread reading it until released, even when its operation is
+   * cancelled.
+   */
+  private static final class BlockingPassword implements CharSequence {
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    public int length() {
+      return PASSWORD_STR.length();
+    }
+
+    @Override
+    public char charAt(final int index) {
+      return PASSWORD_STR.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+      return PASSWORD_STR.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+      started.countDown();
+      boolean interrupted = false;
+      while (release.getCount() > 0) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      return "blocked";
+    }
+  }
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Creation by madmath03 the 2018-02-07.
+ */
+
+package com.monogramm.starter.config.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * {@link RateLimiter} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class RateLimiterTest {
+
+  private static final String EMAIL = "foo@email.com";
+  private static final String IP = "192.168.0.1";
+  private static final String CLIENT = "client";
+
+  private static final int CAPACITY = 3;
+  private static final long REFILL_MILLIS = 10_000L;
+
+  private final AtomicLong clock = new AtomicLong();
+
+  private RateLimiter rateLimiter;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.rateLimiter = this.buildRateLimiter(true, 1_024);
+  }
+
+  /**
+   * @throws java.lang.Exception If test clean up crashes.
+   */
+  @After
+  public void tearDown() throws Exception {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  private RateLimiter buildRateLimiter(final boolean enabled, final int maxKeys) {
+    final Map<String, RateLimiter.Limit> limits = new HashMap<>();
+    limits.put(RateLimiter.REGISTER, new RateLimiter.Limit(CAPACITY, REFILL_MILLIS));
+    limits.put(RateLimiter.RESET_PASSWORD, new RateLimiter.Limit(CAPACITY, REFILL_MILLIS));
+
+    return new RateLimiter(enabled, maxKeys, limits) {
+      @Override
+      protected long nanoTime() {
+        return clock.get();
+      }
+    };
+  }
+
+  private void assertRejected(final String email, final String ip, final long retryAfter) {
+    try {
+      rateLimiter.acquire(RateLimiter.REGISTER, ip, email, null);
+      fail("Request should have been rejected");
+    } catch (RateLimitExceededException e) {
+      assertEquals(retryAfter, e.getRetryAfterSeconds());
+    }
+  }
+
+  /**
+   * Test method for {@link RateLimiter#RateLimiter(boolean, int, Map)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRateLimiterNullLimits() {
+    new RateLimiter(true, 1_024, null);
+  }
+
+  /**
+   * Test method for {@link RateLimiter#RateLimiter(boolean, int, Map)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRateLimiterTooFewKeys() {
+    new RateLimiter(true, 1, new HashMap<>());
+  }
+
+  /**
+   * Test method for {@link RateLimiter.Limit#Limit(int, long)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testLimitNoCapacity() {
+    new RateLimiter.Limit(0, REFILL_MILLIS);
+  }
+
+  /**
+   * Test method for {@link RateLimiter#acquire(String, String, String, String)}.
+   */
+  @Test
+  public void testAcquire() {
+    for (int i = 0; i < CAPACITY; i++) {
+      rateLimiter.acquire(RateLimiter.REGISTER, IP, EMAIL, CLIENT);
+    }
+    assertRejected(EMAIL, IP, 10L);
+
+    // One token is regained after a refill period
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(REFILL_MILLIS / 2));
+    assertRejected(EMAIL, IP, 5L);
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(REFILL_MILLIS / 2));
+    rateLimiter.acquire(RateLimiter.REGISTER, IP, EMAIL, CLIENT);
+    assertRejected(EMAIL, IP, 10L);
+
+    // Buckets never hold more than their capacity
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(REFILL_MILLIS * 100));
+    for (int i = 0; i < CAPACITY; i++) {
+      rateLimiter.acquire(RateLimiter.REGISTER, IP, EMAIL, CLIENT);
+    }
+    assertRejected(EMAIL, IP, 10L);
+
+    assertEquals(CAPACITY * 2 + 1, rateLimiter.getAllowedCount(RateLimiter.REGISTER));
+    assertEquals(4, rateLimiter.getRejectedCount(RateLimiter.REGISTER));
+  }
+
+  /**
+   * Test method for {@link RateLimiter#acquire(String, String, String, String)}.
+   */
+  @Test
+  public void testAcquirePerKey() {
+    for (int i = 0; i < CAPACITY; i++) {
+      rateLimiter.acquire(RateLimiter.REGISTER, "10.0.0." + i, EMAIL, null);
+    }
+    // Same email from another address, whatever its case
+    assertRejected(EMAIL.toUpperCase(), "10.0.0.42", 10L);
+
+    // Same address for another email
+    for (int i = 1; i < CAPACITY; i++) {
+      rateLimiter.acquire(RateLimiter.REGISTER, IP, i + EMAIL, null);
+    }
+    rateLimiter.acquire(RateLimiter.REGISTER, IP, "last" + EMAIL, null);
+    assertRejected("other" + EMAIL, IP, 10L);
+
+    // Other endpoints have their own buckets
+    rateLimiter.acquire(RateLimiter.RESET_PASSWORD, IP, EMAIL, null);
+  }
+
+  /**
+   * Test method for {@link RateLimiter#acquire(String, String, String, String)}.
+   */
+  @Test
+  public void testAcquireRejectedRefunded() {
+    // Lock the email from other addresses
+    for (int i = 0; i < CAPACITY; i++) {
+      rateLimiter.acquire(RateLimiter.REGISTER, "10.0.0." + i, EMAIL, null);
+    }
+
+    // Requests for the locked email do not drain the budget of the address
+    for (int i = 0; i < CAPACITY * 2; i++) {
+      assertRejected(EMAIL, IP, 10L);
+    }
+    for (int i = 0; i < CAPACITY; i++) {
+      rateLimiter.acquire(RateLimiter.REGISTER, IP, i + EMAIL, null);
+    }
+    assertRejected("other" + EMAIL, IP, 10L);
+
+    // Nor of the OAuth client once rejected on the client bucket
+    for (int i = 0; i < CAPACITY; i++) {
+      rateLimiter.acquire(RateLimiter.RESET_PASSWORD, null, null, CLIENT);
+    }
+    try {
+      rateLimiter.acquire(RateLimiter.RESET_PASSWORD, IP, EMAIL, CLIENT);
+      fail("Request should have been rejected");
+    } catch (RateLimitExceededException e) {
+      assertEquals(10L, e.getRetryAfterSeconds());
+    }
+    for (int i = 0; i < CAPACITY; i++) {
+      rateLimiter.acquire(RateLimiter.RESET_PASSWORD, IP, EMAIL, null);
+    }
+  }
+
+  /**
+   * Test method for {@link RateLimiter#acquire(String, String, String, String)}.
+   */
+  @Test
+  public void testAcquireNotLimited() {
+    final RateLimiter disabled = this.buildRateLimiter(false, 1_024);
+    for (int i = 0; i < CAPACITY * 2; i++) {
+      disabled.acquire(RateLimiter.REGISTER, IP, EMAIL, CLIENT);
+      rateLimiter.acquire(RateLimiter.SEND_VERIFICATION, IP, EMAIL, CLIENT);
+    }
+
+    assertEquals(0, disabled.getAllowedCount(RateLimiter.REGISTER));
+    assertEquals(0, rateLimiter.getAllowedCount(RateLimiter.SEND_VERIFICATION));
+  }
+
+  /**
+   * Test method for {@link RateLimiter#acquire(String, String)}.
+   */
+  @Test
+  public void testAcquireCurrentRequest() {
+    final MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setRemoteAddr(IP);
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+    for (int i = 0; i < CAPACITY; i++) {
+      rateLimiter.acquire(RateLimiter.REGISTER, i + EMAIL);
+    }
+    try {
+      rateLimiter.acquire(RateLimiter.REGISTER, "other" + EMAIL);
+      fail("Request should have been rejected");
+    } catch (RateLimitExceededException e) {
+      assertEquals(10L, e.getRetryAfterSeconds());
+    }
+  }
+
+  /**
+   * Test method for {@link RateLimiter#getKeyCount()}.
+   */
+  @Test
+  public void testKeysBounded() {
+    final RateLimiter bounded = this.buildRateLimiter(true, 64);
+
+    for (int i = 0; i < 1_000; i++) {
+      bounded.acquire(RateLimiter.REGISTER, "10.0." + (i / 256) + "." + (i % 256), null, null);
+    }
+
+    assertEquals(1_000, bounded.getAllowedCount(RateLimiter.REGISTER));
+    assertTrue(bounded.getKeyCount() <= 64);
+    assertEquals(1_000 - bounded.getKeyCount(), bounded.getEvictionCount());
+  }
+
+  /**
+   * Test method for {@link RateLimiter#acquire(String, String, String, String)}.
+   * 
+   * @throws Exception if a thread fails.
+   */
+  @Test
+  public void testAcquireConcurrent() throws Exception {
+    final int threads = 8;
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Callable<Integer>> tasks = new ArrayList<>(threads);
+      for (int i = 0; i < threads; i++) {
+        tasks.add(() -> {
+          int accepted = 0;
+          for (int j = 0; j < 100; j++) {
+            try {
+              rateLimiter.acquire(RateLimiter.REGISTER, IP, null, null);
+              accepted++;
+            } catch (RateLimitExceededException e) {
+              // Expected once the bucket is empty
+            }
+          }
+          return accepted;
+        });
+      }
+
+      int accepted = 0;
+      for (final Future<Integer> future : executor.invokeAll(tasks)) {
+        accepted += future.get();
+      }
+
+      assertEquals(CAPACITY, accepted);
+      assertEquals(threads * 100 - CAPACITY, rateLimiter.getRejectedCount(RateLimiter.REGISTER));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+}
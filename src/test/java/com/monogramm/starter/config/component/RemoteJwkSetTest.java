@@ -0,0 +1,143 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.config.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestOperations;
+
+/**
+ * {@link RemoteJwkSet} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class RemoteJwkSetTest {
+
+  private static final String URI = "https://auth.example.com/oauth/jwks";
+  private static final long MIN_REFRESH_INTERVAL = 10_000L;
+
+  private long now;
+
+  private RestOperations restOperations;
+
+  private SigningKey key;
+
+  private RemoteJwkSet remoteJwkSet;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.now = 1_000_000L;
+    this.restOperations = mock(RestOperations.class);
+    this.key = SigningKey.generate(SigningKey.ES256, now);
+    this.remoteJwkSet = new RemoteJwkSet(URI, MIN_REFRESH_INTERVAL, restOperations) {
+      @Override
+      protected long currentTimeMillis() {
+        return now;
+      }
+    };
+  }
+
+  private void publish(final Object... jwks) {
+    doReturn(Collections.singletonMap("keys", Arrays.asList(jwks))).when(restOperations)
+        .getForObject(eq(URI), eq(Map.class));
+  }
+
+  /**
+   * Test method for {@link RemoteJwkSet#RemoteJwkSet(String, long, RestOperations)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRemoteJwkSetEmptyUri() {
+    new RemoteJwkSet("", MIN_REFRESH_INTERVAL, restOperations);
+  }
+
+  /**
+   * Test method for {@link RemoteJwkSet#resolveKey(String)}.
+   */
+  @Test
+  public void testResolveKey() {
+    this.publish(key.toJwk());
+
+    final SigningKey read = remoteJwkSet.resolveKey(key.getKid());
+
+    assertEquals(key.getKid(), read.getKid());
+    assertEquals(key.getPublicKey(), read.getPublicKey());
+    // Known keys do not read the key set again
+    remoteJwkSet.resolveKey(key.getKid());
+    verify(restOperations, times(1)).getForObject(eq(URI), eq(Map.class));
+  }
+
+  /**
+   * Test method for {@link RemoteJwkSet#resolveKey(String)}.
+   */
+  @Test
+  public void testResolveKeyUnknown() {
+    this.publish(key.toJwk());
+
+    assertNull(remoteJwkSet.resolveKey(null));
+    assertNull(remoteJwkSet.resolveKey("unknown"));
+    assertNull(remoteJwkSet.resolveKey("other"));
+    // The key set is read at most once per minimum refresh interval
+    verify(restOperations, times(1)).getForObject(eq(URI), eq(Map.class));
+
+    final SigningKey added = SigningKey.generate(SigningKey.RS256, now);
+    this.publish(key.toJwk(), added.toJwk());
+    assertNull(remoteJwkSet.resolveKey(added.getKid()));
+
+    now += MIN_REFRESH_INTERVAL;
+    assertEquals(added.getKid(), remoteJwkSet.resolveKey(added.getKid()).getKid());
+    verify(restOperations, times(2)).getForObject(eq(URI), eq(Map.class));
+  }
+
+  /**
+   * Test method for {@link RemoteJwkSet#resolveKey(String)}.
+   */
+  @Test
+  public void testResolveKeyInvalidJwk() {
+    final Map<String, Object> invalid = new HashMap<>();
+    invalid.put("kid", "invalid");
+    invalid.put("kty", "oct");
+    this.publish(invalid, "not a key", key.toJwk());
+
+    // Invalid keys are ignored
+    assertNull(remoteJwkSet.resolveKey("invalid"));
+    assertEquals(key.getKid(), remoteJwkSet.resolveKey(key.getKid()).getKid());
+  }
+
+  /**
+   * Test method for {@link RemoteJwkSet#resolveKey(String)}.
+   */
+  @Test
+  public void testResolveKeyUnavailable() {
+    when(restOperations.getForObject(eq(URI), eq(Map.class)))
+        .thenThrow(new ResourceAccessException("Connection refused"));
+
+    assertNull(remoteJwkSet.resolveKey(key.getKid()));
+
+    // The key set is read again once available, after the minimum refresh interval
+    this.publish(key.toJwk());
+    assertNull(remoteJwkSet.resolveKey(key.getKid()));
+    now += MIN_REFRESH_INTERVAL;
+    assertEquals(key.getKid(), remoteJwkSet.resolveKey(key.getKid()).getKid());
+  }
+
+}
@@ -0,0 +1,315 @@
+/*
+ * Creation by madmath03 the 2018-02-13.
+ */
+
+package com.monogramm.starter.config.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * {@link ReplicaRoutingDataSource} Unit Test.
+ * 
+ * <p>
+ * In-memory H2 databases stand for the primary and the replica, each knowing its own name.
+ * </p>
+ * 
+ * @author madmath03
+ */
+public class ReplicaRoutingDataSourceTest {
+
+  private static final String PRIMARY = "primary";
+  private static final String REPLICA = "replica";
+
+  private static final String LAG_QUERY = "SELECT lag FROM replication";
+  private static final long MAX_LAG = 5L;
+
+  private EmbeddedDatabase primary;
+  private EmbeddedDatabase replica;
+
+  private ToggleDataSource replicaConnections;
+
+  private JdbcTemplate replicaTemplate;
+
+  private ReplicaRoutingDataSource routingDataSource;
+
+  private JdbcTemplate jdbcTemplate;
+
+  private DataSourceTransactionManager transactionManager;
+
+  /**
+   * A data source which can be taken down.
+   */
+  private static class ToggleDataSource extends DelegatingDataSource {
+    private volatile boolean down;
+
+    ToggleDataSource(final DataSource target) {
+      super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      if (down) {
+        throw new SQLException("Connection refused");
+      }
+      return super.getConnection();
+    }
+  }
+
+  private static EmbeddedDatabase buildDatabase(final String name) {
+    final EmbeddedDatabase database =
+        new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).setName(name).build();
+
+    final JdbcTemplate template = new JdbcTemplate(database);
+    template.execute("CREATE TABLE node (name VARCHAR(20))");
+    template.update("INSERT INTO node (name) VALUES (?)", name);
+
+    return database;
+  }
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.primary = buildDatabase(PRIMARY);
+    this.replica = buildDatabase(REPLICA);
+
+    this.replicaTemplate = new JdbcTemplate(replica);
+    replicaTemplate.execute("CREATE TABLE replication (lag BIGINT)");
+    replicaTemplate.update("INSERT INTO replication (lag) VALUES (0)");
+
+    this.replicaConnections = new ToggleDataSource(replica);
+
+    this.routingDataSource = this.buildRoutingDataSource(LAG_QUERY);
+  }
+
+  private ReplicaRoutingDataSource buildRoutingDataSource(final String lagQuery) {
+    final Map<String, DataSource> replicas =
+        Collections.<String, DataSource>singletonMap(REPLICA, replicaConnections);
+    final ReplicaRoutingDataSource dataSource =
+        new ReplicaRoutingDataSource(primary, replicas, lagQuery, MAX_LAG);
+
+    final LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(dataSource);
+    this.jdbcTemplate = new JdbcTemplate(proxy);
+    this.transactionManager = new DataSourceTransactionManager(proxy);
+
+    dataSource.checkReplicas();
+
+    return dataSource;
+  }
+
+  /**
+   * @throws java.lang.Exception If test clean up crashes.
+   */
+  @After
+  public void tearDown() throws Exception {
+    ReplicaRoutingContext.end();
+
+    primary.shutdown();
+    replica.shutdown();
+  }
+
+  private String readNode(final boolean readOnly) {
+    final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.setReadOnly(readOnly);
+
+    return transaction
+        .execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+  }
+
+  private void setLag(final Long lag) {
+    replicaTemplate.update("UPDATE replication SET lag = ?", lag);
+  }
+
+  /**
+   * Test method for
+   * {@link ReplicaRoutingDataSource#ReplicaRoutingDataSource(DataSource, Map, String, long)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testReplicaRoutingDataSourceNull() {
+    new ReplicaRoutingDataSource(null, null, LAG_QUERY, MAX_LAG);
+  }
+
+  /**
+   * Test method for {@link ReplicaRoutingDataSource#getConnection()}.
+   */
+  @Test
+  public void testGetConnectionReadOnly() {
+    assertEquals(REPLICA, this.readNode(true));
+    assertEquals(1L, routingDataSource.getReplicaConnectionCount());
+  }
+
+  /**
+   * Test method for {@link ReplicaRoutingDataSource#getConnection()}.
+   */
+  @Test
+  public void testGetConnectionReadWrite() {
+    final long primaryConnections = routingDataSource.getPrimaryConnectionCount();
+
+    assertEquals(PRIMARY, this.readNode(false));
+    assertEquals(primaryConnections + 1, routingDataSource.getPrimaryConnectionCount());
+    assertEquals(0L, routingDataSource.getReplicaConnectionCount());
+  }
+
+  /**
+   * Test method for {@link ReplicaRoutingDataSource#getConnection()}.
+   */
+  @Test
+  public void testGetConnectionWithoutReplica() {
+    final ReplicaRoutingDataSource dataSource =
+        new ReplicaRoutingDataSource(primary, null, LAG_QUERY, MAX_LAG);
+    this.jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(dataSource));
+    this.transactionManager = new DataSourceTransactionManager(jdbcTemplate.getDataSource());
+
+    assertEquals(PRIMARY, this.readNode(true));
+    assertEquals(0L, dataSource.getFallbackCount());
+  }
+
+  /**
+   * Test method for {@link ReplicaRoutingDataSource#checkReplicas()}.
+   */
+  @Test
+  public void testCheckReplicasLagging() {
+    this.setLag(MAX_LAG + 1);
+    routingDataSource.checkReplicas();
+
+    assertTrue(routingDataSource.getAvailableReplicas().isEmpty());
+    assertEquals(Long.valueOf(MAX_LAG + 1), routingDataSource.getReplicaLags().get(REPLICA));
+    assertEquals(PRIMARY, this.readNode(true));
+    assertEquals(1L, routingDataSource.getFallbackCount());
+
+    // Caught up
+    this.setLag(MAX_LAG);
+    routingDataSource.checkReplicas();
+
+    assertEquals(Collections.singletonList(REPLICA), routingDataSource.getAvailableReplicas());
+    assertEquals(REPLICA, this.readNode(true));
+  }
+
+  /**
+   * Test method for {@link ReplicaRoutingDataSource#checkReplicas()}.
+   */
+  @Test
+  public void testCheckReplicasStopped() {
+    this.setLag(null);
+    routingDataSource.checkReplicas();
+
+    assertTrue(routingDataSource.getAvailableReplicas().isEmpty());
+    assertNull(routingDataSource.getReplicaLags().get(REPLICA));
+    assertEquals(PRIMARY, this.readNode(true));
+  }
+
+  /**
+   * Test method for {@link ReplicaRoutingDataSource#checkReplicas()}.
+   */
+  @Test
+  public void testCheckReplicasLagColumn() {
+    this.setLag(MAX_LAG + 1);
+    routingDataSource =
+        this.buildRoutingDataSource("SELECT 'Yes' AS Slave_IO_Running, 0 AS Seconds_Behind_Master");
+
+    assertEquals(Long.valueOf(0L), routingDataSource.getReplicaLags().get(REPLICA));
+    assertEquals(REPLICA, this.readNode(true));
+  }
+
+  /**
+   * Test method for {@link ReplicaRoutingDataSource#checkReplicas()}.
+   */
+  @Test
+  public void testCheckReplicasUnreachable() {
+    replicaConnections.down = true;
+    routingDataSource.checkReplicas();
+
+    assertTrue(routingDataSource.getAvailableReplicas().isEmpty());
+    assertEquals(PRIMARY, this.readNode(true));
+  }
+
+  /**
+   * Test method for {@link ReplicaRoutingDataSource#getConnection()}.
+   */
+  @Test
+  public void testGetConnectionFailover() {
+    replicaConnections.down = true;
+
+    assertEquals(PRIMARY, this.readNode(true));
+    assertEquals(1L, routingDataSource.getFallbackCount());
+    assertFalse(routingDataSource.getAvailableReplicas().contains(REPLICA));
+
+    // Back once a check finds it up to date
+    replicaConnections.down = false;
+    routingDataSource.checkReplicas();
+
+    assertEquals(REPLICA, this.readNode(true));
+  }
+
+  /**
+   * Test method for {@link ReplicaRoutingDataSource#getConnection()}.
+   */
+  @Test
+  public void testGetConnectionStickyAfterWrite() {
+    ReplicaRoutingContext.begin();
+
+    assertEquals(REPLICA, this.readNode(true));
+    assertEquals(PRIMARY, this.readNode(false));
+    assertTrue(ReplicaRoutingContext.isPrimaryRequired());
+
+    // Read your own writes
+    assertEquals(PRIMARY, this.readNode(true));
+    assertEquals(1L, routingDataSource.getStickyConnectionCount());
+
+    ReplicaRoutingContext.end();
+
+    assertFalse(ReplicaRoutingContext.isPrimaryRequired());
+    assertEquals(REPLICA, this.readNode(true));
+  }
+
+  /**
+   * Test method for {@link ReplicaRoutingDataSource#getConnection()}.
+   */
+  @Test
+  public void testGetConnectionNotStickyWithoutTransaction() {
+    ReplicaRoutingContext.begin();
+
+    // Read outside of any transaction, such as the client details lookups
+    assertEquals(PRIMARY, jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    assertFalse(ReplicaRoutingContext.isPrimaryRequired());
+
+    assertEquals(REPLICA, this.readNode(true));
+    assertEquals(0L, routingDataSource.getStickyConnectionCount());
+  }
+
+  /**
+   * Test method for {@link ReplicaRoutingDataSource#getConnection()}.
+   */
+  @Test
+  public void testGetConnectionNotStickyOutsideContext() {
+    assertEquals(PRIMARY, this.readNode(false));
+    assertFalse(ReplicaRoutingContext.isPrimaryRequired());
+
+    assertEquals(REPLICA, this.readNode(true));
+    assertEquals(0L, routingDataSource.getStickyConnectionCount());
+  }
+
+}
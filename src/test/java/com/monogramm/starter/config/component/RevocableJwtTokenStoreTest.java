@@ -0,0 +1,147 @@
+/*
+ * Creation by madmath03 the 2018-02-11.
+ */
+
+package com.monogramm.starter.config.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.monogramm.starter.persistence.oauth.service.IRevokedTokenService;
+import com.monogramm.starter.persistence.oauth.service.InMemoryJwtSigningKeyService;
+
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.common.DefaultExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+
+/**
+ * {@link RevocableJwtTokenStore} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class RevocableJwtTokenStoreTest {
+
+  private static final String ACCESS_JTI = "access-jti";
+  private static final String REFRESH_JTI = "refresh-jti";
+
+  private IRevokedTokenService revokedTokenService;
+
+  private RevocableJwtTokenStore tokenStore;
+
+  private OAuth2AccessToken accessToken;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.revokedTokenService = mock(IRevokedTokenService.class);
+    final TokenRevocationStore revocationStore =
+        new TokenRevocationStore(revokedTokenService, 60_000L, 100, 0.01D, 600_000L);
+    final KeyRotatingJwtAccessTokenConverter converter =
+        new KeyRotatingJwtAccessTokenConverter(new JwtKeyManager(SigningKey.ES256, 60_000L,
+            120_000L, 10_000L, new InMemoryJwtSigningKeyService(), "secret"));
+
+    this.tokenStore = new RevocableJwtTokenStore(converter, revocationStore);
+
+    final long now = System.currentTimeMillis();
+    final DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(ACCESS_JTI);
+    token.setExpiration(new Date(now + 60_000L));
+    token.setRefreshToken(
+        new DefaultExpiringOAuth2RefreshToken(REFRESH_JTI, new Date(now + 120_000L)));
+    final OAuth2Authentication authentication = new OAuth2Authentication(
+        new OAuth2Request(Collections.<String, String>emptyMap(), "client", null, true, null,
+            null, null, null, null),
+        new UsernamePasswordAuthenticationToken("foo@email.com", "N/A",
+            AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+    this.accessToken = converter.enhance(token, authentication);
+  }
+
+  /**
+   * Test method for
+   * {@link RevocableJwtTokenStore#RevocableJwtTokenStore(KeyRotatingJwtAccessTokenConverter, TokenRevocationStore)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRevocableJwtTokenStoreNull() {
+    new RevocableJwtTokenStore(
+        new KeyRotatingJwtAccessTokenConverter(new JwtKeyManager(SigningKey.ES256, 60_000L,
+            120_000L, 10_000L, new InMemoryJwtSigningKeyService(), "secret")),
+        null);
+  }
+
+  /**
+   * Test method for {@link RevocableJwtTokenStore#readAuthentication(OAuth2AccessToken)}.
+   */
+  @Test
+  public void testReadAuthentication() {
+    final OAuth2AccessToken read = tokenStore.readAccessToken(accessToken.getValue());
+
+    // The claims verified while reading the access token give its authentication
+    final OAuth2Authentication authentication = tokenStore.readAuthentication(read);
+    assertEquals("client", authentication.getOAuth2Request().getClientId());
+    assertEquals("foo@email.com", authentication.getName());
+
+    // An access token read elsewhere is verified again
+    assertEquals(authentication.getOAuth2Request(),
+        tokenStore.readAuthentication(accessToken).getOAuth2Request());
+  }
+
+  /**
+   * Test method for {@link RevocableJwtTokenStore#readAccessToken(String)}.
+   */
+  @Test(expected = InvalidTokenException.class)
+  public void testReadAccessTokenRefreshToken() {
+    tokenStore.readAccessToken(accessToken.getRefreshToken().getValue());
+  }
+
+  /**
+   * Test method for {@link RevocableJwtTokenStore#removeAccessToken(OAuth2AccessToken)}.
+   */
+  @Test
+  public void testRemoveAccessToken() {
+    final OAuth2AccessToken read = tokenStore.readAccessToken(accessToken.getValue());
+    assertNotNull(read);
+
+    tokenStore.removeAccessToken(read);
+
+    verify(revokedTokenService).revoke(eq(ACCESS_JTI), any(Date.class));
+    assertNull(tokenStore.readAccessToken(accessToken.getValue()));
+    // The refresh token has its own identifier
+    assertNotNull(tokenStore.readRefreshToken(accessToken.getRefreshToken().getValue()));
+  }
+
+  /**
+   * Test method for {@link RevocableJwtTokenStore#removeRefreshToken(OAuth2RefreshToken)}.
+   */
+  @Test
+  public void testRemoveRefreshToken() {
+    final String refreshTokenValue = accessToken.getRefreshToken().getValue();
+    final OAuth2RefreshToken read = tokenStore.readRefreshToken(refreshTokenValue);
+    assertNotNull(read);
+
+    tokenStore.removeRefreshToken(read);
+
+    verify(revokedTokenService).revoke(eq(REFRESH_JTI), any(Date.class));
+    assertNull(tokenStore.readRefreshToken(refreshTokenValue));
+    assertEquals(ACCESS_JTI,
+        tokenStore.readAccessToken(accessToken.getValue()).getAdditionalInformation().get("jti"));
+  }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.config.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.security.jwt.crypto.sign.InvalidSignatureException;
+
+/**
+ * {@link SigningKey} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class SigningKeyTest {
+
+  private static final byte[] CONTENT = "header.claims".getBytes(StandardCharsets.UTF_8);
+
+  /**
+   * Test method for {@link SigningKey#generate(String, long)}.
+   */
+  @Test
+  public void testGenerateRs256() {
+    final SigningKey key = SigningKey.generate(SigningKey.RS256, 42L);
+
+    assertNotNull(key.getKid());
+    assertEquals(SigningKey.RS256, key.getAlgorithm());
+    assertEquals(42L, key.getCreatedAt());
+    assertTrue(key.canSign());
+
+    key.getVerifier().verify(CONTENT, key.getSigner().sign(CONTENT));
+  }
+
+  /**
+   * Test method for {@link SigningKey#generate(String, long)}.
+   */
+  @Test
+  public void testGenerateEs256() {
+    final SigningKey key = SigningKey.generate(SigningKey.ES256, 42L);
+
+    assertEquals(SigningKey.ES256, key.getAlgorithm());
+    assertTrue(key.canSign());
+
+    // ECDSA signatures are random: sign many times to cover short R and S values
+    for (int i = 0; i < 50; i++) {
+      final byte[] signature = key.getSigner().sign(CONTENT);
+      assertEquals(64, signature.length);
+      key.getVerifier().verify(CONTENT, signature);
+    }
+  }
+
+  /**
+   * Test method for {@link SigningKey#getVerifier()}.
+   */
+  @Test(expected = InvalidSignatureException.class)
+  public void testVerifyTampered() {
+    final SigningKey key = SigningKey.generate(SigningKey.ES256, 42L);
+    final byte[] signature = key.getSigner().sign(CONTENT);
+    signature[0] ^= 1;
+
+    key.getVerifier().verify(CONTENT, signature);
+  }
+
+  /**
+   * Test method for {@link SigningKey#generate(String, long)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testGenerateUnsupported() {
+    SigningKey.generate("HS256", 42L);
+  }
+
+  /**
+   * Test method for {@link SigningKey#SigningKey(String, KeyPair, long)}.
+   * 
+   * @throws Exception if the key pair cannot be generated.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testSigningKeyUnsupportedCurve() throws Exception {
+    final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    generator.initialize(new ECGenParameterSpec("secp384r1"));
+
+    new SigningKey("kid", generator.generateKeyPair(), 42L);
+  }
+
+  /**
+   * Test method for {@link SigningKey#getSigner()}.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testGetSignerVerifyOnly() {
+    final SigningKey generated = SigningKey.generate(SigningKey.RS256, 42L);
+    final SigningKey key =
+        new SigningKey("kid", new KeyPair(generated.getPublicKey(), null), 42L);
+
+    assertFalse(key.canSign());
+    key.getSigner();
+  }
+
+  /**
+   * Test method for {@link SigningKey#toJwk()}.
+   */
+  @Test
+  public void testToJwkRsa() {
+    final SigningKey key = SigningKey.generate(SigningKey.RS256, 42L);
+
+    final Map<String, Object> jwk = key.toJwk();
+
+    assertEquals(key.getKid(), jwk.get("kid"));
+    assertEquals("sig", jwk.get("use"));
+    assertEquals("RS256", jwk.get("alg"));
+    assertEquals("RSA", jwk.get("kty"));
+    assertEquals("AQAB", jwk.get("e"));
+    // 2048 bits modulus, Base64url encoded without padding
+    assertEquals(342, ((String) jwk.get("n")).length());
+  }
+
+  /**
+   * Test method for {@link SigningKey#toJwk()}.
+   */
+  @Test
+  public void testToJwkEc() {
+    final SigningKey key = SigningKey.generate(SigningKey.ES256, 42L);
+
+    final Map<String, Object> jwk = key.toJwk();
+
+    assertEquals("ES256", jwk.get("alg"));
+    assertEquals("EC", jwk.get("kty"));
+    assertEquals("P-256", jwk.get("crv"));
+    // 32 bytes coordinates, Base64url encoded without padding
+    assertEquals(43, ((String) jwk.get("x")).length());
+    assertEquals(43, ((String) jwk.get("y")).length());
+  }
+
+  /**
+   * Test method for {@link SigningKey#fromJwk(Map, long)}.
+   */
+  @Test
+  public void testFromJwkRsa() {
+    final SigningKey key = SigningKey.generate(SigningKey.RS256, 42L);
+
+    final SigningKey read = SigningKey.fromJwk(key.toJwk(), 43L);
+
+    assertEquals(key.getKid(), read.getKid());
+    assertEquals(SigningKey.RS256, read.getAlgorithm());
+    assertEquals(key.getPublicKey(), read.getPublicKey());
+    assertFalse(read.canSign());
+    read.getVerifier().verify(CONTENT, key.getSigner().sign(CONTENT));
+  }
+
+  /**
+   * Test method for {@link SigningKey#fromJwk(Map, long)}.
+   */
+  @Test
+  public void testFromJwkEc() {
+    final SigningKey key = SigningKey.generate(SigningKey.ES256, 42L);
+
+    final SigningKey read = SigningKey.fromJwk(key.toJwk(), 43L);
+
+    assertEquals(key.getKid(), read.getKid());
+    assertEquals(SigningKey.ES256, read.getAlgorithm());
+    assertEquals(key.getPublicKey(), read.getPublicKey());
+    read.getVerifier().verify(CONTENT, key.getSigner().sign(CONTENT));
+  }
+
+  /**
+   * Test method for {@link SigningKey#fromJwk(Map, long)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testFromJwkUnsupported() {
+    final Map<String, Object> jwk = new HashMap<>();
+    jwk.put("kid", "kid");
+    jwk.put("kty", "oct");
+    jwk.put("k", "c2VjcmV0");
+
+    SigningKey.fromJwk(jwk, 42L);
+  }
+
+  /**
+   * Test method for {@link SigningKey#fromJwk(Map, long)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testFromJwkAlgorithmMismatch() {
+    final Map<String, Object> jwk =
+        new HashMap<>(SigningKey.generate(SigningKey.ES256, 42L).toJwk());
+    jwk.put("alg", SigningKey.RS256);
+
+    SigningKey.fromJwk(jwk, 42L);
+  }
+
+}
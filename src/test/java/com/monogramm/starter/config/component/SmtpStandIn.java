@@ -0,0 +1,270 @@
+/*
+ * Creation by madmath03 the 2018-02-06.
+ */
+
+package com.monogramm.starter.config.component;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A minimal in-process SMTP server standing in for a real mail server in tests and benchmarks.
+ * 
+ * <p>
+ * The server accepts every mail, except for the recipients explicitly rejected, and keeps the
+ * received mails in memory. An optional delay per mail simulates a slow mail server.
+ * </p>
+ * 
+ * @author madmath03
+ */
+public class SmtpStandIn implements Closeable {
+
+  private final ServerSocket serverSocket;
+
+  private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+    final Thread thread = new Thread(runnable, "smtp-stand-in");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final List<ReceivedMail> received = Collections.synchronizedList(new ArrayList<>());
+
+  private final Set<String> rejectedRecipients = Collections.synchronizedSet(new HashSet<>());
+
+  private final AtomicInteger connections = new AtomicInteger();
+
+  private volatile long delayMillis = 0L;
+
+  /**
+   * Create and start a {@link SmtpStandIn} on a free local port.
+   * 
+   * @throws IOException if the server socket cannot be opened.
+   */
+  public SmtpStandIn() throws IOException {
+    super();
+    this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    this.executor.execute(this::acceptLoop);
+  }
+
+  /**
+   * Get the port the server listens on.
+   * 
+   * @return the port the server listens on.
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Reject every mail sent to a recipient.
+   * 
+   * @param recipient the recipient to reject.
+   */
+  public void reject(final String recipient) {
+    rejectedRecipients.add(recipient.toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * Set a delay applied to every received mail.
+   * 
+   * @param delayMillis the delay, in milliseconds.
+   */
+  public void setDelayMillis(final long delayMillis) {
+    this.delayMillis = delayMillis;
+  }
+
+  /**
+   * Get the mails received so far.
+   * 
+   * @return a copy of the mails received so far.
+   */
+  public List<ReceivedMail> getReceived() {
+    synchronized (received) {
+      return new ArrayList<>(received);
+    }
+  }
+
+  /**
+   * Get the number of connections accepted so far.
+   * 
+   * @return the number of connections accepted so far.
+   */
+  public int getConnections() {
+    return connections.get();
+  }
+
+  /**
+   * Forget the mails received and the connections accepted so far.
+   */
+  public void reset() {
+    received.clear();
+    connections.set(0);
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    executor.shutdownNow();
+    try {
+      executor.awaitTermination(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void acceptLoop() {
+    while (!serverSocket.isClosed()) {
+      try {
+        final Socket socket = serverSocket.accept();
+        connections.incrementAndGet();
+        executor.execute(() -> this.handle(socket));
+      } catch (SocketException e) {
+        // Server socket closed
+        return;
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private void handle(final Socket socket) {
+    try (Socket client = socket;
+        BufferedReader in = new BufferedReader(
+            new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+        Writer out = new OutputStreamWriter(client.getOutputStream(), StandardCharsets.US_ASCII)) {
+      reply(out, "220 localhost SMTP stand-in");
+
+      String from = null;
+      final List<String> recipients = new ArrayList<>();
+      String line;
+      while ((line = in.readLine()) != null) {
+        final String command = line.toUpperCase(Locale.ROOT);
+        if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+          reply(out, "250 localhost");
+        } else if (command.startsWith("MAIL FROM:")) {
+          from = address(line);
+          recipients.clear();
+          reply(out, "250 OK");
+        } else if (command.startsWith("RCPT TO:")) {
+          final String recipient = address(line);
+          if (rejectedRecipients.contains(recipient.toLowerCase(Locale.ROOT))) {
+            reply(out, "550 No such user");
+          } else {
+            recipients.add(recipient);
+            reply(out, "250 OK");
+          }
+        } else if (command.startsWith("DATA")) {
+          reply(out, "354 End data with <CR><LF>.<CR><LF>");
+          final StringBuilder data = new StringBuilder();
+          while ((line = in.readLine()) != null && !".".equals(line)) {
+            data.append(line).append("\r\n");
+          }
+          if (delayMillis > 0) {
+            Thread.sleep(delayMillis);
+          }
+          received.add(new ReceivedMail(from, new ArrayList<>(recipients), data.toString()));
+          reply(out, "250 OK");
+        } else if (command.startsWith("RSET")) {
+          from = null;
+          recipients.clear();
+          reply(out, "250 OK");
+        } else if (command.startsWith("NOOP")) {
+          reply(out, "250 OK");
+        } else if (command.startsWith("QUIT")) {
+          reply(out, "221 Bye");
+          return;
+        } else {
+          reply(out, "502 Command not implemented");
+        }
+      }
+    } catch (IOException e) {
+      // Client disconnected
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static String address(final String line) {
+    final int start = line.indexOf('<');
+    final int end = line.indexOf('>', start + 1);
+
+    final String address;
+    if (start < 0 || end < 0) {
+      address = line.substring(line.indexOf(':') + 1).trim();
+    } else {
+      address = line.substring(start + 1, end);
+    }
+
+    return address;
+  }
+
+  private static void reply(final Writer out, final String reply) throws IOException {
+    out.write(reply);
+    out.write("\r\n");
+    out.flush();
+  }
+
+  /**
+   * A mail received by the {@link SmtpStandIn}.
+   * 
+   * @author madmath03
+   */
+  public static final class ReceivedMail {
+    private final String from;
+    private final List<String> recipients;
+    private final String data;
+
+    private ReceivedMail(final String from, final List<String> recipients, final String data) {
+      this.from = from;
+      this.recipients = Collections.unmodifiableList(recipients);
+      this.data = data;
+    }
+
+    /**
+     * Get the sender address.
+     * 
+     * @return the sender address.
+     */
+    public String getFrom() {
+      return from;
+    }
+
+    /**
+     * Get the recipients addresses.
+     * 
+     * @return the recipients addresses.
+     */
+    public List<String> getRecipients() {
+      return recipients;
+    }
+
+    /**
+     * Get the raw content of the mail, headers included.
+     * 
+     * @return the raw content of the mail.
+     */
+    public String getData() {
+      return data;
+    }
+  }
+
+}
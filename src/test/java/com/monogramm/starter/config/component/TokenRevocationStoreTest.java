@@ -0,0 +1,195 @@
+/*
+ * Creation by madmath03 the 2018-02-11.
+ */
+
+package com.monogramm.starter.config.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.monogramm.starter.persistence.oauth.service.IRevokedTokenService;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * {@link TokenRevocationStore} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class TokenRevocationStoreTest {
+
+  private static final long POLL_OVERLAP = 10_000L;
+  private static final int EXPECTED_SIZE = 100;
+  private static final long MAX_RETENTION = 600_000L;
+
+  private IRevokedTokenService revokedTokenService;
+
+  private long now;
+
+  private TokenRevocationStore store;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.revokedTokenService = mock(IRevokedTokenService.class);
+    this.now = 1_000_000L;
+
+    this.store = new TokenRevocationStore(revokedTokenService, POLL_OVERLAP, EXPECTED_SIZE, 0.01D,
+        MAX_RETENTION) {
+      @Override
+      protected long currentTimeMillis() {
+        return now;
+      }
+    };
+  }
+
+  /**
+   * Test method for
+   * {@link TokenRevocationStore#TokenRevocationStore(IRevokedTokenService, long, int, double, long)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testTokenRevocationStoreNull() {
+    new TokenRevocationStore(null, POLL_OVERLAP, EXPECTED_SIZE, 0.01D, MAX_RETENTION);
+  }
+
+  /**
+   * Test method for {@link TokenRevocationStore#revoke(String, Date)}.
+   */
+  @Test
+  public void testRevoke() {
+    final Date expiresAt = new Date(now + 1_000L);
+    when(revokedTokenService.revoke("jti", expiresAt)).thenReturn(true);
+    assertFalse(store.isRevoked("jti"));
+
+    assertTrue(store.revoke("jti", expiresAt));
+
+    assertTrue(store.isRevoked("jti"));
+    assertFalse(store.isRevoked("other"));
+    assertFalse(store.isRevoked(null));
+    assertEquals(1L, store.getRevokedHitCount());
+
+    // Revoked tokens are forgotten once they expire anyway
+    now += 1_000L;
+    assertFalse(store.isRevoked("jti"));
+  }
+
+  /**
+   * Test method for {@link TokenRevocationStore#revoke(String, Date)}.
+   */
+  @Test
+  public void testRevokeWithoutExpiration() {
+    store.revoke("jti", null);
+
+    verify(revokedTokenService).revoke("jti", new Date(now + MAX_RETENTION));
+    assertTrue(store.isRevoked("jti"));
+  }
+
+  /**
+   * Test method for {@link TokenRevocationStore#revoke(String, Date)}.
+   */
+  @Test
+  public void testRevokeExpired() {
+    assertFalse(store.revoke("jti", new Date(now)));
+
+    verify(revokedTokenService, never()).revoke(anyString(), any(Date.class));
+    assertFalse(store.isRevoked("jti"));
+  }
+
+  /**
+   * Test method for {@link TokenRevocationStore#revoke(String, Date)}.
+   */
+  @Test
+  public void testRevokeConcurrently() {
+    when(revokedTokenService.revoke(eq("jti"), any(Date.class)))
+        .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+    assertFalse(store.revoke("jti", new Date(now + 1_000L)));
+
+    assertTrue(store.isRevoked("jti"));
+  }
+
+  /**
+   * Test method for {@link TokenRevocationStore#poll()}.
+   */
+  @Test
+  public void testPoll() {
+    final Map<String, Date> initial = new HashMap<>();
+    initial.put("jti1", new Date(now + 1_000L));
+    initial.put("jti2", new Date(now + 5_000L));
+    when(revokedTokenService.findRevokedSince(new Date(0L), new Date(now))).thenReturn(initial);
+
+    assertEquals(2, store.poll());
+    assertTrue(store.isRevoked("jti1"));
+    assertTrue(store.isRevoked("jti2"));
+
+    // Next polls only load the tokens revoked since the previous poll, minus the overlap
+    final long previous = now;
+    now += 2_000L;
+    when(revokedTokenService.findRevokedSince(new Date(previous - POLL_OVERLAP), new Date(now)))
+        .thenReturn(Collections.singletonMap("jti3", new Date(now + 1_000L)));
+
+    assertEquals(1, store.poll());
+    assertTrue(store.isRevoked("jti3"));
+    assertFalse(store.isRevoked("jti1"));
+    assertEquals(2, store.getSize());
+    assertEquals(2L, store.getPollCount());
+  }
+
+  /**
+   * Test method for {@link TokenRevocationStore#poll()}.
+   */
+  @Test
+  public void testPollFailure() {
+    when(revokedTokenService.findRevokedSince(any(Date.class), any(Date.class)))
+        .thenThrow(new QueryTimeoutException("Lock wait timeout"));
+
+    assertEquals(0, store.poll());
+    assertEquals(1L, store.getPollFailureCount());
+
+    // The next poll loads all the revoked tokens again
+    when(revokedTokenService.findRevokedSince(new Date(0L), new Date(now)))
+        .thenReturn(Collections.singletonMap("jti", new Date(now + 1_000L)));
+    assertEquals(1, store.poll());
+    assertTrue(store.isRevoked("jti"));
+  }
+
+  /**
+   * Test method for {@link TokenRevocationStore#poll()}.
+   */
+  @Test
+  public void testPollRebuildsFilter() {
+    for (int i = 0; i < 10; i++) {
+      store.revoke("jti" + i, new Date(now + 1_000L));
+    }
+    store.revoke("last", new Date(now + 5_000L));
+    when(revokedTokenService.findRevokedSince(any(Date.class), any(Date.class)))
+        .thenReturn(Collections.<String, Date>emptyMap());
+
+    now += 1_000L;
+    store.poll();
+
+    assertEquals(1L, store.getRebuildCount());
+    assertEquals(1, store.getSize());
+    assertTrue(store.isRevoked("last"));
+    assertFalse(store.isRevoked("jti0"));
+  }
+
+}
@@ -4,7 +4,13 @@
 
 package com.monogramm.starter.config.filter;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -14,12 +20,15 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
 
 import org.apache.catalina.connector.RequestFacade;
 import org.junit.After;
@@ -27,6 +36,7 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.mock.web.DelegatingServletInputStream;
 
@@ -169,6 +179,97 @@ public class JsonToUrlEncodedAuthenticationFilterTest {
     verifyNoMoreInteractions(request);
   }
 
+  /**
+   * Test method for
+   * {@link JsonToUrlEncodedAuthenticationFilter#doFilter(javax.servlet.ServletRequest, ServletResponse, FilterChain)}.
+   * 
+   * @throws IOException if an I/O error occurs during this filter's processing of the request
+   * @throws ServletException if the processing fails for any other reason
+   */
+  @Test
+  public void testDoFilterParameters() throws IOException, ServletException {
+    final String json = "{\"grant_type\":\"password\",\"username\":\"foo\",\"remember\":true,"
+        + "\"scope\":[\"read\",\"write\"],\"extra\":{\"a\":1},\"none\":null}";
+    when(request.getContentType()).thenReturn("application/json");
+    when(request.getServletPath()).thenReturn("/oauth/token");
+    when(request.getInputStream()).thenReturn(new DelegatingServletInputStream(
+        new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+    when(request.getMethod()).thenReturn(TEST_METHOD);
+
+
+    this.filter.doFilter(request, response, chain);
+
+
+    final ArgumentCaptor<ServletRequest> captor = ArgumentCaptor.forClass(ServletRequest.class);
+    verify(chain, times(1)).doFilter(captor.capture(), eq(response));
+
+    final Map<String, String[]> parameters = captor.getValue().getParameterMap();
+    assertEquals(7, parameters.size());
+    assertEquals("password", captor.getValue().getParameter("grant_type"));
+    assertEquals("foo", captor.getValue().getParameter("username"));
+    assertEquals("true", captor.getValue().getParameter("remember"));
+    assertArrayEquals(new String[] {"read", "write"}, parameters.get("scope"));
+    assertEquals("{\"a\":1}", captor.getValue().getParameter("extra"));
+    assertArrayEquals(new String[] {null}, parameters.get("none"));
+    assertArrayEquals(new String[] {TEST_METHOD}, parameters.get("_method"));
+  }
+
+  /**
+   * Test method for
+   * {@link JsonToUrlEncodedAuthenticationFilter#doFilter(javax.servlet.ServletRequest, ServletResponse, FilterChain)}.
+   * 
+   * @throws IOException if an I/O error occurs during this filter's processing of the request
+   * @throws ServletException if the processing fails for any other reason
+   */
+  @Test
+  public void testDoFilterTooLarge() throws IOException, ServletException {
+    final HttpServletResponse httpResponse = mock(HttpServletResponse.class);
+    final StringBuilder json = new StringBuilder("{\"username\":\"");
+    for (int i = 0; i < 64; i++) {
+      json.append("0123456789");
+    }
+    json.append("\"}");
+
+    this.filter = new JsonToUrlEncodedAuthenticationFilter(256);
+    when(request.getContentType()).thenReturn("application/json");
+    when(request.getServletPath()).thenReturn("/oauth/token");
+    when(request.getInputStream()).thenReturn(new DelegatingServletInputStream(
+        new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8))));
+
+
+    this.filter.doFilter(request, httpResponse, chain);
+
+
+    verify(httpResponse, times(1)).sendError(eq(413), anyString());
+    verify(chain, never()).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+  }
+
+  /**
+   * Test method for
+   * {@link JsonToUrlEncodedAuthenticationFilter#doFilter(javax.servlet.ServletRequest, ServletResponse, FilterChain)}.
+   * 
+   * @throws IOException if an I/O error occurs during this filter's processing of the request
+   * @throws ServletException if the processing fails for any other reason
+   */
+  @Test(expected = IOException.class)
+  public void testDoFilterNotJsonObject() throws IOException, ServletException {
+    when(request.getContentType()).thenReturn("application/json");
+    when(request.getServletPath()).thenReturn("/oauth/token");
+    when(request.getInputStream()).thenReturn(new DelegatingServletInputStream(
+        new ByteArrayInputStream("[42]".getBytes(StandardCharsets.UTF_8))));
+
+
+    this.filter.doFilter(request, response, chain);
+  }
+
+  /**
+   * Test method for {@link JsonToUrlEncodedAuthenticationFilter#JsonToUrlEncodedAuthenticationFilter(int)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testJsonToUrlEncodedAuthenticationFilterInvalidSize() {
+    new JsonToUrlEncodedAuthenticationFilter(0);
+  }
+
   /**
    * Test method for
    * {@link JsonToUrlEncodedAuthenticationFilter#doFilter(javax.servlet.ServletRequest, ServletResponse, FilterChain)}.
@@ -0,0 +1,123 @@
+/*
+ * Creation by madmath03 the 2018-02-13.
+ */
+
+package com.monogramm.starter.config.filter;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.monogramm.starter.config.component.ReplicaRoutingContext;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link ReplicaRoutingFilter} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class ReplicaRoutingFilterTest {
+
+  private ReplicaRoutingFilter filter;
+
+  private HttpServletRequest request;
+  private HttpServletResponse response;
+  private FilterChain chain;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.filter = new ReplicaRoutingFilter();
+
+    this.request = mock(HttpServletRequest.class);
+    this.response = mock(HttpServletResponse.class);
+    this.chain = mock(FilterChain.class);
+  }
+
+  /**
+   * @throws java.lang.Exception If test clean up crashes.
+   */
+  @After
+  public void tearDown() throws Exception {
+    ReplicaRoutingContext.end();
+  }
+
+  /**
+   * Test method for {@link ReplicaRoutingFilter#init(javax.servlet.FilterConfig)}.
+   * 
+   * @throws ServletException if the initialization crashed.
+   */
+  @Test
+  public void testInit() throws ServletException {
+    this.filter.init(null);
+  }
+
+  /**
+   * Test method for
+   * {@link ReplicaRoutingFilter#doFilter(javax.servlet.ServletRequest, ServletResponse, FilterChain)}.
+   * 
+   * @throws IOException if an I/O error occurs during this filter's processing of the request
+   * @throws ServletException if the processing fails for any other reason
+   */
+  @Test
+  public void testDoFilter() throws IOException, ServletException {
+    doAnswer(invocation -> {
+      ReplicaRoutingContext.markWrite();
+      assertTrue(ReplicaRoutingContext.isPrimaryRequired());
+      return null;
+    }).when(chain).doFilter(request, response);
+
+
+    this.filter.doFilter(request, response, chain);
+
+
+    verify(chain, times(1)).doFilter(request, response);
+    assertFalse(ReplicaRoutingContext.isPrimaryRequired());
+  }
+
+  /**
+   * Test method for
+   * {@link ReplicaRoutingFilter#doFilter(javax.servlet.ServletRequest, ServletResponse, FilterChain)}.
+   * 
+   * @throws IOException if an I/O error occurs during this filter's processing of the request
+   * @throws ServletException if the processing fails for any other reason
+   */
+  @Test(expected = ServletException.class)
+  public void testDoFilterFailure() throws IOException, ServletException {
+    doAnswer(invocation -> {
+      ReplicaRoutingContext.markWrite();
+      throw new ServletException("Failure");
+    }).when(chain).doFilter(request, response);
+
+    try {
+      this.filter.doFilter(request, response, chain);
+    } finally {
+      assertFalse(ReplicaRoutingContext.isPrimaryRequired());
+    }
+  }
+
+  /**
+   * Test method for {@link ReplicaRoutingFilter#destroy()}.
+   */
+  @Test
+  public void testDestroy() {
+    this.filter.destroy();
+  }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Creation by madmath03 the 2018-02-20.
+ */
+
+package com.monogramm.starter.config.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link RequestCorrelationFilter} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class RequestCorrelationFilterTest {
+
+  private RequestCorrelationFilter filter;
+
+  private HttpServletRequest request;
+  private HttpServletResponse response;
+  private FilterChain chain;
+
+  private AtomicReference<String> logged;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.filter = new RequestCorrelationFilter();
+
+    this.request = mock(HttpServletRequest.class);
+    this.response = mock(HttpServletResponse.class);
+    this.chain = mock(FilterChain.class);
+
+    this.logged = new AtomicReference<>();
+    doAnswer(invocation -> {
+      logged.set(ThreadContext.get(RequestCorrelationFilter.MDC_KEY));
+      return null;
+    }).when(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+  }
+
+  /**
+   * @throws java.lang.Exception If test clean up crashes.
+   */
+  @After
+  public void tearDown() throws Exception {
+    ThreadContext.clearMap();
+  }
+
+  /**
+   * Test method for
+   * {@link RequestCorrelationFilter#doFilter(javax.servlet.ServletRequest, ServletResponse, FilterChain)}.
+   * 
+   * @throws IOException if an I/O error occurs during this filter's processing of the request
+   * @throws ServletException if the processing fails for any other reason
+   */
+  @Test
+  public void testDoFilterGenerated() throws IOException, ServletException {
+    this.filter.doFilter(request, response, chain);
+
+    final String requestId = logged.get();
+    assertTrue(RequestCorrelationFilter.isValid(requestId));
+    assertEquals(16, requestId.length());
+    verify(response, times(1)).setHeader(RequestCorrelationFilter.HEADER, requestId);
+    assertNull(ThreadContext.get(RequestCorrelationFilter.MDC_KEY));
+  }
+
+  /**
+   * Test method for
+   * {@link RequestCorrelationFilter#doFilter(javax.servlet.ServletRequest, ServletResponse, FilterChain)}.
+   * 
+   * @throws IOException if an I/O error occurs during this filter's processing of the request
+   * @throws ServletException if the processing fails for any other reason
+   */
+  @Test
+  public void testDoFilterGiven() throws IOException, ServletException {
+    when(request.getHeader(RequestCorrelationFilter.HEADER)).thenReturn("edge-42.a_b");
+
+    this.filter.doFilter(request, response, chain);
+
+    assertEquals("edge-42.a_b", logged.get());
+    verify(response, times(1)).setHeader(RequestCorrelationFilter.HEADER, "edge-42.a_b");
+  }
+
+  /**
+   * Test method for
+   * {@link RequestCorrelationFilter#doFilter(javax.servlet.ServletRequest, ServletResponse, FilterChain)}.
+   * 
+   * @throws IOException if an I/O error occurs during this filter's processing of the request
+   * @throws ServletException if the processing fails for any other reason
+   */
+  @Test
+  public void testDoFilterGivenInvalid() throws IOException, ServletException {
+    when(request.getHeader(RequestCorrelationFilter.HEADER)).thenReturn("forged\nline");
+
+    this.filter.doFilter(request, response, chain);
+
+    assertNotEquals("forged\nline", logged.get());
+    assertTrue(RequestCorrelationFilter.isValid(logged.get()));
+  }
+
+  /**
+   * Test method for
+   * {@link RequestCorrelationFilter#doFilter(javax.servlet.ServletRequest, ServletResponse, FilterChain)}.
+   * 
+   * @throws IOException if an I/O error occurs during this filter's processing of the request
+   * @throws ServletException if the processing fails for any other reason
+   */
+  @Test
+  public void testDoFilterFailure() throws IOException, ServletException {
+    doThrow(new ServletException("failure")).when(chain).doFilter(request, response);
+
+    try {
+      this.filter.doFilter(request, response, chain);
+      fail("The failure should be thrown");
+    } catch (ServletException e) {
+      assertEquals("failure", e.getMessage());
+    }
+
+    verify(response, times(1)).setHeader(eq(RequestCorrelationFilter.HEADER), anyString());
+    assertNull(ThreadContext.get(RequestCorrelationFilter.MDC_KEY));
+  }
+
+  /**
+   * Test method for {@link RequestCorrelationFilter#isValid(String)}.
+   */
+  @Test
+  public void testIsValid() {
+    assertTrue(RequestCorrelationFilter.isValid("0123456789abcdef"));
+    assertFalse(RequestCorrelationFilter.isValid(null));
+    assertFalse(RequestCorrelationFilter.isValid(""));
+    assertFalse(RequestCorrelationFilter.isValid("a b"));
+    assertFalse(RequestCorrelationFilter.isValid(new String(new char[65]).replace('\0', 'a')));
+  }
+
+  /**
+   * Test method for {@link RequestCorrelationFilter#generate()}.
+   */
+  @Test
+  public void testGenerate() {
+    assertNotEquals(RequestCorrelationFilter.generate(), RequestCorrelationFilter.generate());
+  }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Creation by madmath03 the 2018-02-15.
+ */
+
+package com.monogramm.starter.dto.role;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * {@link RolePermissionsDto} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class RolePermissionsDtoTest {
+
+  private static final UUID[] ROLES = {UUID.randomUUID(), UUID.randomUUID()};
+  private static final UUID[] PERMISSIONS = {UUID.randomUUID()};
+
+  /**
+   * Test method for {@link RolePermissionsDto#RolePermissionsDto()}.
+   */
+  @Test
+  public void testRolePermissionsDto() {
+    final RolePermissionsDto dto = new RolePermissionsDto();
+
+    assertEquals(0, dto.getRoles().length);
+    assertEquals(0, dto.getPermissions().length);
+  }
+
+  /**
+   * Test method for {@link RolePermissionsDto#RolePermissionsDto(UUID[], UUID[])}.
+   */
+  @Test
+  public void testRolePermissionsDtoUuidArrayUuidArray() {
+    final RolePermissionsDto dto = new RolePermissionsDto(ROLES, PERMISSIONS);
+
+    assertArrayEquals(ROLES, dto.getRoles());
+    assertArrayEquals(PERMISSIONS, dto.getPermissions());
+  }
+
+  /**
+   * Test method for {@link RolePermissionsDto#setRoles(UUID[])}.
+   */
+  @Test
+  public void testSetRoles() {
+    final RolePermissionsDto dto = new RolePermissionsDto();
+
+    dto.setRoles(ROLES);
+
+    assertArrayEquals(ROLES, dto.getRoles());
+  }
+
+  /**
+   * Test method for {@link RolePermissionsDto#setPermissions(UUID[])}.
+   */
+  @Test
+  public void testSetPermissions() {
+    final RolePermissionsDto dto = new RolePermissionsDto();
+
+    dto.setPermissions(PERMISSIONS);
+
+    assertArrayEquals(PERMISSIONS, dto.getPermissions());
+  }
+
+}
@@ -17,8 +17,8 @@ import java.util.Date;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -371,6 +371,7 @@ public abstract class AbstractGenericEntityTest<T extends AbstractGenericEntity>
 
     this.pause(5, TimeUnit.SECONDS, () -> assertNotNull(entity.getId()));
 
+    assertEquals(7, entity.getId().version());
     assertNotNull(entity.getCreatedAt());
     assertNull(entity.getCreatedBy());
     assertNull(entity.getModifiedAt());
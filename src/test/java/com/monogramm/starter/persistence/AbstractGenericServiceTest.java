@@ -221,6 +221,55 @@ public abstract class AbstractGenericServiceTest<T extends AbstractGenericEntity
     assertNull(actual);
   }
 
+  /**
+   * Test method for {@link AbstractGenericService#findDtoById(java.util.UUID)}.
+   */
+  @Test
+  public void testFindDtoById() {
+    final T model = this.buildTestEntity();
+
+    when(mockRepository.findById(model.getId())).thenReturn(model);
+
+    final D actual = service.findDtoById(model.getId());
+
+    verify(mockRepository, times(1)).findById(model.getId());
+    verifyNoMoreInteractions(mockRepository);
+
+    assertNotNull(actual);
+    assertEquals(model.getId(), actual.getId());
+  }
+
+  /**
+   * Test method for {@link AbstractGenericService#findDtoById(java.util.UUID)}.
+   */
+  @Test
+  public void testFindDtoByIdNotFound() {
+    when(mockRepository.findById(ID)).thenReturn(null);
+
+    final D actual = service.findDtoById(ID);
+
+    verify(mockRepository, times(1)).findById(ID);
+    verifyNoMoreInteractions(mockRepository);
+
+    assertNull(actual);
+  }
+
+  /**
+   * Test method for {@link AbstractGenericService#findAllDtos()}.
+   */
+  @Test
+  public void testFindAllDtosNone() {
+    when(mockRepository.findAll()).thenReturn(null);
+
+    final List<D> actual = service.findAllDtos();
+
+    verify(mockRepository, times(1)).findAll();
+    verifyNoMoreInteractions(mockRepository);
+
+    assertNotNull(actual);
+    assertTrue(actual.isEmpty());
+  }
+
   /**
    * Test method for {@link AbstractGenericService#findAll()}.
    */
@@ -0,0 +1,130 @@
+/*
+ * Creation by madmath03 the 2018-02-18.
+ */
+
+package com.monogramm.starter.persistence;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.net.URL;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * {@link ParameterType} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class ParameterTypeTest {
+
+  /**
+   * Test method for {@link ParameterType#typeOf(Object)}.
+   * 
+   * @throws Exception if the URL is malformed.
+   */
+  @Test
+  public void testTypeOf() throws Exception {
+    assertEquals(ParameterType.URL, ParameterType.typeOf(new URL("http://localhost")));
+    assertEquals(ParameterType.PATH, ParameterType.typeOf(Paths.get("foo")));
+    assertEquals(ParameterType.COLOR, ParameterType.typeOf(Color.RED));
+    assertEquals(ParameterType.DATE_TIME, ParameterType.typeOf(LocalDateTime.now()));
+    assertEquals(ParameterType.TIME, ParameterType.typeOf(LocalTime.now()));
+    assertEquals(ParameterType.DATE, ParameterType.typeOf(LocalDate.now()));
+    assertEquals(ParameterType.DURATION, ParameterType.typeOf(Duration.ofSeconds(1)));
+    assertEquals(ParameterType.DOUBLE, ParameterType.typeOf(4.2D));
+    assertEquals(ParameterType.INTEGER, ParameterType.typeOf(42));
+    assertEquals(ParameterType.BOOLEAN, ParameterType.typeOf(true));
+    assertEquals(ParameterType.STRING, ParameterType.typeOf("foo"));
+    assertEquals(ParameterType.ANY, ParameterType.typeOf(42L));
+    assertEquals(ParameterType.ANY, ParameterType.typeOf(null));
+  }
+
+  /**
+   * Test method for {@link ParameterType#read(String)}.
+   */
+  @Test
+  public void testReadAny() {
+    final Map<String, Object> object = new LinkedHashMap<>();
+    object.put("name", "foo");
+    object.put("values", Arrays.asList(1, 2, 3));
+
+    final String json = ParameterType.ANY.write(object);
+
+    assertEquals(object, ParameterType.ANY.read(json));
+    assertEquals(Arrays.asList("a", "b"), ParameterType.ANY.read("[\"a\",\"b\"]"));
+    assertEquals(42, ParameterType.ANY.read("42"));
+  }
+
+  /**
+   * Test method for {@link ParameterType#read(String)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testReadAnyInvalid() {
+    ParameterType.ANY.read("{foo");
+  }
+
+  /**
+   * Test method for {@link ParameterType#read(String, Class)}.
+   */
+  @Test
+  public void testReadAs() {
+    final List<?> list = ParameterType.ANY.read("[1,2]", List.class);
+    assertEquals(Arrays.asList(1, 2), list);
+
+    assertEquals(Long.valueOf(42L), ParameterType.ANY.read("42", Long.class));
+    assertEquals(Integer.valueOf(42), ParameterType.INTEGER.read("42", Integer.class));
+  }
+
+  /**
+   * Test method for {@link ParameterType#read(String, Class)}.
+   */
+  @Test(expected = ClassCastException.class)
+  public void testReadAsWrongClass() {
+    ParameterType.INTEGER.read("42", String.class);
+  }
+
+  /**
+   * Test method for {@link ParameterType#encode(Object)} and {@link ParameterType#decode(byte[])}.
+   */
+  @Test
+  public void testEncodeDecode() {
+    final Object[] objects = {LocalDateTime.of(2018, 2, 18, 12, 30, 15, 42),
+        LocalTime.of(23, 59, 59, 999_999_999), LocalDate.of(1970, 1, 1).minusDays(1),
+        Duration.ofSeconds(-90L, 5), 4.2D, -42, true, false};
+
+    for (final Object object : objects) {
+      final ParameterType type = ParameterType.typeOf(object);
+
+      assertTrue(type.hasBinaryEncoding());
+      final byte[] bytes = type.encode(object);
+      assertEquals(object, type.decode(bytes));
+    }
+
+    assertEquals(4, ParameterType.INTEGER.encode(42).length);
+    assertEquals(16, ParameterType.DATE_TIME.encode(LocalDateTime.now()).length);
+  }
+
+  /**
+   * Test method for {@link ParameterType#encode(Object)} and {@link ParameterType#decode(byte[])}.
+   */
+  @Test
+  public void testEncodeDecodeString() {
+    assertFalse(ParameterType.STRING.hasBinaryEncoding());
+    assertArrayEquals(new byte[] {'f', 'o', 'o'}, ParameterType.STRING.encode("foo"));
+    assertEquals("foo", ParameterType.STRING.decode(new byte[] {'f', 'o', 'o'}));
+  }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Creation by madmath03 the 2018-02-21.
+ */
+
+package com.monogramm.starter.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.monogramm.starter.utils.validation.UuidValidator;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * {@link TimeOrderedUuidGenerator} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class TimeOrderedUuidGeneratorTest {
+
+  private static final int COUNT = 10_000;
+
+  /**
+   * Test method for {@link TimeOrderedUuidGenerator#generate()}.
+   */
+  @Test
+  public void testGenerate() {
+    final long before = System.currentTimeMillis();
+    final UUID uuid = TimeOrderedUuidGenerator.generate();
+    final long after = System.currentTimeMillis();
+
+    assertEquals(7, uuid.version());
+    assertEquals(2, uuid.variant());
+
+    final long timestamp = TimeOrderedUuidGenerator.timestamp(uuid);
+    assertTrue(timestamp >= before);
+    // A burst of generations may have carried on a timestamp slightly ahead of the clock
+    assertTrue(timestamp - after < 1_000L);
+
+    assertTrue(new UuidValidator().isValid(uuid.toString(), null));
+    assertEquals(uuid, UUID.fromString(uuid.toString()));
+  }
+
+  /**
+   * Test method for {@link TimeOrderedUuidGenerator#generate()}.
+   */
+  @Test
+  public void testGenerateOrdered() {
+    final Set<UUID> generated = new HashSet<>(COUNT);
+
+    UUID previous = TimeOrderedUuidGenerator.generate();
+    generated.add(previous);
+    for (int i = 1; i < COUNT; i++) {
+      final UUID uuid = TimeOrderedUuidGenerator.generate();
+
+      // Most significant bits compared unsigned, as the bytes of a BINARY(16) column
+      assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(),
+          uuid.getMostSignificantBits()) < 0);
+      assertTrue(generated.add(uuid));
+      previous = uuid;
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link TimeOrderedUuidGenerator#generate(org.hibernate.engine.spi.SessionImplementor, Object)}.
+   */
+  @Test
+  public void testGenerateIdentifier() {
+    final Object id = new TimeOrderedUuidGenerator().generate(null, null);
+
+    assertTrue(id instanceof UUID);
+    assertEquals(7, ((UUID) id).version());
+  }
+
+  /**
+   * Test method for {@link TimeOrderedUuidGenerator#timestamp(UUID)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testTimestampRandom() {
+    TimeOrderedUuidGenerator.timestamp(UUID.randomUUID());
+  }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Creation by madmath03 the 2018-02-06.
+ */
+
+package com.monogramm.starter.persistence.mail.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.monogramm.starter.persistence.mail.dao.IOutboxMailRepository;
+import com.monogramm.starter.persistence.mail.entity.OutboxMail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.SimpleMailMessage;
+
+/**
+ * {@link MailOutboxService} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class MailOutboxServiceTest {
+
+  private static final int MAX_ATTEMPTS = 3;
+  private static final long BACKOFF = 1_000L;
+  private static final long MAX_BACKOFF = 3_000L;
+  private static final long LEASE = 60_000L;
+
+  private IOutboxMailRepository repository;
+
+  private MailOutboxService service;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.repository = mock(IOutboxMailRepository.class);
+    this.service = new MailOutboxService(repository, MAX_ATTEMPTS, BACKOFF, MAX_BACKOFF, LEASE);
+  }
+
+  /**
+   * Test method for
+   * {@link MailOutboxService#MailOutboxService(IOutboxMailRepository, int, long, long, long)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testMailOutboxServiceNullRepository() {
+    new MailOutboxService(null, MAX_ATTEMPTS, BACKOFF, MAX_BACKOFF, LEASE);
+  }
+
+  /**
+   * Test method for {@link MailOutboxService#enqueue(SimpleMailMessage)}.
+   */
+  @Test
+  public void testEnqueue() {
+    final SimpleMailMessage message = new SimpleMailMessage();
+    message.setFrom("no_reply@dummy.com");
+    message.setTo("foo@dummy.com", "bar@dummy.com");
+    message.setSubject("Subject");
+    message.setText("Text");
+
+    assertEquals(2, service.enqueue(message));
+
+    final ArgumentCaptor<OutboxMail> mails = ArgumentCaptor.forClass(OutboxMail.class);
+    verify(repository, times(2)).save(mails.capture());
+    assertEquals("foo@dummy.com", mails.getAllValues().get(0).getRecipient());
+    assertEquals("bar@dummy.com", mails.getAllValues().get(1).getRecipient());
+    for (final OutboxMail mail : mails.getAllValues()) {
+      assertEquals("no_reply@dummy.com", mail.getSender());
+      assertEquals("Subject", mail.getSubject());
+      assertEquals("Text", mail.getBody());
+      assertEquals(0, mail.getAttempts());
+      assertNotNull(mail.getNextAttemptAt());
+    }
+  }
+
+  /**
+   * Test method for {@link MailOutboxService#enqueue(SimpleMailMessage)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testEnqueueNoRecipient() {
+    service.enqueue(new SimpleMailMessage());
+  }
+
+  /**
+   * Test method for {@link MailOutboxService#claim(int)}.
+   */
+  @Test
+  public void testClaim() {
+    final List<OutboxMail> claimed =
+        Collections.singletonList(new OutboxMail("from", "to", "subject", "body"));
+    when(repository.claimDue(any(Date.class), eq(10), any(Date.class))).thenReturn(claimed);
+
+    assertSame(claimed, service.claim(10));
+
+    final ArgumentCaptor<Date> date = ArgumentCaptor.forClass(Date.class);
+    final ArgumentCaptor<Date> leaseEnd = ArgumentCaptor.forClass(Date.class);
+    verify(repository, times(1)).claimDue(date.capture(), eq(10), leaseEnd.capture());
+    assertEquals(LEASE, leaseEnd.getValue().getTime() - date.getValue().getTime());
+  }
+
+  /**
+   * Test method for {@link MailOutboxService#markSent(java.util.Collection)}.
+   */
+  @Test
+  public void testMarkSent() {
+    final List<UUID> ids = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+    when(repository.deleteByIds(ids)).thenReturn(2);
+
+    assertEquals(2, service.markSent(ids));
+
+    verify(repository, times(1)).deleteByIds(ids);
+  }
+
+  /**
+   * Test method for {@link MailOutboxService#markSent(java.util.Collection)}.
+   */
+  @Test
+  public void testMarkSentEmpty() {
+    assertEquals(0, service.markSent(Collections.emptyList()));
+    assertEquals(0, service.markSent(null));
+
+    verify(repository, never()).deleteByIds(anyCollectionOf(UUID.class));
+  }
+
+  /**
+   * Test method for {@link MailOutboxService#markFailed(OutboxMail, String)}.
+   */
+  @Test
+  public void testMarkFailed() {
+    final OutboxMail mail = new OutboxMail("from", "to", "subject", "body");
+    mail.setId(UUID.randomUUID());
+
+    final long before = System.currentTimeMillis();
+    assertTrue(service.markFailed(mail, "Error"));
+
+    final ArgumentCaptor<Date> nextAttemptAt = ArgumentCaptor.forClass(Date.class);
+    verify(repository, times(1)).reschedule(eq(mail.getId()), nextAttemptAt.capture(),
+        eq("Error"));
+    assertTrue(nextAttemptAt.getValue().getTime() >= before + BACKOFF);
+  }
+
+  /**
+   * Test method for {@link MailOutboxService#markFailed(OutboxMail, String)}.
+   */
+  @Test
+  public void testMarkFailedGivingUp() {
+    final OutboxMail mail = new OutboxMail("from", "to", "subject", "body");
+    mail.setId(UUID.randomUUID());
+    mail.setAttempts(MAX_ATTEMPTS - 1);
+
+    assertFalse(service.markFailed(mail, "Error"));
+
+    verify(repository, times(1)).reschedule(eq(mail.getId()), (Date) isNull(), eq("Error"));
+  }
+
+  /**
+   * Test method for {@link MailOutboxService#markFailed(OutboxMail, String)}.
+   */
+  @Test
+  public void testMarkFailedLongError() {
+    final OutboxMail mail = new OutboxMail("from", "to", "subject", "body");
+    mail.setId(UUID.randomUUID());
+    final StringBuilder error = new StringBuilder();
+    while (error.length() <= OutboxMail.MAX_LENGTH_ERROR) {
+      error.append("Error ");
+    }
+
+    service.markFailed(mail, error.toString());
+
+    final ArgumentCaptor<String> lastError = ArgumentCaptor.forClass(String.class);
+    verify(repository, times(1)).reschedule(eq(mail.getId()), any(Date.class),
+        lastError.capture());
+    assertEquals(OutboxMail.MAX_LENGTH_ERROR, lastError.getValue().length());
+  }
+
+  /**
+   * Test method for {@link MailOutboxService#backoff(int)}.
+   */
+  @Test
+  public void testBackoff() {
+    assertEquals(BACKOFF, service.backoff(1));
+    assertEquals(2 * BACKOFF, service.backoff(2));
+    assertEquals(MAX_BACKOFF, service.backoff(3));
+    assertEquals(MAX_BACKOFF, service.backoff(Integer.MAX_VALUE));
+  }
+
+  /**
+   * Test method for {@link MailOutboxService#deleteGivenUp(Date, int)}.
+   */
+  @Test
+  public void testDeleteGivenUp() {
+    final MailOutboxService retaining =
+        new MailOutboxService(repository, MAX_ATTEMPTS, BACKOFF, MAX_BACKOFF, LEASE, 5_000L);
+    final Date now = new Date();
+    when(repository.deleteGivenUp(new Date(now.getTime() - 5_000L), 10)).thenReturn(4);
+
+    assertEquals(4, retaining.deleteGivenUp(now, 10));
+
+    verify(repository, times(1)).deleteGivenUp(new Date(now.getTime() - 5_000L), 10);
+  }
+
+  /**
+   * Test method for {@link MailOutboxService#countPending()}.
+   */
+  @Test
+  public void testCountPending() {
+    when(repository.countByNextAttemptAtNotNull()).thenReturn(42L);
+
+    assertEquals(42L, service.countPending());
+  }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.persistence.oauth.service;
+
+import com.monogramm.starter.persistence.oauth.entity.JwtSigningKey;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An in-memory store of the JSON Web Token signing keys standing in for the database in tests,
+ * enforcing the same unique constraints.
+ * 
+ * @author madmath03
+ */
+public class InMemoryJwtSigningKeyService implements IJwtSigningKeyService {
+
+  private final List<JwtSigningKey> signingKeys = new ArrayList<>();
+
+  @Override
+  public synchronized List<JwtSigningKey> findAll() {
+    final List<JwtSigningKey> found = new ArrayList<>(signingKeys);
+    found.sort(Comparator.comparing(JwtSigningKey::getActivatesAt));
+    return found;
+  }
+
+  @Override
+  public synchronized boolean add(final JwtSigningKey signingKey) {
+    if (signingKey == null) {
+      throw new IllegalArgumentException("JWT signing key cannot be null.");
+    }
+
+    for (final JwtSigningKey other : signingKeys) {
+      if (other.getKid().equals(signingKey.getKid())
+          || other.getActivatesAt().equals(signingKey.getActivatesAt())) {
+        return false;
+      }
+    }
+    return signingKeys.add(signingKey);
+  }
+
+  @Override
+  public synchronized int delete(final Collection<String> kids) {
+    final int size = signingKeys.size();
+    signingKeys.removeIf(signingKey -> kids.contains(signingKey.getKid()));
+    return size - signingKeys.size();
+  }
+
+}
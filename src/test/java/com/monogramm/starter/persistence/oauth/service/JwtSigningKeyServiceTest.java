@@ -0,0 +1,130 @@
+/*
+ * Creation by madmath03 the 2018-02-10.
+ */
+
+package com.monogramm.starter.persistence.oauth.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.monogramm.starter.persistence.oauth.dao.IJwtSigningKeyRepository;
+import com.monogramm.starter.persistence.oauth.entity.JwtSigningKey;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * {@link JwtSigningKeyService} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class JwtSigningKeyServiceTest {
+
+  private static final String KID = "kid";
+
+  private IJwtSigningKeyRepository repository;
+
+  private JwtSigningKeyService service;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.repository = mock(IJwtSigningKeyRepository.class);
+    this.service = new JwtSigningKeyService(repository);
+  }
+
+  private static JwtSigningKey buildSigningKey() {
+    return new JwtSigningKey(KID, "ES256", new byte[] {1}, new byte[] {2}, new Date());
+  }
+
+  /**
+   * Test method for {@link JwtSigningKeyService#JwtSigningKeyService(IJwtSigningKeyRepository)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testJwtSigningKeyServiceNullRepository() {
+    new JwtSigningKeyService(null);
+  }
+
+  /**
+   * Test method for {@link JwtSigningKeyService#findAll()}.
+   */
+  @Test
+  public void testFindAll() {
+    final List<JwtSigningKey> signingKeys = Arrays.asList(buildSigningKey());
+    when(repository.findAllByActivation()).thenReturn(signingKeys);
+
+    assertSame(signingKeys, service.findAll());
+  }
+
+  /**
+   * Test method for {@link JwtSigningKeyService#add(JwtSigningKey)}.
+   */
+  @Test
+  public void testAdd() {
+    final JwtSigningKey signingKey = buildSigningKey();
+
+    assertTrue(service.add(signingKey));
+
+    verify(repository).add(signingKey);
+  }
+
+  /**
+   * Test method for {@link JwtSigningKeyService#add(JwtSigningKey)}.
+   */
+  @Test
+  public void testAddAlreadyAdded() {
+    final JwtSigningKey signingKey = buildSigningKey();
+    doThrow(new DataIntegrityViolationException("uk_jwt_signing_key_activates_at"))
+        .when(repository).add(signingKey);
+
+    assertFalse(service.add(signingKey));
+  }
+
+  /**
+   * Test method for {@link JwtSigningKeyService#add(JwtSigningKey)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddNull() {
+    service.add(null);
+  }
+
+  /**
+   * Test method for {@link JwtSigningKeyService#delete(java.util.Collection)}.
+   */
+  @Test
+  public void testDelete() {
+    when(repository.deleteByKids(Arrays.asList(KID))).thenReturn(1);
+
+    assertEquals(1, service.delete(Arrays.asList(KID)));
+    assertEquals(0, service.delete(Collections.<String>emptyList()));
+
+    verify(repository).deleteByKids(anyCollectionOf(String.class));
+  }
+
+  /**
+   * Test method for {@link JwtSigningKeyService#delete(java.util.Collection)}.
+   */
+  @Test
+  public void testDeleteNull() {
+    assertEquals(0, service.delete(null));
+
+    verify(repository, never()).deleteByKids(anyCollectionOf(String.class));
+  }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Creation by madmath03 the 2018-02-11.
+ */
+
+package com.monogramm.starter.persistence.oauth.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.monogramm.starter.persistence.oauth.dao.IRevokedTokenRepository;
+import com.monogramm.starter.persistence.oauth.entity.RevokedToken;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * {@link RevokedTokenService} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class RevokedTokenServiceTest {
+
+  private static final String JTI = "jti";
+
+  private IRevokedTokenRepository repository;
+
+  private RevokedTokenService service;
+
+  /**
+   * @throws java.lang.Exception If test initialization crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    this.repository = mock(IRevokedTokenRepository.class);
+    this.service = new RevokedTokenService(repository);
+  }
+
+  /**
+   * Test method for {@link RevokedTokenService#RevokedTokenService(IRevokedTokenRepository)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRevokedTokenServiceNullRepository() {
+    new RevokedTokenService(null);
+  }
+
+  /**
+   * Test method for {@link RevokedTokenService#revoke(String, Date)}.
+   */
+  @Test
+  public void testRevoke() {
+    final Date expiresAt = new Date();
+    when(repository.existsByJti(JTI)).thenReturn(false);
+
+    assertTrue(service.revoke(JTI, expiresAt));
+
+    final ArgumentCaptor<RevokedToken> captor = ArgumentCaptor.forClass(RevokedToken.class);
+    verify(repository).save(captor.capture());
+    assertEquals(JTI, captor.getValue().getJti());
+    assertEquals(expiresAt, captor.getValue().getExpiresAt());
+  }
+
+  /**
+   * Test method for {@link RevokedTokenService#revoke(String, Date)}.
+   */
+  @Test
+  public void testRevokeAlreadyRevoked() {
+    when(repository.existsByJti(JTI)).thenReturn(true);
+
+    assertFalse(service.revoke(JTI, new Date()));
+
+    verify(repository, never()).save(any(RevokedToken.class));
+  }
+
+  /**
+   * Test method for {@link RevokedTokenService#revoke(String, Date)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRevokeNullExpiration() {
+    service.revoke(JTI, null);
+  }
+
+  /**
+   * Test method for {@link RevokedTokenService#isRevoked(String)}.
+   */
+  @Test
+  public void testIsRevoked() {
+    when(repository.existsByJti(JTI)).thenReturn(true);
+
+    assertTrue(service.isRevoked(JTI));
+    assertFalse(service.isRevoked(null));
+  }
+
+  /**
+   * Test method for {@link RevokedTokenService#findRevokedSince(Date, Date)}.
+   */
+  @Test
+  public void testFindRevokedSince() {
+    final Date since = new Date(0L);
+    final Date now = new Date();
+    final Date expiresAt = new Date(now.getTime() + 1_000L);
+    when(repository.findRevokedSince(since, now))
+        .thenReturn(Arrays.asList(new Object[][] {{JTI, expiresAt}}));
+
+    final Map<String, Date> actual = service.findRevokedSince(since, now);
+
+    assertEquals(1, actual.size());
+    assertEquals(expiresAt, actual.get(JTI));
+  }
+
+  /**
+   * Test method for {@link RevokedTokenService#deleteExpired(Date, int)}.
+   */
+  @Test
+  public void testDeleteExpired() {
+    final Date now = new Date();
+    when(repository.deleteExpired(now, 10)).thenReturn(3);
+
+    assertEquals(3, service.deleteExpired(now, 10));
+  }
+
+}
@@ -5,24 +5,37 @@
 package com.monogramm.starter.persistence.parameter.service;
 
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import com.monogramm.starter.config.data.GenericOperation;
 import com.monogramm.starter.dto.parameter.ParameterDto;
 import com.monogramm.starter.persistence.AbstractGenericServiceTest;
+import com.monogramm.starter.persistence.parameter.dao.IParameterChangeRepository;
 import com.monogramm.starter.persistence.parameter.dao.IParameterRepository;
 import com.monogramm.starter.persistence.parameter.entity.Parameter;
+import com.monogramm.starter.persistence.parameter.entity.ParameterChange;
 import com.monogramm.starter.persistence.parameter.exception.ParameterNotFoundException;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
 /**
  * {@link ParameterService} Unit Test.
@@ -173,4 +186,263 @@ public class ParameterServiceTest
     getService().findByName(DUMMY_NAME);
   }
 
+  private ParameterService buildTestService(final IParameterChangeRepository changeRepository) {
+    return new ParameterService(getMockRepository(), getMockUserRepository(), changeRepository);
+  }
+
+  /**
+   * Test method for {@link ParameterService#getValue(String)}.
+   */
+  @Test
+  public void testGetValue() {
+    final Parameter model = this.buildTestEntity();
+
+    when(getMockRepository().findByNameIgnoreCase(DUMMY_NAME)).thenReturn(model);
+
+    assertThat(getService().getValue(DUMMY_NAME), is(DUMMY_VALUE));
+    assertThat(getService().getValue(DUMMY_NAME.toUpperCase()), is(DUMMY_VALUE));
+    assertEquals(42, getService().getInt(DUMMY_NAME, 0));
+
+    // Decoded once, then read from the cache whatever the case of the name
+    verify(getMockRepository(), times(1)).findByNameIgnoreCase(DUMMY_NAME);
+    verifyNoMoreInteractions(getMockRepository());
+  }
+
+  /**
+   * Test method for {@link ParameterService#getValue(String)}.
+   */
+  @Test
+  public void testGetValueNotFound() {
+    when(getMockRepository().findByNameIgnoreCase(DUMMY_NAME)).thenReturn(null);
+
+    assertNull(getService().getValue(DUMMY_NAME));
+    assertEquals(7, getService().getInt(DUMMY_NAME, 7));
+
+    verify(getMockRepository(), times(1)).findByNameIgnoreCase(DUMMY_NAME);
+    verifyNoMoreInteractions(getMockRepository());
+  }
+
+  /**
+   * Test method for {@link ParameterService#getValue(String)}.
+   */
+  @Test
+  public void testGetValueParameterNotFoundException() {
+    when(getMockRepository().findByNameIgnoreCase(DUMMY_NAME))
+        .thenThrow(new ParameterNotFoundException());
+
+    assertNull(getService().getValue(DUMMY_NAME));
+    assertNull(getService().getValue(null));
+  }
+
+  /**
+   * Test method for {@link IParameterService#getValue(String, Class, Object)}.
+   */
+  @Test
+  public void testGetValueWrongType() {
+    final Parameter model = this.buildTestEntity();
+
+    when(getMockRepository().findByNameIgnoreCase(DUMMY_NAME)).thenReturn(model);
+
+    assertThat(getService().getString(DUMMY_NAME, "bar"), is("bar"));
+    assertFalse(getService().getBoolean(DUMMY_NAME, false));
+    assertEquals(Duration.ofSeconds(1),
+        getService().getDuration(DUMMY_NAME, Duration.ofSeconds(1)));
+  }
+
+  /**
+   * Test method for {@link IParameterService#getDuration(String, Duration)}.
+   */
+  @Test
+  public void testGetDuration() {
+    final Parameter model = Parameter.builder(DUMMY_NAME, Duration.ofMinutes(5)).id(ID).build();
+
+    when(getMockRepository().findByNameIgnoreCase(DUMMY_NAME)).thenReturn(model);
+
+    assertEquals(Duration.ofMinutes(5), getService().getDuration(DUMMY_NAME, null));
+  }
+
+  /**
+   * Test method for {@link ParameterService#update(Parameter)}.
+   */
+  @Test
+  public void testUpdateInvalidates() {
+    final Parameter model = this.buildTestEntity();
+
+    when(getMockRepository().findByNameIgnoreCase(DUMMY_NAME)).thenReturn(model);
+    when(getMockRepository().update(model)).thenReturn(model);
+
+    getService().getValue(DUMMY_NAME);
+    getService().update(model);
+    getService().getValue(DUMMY_NAME);
+
+    verify(getMockRepository(), times(2)).findByNameIgnoreCase(DUMMY_NAME);
+  }
+
+  /**
+   * Test method for {@link ParameterService#deleteById(java.util.UUID)}.
+   */
+  @Test
+  public void testDeleteByIdInvalidates() {
+    final Parameter model = this.buildTestEntity();
+
+    when(getMockRepository().findByNameIgnoreCase(DUMMY_NAME)).thenReturn(model);
+    when(getMockRepository().deleteById(ID)).thenReturn(1);
+
+    getService().getValue(DUMMY_NAME);
+    getService().deleteById(ID);
+    getService().getValue(DUMMY_NAME);
+
+    verify(getMockRepository(), times(2)).findByNameIgnoreCase(DUMMY_NAME);
+  }
+
+  /**
+   * Test method for {@link ParameterService#update(Parameter)}.
+   */
+  @Test
+  public void testUpdateRecordsChange() {
+    final IParameterChangeRepository changeRepository = mock(IParameterChangeRepository.class);
+    final ParameterService service = this.buildTestService(changeRepository);
+    final Parameter model = this.buildTestEntity();
+
+    when(getMockRepository().update(model)).thenReturn(model);
+    when(changeRepository.incrementVersion()).thenReturn(1);
+    when(changeRepository.findCounterVersion()).thenReturn(8L);
+
+    service.update(model);
+
+    // The version is taken from the counter, never from the last change
+    verify(changeRepository, times(1)).incrementVersion();
+    verify(changeRepository, times(0)).createVersionCounter();
+    verify(changeRepository, times(0)).findVersion();
+
+    final ArgumentCaptor<ParameterChange> changeArgument =
+        ArgumentCaptor.forClass(ParameterChange.class);
+    verify(changeRepository, times(1)).add(changeArgument.capture());
+
+    final ParameterChange change = changeArgument.getValue();
+    assertEquals(8L, change.getVersion());
+    assertEquals(GenericOperation.UPDATE, change.getOperation());
+    assertEquals(ID, change.getParameterId());
+    assertEquals(DUMMY_NAME, change.getName());
+  }
+
+  /**
+   * Test method for {@link ParameterService#update(Parameter)}.
+   */
+  @Test
+  public void testUpdateRecordsFirstChange() {
+    final IParameterChangeRepository changeRepository = mock(IParameterChangeRepository.class);
+    final ParameterService service = this.buildTestService(changeRepository);
+    final Parameter model = this.buildTestEntity();
+
+    when(getMockRepository().update(model)).thenReturn(model);
+    when(changeRepository.incrementVersion()).thenReturn(0, 1);
+    // Counter created by a concurrent change
+    doThrow(new DataIntegrityViolationException("Duplicate entry")).when(changeRepository)
+        .createVersionCounter();
+    when(changeRepository.findCounterVersion()).thenReturn(1L);
+
+    service.update(model);
+
+    verify(changeRepository, times(1)).createVersionCounter();
+    verify(changeRepository, times(2)).incrementVersion();
+
+    final ArgumentCaptor<ParameterChange> changeArgument =
+        ArgumentCaptor.forClass(ParameterChange.class);
+    verify(changeRepository, times(1)).add(changeArgument.capture());
+    assertEquals(1L, changeArgument.getValue().getVersion());
+  }
+
+  /**
+   * Test method for {@link ParameterService#pollChanges()}.
+   */
+  @Test
+  public void testPollChanges() {
+    final IParameterChangeRepository changeRepository = mock(IParameterChangeRepository.class);
+    final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    final ParameterService service = this.buildTestService(changeRepository);
+    service.setApplicationEventPublisher(eventPublisher);
+    final Parameter model = this.buildTestEntity();
+
+    when(getMockRepository().findByNameIgnoreCase(DUMMY_NAME)).thenReturn(model);
+    when(changeRepository.findVersion()).thenReturn(3L);
+
+    assertEquals(3L, service.pollChanges());
+    service.getValue(DUMMY_NAME);
+
+    // Nothing changed
+    assertEquals(3L, service.pollChanges());
+    service.getValue(DUMMY_NAME);
+    verify(getMockRepository(), times(1)).findByNameIgnoreCase(DUMMY_NAME);
+
+    // Changed on another node, under another name
+    when(changeRepository.findVersion()).thenReturn(4L);
+    when(changeRepository.findChangesSince(3L)).thenReturn(
+        Collections.singletonList(new Object[] {4L, ID, "Bar", GenericOperation.UPDATE}));
+
+    assertEquals(4L, service.pollChanges());
+    service.getValue(DUMMY_NAME);
+    verify(getMockRepository(), times(2)).findByNameIgnoreCase(DUMMY_NAME);
+
+    // Published once polled, whichever node made the change
+    final ArgumentCaptor<ParameterChangedEvent> eventArgument =
+        ArgumentCaptor.forClass(ParameterChangedEvent.class);
+    verify(eventPublisher, times(2)).publishEvent(eventArgument.capture());
+
+    assertTrue(eventArgument.getAllValues().get(0).isReset());
+    final ParameterChangedEvent event = eventArgument.getAllValues().get(1);
+    assertEquals(4L, event.getVersion());
+    assertEquals(GenericOperation.UPDATE, event.getOperation());
+    assertEquals(ID, event.getParameterId());
+    assertEquals("Bar", event.getName());
+  }
+
+  /**
+   * Test method for {@link ParameterService#pollChanges()}.
+   */
+  @Test
+  public void testPollChangesPurged() {
+    final IParameterChangeRepository changeRepository = mock(IParameterChangeRepository.class);
+    final ParameterService service = this.buildTestService(changeRepository);
+    final Parameter model = this.buildTestEntity();
+
+    when(getMockRepository().findByNameIgnoreCase(DUMMY_NAME)).thenReturn(model);
+    when(changeRepository.findVersion()).thenReturn(3L);
+
+    service.pollChanges();
+    service.getValue(DUMMY_NAME);
+
+    // The changes following the known version are missing
+    when(changeRepository.findVersion()).thenReturn(6L);
+    when(changeRepository.findChangesSince(3L)).thenReturn(
+        Arrays.asList(new Object[] {5L, ID, null, GenericOperation.DELETE},
+            new Object[] {6L, ID, null, GenericOperation.DELETE}));
+
+    assertEquals(6L, service.pollChanges());
+    service.getValue(DUMMY_NAME);
+    verify(getMockRepository(), times(2)).findByNameIgnoreCase(DUMMY_NAME);
+  }
+
+  /**
+   * Test method for {@link ParameterService#pollChanges()}.
+   */
+  @Test
+  public void testPollChangesWithoutRepository() {
+    assertEquals(-1L, getService().pollChanges());
+    assertEquals(0, getService().purgeChanges());
+  }
+
+  /**
+   * Test method for {@link ParameterService#purgeChanges()}.
+   */
+  @Test
+  public void testPurgeChanges() {
+    final IParameterChangeRepository changeRepository = mock(IParameterChangeRepository.class);
+    final ParameterService service = this.buildTestService(changeRepository);
+
+    when(changeRepository.deleteCreatedBefore(any(Date.class))).thenReturn(2);
+
+    assertEquals(2, service.purgeChanges());
+  }
+
 }
@@ -22,8 +22,10 @@ import com.monogramm.starter.persistence.user.dao.IUserRepository;
 import com.monogramm.starter.persistence.user.entity.User;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.After;
@@ -221,10 +223,11 @@ public class RoleBridgeTest extends AbstractGenericBridgeTest<Role, RoleDto, Rol
     assertNotEquals(dto.getPermissions().length, entity.getPermissions().size());
 
 
+    final List<Permission> permissions = new ArrayList<>(dtoPermissions.length);
     for (int i = 0; i < dtoPermissions.length; i++) {
-      when(permissionRepository.findById(dtoPermissions[i]))
-          .thenReturn(Permission.builder().id(dtoPermissions[i]).build());
+      permissions.add(Permission.builder().id(dtoPermissions[i]).build());
     }
+    when(permissionRepository.findAll(Arrays.asList(dtoPermissions))).thenReturn(permissions);
     entity = this.getBridge().toEntity(dto);
     assertFalse(entity.getPermissions().isEmpty());
     assertEquals(dto.getPermissions().length, entity.getPermissions().size());
@@ -27,7 +27,10 @@ import com.monogramm.starter.persistence.role.exception.RoleNotFoundException;
 import com.monogramm.starter.persistence.user.dao.IUserRepository;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 import org.junit.After;
 import org.junit.Before;
@@ -246,4 +249,102 @@ public class RoleServiceTest extends AbstractGenericServiceTest<Role, RoleDto, R
     assertThat(actual, is(models));
   }
 
+  /**
+   * Test method for {@link RoleService#addPermissions(UUID, java.util.Collection)}.
+   * 
+   * @throws RoleNotFoundException if the role is not found.
+   */
+  @Test
+  public void testAddPermissions() {
+    final List<UUID> permissions = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+    final List<UUID> roles = Collections.singletonList(ID);
+    when(getMockRepository().exists(ID)).thenReturn(true);
+    when(getMockRepository().addPermissions(roles, permissions)).thenReturn(2);
+
+    final int actual = getService().addPermissions(ID, permissions);
+
+    verify(getMockRepository(), times(1)).exists(ID);
+    verify(getMockRepository(), times(1)).addPermissions(roles, permissions);
+    verifyNoMoreInteractions(getMockRepository());
+
+    assertEquals(2, actual);
+  }
+
+  /**
+   * Test method for {@link RoleService#addPermissions(UUID, java.util.Collection)}.
+   * 
+   * @throws RoleNotFoundException if the role is not found.
+   */
+  @Test(expected = RoleNotFoundException.class)
+  public void testAddPermissionsNotFound() {
+    when(getMockRepository().exists(ID)).thenReturn(false);
+
+    getService().addPermissions(ID, Arrays.asList(UUID.randomUUID()));
+  }
+
+  /**
+   * Test method for
+   * {@link RoleService#addPermissions(java.util.Collection, java.util.Collection)}.
+   */
+  @Test
+  public void testAddPermissionsCollectionEmpty() {
+    final List<UUID> ids = Arrays.asList(ID);
+
+    assertEquals(0, getService().addPermissions(new ArrayList<UUID>(), ids));
+    assertEquals(0, getService().addPermissions(ids, (List<UUID>) null));
+
+    verifyNoMoreInteractions(getMockRepository());
+  }
+
+  /**
+   * Test method for {@link RoleService#removePermissions(UUID, java.util.Collection)}.
+   * 
+   * @throws RoleNotFoundException if the role is not found.
+   */
+  @Test
+  public void testRemovePermissions() {
+    final List<UUID> permissions = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+    final List<UUID> roles = Collections.singletonList(ID);
+    when(getMockRepository().exists(ID)).thenReturn(true);
+    when(getMockRepository().removePermissions(roles, permissions)).thenReturn(1);
+
+    final int actual = getService().removePermissions(ID, permissions);
+
+    verify(getMockRepository(), times(1)).exists(ID);
+    verify(getMockRepository(), times(1)).removePermissions(roles, permissions);
+    verifyNoMoreInteractions(getMockRepository());
+
+    assertEquals(1, actual);
+  }
+
+  /**
+   * Test method for {@link RoleService#removePermissions(UUID, java.util.Collection)}.
+   * 
+   * @throws RoleNotFoundException if the role is not found.
+   */
+  @Test(expected = RoleNotFoundException.class)
+  public void testRemovePermissionsNotFound() {
+    when(getMockRepository().exists(ID)).thenReturn(false);
+
+    getService().removePermissions(ID, Arrays.asList(UUID.randomUUID()));
+  }
+
+  /**
+   * Test method for
+   * {@link RoleService#removePermissions(java.util.Collection, java.util.Collection)}.
+   */
+  @Test
+  public void testRemovePermissionsCollection() {
+    final List<UUID> roles = Arrays.asList(ID, UUID.randomUUID());
+    final List<UUID> permissions = Arrays.asList(UUID.randomUUID());
+    when(getMockRepository().removePermissions(roles, permissions)).thenReturn(2);
+
+    final int actual = getService().removePermissions(roles, permissions);
+
+    verify(getMockRepository(), times(1)).removePermissions(roles, permissions);
+    verifyNoMoreInteractions(getMockRepository());
+
+    assertEquals(2, actual);
+  }
+
 }
@@ -0,0 +1,164 @@
+/*
+ * Creation by madmath03 the 2018-02-03.
+ */
+
+package com.monogramm.starter.persistence.search;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link TrigramIndex} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class TrigramIndexTest {
+
+  private static final UUID FOO = UUID.randomUUID();
+  private static final UUID FOOBAR = UUID.randomUUID();
+  private static final UUID BARFOO = UUID.randomUUID();
+
+  private TrigramIndex index;
+
+  /**
+   * @throws java.lang.Exception if the test setup crashes.
+   */
+  @Before
+  public void setUp() throws Exception {
+    index = new TrigramIndex(2);
+    index.put(BARFOO, "BarFoo", "barfoo@email.com");
+    index.put(FOOBAR, "FooBar", "foobar@email.com");
+    index.put(FOO, "Foo", null);
+    index.setReady(true);
+  }
+
+  /**
+   * @throws java.lang.Exception if the test cleanup crashes.
+   */
+  @After
+  public void tearDown() throws Exception {
+    index.clear();
+  }
+
+  /**
+   * Test method for {@link TrigramIndex#TrigramIndex(int)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testTrigramIndexNoField() {
+    new TrigramIndex(0);
+  }
+
+  /**
+   * Test method for {@link TrigramIndex#put(UUID, String...)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testPutWrongFieldCount() {
+    index.put(UUID.randomUUID(), "Foo");
+  }
+
+  /**
+   * Test method for {@link TrigramIndex#search(int, String...)}.
+   */
+  @Test
+  public void testSearchRanking() {
+    assertThat(index.search(10, "FOO", null), is(Arrays.asList(FOO, FOOBAR, BARFOO)));
+  }
+
+  /**
+   * Test method for {@link TrigramIndex#search(int, String...)}.
+   */
+  @Test
+  public void testSearchLimit() {
+    assertThat(index.search(2, "foo", null), is(Arrays.asList(FOO, FOOBAR)));
+    assertTrue(index.search(0, "foo", null).isEmpty());
+  }
+
+  /**
+   * Test method for {@link TrigramIndex#search(int, String...)}.
+   */
+  @Test
+  public void testSearchShortQuery() {
+    assertThat(index.search(10, "ar", null), is(Arrays.asList(BARFOO, FOOBAR)));
+  }
+
+  /**
+   * Test method for {@link TrigramIndex#search(int, String...)}.
+   */
+  @Test
+  public void testSearchAnyField() {
+    assertThat(index.search(10, "rfoo", "bar@"), is(Arrays.asList(BARFOO, FOOBAR)));
+  }
+
+  /**
+   * Test method for {@link TrigramIndex#search(int, String...)}.
+   */
+  @Test
+  public void testSearchTrigramsNotContiguous() {
+    // "foobar" contains the trigrams "foo" and "bar" but not "foo_bar"
+    assertTrue(index.search(10, "foo_bar", null).isEmpty());
+    assertTrue(index.search(10, null, "unknown").isEmpty());
+  }
+
+  /**
+   * Test method for {@link TrigramIndex#put(UUID, String...)}.
+   */
+  @Test
+  public void testPutReplace() {
+    index.put(FOO, "Baz", null);
+
+    assertThat(index.search(10, "foo", null), is(Arrays.asList(FOOBAR, BARFOO)));
+    assertThat(index.search(10, "baz", null), is(Collections.singletonList(FOO)));
+    assertEquals(3, index.size());
+  }
+
+  /**
+   * Test method for {@link TrigramIndex#remove(UUID)}.
+   */
+  @Test
+  public void testRemove() {
+    assertTrue(index.remove(FOOBAR));
+    assertFalse(index.remove(FOOBAR));
+
+    assertThat(index.search(10, "foo", null), is(Arrays.asList(FOO, BARFOO)));
+    assertEquals(2, index.size());
+  }
+
+  /**
+   * Test method for {@link TrigramIndex#remove(UUID)} when the index gets compacted.
+   */
+  @Test
+  public void testRemoveCompaction() {
+    for (int i = 0; i < 5000; i++) {
+      final UUID id = UUID.randomUUID();
+      index.put(id, "user" + i, "user" + i + "@email.com");
+      index.remove(id);
+    }
+
+    assertEquals(3, index.size());
+    assertThat(index.search(10, "foo", null), is(Arrays.asList(FOO, FOOBAR, BARFOO)));
+  }
+
+  /**
+   * Test method for {@link TrigramIndex#clear()}.
+   */
+  @Test
+  public void testClear() {
+    index.clear();
+
+    assertFalse(index.isReady());
+    assertEquals(0, index.size());
+    assertTrue(index.search(10, "foo", null).isEmpty());
+  }
+
+}
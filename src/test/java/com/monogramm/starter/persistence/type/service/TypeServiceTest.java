@@ -17,12 +17,14 @@ import static org.mockito.Mockito.when;
 
 import com.monogramm.starter.dto.type.TypeDto;
 import com.monogramm.starter.persistence.AbstractGenericServiceTest;
+import com.monogramm.starter.persistence.EntityChangedEvent;
 import com.monogramm.starter.persistence.EntityNotFoundException;
 import com.monogramm.starter.persistence.type.dao.ITypeRepository;
 import com.monogramm.starter.persistence.type.entity.Type;
 import com.monogramm.starter.persistence.type.exception.TypeNotFoundException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
@@ -192,4 +194,110 @@ public class TypeServiceTest extends AbstractGenericServiceTest<Type, TypeDto, T
     assertThat(actual, is(models));
   }
 
+  /**
+   * Test method for {@link TypeService#findAllByName(java.lang.String)} through the search index.
+   */
+  @Test
+  public void testFindAllByNameSearchIndex() {
+    final Type model = this.buildTestEntity();
+    final List<Object[]> terms = new ArrayList<>();
+    terms.add(new Object[] {model.getId(), model.getName()});
+    when(getMockRepository().findAllSearchTerms()).thenReturn(terms);
+
+    getService().buildSearchIndex();
+
+    final List<Type> models = Arrays.asList(model);
+    when(getMockRepository().findAll(Arrays.asList(ID))).thenReturn(models);
+
+    final List<Type> actual = getService().findAllByName(DISPLAYNAME.toLowerCase());
+
+    verify(getMockRepository(), times(1)).findAllSearchTerms();
+    verify(getMockRepository(), times(1)).findAll(Arrays.asList(ID));
+    verifyNoMoreInteractions(getMockRepository());
+
+    assertThat(actual, is(models));
+  }
+
+  /**
+   * Test method for {@link TypeService#findAllByName(java.lang.String)} through the search index
+   * after an {@link TypeService#add(Type)}.
+   */
+  @Test
+  public void testFindAllByNameSearchIndexAfterAdd() {
+    final Type model = this.buildTestEntity();
+    when(getMockRepository().findAllSearchTerms()).thenReturn(new ArrayList<>());
+    when(getMockRepository().exists(model.getId(), model.getName())).thenReturn(false);
+
+    getService().buildSearchIndex();
+    assertTrue(getService().findAllByName(DISPLAYNAME).isEmpty());
+
+    getService().add(model);
+
+    final List<Type> models = Arrays.asList(model);
+    when(getMockRepository().findAll(Arrays.asList(ID))).thenReturn(models);
+
+    final List<Type> actual = getService().findAllByName(DISPLAYNAME);
+
+    verify(getMockRepository(), times(1)).findAllSearchTerms();
+    verify(getMockRepository(), times(1)).exists(model.getId(), model.getName());
+    verify(getMockRepository(), times(1)).add(model);
+    verify(getMockRepository(), times(1)).findAll(Arrays.asList(ID));
+    verifyNoMoreInteractions(getMockRepository());
+
+    assertThat(actual, is(models));
+  }
+
+  /**
+   * Test method for {@link TypeService#refreshSearchIndex()} after a change of several types.
+   */
+  @Test
+  public void testRefreshSearchIndexAfterBulkChange() {
+    final Type model = this.buildTestEntity();
+    final List<Object[]> terms = new ArrayList<>();
+    terms.add(new Object[] {model.getId(), model.getName()});
+    when(getMockRepository().findAllSearchTerms()).thenReturn(new ArrayList<>(), terms);
+
+    getService().buildSearchIndex();
+    getService().refreshSearchIndex();
+    assertTrue(getService().findAllByName(DISPLAYNAME).isEmpty());
+
+    getService().onEntityChanged(new EntityChangedEvent(this, Type.class, null));
+    getService().refreshSearchIndex();
+
+    final List<Type> models = Arrays.asList(model);
+    when(getMockRepository().findAll(Arrays.asList(ID))).thenReturn(models);
+
+    final List<Type> actual = getService().findAllByName(DISPLAYNAME);
+
+    verify(getMockRepository(), times(2)).findAllSearchTerms();
+    verify(getMockRepository(), times(1)).findAll(Arrays.asList(ID));
+    verifyNoMoreInteractions(getMockRepository());
+
+    assertThat(actual, is(models));
+  }
+
+  /**
+   * Test method for {@link TypeService#refreshSearchIndex()} after a type is changed elsewhere.
+   */
+  @Test
+  public void testRefreshSearchIndexAfterChange() {
+    final Type model = this.buildTestEntity();
+    final List<Object[]> terms = new ArrayList<>();
+    terms.add(new Object[] {model.getId(), model.getName()});
+    when(getMockRepository().findAllSearchTerms()).thenReturn(terms);
+    when(getMockRepository().findAll(Arrays.asList(ID))).thenReturn(new ArrayList<>());
+
+    getService().buildSearchIndex();
+    getService().onEntityChanged(new EntityChangedEvent(this, Type.class, ID));
+    getService().refreshSearchIndex();
+
+    final List<Type> actual = getService().findAllByName(DISPLAYNAME);
+
+    verify(getMockRepository(), times(1)).findAllSearchTerms();
+    verify(getMockRepository(), times(1)).findAll(Arrays.asList(ID));
+    verifyNoMoreInteractions(getMockRepository());
+
+    assertTrue(actual.isEmpty());
+  }
+
 }
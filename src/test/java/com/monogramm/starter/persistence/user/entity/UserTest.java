@@ -183,6 +183,7 @@ public class UserTest extends AbstractGenericEntityTest<User> {
     final String username = "TEST";
     this.getEntity().setUsername(username);
     assertEquals(username, this.getEntity().getUsername());
+    assertEquals("test", this.getEntity().getUsernameNormalized());
   }
 
   /**
@@ -202,6 +203,7 @@ public class UserTest extends AbstractGenericEntityTest<User> {
     final String email = "TEST@EMAIL.COM";
     this.getEntity().setEmail(email);
     assertEquals(email, this.getEntity().getEmail());
+    assertEquals("test@email.com", this.getEntity().getEmailNormalized());
     assertFalse(this.getEntity().isVerified());
 
     final String newEmail = "NEWTEST@EMAIL.COM";
@@ -211,6 +213,30 @@ public class UserTest extends AbstractGenericEntityTest<User> {
     assertFalse(this.getEntity().isVerified());
   }
 
+  /**
+   * Test method for {@link User#normalize(String)}.
+   */
+  @Test
+  public void testNormalize() {
+    assertNull(User.normalize(null));
+    assertEquals("foo@email.com", User.normalize("Foo@Email.COM"));
+  }
+
+  /**
+   * Test method for {@link User#preNormalize()}.
+   */
+  @Test
+  public void testPreNormalize() {
+    final User test = new User(USERNAME, EMAIL);
+    assertEquals("foo", test.getUsernameNormalized());
+    assertEquals(EMAIL, test.getEmailNormalized());
+
+    test.setUsername(null);
+    test.preNormalize();
+    assertNull(test.getUsernameNormalized());
+    assertEquals(EMAIL, test.getEmailNormalized());
+  }
+
   /**
    * Test method for {@link User#getPassword()}.
    */
@@ -5,9 +5,13 @@
 package com.monogramm.starter.persistence.user.service;
 
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -21,6 +25,7 @@ import com.monogramm.starter.persistence.user.dao.IUserRepository;
 import com.monogramm.starter.persistence.user.entity.PasswordResetToken;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.exception.PasswordResetTokenNotFoundException;
+import com.monogramm.starter.persistence.user.exception.UserNotFoundException;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -46,6 +51,8 @@ public class PasswordResetTokenServiceTest extends
   private static final Date DUMMY_EXPIRY_DATE = new Date();
   private static final UUID USER_ID = UUID.randomUUID();
   private static final User USER = User.builder().id(USER_ID).build();
+  private static final String EMAIL = "foo@email.com";
+  private static final String PASSWORD_HASH = "hash";
 
   private IPasswordResetTokenRepository passwordResetTokenDao;
   private IUserRepository userDao;
@@ -342,4 +349,77 @@ public class PasswordResetTokenServiceTest extends
     service.deleteById(ID);
   }
 
+  /**
+   * Test method for {@link PasswordResetTokenService#deleteExpired(Date, int)}.
+   */
+  @Test
+  public void testDeleteExpired() {
+    final Date now = new Date();
+    when(passwordResetTokenDao.deleteExpired(now, 10)).thenReturn(3);
+
+    assertThat(service.deleteExpired(now, 10), is(3));
+
+    verify(passwordResetTokenDao, times(1)).deleteExpired(now, 10);
+    verifyNoMoreInteractions(passwordResetTokenDao);
+  }
+
+  /**
+   * Test method for {@link PasswordResetTokenService#isValid(String, String)}.
+   */
+  @Test
+  public void testIsValid() {
+    when(passwordResetTokenDao.isValid(eq(EMAIL), eq(TOKEN), any(Date.class))).thenReturn(true);
+
+    assertTrue(service.isValid(EMAIL, TOKEN));
+    assertFalse(service.isValid(EMAIL, "unknown"));
+
+    verify(passwordResetTokenDao, times(1)).isValid(eq(EMAIL), eq(TOKEN), any(Date.class));
+    verify(passwordResetTokenDao, times(1)).isValid(eq(EMAIL), eq("unknown"), any(Date.class));
+    verifyNoMoreInteractions(passwordResetTokenDao);
+    verifyNoMoreInteractions(userDao);
+  }
+
+  /**
+   * Test method for {@link PasswordResetTokenService#consume(String, String, String)}.
+   */
+  @Test
+  public void testConsume() {
+    when(passwordResetTokenDao.consume(eq(EMAIL), eq(TOKEN), any(Date.class))).thenReturn(1);
+    when(userDao.setPasswordHashByEmail(EMAIL, PASSWORD_HASH)).thenReturn(1);
+
+    assertTrue(service.consume(EMAIL, TOKEN, PASSWORD_HASH));
+
+    verify(passwordResetTokenDao, times(1)).consume(eq(EMAIL), eq(TOKEN), any(Date.class));
+    verifyNoMoreInteractions(passwordResetTokenDao);
+    verify(userDao, times(1)).setPasswordHashByEmail(EMAIL, PASSWORD_HASH);
+    verifyNoMoreInteractions(userDao);
+  }
+
+  /**
+   * Test method for {@link PasswordResetTokenService#consume(String, String, String)}.
+   */
+  @Test
+  public void testConsumeInvalid() {
+    when(passwordResetTokenDao.consume(eq(EMAIL), eq(TOKEN), any(Date.class))).thenReturn(0);
+
+    assertFalse(service.consume(EMAIL, TOKEN, PASSWORD_HASH));
+
+    verify(passwordResetTokenDao, times(1)).consume(eq(EMAIL), eq(TOKEN), any(Date.class));
+    verifyNoMoreInteractions(passwordResetTokenDao);
+    verifyNoMoreInteractions(userDao);
+  }
+
+  /**
+   * Test method for {@link PasswordResetTokenService#consume(String, String, String)}.
+   * 
+   * @throws UserNotFoundException if the user of the token is not found.
+   */
+  @Test(expected = UserNotFoundException.class)
+  public void testConsumeUserNotFound() {
+    when(passwordResetTokenDao.consume(eq(EMAIL), eq(TOKEN), any(Date.class))).thenReturn(1);
+    when(userDao.setPasswordHashByEmail(EMAIL, PASSWORD_HASH)).thenReturn(0);
+
+    service.consume(EMAIL, TOKEN, PASSWORD_HASH);
+  }
+
 }
@@ -11,23 +11,29 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import com.github.madmath03.password.Passwords;
 import com.monogramm.starter.dto.user.RegistrationDto;
 import com.monogramm.starter.dto.user.UserDto;
 import com.monogramm.starter.persistence.AbstractGenericServiceTest;
+import com.monogramm.starter.persistence.EntityChangedEvent;
 import com.monogramm.starter.persistence.EntityNotFoundException;
 import com.monogramm.starter.persistence.role.dao.IRoleRepository;
+import com.monogramm.starter.persistence.role.entity.Role;
 import com.monogramm.starter.persistence.role.exception.RoleNotFoundException;
 import com.monogramm.starter.persistence.user.dao.IUserRepository;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.exception.UserNotFoundException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
@@ -36,6 +42,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 
 /**
  * {@link UserService} Unit Test.
@@ -238,6 +245,35 @@ public class UserServiceTest extends AbstractGenericServiceTest<User, UserDto, U
     assertThat(actual, is(models));
   }
 
+  /**
+   * Test method for
+   * {@link UserService#findAllContainingUsernameOrEmail(java.lang.String, java.lang.String)}
+   * through the search index.
+   */
+  @Test
+  public void testFindAllByUsernameOrEmailSearchIndex() {
+    final User model = this.buildTestEntity();
+    final User other = User.builder("bar", "bar@foo.com").id(UUID.randomUUID()).build();
+    final List<Object[]> terms = new ArrayList<>();
+    terms.add(new Object[] {model.getId(), model.getUsername(), model.getEmail()});
+    terms.add(new Object[] {other.getId(), other.getUsername(), other.getEmail()});
+    when(getMockRepository().findAllSearchTerms()).thenReturn(terms);
+
+    getService().buildSearchIndex();
+
+    // Exact username match ranks before a match in the middle of an email
+    final List<UUID> ids = Arrays.asList(model.getId(), other.getId());
+    when(getMockRepository().findAll(ids)).thenReturn(Arrays.asList(other, model));
+
+    final List<User> actual = getService().findAllContainingUsernameOrEmail("FOO", "foo");
+
+    verify(getMockRepository(), times(1)).findAllSearchTerms();
+    verify(getMockRepository(), times(1)).findAll(ids);
+    verifyNoMoreInteractions(getMockRepository());
+
+    assertThat(actual, is(Arrays.asList(model, other)));
+  }
+
   /**
    * Test method for {@link UserService#findByUsername(String)}.
    * 
@@ -410,16 +446,14 @@ public class UserServiceTest extends AbstractGenericServiceTest<User, UserDto, U
    */
   @Test
   public void testSetPassword() {
-    final User model = this.buildTestEntity();
-
-    when(getMockRepository().setPassword(ID, password)).thenReturn(model);
+    when(getMockRepository().setPassword(ID, password, null)).thenReturn(1);
 
-    final User actual = getService().setPassword(ID, password);
+    final int actual = getService().setPassword(ID, password);
 
-    verify(getMockRepository(), times(1)).setPassword(ID, password);
+    verify(getMockRepository(), times(1)).setPassword(ID, password, null);
     verifyNoMoreInteractions(getMockRepository());
 
-    assertThat(actual, is(model));
+    assertEquals(1, actual);
   }
 
   /**
@@ -429,7 +463,7 @@ public class UserServiceTest extends AbstractGenericServiceTest<User, UserDto, U
    */
   @Test(expected = UserNotFoundException.class)
   public void testSetPasswordNotFound() {
-    when(getMockRepository().setPassword(ID, password)).thenReturn(null);
+    when(getMockRepository().setPassword(ID, password, null)).thenReturn(0);
 
     getService().setPassword(ID, password);
   }
@@ -441,7 +475,8 @@ public class UserServiceTest extends AbstractGenericServiceTest<User, UserDto, U
    */
   @Test(expected = UserNotFoundException.class)
   public void testSetPasswordNotFoundException() {
-    when(getMockRepository().setPassword(ID, password)).thenThrow(new UserNotFoundException());
+    when(getMockRepository().setPassword(ID, password, null))
+        .thenThrow(new UserNotFoundException());
 
     getService().setPassword(ID, password);
   }
@@ -453,16 +488,14 @@ public class UserServiceTest extends AbstractGenericServiceTest<User, UserDto, U
    */
   @Test
   public void testSetEnabled() {
-    final User model = this.buildTestEntity();
-
-    when(getMockRepository().setEnabled(ID, false)).thenReturn(model);
+    when(getMockRepository().setEnabled(ID, false, null)).thenReturn(1);
 
-    final User actual = getService().setEnabled(ID, false);
+    final int actual = getService().setEnabled(ID, false);
 
-    verify(getMockRepository(), times(1)).setEnabled(ID, false);
+    verify(getMockRepository(), times(1)).setEnabled(ID, false, null);
     verifyNoMoreInteractions(getMockRepository());
 
-    assertThat(actual, is(model));
+    assertEquals(1, actual);
   }
 
   /**
@@ -472,7 +505,7 @@ public class UserServiceTest extends AbstractGenericServiceTest<User, UserDto, U
    */
   @Test(expected = UserNotFoundException.class)
   public void testSetEnabledNotFound() {
-    when(getMockRepository().setEnabled(ID, false)).thenReturn(null);
+    when(getMockRepository().setEnabled(ID, false, null)).thenReturn(0);
 
     getService().setEnabled(ID, false);
   }
@@ -484,7 +517,7 @@ public class UserServiceTest extends AbstractGenericServiceTest<User, UserDto, U
    */
   @Test(expected = UserNotFoundException.class)
   public void testSetEnabledNotFoundException() {
-    when(getMockRepository().setEnabled(ID, false)).thenThrow(new UserNotFoundException());
+    when(getMockRepository().setEnabled(ID, false, null)).thenThrow(new UserNotFoundException());
 
     getService().setEnabled(ID, false);
   }
@@ -496,16 +529,14 @@ public class UserServiceTest extends AbstractGenericServiceTest<User, UserDto, U
    */
   @Test
   public void testEnable() {
-    final User model = this.buildTestEntity();
-
-    when(getMockRepository().setEnabled(ID, true)).thenReturn(model);
+    when(getMockRepository().setEnabled(ID, true, null)).thenReturn(1);
 
-    final User actual = getService().enable(ID);
+    final int actual = getService().enable(ID);
 
-    verify(getMockRepository(), times(1)).setEnabled(ID, true);
+    verify(getMockRepository(), times(1)).setEnabled(ID, true, null);
     verifyNoMoreInteractions(getMockRepository());
 
-    assertThat(actual, is(model));
+    assertEquals(1, actual);
   }
 
   /**
@@ -515,7 +546,7 @@ public class UserServiceTest extends AbstractGenericServiceTest<User, UserDto, U
    */
   @Test(expected = UserNotFoundException.class)
   public void testEnableNotFound() {
-    when(getMockRepository().setEnabled(ID, true)).thenReturn(null);
+    when(getMockRepository().setEnabled(ID, true, null)).thenReturn(0);
 
     getService().enable(ID);
   }
@@ -527,7 +558,7 @@ public class UserServiceTest extends AbstractGenericServiceTest<User, UserDto, U
    */
   @Test(expected = UserNotFoundException.class)
   public void testEnableNotFoundException() {
-    when(getMockRepository().setEnabled(ID, true)).thenThrow(new UserNotFoundException());
+    when(getMockRepository().setEnabled(ID, true, null)).thenThrow(new UserNotFoundException());
 
     getService().enable(ID);
   }
@@ -612,16 +643,14 @@ public class UserServiceTest extends AbstractGenericServiceTest<User, UserDto, U
    */
   @Test
   public void testVerify() {
-    final User model = this.buildTestEntity();
+    when(getMockRepository().setVerified(ID, true, null)).thenReturn(1);
 
-    when(getMockRepository().setVerified(ID, true)).thenReturn(model);
+    final int actual = getService().verify(ID);
 
-    final User actual = getService().verify(ID);
-
-    verify(getMockRepository(), times(1)).setVerified(ID, true);
+    verify(getMockRepository(), times(1)).setVerified(ID, true, null);
     verifyNoMoreInteractions(getMockRepository());
 
-    assertThat(actual, is(model));
+    assertEquals(1, actual);
   }
 
   /**
@@ -631,7 +660,7 @@ public class UserServiceTest extends AbstractGenericServiceTest<User, UserDto, U
    */
   @Test(expected = UserNotFoundException.class)
   public void testVerifyNotFound() {
-    when(getMockRepository().setVerified(ID, true)).thenReturn(null);
+    when(getMockRepository().setVerified(ID, true, null)).thenReturn(0);
 
     getService().verify(ID);
   }
@@ -643,9 +672,243 @@ public class UserServiceTest extends AbstractGenericServiceTest<User, UserDto, U
    */
   @Test(expected = UserNotFoundException.class)
   public void testVerifyNotFoundException() {
-    when(getMockRepository().setVerified(ID, true)).thenThrow(new UserNotFoundException());
+    when(getMockRepository().setVerified(ID, true, null)).thenThrow(new UserNotFoundException());
 
     getService().verify(ID);
   }
 
+  /**
+   * Test method for {@link UserService#setEnabled(java.util.Collection, boolean)}.
+   */
+  @Test
+  public void testSetEnabledCollection() {
+    final List<UUID> ids = Arrays.asList(ID, UUID.randomUUID());
+    when(getMockRepository().setEnabled(ids, false, null)).thenReturn(1);
+
+    final int actual = getService().setEnabled(ids, false);
+
+    verify(getMockRepository(), times(1)).setEnabled(ids, false, null);
+    verifyNoMoreInteractions(getMockRepository());
+
+    assertEquals(1, actual);
+  }
+
+  /**
+   * Test method for {@link UserService#setEnabled(java.util.Collection, boolean)}.
+   */
+  @Test
+  public void testSetEnabledCollectionEmpty() {
+    assertEquals(0, getService().setEnabled(new ArrayList<UUID>(), false));
+    assertEquals(0, getService().setEnabled((List<UUID>) null, false));
+
+    verifyNoMoreInteractions(getMockRepository());
+  }
+
+  /**
+   * Test method for {@link UserService#setVerified(java.util.Collection, boolean)}.
+   */
+  @Test
+  public void testSetVerifiedCollection() {
+    final List<UUID> ids = Arrays.asList(ID, UUID.randomUUID());
+    when(getMockRepository().setVerified(ids, true, null)).thenReturn(2);
+
+    final int actual = getService().setVerified(ids, true);
+
+    verify(getMockRepository(), times(1)).setVerified(ids, true, null);
+    verifyNoMoreInteractions(getMockRepository());
+
+    assertEquals(2, actual);
+  }
+
+  /**
+   * Test method for {@link UserService#findAllByRole(UUID, UUID, int)}.
+   */
+  @Test
+  public void testFindAllByRole() {
+    final UUID roleId = UUID.randomUUID();
+    final List<User> users = new ArrayList<>();
+    when(roleDao.exists(roleId)).thenReturn(true);
+    when(getMockRepository().findAllByRole(roleId, ID, 10)).thenReturn(users);
+
+    final List<User> actual = getService().findAllByRole(roleId, ID, 10);
+
+    verify(getMockRepository(), times(1)).findAllByRole(roleId, ID, 10);
+    verifyNoMoreInteractions(getMockRepository());
+
+    assertThat(actual, is(users));
+  }
+
+  /**
+   * Test method for {@link UserService#findAllByRole(UUID, UUID, int)}.
+   */
+  @Test(expected = RoleNotFoundException.class)
+  public void testFindAllByRoleNotFound() {
+    final UUID roleId = UUID.randomUUID();
+    when(roleDao.exists(roleId)).thenReturn(false);
+
+    getService().findAllByRole(roleId, null, 10);
+  }
+
+  /**
+   * Test method for {@link UserService#countByRole(UUID)}.
+   */
+  @Test
+  public void testCountByRole() {
+    final UUID roleId = UUID.randomUUID();
+    when(roleDao.exists(roleId)).thenReturn(true);
+    when(getMockRepository().countByRole(roleId)).thenReturn(42L);
+
+    assertEquals(42L, getService().countByRole(roleId));
+
+    verify(getMockRepository(), times(1)).countByRole(roleId);
+    verifyNoMoreInteractions(getMockRepository());
+  }
+
+  /**
+   * Test method for {@link UserService#addToRole(UUID, java.util.Collection)}.
+   */
+  @Test
+  public void testAddToRole() {
+    final Role role = Role.builder("Foo").id(UUID.randomUUID()).build();
+    final List<UUID> ids = Arrays.asList(ID, UUID.randomUUID());
+    when(roleDao.exists(role.getId())).thenReturn(true);
+    when(roleDao.getOne(role.getId())).thenReturn(role);
+    when(getMockRepository().setRole(ids, role, null)).thenReturn(2);
+
+    final int actual = getService().addToRole(role.getId(), ids);
+
+    verify(getMockRepository(), times(1)).setRole(ids, role, null);
+    verifyNoMoreInteractions(getMockRepository());
+
+    assertEquals(2, actual);
+  }
+
+  /**
+   * Test method for {@link UserService#addToRole(UUID, java.util.Collection)}.
+   */
+  @Test(expected = RoleNotFoundException.class)
+  public void testAddToRoleNotFound() {
+    final UUID roleId = UUID.randomUUID();
+    when(roleDao.exists(roleId)).thenReturn(false);
+
+    getService().addToRole(roleId, Arrays.asList(ID));
+  }
+
+  /**
+   * Test method for {@link UserService#addToRole(UUID, java.util.Collection)}.
+   */
+  @Test
+  public void testAddToRoleEmpty() {
+    final UUID roleId = UUID.randomUUID();
+    when(roleDao.exists(roleId)).thenReturn(true);
+
+    assertEquals(0, getService().addToRole(roleId, new ArrayList<UUID>()));
+    assertEquals(0, getService().addToRole(roleId, null));
+
+    verifyNoMoreInteractions(getMockRepository());
+  }
+
+  /**
+   * Test method for {@link UserService#removeFromRole(UUID, java.util.Collection)}.
+   */
+  @Test
+  public void testRemoveFromRole() {
+    final Role role = Role.builder("Foo").id(UUID.randomUUID()).build();
+    final List<UUID> ids = Arrays.asList(ID, UUID.randomUUID());
+    when(roleDao.exists(role.getId())).thenReturn(true);
+    when(roleDao.getOne(role.getId())).thenReturn(role);
+    when(getMockRepository().unsetRole(ids, role, null)).thenReturn(1);
+
+    final int actual = getService().removeFromRole(role.getId(), ids);
+
+    verify(getMockRepository(), times(1)).unsetRole(ids, role, null);
+    verifyNoMoreInteractions(getMockRepository());
+
+    assertEquals(1, actual);
+  }
+
+  /**
+   * Test method for {@link UserService#removeFromRole(UUID, java.util.Collection)}.
+   */
+  @Test(expected = RoleNotFoundException.class)
+  public void testRemoveFromRoleNotFound() {
+    final UUID roleId = UUID.randomUUID();
+    when(roleDao.exists(roleId)).thenReturn(false);
+
+    getService().removeFromRole(roleId, Arrays.asList(ID));
+  }
+
+  /**
+   * Test method for {@link UserService#hashPassword(char[])}.
+   */
+  @Test
+  public void testHashPassword() {
+    final String actual = getService().hashPassword(password.clone());
+
+    assertNotNull(actual);
+    assertTrue(Passwords.isExpectedPassword(new String(password), actual));
+    verifyNoMoreInteractions(getMockRepository());
+  }
+
+  /**
+   * Test method for {@link UserService#hashPassword(char[])}.
+   */
+  @Test
+  public void testHashPasswordNull() {
+    assertNull(getService().hashPassword(null));
+  }
+
+  /**
+   * Test method for {@link UserService#findWithAuthoritiesByEmail(String)}.
+   */
+  @Test
+  public void testFindWithAuthoritiesByEmail() {
+    final User model = this.buildTestEntity();
+
+    when(getMockRepository().findWithAuthoritiesByEmailIgnoreCase(EMAIL)).thenReturn(model);
+
+    final User actual = getService().findWithAuthoritiesByEmail(EMAIL);
+
+    verify(getMockRepository(), times(1)).findWithAuthoritiesByEmailIgnoreCase(EMAIL);
+    verifyNoMoreInteractions(getMockRepository());
+
+    assertThat(actual, is(model));
+  }
+
+  /**
+   * Test method for {@link UserService#setEnabled(UUID, boolean)}.
+   */
+  @Test
+  public void testSetEnabledPublishesChange() {
+    final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    getService().setApplicationEventPublisher(eventPublisher);
+    when(getMockRepository().setEnabled(ID, false, null)).thenReturn(1);
+
+    getService().setEnabled(ID, false);
+
+    final ArgumentCaptor<EntityChangedEvent> event =
+        ArgumentCaptor.forClass(EntityChangedEvent.class);
+    verify(eventPublisher, times(1)).publishEvent(event.capture());
+    assertTrue(event.getValue().isAbout(User.class));
+    assertEquals(ID, event.getValue().getEntityId());
+  }
+
+  /**
+   * Test method for {@link UserService#setEnabled(UUID, boolean)}.
+   */
+  @Test
+  public void testSetEnabledNotFoundPublishesNothing() {
+    final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    getService().setApplicationEventPublisher(eventPublisher);
+    when(getMockRepository().setEnabled(ID, false, null)).thenReturn(0);
+
+    try {
+      getService().setEnabled(ID, false);
+    } catch (UserNotFoundException e) {
+      // Expected
+    }
+
+    verify(eventPublisher, never()).publishEvent(any(EntityChangedEvent.class));
+  }
+
 }
@@ -5,9 +5,13 @@
 package com.monogramm.starter.persistence.user.service;
 
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -20,6 +24,7 @@ import com.monogramm.starter.persistence.user.dao.IUserRepository;
 import com.monogramm.starter.persistence.user.dao.IVerificationTokenRepository;
 import com.monogramm.starter.persistence.user.entity.User;
 import com.monogramm.starter.persistence.user.entity.VerificationToken;
+import com.monogramm.starter.persistence.user.exception.UserNotFoundException;
 import com.monogramm.starter.persistence.user.exception.VerificationTokenNotFoundException;
 
 import java.util.ArrayList;
@@ -355,4 +360,64 @@ public class VerificationTokenServiceTest
     service.deleteById(ID);
   }
 
+  /**
+   * Test method for {@link VerificationTokenService#deleteExpired(Date, int)}.
+   */
+  @Test
+  public void testDeleteExpired() {
+    final Date now = new Date();
+    when(verificationTokenDao.deleteExpired(now, 10)).thenReturn(3);
+
+    assertThat(service.deleteExpired(now, 10), is(3));
+
+    verify(verificationTokenDao, times(1)).deleteExpired(now, 10);
+    verifyNoMoreInteractions(verificationTokenDao);
+  }
+
+  /**
+   * Test method for {@link VerificationTokenService#consume(UUID, String)}.
+   */
+  @Test
+  public void testConsume() {
+    final User user = User.builder().id(USER_ID).build();
+    when(verificationTokenDao.consume(eq(USER_ID), eq(TOKEN), any(Date.class))).thenReturn(1);
+    when(userDao.getOne(USER_ID)).thenReturn(user);
+    when(userDao.setVerified(USER_ID, true, user)).thenReturn(1);
+
+    assertTrue(service.consume(USER_ID, TOKEN));
+
+    verify(verificationTokenDao, times(1)).consume(eq(USER_ID), eq(TOKEN), any(Date.class));
+    verifyNoMoreInteractions(verificationTokenDao);
+    verify(userDao, times(1)).getOne(USER_ID);
+    verify(userDao, times(1)).setVerified(USER_ID, true, user);
+    verifyNoMoreInteractions(userDao);
+  }
+
+  /**
+   * Test method for {@link VerificationTokenService#consume(UUID, String)}.
+   */
+  @Test
+  public void testConsumeInvalid() {
+    when(verificationTokenDao.consume(eq(USER_ID), eq(TOKEN), any(Date.class))).thenReturn(0);
+
+    assertFalse(service.consume(USER_ID, TOKEN));
+
+    verify(verificationTokenDao, times(1)).consume(eq(USER_ID), eq(TOKEN), any(Date.class));
+    verifyNoMoreInteractions(verificationTokenDao);
+    verifyNoMoreInteractions(userDao);
+  }
+
+  /**
+   * Test method for {@link VerificationTokenService#consume(UUID, String)}.
+   * 
+   * @throws UserNotFoundException if the user of the token is not found.
+   */
+  @Test(expected = UserNotFoundException.class)
+  public void testConsumeUserNotFound() {
+    when(verificationTokenDao.consume(eq(USER_ID), eq(TOKEN), any(Date.class))).thenReturn(1);
+    when(userDao.setVerified(USER_ID, true, null)).thenReturn(0);
+
+    service.consume(USER_ID, TOKEN);
+  }
+
 }
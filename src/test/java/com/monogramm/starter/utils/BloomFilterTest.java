@@ -0,0 +1,94 @@
+/*
+ * Creation by madmath03 the 2018-02-11.
+ */
+
+package com.monogramm.starter.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * {@link BloomFilter} Unit Test.
+ * 
+ * @author madmath03
+ */
+public class BloomFilterTest {
+
+  private static final int EXPECTED_INSERTIONS = 10_000;
+  private static final double FALSE_POSITIVE_RATE = 0.01D;
+
+  /**
+   * Test method for {@link BloomFilter#BloomFilter(int, double)}.
+   */
+  @Test
+  public void testBloomFilter() {
+    final BloomFilter filter = new BloomFilter(EXPECTED_INSERTIONS, FALSE_POSITIVE_RATE);
+
+    // About 9.6 bits and 7 hash functions per insertion for a 1% false positive rate
+    assertEquals(95_872L, filter.getBitSize());
+    assertEquals(7, filter.getHashFunctions());
+  }
+
+  /**
+   * Test method for {@link BloomFilter#BloomFilter(int, double)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBloomFilterExpectedInsertions() {
+    new BloomFilter(0, FALSE_POSITIVE_RATE);
+  }
+
+  /**
+   * Test method for {@link BloomFilter#BloomFilter(int, double)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBloomFilterFalsePositiveRate() {
+    new BloomFilter(EXPECTED_INSERTIONS, 1D);
+  }
+
+  /**
+   * Test method for {@link BloomFilter#mightContain(String)}.
+   */
+  @Test
+  public void testMightContain() {
+    final BloomFilter filter = new BloomFilter(EXPECTED_INSERTIONS, FALSE_POSITIVE_RATE);
+    assertFalse(filter.mightContain("jti"));
+
+    filter.put("jti");
+
+    assertTrue(filter.mightContain("jti"));
+    assertTrue(filter.mightContain(new String("jti")));
+  }
+
+  /**
+   * Test method for {@link BloomFilter#mightContain(String)}.
+   */
+  @Test
+  public void testMightContainFalsePositiveRate() {
+    final BloomFilter filter = new BloomFilter(EXPECTED_INSERTIONS, FALSE_POSITIVE_RATE);
+    final String[] added = new String[EXPECTED_INSERTIONS];
+    for (int i = 0; i < EXPECTED_INSERTIONS; i++) {
+      added[i] = UUID.randomUUID().toString();
+      filter.put(added[i]);
+    }
+
+    // Never any false negative
+    for (final String value : added) {
+      assertTrue(filter.mightContain(value));
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < EXPECTED_INSERTIONS; i++) {
+      if (filter.mightContain(UUID.randomUUID().toString())) {
+        falsePositives++;
+      }
+    }
+    assertTrue("False positives: " + falsePositives,
+        falsePositives < 2 * FALSE_POSITIVE_RATE * EXPECTED_INSERTIONS);
+  }
+
+}